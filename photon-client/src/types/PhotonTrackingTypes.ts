@@ -72,6 +72,9 @@ export interface PipelineResult {
   latency: number;
   // Focus pipeline
   focus?: number;
+  focusPeak?: number;
+  // Every frame's score, oldest first
+  focusHistory?: number[];
   targets: PhotonTarget[];
   // undefined if multitag failed or non-tag pipeline
   multitagResult?: MultitagResult;
@@ -5,6 +5,7 @@ import type { ObjectDetectionModelProperties } from "@/types/SettingTypes";
  * The on-wire form of PipelineType.java (the enum is serialized with `ordinal()`)
  */
 export enum PipelineType {
+  FocusCamera = 0,
   Calibration3d = 1,
   DriverMode = 2,
   Reflective = 3,
@@ -126,6 +127,13 @@ export interface PipelineSettings {
   hsvSaturation: WebsocketNumberPair | [number, number];
   pipelineType: PipelineType;
   contourIntersection: ContourIntersection;
+  targetTracking: boolean;
+
+  frameBudgetGovernor: boolean;
+  governorTargetFps: number;
+  governorMaxTemperature: number;
+  // An ordinal of FrameDivisor.java, like streamingFrameDivisor
+  governorMaxStreamDivisor: number;
 
   cameraAutoWhiteBalance: boolean;
   cameraWhiteBalanceTemp: number;
@@ -195,6 +203,11 @@ export const DefaultPipelineSettings: Omit<
   cornerDetectionAccuracyPercentage: 10,
   hsvSaturation: { first: 50, second: 255 },
   contourIntersection: ContourIntersection.Up,
+  targetTracking: false,
+  frameBudgetGovernor: false,
+  governorTargetFps: 30,
+  governorMaxTemperature: 80,
+  governorMaxStreamDivisor: 2,
   cameraAutoWhiteBalance: false,
   cameraWhiteBalanceTemp: 4000,
   cameraMinExposureRaw: 1,
@@ -236,6 +249,7 @@ export interface ColoredShapePipelineSettings extends PipelineSettings {
   contourPerimeter: WebsocketNumberPair | [number, number];
   minDist: number;
   maxCannyThresh: number;
+  circleDetectionRoi: boolean;
 }
 export type ConfigurableColoredShapePipelineSettings = Partial<
   Omit<ColoredShapePipelineSettings, "pipelineType" | "erode" | "cameraCalibration" | "dilate" | "minDist">
@@ -260,7 +274,8 @@ export const DefaultColoredShapePipelineSettings: ColoredShapePipelineSettings =
   contourShape: ContourShape.Triangle,
   contourPerimeter: { first: 0, second: 1.7976931348623157e308 },
   minDist: 20,
-  maxCannyThresh: 90
+  maxCannyThresh: 90,
+  circleDetectionRoi: false
 };
 
 export interface AprilTagPipelineSettings extends PipelineSettings {
@@ -271,11 +286,15 @@ export interface AprilTagPipelineSettings extends PipelineSettings {
   blur: number;
   decisionMargin: number;
   refineEdges: boolean;
+  refineCornersFullRes: boolean;
   debug: boolean;
   threads: number;
   tagFamily: AprilTagFamily;
   doMultiTarget: boolean;
   doSingleTargetAlways: boolean;
+  multiTargetWarmStart: boolean;
+  governorMaxDecimate: number;
+  governorMaxThreads: number;
 }
 export type ConfigurableAprilTagPipelineSettings = Partial<
   Omit<AprilTagPipelineSettings, "pipelineType" | "hammingDist" | "debug">
@@ -295,11 +314,15 @@ export const DefaultAprilTagPipelineSettings: AprilTagPipelineSettings = {
   blur: 0,
   decisionMargin: 35,
   refineEdges: true,
+  refineCornersFullRes: false,
   debug: false,
   threads: 4,
   tagFamily: AprilTagFamily.Family36h11,
   doMultiTarget: false,
-  doSingleTargetAlways: false
+  doSingleTargetAlways: false,
+  multiTargetWarmStart: false,
+  governorMaxDecimate: 3,
+  governorMaxThreads: 4
 };
 
 export interface ArucoPipelineSettings extends PipelineSettings {
@@ -320,6 +343,7 @@ export interface ArucoPipelineSettings extends PipelineSettings {
 
   doMultiTarget: boolean;
   doSingleTargetAlways: boolean;
+  multiTargetWarmStart: boolean;
 }
 export type ConfigurableArucoPipelineSettings = Partial<Omit<ArucoPipelineSettings, "pipelineType">> &
   ConfigurablePipelineSettings;
@@ -342,7 +366,8 @@ export const DefaultArucoPipelineSettings: ArucoPipelineSettings = {
   aruco3MinMarkerSideRatio: 0.02,
   aruco3MinCanonicalImgSide: 32,
   doMultiTarget: false,
-  doSingleTargetAlways: false
+  doSingleTargetAlways: false,
+  multiTargetWarmStart: false
 };
 
 export interface ObjectDetectionPipelineSettings extends PipelineSettings {
@@ -351,6 +376,12 @@ export interface ObjectDetectionPipelineSettings extends PipelineSettings {
   nms: number;
   box_thresh: number;
   model: ObjectDetectionModelProperties;
+  classConfidence: Record<string, number>;
+  maxDetections: number;
+  asyncInference: boolean;
+  inferenceDepth: number;
+  trackDetections: boolean;
+  detectionInterval: number;
 }
 
 export type ConfigurableObjectDetectionPipelineSettings = Partial<
@@ -368,7 +399,13 @@ export const DefaultObjectDetectionPipelineSettings: ObjectDetectionPipelineSett
   confidence: 0.9,
   nms: 0.45,
   box_thresh: 0.25,
-  model: {} as ObjectDetectionModelProperties
+  model: {} as ObjectDetectionModelProperties,
+  classConfidence: {},
+  maxDetections: 100,
+  asyncInference: false,
+  inferenceDepth: 1,
+  trackDetections: false,
+  detectionInterval: 4
 };
 
 export interface Calibration3dPipelineSettings extends PipelineSettings {
@@ -388,13 +425,26 @@ export const DefaultCalibration3dPipelineSettings: Calibration3dPipelineSettings
   drawAllSnapshots: false
 };
 
+export interface FocusPipelineSettings extends PipelineSettings {
+  pipelineType: PipelineType.FocusCamera;
+  // The part of the image scored, as fractions of its width and height
+  focusRoiX: number;
+  focusRoiY: number;
+  focusRoiWidth: number;
+  focusRoiHeight: number;
+  focusDecimate: number;
+}
+export type ConfigurableFocusPipelineSettings = Partial<Omit<FocusPipelineSettings, "pipelineType">> &
+  ConfigurablePipelineSettings;
+
 export type ActivePipelineSettings =
   | ReflectivePipelineSettings
   | ColoredShapePipelineSettings
   | AprilTagPipelineSettings
   | ArucoPipelineSettings
   | ObjectDetectionPipelineSettings
-  | Calibration3dPipelineSettings;
+  | Calibration3dPipelineSettings
+  | FocusPipelineSettings;
 
 export type ActiveConfigurablePipelineSettings =
   | ConfigurableReflectivePipelineSettings
@@ -402,4 +452,5 @@ export type ActiveConfigurablePipelineSettings =
   | ConfigurableAprilTagPipelineSettings
   | ConfigurableArucoPipelineSettings
   | ConfigurableObjectDetectionPipelineSettings
-  | ConfigurableCalibration3dPipelineSettings;
+  | ConfigurableCalibration3dPipelineSettings
+  | ConfigurableFocusPipelineSettings;
@@ -65,6 +65,8 @@ public class CameraConfiguration {
 
     public DriverModePipelineSettings driveModeSettings = new DriverModePipelineSettings();
 
+    public FrameRecorderSettings recorderSettings = new FrameRecorderSettings();
+
     public CameraConfiguration(PVCameraInfo cameraInfo, String uniqueName, String nickname) {
         this.matchedCameraInfo = cameraInfo;
         this.uniqueName = uniqueName;
@@ -253,6 +255,8 @@ public class CameraConfiguration {
                 + pipelineSettings
                 + ", driveModeSettings="
                 + driveModeSettings
+                + ", recorderSettings="
+                + recorderSettings
                 + "]";
     }
 
@@ -276,4 +280,29 @@ public class CameraConfiguration {
 
         return ret;
     }
+
+    /**
+     * Create a shallow copy of this configuration whose calibrations hold no board observations, for
+     * persisting observations separately from the rest of the config.
+     *
+     * @return The copy. Its calibrations share matrices with ours and must not be released.
+     */
+    public CameraConfiguration withoutCalibrationObservations() {
+        var ret =
+                new CameraConfiguration(
+                        uniqueName,
+                        matchedCameraInfo,
+                        nickname,
+                        deactivated,
+                        cameraQuirks,
+                        FOV,
+                        currentPipelineIndex);
+        ret.streamIndex = streamIndex;
+        ret.pipelineSettings = pipelineSettings;
+        ret.driveModeSettings = driveModeSettings;
+        ret.recorderSettings = recorderSettings;
+        ret.calibrations =
+                calibrations.stream().map(CameraCalibrationCoefficients::withoutObservations).toList();
+        return ret;
+    }
 }
@@ -42,6 +42,17 @@ public final class DatabaseSchema {
         // spotless:on
         // #2 - add column otherpaths_json
         "ALTER TABLE cameras ADD COLUMN otherpaths_json TEXT NOT NULL DEFAULT '[]';",
+        // #3 - move calibration observations out of camera config_json so they can be loaded lazily
+        // spotless:off
+        """
+        CREATE TABLE IF NOT EXISTS calibration_observations (
+         unique_name TINYTEXT NOT NULL,
+         resolution_width INTEGER NOT NULL,
+         resolution_height INTEGER NOT NULL,
+         observations_json mediumtext NOT NULL,
+         PRIMARY KEY (unique_name, resolution_width, resolution_height)
+         );""",
+        // spotless:on
         // add future migrations here
     };
 
@@ -51,6 +62,7 @@ public final class DatabaseSchema {
         // These constants should match the current SQL name of each table
         public static final String GLOBAL = "global";
         public static final String CAMERAS = "cameras";
+        public static final String CALIBRATION_OBSERVATIONS = "calibration_observations";
     }
 
     public final class Columns {
@@ -63,5 +75,10 @@ public final class DatabaseSchema {
         static final String CAM_DRIVERMODE_JSON = "drivermode_json";
         static final String CAM_PIPELINE_JSONS = "pipeline_jsons";
         static final String CAM_OTHERPATHS_JSON = "otherpaths_json";
+
+        static final String OBS_UNIQUE_NAME = "unique_name";
+        static final String OBS_RESOLUTION_WIDTH = "resolution_width";
+        static final String OBS_RESOLUTION_HEIGHT = "resolution_height";
+        static final String OBS_OBSERVATIONS_JSON = "observations_json";
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.configuration;
+
+import io.avaje.jsonb.Json;
+import java.util.Objects;
+
+/** How a camera's {@link org.photonvision.vision.frame.consumer.FrameRecorder} records. */
+@Json
+public class FrameRecorderSettings {
+    /** Off by default, since recording costs memory and a JPEG encode per frame */
+    public boolean enabled = false;
+
+    /** How many seconds before a trigger to keep */
+    public double seconds = 10;
+
+    /** The most memory the recording may use, split between input and output if both are kept */
+    public int maxMegabytes = 32;
+
+    /** Also keep the output stream, with its overlays */
+    public boolean recordOutput = false;
+
+    /** JPEG quality of the recorded frames, 0-100 */
+    public int jpegQuality = 75;
+
+    /** Save a recording whenever a target's pose ambiguity is above this. 0 disables this. */
+    public double ambiguityTrigger = 0;
+
+    public static final double kMinSeconds = 0.5;
+    public static final double kMaxSeconds = 60;
+    public static final int kMinMegabytes = 1;
+    // Each ring is a single array, so this must stay well under 2 GB
+    public static final int kMaxMegabytes = 1024;
+
+    /**
+     * @return A copy with every value brought into its allowed range, e.g. after being set over HTTP
+     *     or read from an old config
+     */
+    public FrameRecorderSettings clamped() {
+        var ret = new FrameRecorderSettings();
+        ret.enabled = enabled;
+        ret.seconds = Double.isFinite(seconds) ? Math.clamp(seconds, kMinSeconds, kMaxSeconds) : 10;
+        ret.maxMegabytes = Math.clamp(maxMegabytes, kMinMegabytes, kMaxMegabytes);
+        ret.recordOutput = recordOutput;
+        ret.jpegQuality = Math.clamp(jpegQuality, 0, 100);
+        ret.ambiguityTrigger = Double.isFinite(ambiguityTrigger) ? Math.max(0, ambiguityTrigger) : 0;
+        return ret;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FrameRecorderSettings that = (FrameRecorderSettings) o;
+        return enabled == that.enabled
+                && Double.compare(seconds, that.seconds) == 0
+                && maxMegabytes == that.maxMegabytes
+                && recordOutput == that.recordOutput
+                && jpegQuality == that.jpegQuality
+                && Double.compare(ambiguityTrigger, that.ambiguityTrigger) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameRecorderSettings{"
+                + "enabled="
+                + enabled
+                + ", seconds="
+                + seconds
+                + ", maxMegabytes="
+                + maxMegabytes
+                + ", recordOutput="
+                + recordOutput
+                + ", jpegQuality="
+                + jpegQuality
+                + ", ambiguityTrigger="
+                + ambiguityTrigger
+                + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                enabled, seconds, maxMegabytes, recordOutput, jpegQuality, ambiguityTrigger);
+    }
+}
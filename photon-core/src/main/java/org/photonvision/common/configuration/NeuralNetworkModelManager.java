@@ -40,6 +40,7 @@ import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.tflite.TFLiteJNI.TFLiteSource;
 import org.photonvision.vision.objects.Model;
+import org.photonvision.vision.objects.ObjectDetectorCache;
 import org.photonvision.vision.objects.RknnModel;
 import org.photonvision.vision.objects.TFLiteModel;
 
@@ -391,6 +392,8 @@ public class NeuralNetworkModelManager {
         }
 
         models = new HashMap<>();
+        // Model files may have been replaced, so don't hand out interpreters loaded from the old ones
+        ObjectDetectorCache.getInstance().invalidate();
 
         try (Stream<Path> files = Files.walk(modelsDirectory.toPath())) {
             files
@@ -512,6 +515,8 @@ public class NeuralNetworkModelManager {
             }
         }
 
+        ObjectDetectorCache.getInstance().invalidate();
+
         // Delete model info
         return ConfigManager.getInstance().getConfig().getNeuralNetworkProperties().clear();
     }
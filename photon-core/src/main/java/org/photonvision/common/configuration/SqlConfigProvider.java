@@ -27,6 +27,7 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.function.Supplier;
@@ -37,6 +38,8 @@ import org.photonvision.common.configuration.DatabaseSchema.Columns;
 import org.photonvision.common.configuration.DatabaseSchema.Tables;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.calibration.BoardObservation;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.camera.PVCameraInfo;
 import org.photonvision.vision.pipeline.CVPipelineSettings;
 import org.photonvision.vision.pipeline.DriverModePipelineSettings;
@@ -50,6 +53,10 @@ import org.wpilib.vision.camera.UsbCameraInfo;
  * <p>Within this database we have a cameras database, which has one row per camera, and holds:
  * unique_name, config_json, drivermode_json, pipeline_jsons.
  *
+ * <p>Calibration board observations are large and only needed by the calibration details view, so
+ * they live in their own calibration_observations table keyed by camera and resolution, and are
+ * loaded on demand rather than with the rest of the camera config.
+ *
  * <p>Global has one row per global config file (like hardware settings and network settings)
  */
 public class SqlConfigProvider extends ConfigProvider {
@@ -108,9 +115,10 @@ public class SqlConfigProvider extends ConfigProvider {
         return createConn(false);
     }
 
-    private void tryCommit(Connection conn) {
+    private boolean tryCommit(Connection conn) {
         try {
             conn.commit();
+            return true;
         } catch (SQLException e1) {
             logger.error("Err committing changes: ", e1);
             try {
@@ -119,6 +127,7 @@ public class SqlConfigProvider extends ConfigProvider {
                 logger.error("Err rolling back changes: ", e2);
             }
         }
+        return false;
     }
 
     private int getIntPragma(String pragma) {
@@ -239,9 +248,14 @@ public class SqlConfigProvider extends ConfigProvider {
                 return false;
             }
 
-            saveCameras(conn);
+            var savedCalibrations = saveCameras(conn);
             saveGlobal(conn);
-            tryCommit(conn);
+            if (tryCommit(conn)) {
+                // Observations are safely on disk now, so stop holding them in memory
+                for (var saved : savedCalibrations) {
+                    attachObservationLoader(saved.uniqueName(), saved.calibration());
+                }
+            }
 
             try {
                 conn.close();
@@ -363,7 +377,15 @@ public class SqlConfigProvider extends ConfigProvider {
         return "";
     }
 
-    private void saveCameras(Connection conn) {
+    private record SavedCalibration(String uniqueName, CameraCalibrationCoefficients calibration) {}
+
+    /**
+     * Save all camera configs, and the observations of any calibrations that are held in memory.
+     *
+     * @return The calibrations whose observations were written
+     */
+    private List<SavedCalibration> saveCameras(Connection conn) {
+        var savedCalibrations = new ArrayList<SavedCalibration>();
         try {
             // Delete all cameras we don't need anymore
             String deleteExtraCamsString =
@@ -393,7 +415,11 @@ public class SqlConfigProvider extends ConfigProvider {
 
                 var config = c.getValue();
                 statement.setString(1, c.getKey());
-                statement.setString(2, Jsonb.instance().type(CameraConfiguration.class).toJson(config));
+                statement.setString(
+                        2,
+                        Jsonb.instance()
+                                .type(CameraConfiguration.class)
+                                .toJson(config.withoutCalibrationObservations()));
 
                 // MIGRATION: 2026
                 // We used to serialize pipelines separately, but don't anymore
@@ -401,15 +427,141 @@ public class SqlConfigProvider extends ConfigProvider {
                 statement.setString(4, "[]");
 
                 statement.executeUpdate();
+
+                for (var calibration : saveCalibrationObservations(conn, c.getKey(), config)) {
+                    savedCalibrations.add(new SavedCalibration(c.getKey(), calibration));
+                }
             }
+
+            // Delete observations of cameras we don't need anymore
+            stmt.executeUpdate(
+                    String.format(
+                            "DELETE FROM %s WHERE %s not in (%s)",
+                            Tables.CALIBRATION_OBSERVATIONS,
+                            Columns.OBS_UNIQUE_NAME,
+                            config.getCameraConfigurations().keySet().stream()
+                                    .map(it -> "\"" + it + "\"")
+                                    .collect(Collectors.joining(", "))));
         } catch (SQLException | IllegalStateException | JsonException e) {
             logger.error("Err saving cameras", e);
+            savedCalibrations.clear();
             try {
                 conn.rollback();
             } catch (SQLException e1) {
                 logger.error("Err rolling back changes: ", e);
             }
         }
+        return savedCalibrations;
+    }
+
+    /**
+     * Write observations for calibrations of this camera that are still held in memory, and delete
+     * observations for resolutions that are no longer calibrated. Calibrations that are already
+     * backed by the database are left untouched.
+     *
+     * @return The calibrations whose observations were written
+     */
+    private List<CameraCalibrationCoefficients> saveCalibrationObservations(
+            Connection conn, String uniqueName, CameraConfiguration cameraConfig) throws SQLException {
+        var written = new ArrayList<CameraCalibrationCoefficients>();
+
+        var deleteSql =
+                String.format(
+                        "DELETE FROM %s WHERE %s = ?%s",
+                        Tables.CALIBRATION_OBSERVATIONS,
+                        Columns.OBS_UNIQUE_NAME,
+                        cameraConfig.calibrations.stream()
+                                .map(
+                                        it ->
+                                                String.format(
+                                                        " AND NOT (%s = %d AND %s = %d)",
+                                                        Columns.OBS_RESOLUTION_WIDTH,
+                                                        (int) it.resolution.width,
+                                                        Columns.OBS_RESOLUTION_HEIGHT,
+                                                        (int) it.resolution.height))
+                                .collect(Collectors.joining()));
+        try (var deleteStatement = conn.prepareStatement(deleteSql)) {
+            deleteStatement.setString(1, uniqueName);
+            deleteStatement.executeUpdate();
+        }
+
+        var replaceSql =
+                String.format(
+                        "REPLACE INTO %s (%s, %s, %s, %s) VALUES (?,?,?,?);",
+                        Tables.CALIBRATION_OBSERVATIONS,
+                        Columns.OBS_UNIQUE_NAME,
+                        Columns.OBS_RESOLUTION_WIDTH,
+                        Columns.OBS_RESOLUTION_HEIGHT,
+                        Columns.OBS_OBSERVATIONS_JSON);
+        JsonType<List<BoardObservation>> observationsJsonb =
+                Jsonb.instance().type(Types.listOf(BoardObservation.class));
+        for (var calibration : cameraConfig.calibrations) {
+            if (calibration.hasObservationLoader()) {
+                continue;
+            }
+
+            try (var replaceStatement = conn.prepareStatement(replaceSql)) {
+                replaceStatement.setString(1, uniqueName);
+                replaceStatement.setInt(2, (int) calibration.resolution.width);
+                replaceStatement.setInt(3, (int) calibration.resolution.height);
+                replaceStatement.setString(4, observationsJsonb.toJson(calibration.getObservations()));
+                replaceStatement.executeUpdate();
+            }
+            written.add(calibration);
+        }
+
+        return written;
+    }
+
+    /**
+     * Load the board observations for one calibration of a camera.
+     *
+     * @param uniqueName The unique name of the camera
+     * @param width The width of the calibrated resolution
+     * @param height The height of the calibrated resolution
+     * @return The observations, or an empty list if none are stored
+     */
+    public List<BoardObservation> loadCalibrationObservations(
+            String uniqueName, int width, int height) {
+        var sql =
+                String.format(
+                        "SELECT %s FROM %s WHERE %s = ? AND %s = ? AND %s = ?",
+                        Columns.OBS_OBSERVATIONS_JSON,
+                        Tables.CALIBRATION_OBSERVATIONS,
+                        Columns.OBS_UNIQUE_NAME,
+                        Columns.OBS_RESOLUTION_WIDTH,
+                        Columns.OBS_RESOLUTION_HEIGHT);
+
+        try (Connection conn = createConn(true);
+                PreparedStatement query = conn.prepareStatement(sql)) {
+            query.setString(1, uniqueName);
+            query.setInt(2, width);
+            query.setInt(3, height);
+
+            var result = query.executeQuery();
+            if (result.next()) {
+                JsonType<List<BoardObservation>> observationsJsonb =
+                        Jsonb.instance().type(Types.listOf(BoardObservation.class));
+                return observationsJsonb.fromJson(result.getString(Columns.OBS_OBSERVATIONS_JSON));
+            }
+        } catch (SQLException | IllegalStateException | JsonException e) {
+            logger.error(
+                    "Could not load calibration observations for "
+                            + uniqueName
+                            + " at "
+                            + width
+                            + "x"
+                            + height,
+                    e);
+        }
+        return List.of();
+    }
+
+    private void attachObservationLoader(
+            String uniqueName, CameraCalibrationCoefficients calibration) {
+        int width = (int) calibration.resolution.width;
+        int height = (int) calibration.resolution.height;
+        calibration.setObservationLoader(() -> loadCalibrationObservations(uniqueName, width, height));
     }
 
     private void addFile(PreparedStatement ps, String key, String value) throws SQLException {
@@ -685,6 +837,15 @@ public class SqlConfigProvider extends ConfigProvider {
                                 Jsonb.instance().type(DriverModePipelineSettings.class).fromJson(driverModeJson);
                     }
 
+                    // MIGRATION: 2026
+                    // Observations used to be stored inline in the config JSON. Those stay in memory
+                    // until the next save moves them to their own table
+                    for (var calibration : config.calibrations) {
+                        if (calibration.getObservations().isEmpty()) {
+                            attachObservationLoader(uniqueName, calibration);
+                        }
+                    }
+
                     loadedConfigurations.put(uniqueName, config);
                 } catch (IllegalStateException | JsonException e) {
                     logger.error(
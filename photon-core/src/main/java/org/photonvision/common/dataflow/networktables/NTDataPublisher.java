@@ -17,17 +17,22 @@
 
 package org.photonvision.common.dataflow.networktables;
 
+import io.avaje.jsonb.Json;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.photonvision.common.configuration.ConfigManager;
 import org.photonvision.common.dataflow.CVPipelineResultConsumer;
+import org.photonvision.common.dataflow.structures.Packet;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.common.networktables.NTTopicSet;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.pipeline.result.CVPipelineResult;
 import org.photonvision.vision.pipeline.result.CalibrationPipelineResult;
 import org.photonvision.vision.target.TrackedTarget;
@@ -59,6 +64,42 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
     private final Consumer<Boolean> isEnabledConsumer;
     private final BooleanSupplier enabledSupplier;
 
+    NTDataChangeListener prewarmListener;
+    private final Consumer<int[]> prewarmConsumer;
+
+    NTDataChangeListener historyRequestListener;
+    private final ResultHistory history;
+
+    /**
+     * The most results sent for one history request, so a wide range can't flood NT. Clients page
+     * through a range by asking again from just after the last result they got.
+     */
+    public static final int kMaxHistoryResultsPerRequest = 100;
+
+    // What we last published to topics that rarely change, reset whenever the topics are remade
+    private int lastPipelineIndex;
+    private Boolean lastDriverMode;
+    private int lastFpsLimit;
+    private Boolean lastEnabled;
+    private CameraCalibrationCoefficients lastCalibration;
+    private boolean publishedCalibration;
+
+    private static final long kStatsPeriodMicros = 1_000_000;
+    private long statsStartMicros = 0;
+    // Counted on both the vision thread and the NT listener thread, which answers history requests
+    private final AtomicLong bytesPublished = new AtomicLong();
+    private final AtomicLong entriesPublished = new AtomicLong();
+    private volatile PublishStats publishStats = new PublishStats(0, 0);
+
+    /**
+     * How much this camera has published to NT over the last second.
+     *
+     * @param bytesPerSecond Bytes of values handed to NT, not counting protobuf results
+     * @param entriesPerSecond Values handed to NT
+     */
+    @Json
+    public record PublishStats(double bytesPerSecond, double entriesPerSecond) {}
+
     public NTDataPublisher(
             String cameraNickname,
             Supplier<Integer> pipelineIndexSupplier,
@@ -68,7 +109,9 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
             Supplier<Integer> fpsLimitSupplier,
             Consumer<Integer> fpsLimitConsumer,
             BooleanSupplier enabledSupplier,
-            Consumer<Boolean> isEnabledConsumer) {
+            Consumer<Boolean> isEnabledConsumer,
+            Consumer<int[]> prewarmConsumer,
+            ResultHistory history) {
         this.pipelineIndexSupplier = pipelineIndexSupplier;
         this.pipelineIndexConsumer = pipelineIndexConsumer;
         this.driverModeSupplier = driverModeSupplier;
@@ -77,6 +120,8 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
         this.fpsLimitConsumer = fpsLimitConsumer;
         this.enabledSupplier = enabledSupplier;
         this.isEnabledConsumer = isEnabledConsumer;
+        this.prewarmConsumer = prewarmConsumer;
+        this.history = history;
 
         updateCameraNickname(cameraNickname);
         updateEntries();
@@ -145,9 +190,45 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
         logger.debug("Set is enabled to " + newEnabled);
     }
 
+    private void onPrewarmChange(NetworkTableEvent entryNotification) {
+        var indexes =
+                Arrays.stream(entryNotification.valueData.value.getIntegerArray())
+                        .mapToInt(Math::toIntExact)
+                        .toArray();
+
+        prewarmConsumer.accept(indexes);
+        logger.debug("Requested prewarm of pipelines " + Arrays.toString(indexes));
+    }
+
+    private void onHistoryRequest(NetworkTableEvent entryNotification) {
+        // NT drops a value equal to the last one, so clients repeating a request number them
+        var request = entryNotification.valueData.value.getIntegerArray();
+        if (request.length != 2 && request.length != 3) {
+            logger.warn(
+                    "History requests should be [from, to] or [from, to, requestId], got "
+                            + Arrays.toString(request));
+            return;
+        }
+
+        var entries = history.query(request[0], request[1], kMaxHistoryResultsPerRequest);
+        for (var entry : entries) {
+            ts.historyResultPublisher.set(entry.data());
+            countPublished(entry.data().length);
+        }
+        logger.debug(
+                "Sent "
+                        + entries.size()
+                        + " results from history between "
+                        + request[0]
+                        + " and "
+                        + request[1]);
+    }
+
     private void removeEntries() {
         if (pipelineIndexListener != null) pipelineIndexListener.remove();
         if (driverModeListener != null) driverModeListener.remove();
+        if (prewarmListener != null) prewarmListener.remove();
+        if (historyRequestListener != null) historyRequestListener.remove();
         ts.removeEntries();
     }
 
@@ -155,8 +236,11 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
         if (pipelineIndexListener != null) pipelineIndexListener.remove();
         if (driverModeListener != null) driverModeListener.remove();
         if (fpsLimitListener != null) fpsLimitListener.remove();
+        if (prewarmListener != null) prewarmListener.remove();
+        if (historyRequestListener != null) historyRequestListener.remove();
 
         ts.updateEntries();
+        forgetPublished();
 
         pipelineIndexListener =
                 new NTDataChangeListener(
@@ -173,6 +257,23 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
         isEnabledListener =
                 new NTDataChangeListener(
                         ts.subTable.getInstance(), ts.enabledSubscriber, this::onEnabledChange);
+
+        prewarmListener =
+                new NTDataChangeListener(
+                        ts.subTable.getInstance(), ts.prewarmPipelinesSubscriber, this::onPrewarmChange);
+
+        historyRequestListener =
+                new NTDataChangeListener(
+                        ts.subTable.getInstance(), ts.historyRequestSubscriber, this::onHistoryRequest);
+    }
+
+    private void forgetPublished() {
+        lastPipelineIndex = Integer.MIN_VALUE;
+        lastDriverMode = null;
+        lastFpsLimit = Integer.MIN_VALUE;
+        lastEnabled = null;
+        lastCalibration = null;
+        publishedCalibration = false;
     }
 
     public void updateCameraNickname(String newCameraNickname) {
@@ -214,59 +315,131 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
                         TrackedTarget.simpleFromTrackedTargets(acceptedResult.targets),
                         acceptedResult.multiTagResult);
 
-        // random guess at size of the array
-        ts.resultPublisher.set(simplified, 1024);
-        if (ConfigManager.getInstance().getConfig().getNetworkConfig().shouldPublishProto) {
+        // Pack once, for both NT and the history. 1024 is a random guess at size of the array
+        var packet = new Packet(1024);
+        PhotonPipelineResult.photonStruct.pack(packet, simplified);
+        var packed = packet.getWrittenDataCopy();
+        ts.resultPublisher.set(packed);
+        countPublished(packed.length);
+        history.add(captureMicros + offset, packed);
+        if (ConfigManager.getInstance().getConfig().getNetworkConfig().shouldPublishProto
+                && ts.protoResultSubscribers.any()) {
             ts.protoResultPublisher.set(simplified);
+            // NT doesn't tell us how big the encoded protobuf was
+            countPublished(0);
+        }
+
+        // These only change when asked to, so only publish them when they do
+        int pipelineIndex = pipelineIndexSupplier.get();
+        if (pipelineIndex != lastPipelineIndex) {
+            ts.pipelineIndexPublisher.set(pipelineIndex);
+            countPublished(Long.BYTES);
+            lastPipelineIndex = pipelineIndex;
+        }
+        boolean driverMode = driverModeSupplier.getAsBoolean();
+        if (lastDriverMode == null || driverMode != lastDriverMode) {
+            ts.driverModePublisher.set(driverMode);
+            countPublished(1);
+            lastDriverMode = driverMode;
+        }
+        int fpsLimit = fpsLimitSupplier.get();
+        if (fpsLimit != lastFpsLimit) {
+            ts.fpsLimitPublisher.set(fpsLimit);
+            countPublished(Long.BYTES);
+            lastFpsLimit = fpsLimit;
+        }
+        boolean enabled = enabledSupplier.getAsBoolean();
+        if (lastEnabled == null || enabled != lastEnabled) {
+            ts.enabledPublisher.set(enabled);
+            countPublished(1);
+            lastEnabled = enabled;
         }
 
-        ts.pipelineIndexPublisher.set(pipelineIndexSupplier.get());
-        ts.driverModePublisher.set(driverModeSupplier.getAsBoolean());
-        ts.fpsLimitPublisher.set(fpsLimitSupplier.get());
-        ts.enabledPublisher.set(enabledSupplier.getAsBoolean());
         ts.latencyMillisEntry.set(acceptedResult.getLatencyMillis());
         ts.fpsEntry.set(acceptedResult.fps);
         ts.hasTargetEntry.set(acceptedResult.hasTargets());
-
-        if (acceptedResult.hasTargets()) {
-            var bestTarget = acceptedResult.targets.get(0);
-
-            ts.targetPitchEntry.set(bestTarget.getPitch());
-            ts.targetYawEntry.set(bestTarget.getYaw());
-            ts.targetAreaEntry.set(bestTarget.getArea());
-            ts.targetSkewEntry.set(bestTarget.getSkew());
-
-            var pose = bestTarget.getBestCameraToTarget3d();
-            ts.targetPoseEntry.set(pose);
-
-            var targetOffsetPoint = bestTarget.getTargetOffsetPoint();
-            ts.bestTargetPosX.set(targetOffsetPoint.x);
-            ts.bestTargetPosY.set(targetOffsetPoint.y);
-        } else {
-            ts.targetPitchEntry.set(0);
-            ts.targetYawEntry.set(0);
-            ts.targetAreaEntry.set(0);
-            ts.targetSkewEntry.set(0);
-            ts.targetPoseEntry.set(new Transform3d());
-            ts.bestTargetPosX.set(0);
-            ts.bestTargetPosY.set(0);
+        countPublished(Double.BYTES);
+        countPublished(Double.BYTES);
+        countPublished(1);
+
+        // The best target's topics predate the result topics, and usually nobody reads them any more
+        if (ts.bestTargetSubscribers.any()) {
+            if (acceptedResult.hasTargets()) {
+                var bestTarget = acceptedResult.targets.get(0);
+
+                ts.targetPitchEntry.set(bestTarget.getPitch());
+                ts.targetYawEntry.set(bestTarget.getYaw());
+                ts.targetAreaEntry.set(bestTarget.getArea());
+                ts.targetSkewEntry.set(bestTarget.getSkew());
+
+                var pose = bestTarget.getBestCameraToTarget3d();
+                ts.targetPoseEntry.set(pose);
+
+                var targetOffsetPoint = bestTarget.getTargetOffsetPoint();
+                ts.bestTargetPosX.set(targetOffsetPoint.x);
+                ts.bestTargetPosY.set(targetOffsetPoint.y);
+            } else {
+                ts.targetPitchEntry.set(0);
+                ts.targetYawEntry.set(0);
+                ts.targetAreaEntry.set(0);
+                ts.targetSkewEntry.set(0);
+                ts.targetPoseEntry.set(new Transform3d());
+                ts.bestTargetPosX.set(0);
+                ts.bestTargetPosY.set(0);
+            }
+            for (int i = 0; i < 6; i++) countPublished(Double.BYTES);
+            countPublished(Transform3d.struct.getSize());
         }
 
         // Something in the result can sometimes be null -- so check probably too many things
+        CameraCalibrationCoefficients calibration = null;
         if (acceptedResult.inputAndOutputFrame != null
-                && acceptedResult.inputAndOutputFrame.frameStaticProperties != null
-                && acceptedResult.inputAndOutputFrame.frameStaticProperties.cameraCalibration != null) {
-            var fsp = acceptedResult.inputAndOutputFrame.frameStaticProperties;
-            ts.cameraIntrinsicsPublisher.accept(fsp.cameraCalibration.getIntrinsicsArr());
-            ts.cameraDistortionPublisher.accept(fsp.cameraCalibration.getDistCoeffsArr());
-        } else {
-            ts.cameraIntrinsicsPublisher.accept(new double[0]);
-            ts.cameraDistortionPublisher.accept(new double[0]);
+                && acceptedResult.inputAndOutputFrame.frameStaticProperties != null) {
+            calibration = acceptedResult.inputAndOutputFrame.frameStaticProperties.cameraCalibration;
+        }
+        // The calibration is only replaced, never changed in place, so this catches every change
+        if (!publishedCalibration || calibration != lastCalibration) {
+            double[] intrinsics = calibration != null ? calibration.getIntrinsicsArr() : new double[0];
+            double[] distortion = calibration != null ? calibration.getDistCoeffsArr() : new double[0];
+            ts.cameraIntrinsicsPublisher.accept(intrinsics);
+            ts.cameraDistortionPublisher.accept(distortion);
+            countPublished(intrinsics.length * Double.BYTES);
+            countPublished(distortion.length * Double.BYTES);
+            lastCalibration = calibration;
+            publishedCalibration = true;
         }
 
         ts.heartbeatPublisher.set(acceptedResult.sequenceID);
+        countPublished(Long.BYTES);
+
+        updatePublishStats(now);
 
         // TODO...nt4... is this needed?
         rootTable.getInstance().flush();
     }
+
+    private void countPublished(int bytes) {
+        bytesPublished.addAndGet(bytes);
+        entriesPublished.incrementAndGet();
+    }
+
+    private void updatePublishStats(long nowMicros) {
+        long elapsed = nowMicros - statsStartMicros;
+        if (statsStartMicros == 0 || elapsed < 0) {
+            // Nothing to measure against yet, or the clock went backwards
+            statsStartMicros = nowMicros;
+            bytesPublished.set(0);
+            entriesPublished.set(0);
+        } else if (elapsed >= kStatsPeriodMicros) {
+            double seconds = elapsed / 1e6;
+            publishStats =
+                    new PublishStats(
+                            bytesPublished.getAndSet(0) / seconds, entriesPublished.getAndSet(0) / seconds);
+            statsStartMicros = nowMicros;
+        }
+    }
+
+    public PublishStats getPublishStats() {
+        return publishStats;
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.networktables;
+
+import io.avaje.jsonb.Json;
+import java.util.ArrayList;
+import java.util.List;
+import org.photonvision.common.util.TimestampedByteRing;
+
+/**
+ * The last few seconds of a camera's results, packed just as they were published to NT, so robot
+ * code and replay tools can fetch frames they missed instead of relying on deep NT queues.
+ *
+ * <p>Results are kept in a {@link TimestampedByteRing} indexed by capture timestamp, so the memory
+ * used is fixed and nothing is allocated per result.
+ */
+public class ResultHistory {
+    /** About ten seconds at 100 fps */
+    public static final int kDefaultMaxEntries = 1024;
+
+    /** Room for kDefaultMaxEntries results with a handful of targets each */
+    public static final int kDefaultMaxBytes = 1 << 20;
+
+    /**
+     * @param captureTimestampMicros When the frame was captured, in the time sync server's timebase
+     * @param data The packed PhotonPipelineResult
+     */
+    @Json
+    public record Entry(long captureTimestampMicros, byte[] data) {}
+
+    private final TimestampedByteRing ring;
+
+    public ResultHistory() {
+        this(kDefaultMaxEntries, kDefaultMaxBytes);
+    }
+
+    public ResultHistory(int maxEntries, int maxBytes) {
+        ring = new TimestampedByteRing(maxEntries, maxBytes);
+    }
+
+    /**
+     * Remember a result. Timestamps should only go forward; one that goes back, e.g. because time
+     * sync jumped, starts the history over, since the older entries can't be compared with it.
+     *
+     * @param captureTimestampMicros When the frame was captured, in the time sync server's timebase
+     * @param data The packed result
+     */
+    public void add(long captureTimestampMicros, byte[] data) {
+        ring.add(captureTimestampMicros, data);
+    }
+
+    /**
+     * Get every result captured between two times, inclusive, oldest first.
+     *
+     * @param fromMicros Earliest capture timestamp
+     * @param toMicros Latest capture timestamp
+     * @return Copies of the packed results
+     */
+    public List<Entry> query(long fromMicros, long toMicros) {
+        return query(fromMicros, toMicros, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the oldest results captured between two times, inclusive, oldest first. To page through a
+     * range, ask again from just after the last result returned.
+     *
+     * @param fromMicros Earliest capture timestamp
+     * @param toMicros Latest capture timestamp
+     * @param maxEntries The most results to return
+     * @return Copies of the packed results
+     */
+    public List<Entry> query(long fromMicros, long toMicros, int maxEntries) {
+        var entries = ring.query(fromMicros, toMicros, maxEntries);
+        var ret = new ArrayList<Entry>(entries.size());
+        for (var entry : entries) ret.add(new Entry(entry.timestamp(), entry.data()));
+        return ret;
+    }
+
+    public int size() {
+        return ring.size();
+    }
+
+    /**
+     * @return The capture timestamp of the oldest result we still have, or -1 if there are none
+     */
+    public long getOldestTimestampMicros() {
+        return ring.getOldestTimestamp();
+    }
+
+    public void clear() {
+        ring.clear();
+    }
+}
@@ -82,6 +82,8 @@ public class UIDataPublisher implements CVPipelineResultConsumer {
 
         if (result instanceof FocusPipelineResult focusResult) {
             dataMap.put("focus", focusResult.focus);
+            dataMap.put("focusPeak", focusResult.peakFocus);
+            dataMap.put("focusHistory", focusResult.focusHistory);
         }
 
         DataChangeService.getInstance()
@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.hardware.metrics;
+
+import io.avaje.jsonb.Json;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+
+/**
+ * Samples CPU, memory, temperature and per-thread CPU usage straight from procfs and sysfs. Every
+ * file is opened once and re-read in place with a positional read, so a sample costs a handful of
+ * syscalls and never spawns a process.
+ *
+ * <p>Linux limits native thread names to 15 characters, which cuts off the camera name in thread
+ * names like "VisionRunner - ...". Threads can call {@link #labelCurrentThread(String)} to report
+ * under their full name instead.
+ */
+public class ProcfsSampler implements AutoCloseable {
+    private static final Logger logger = new Logger(ProcfsSampler.class, LogGroup.General);
+
+    /** Full names for native thread ids, registered by the threads themselves */
+    private static final Map<Integer, String> threadLabels = new ConcurrentHashMap<>();
+
+    /**
+     * CPU usage of one thread over the last sample interval.
+     *
+     * @param name The thread's label if it registered one, otherwise its native name
+     * @param tid The native thread id
+     * @param cpuPercent Usage as a percentage of a single core
+     */
+    @Json
+    public record ThreadCpuUsage(String name, int tid, double cpuPercent) {}
+
+    private static class TaskChannel {
+        final FileChannel stat;
+        final String comm;
+        long lastTicks = -1;
+
+        TaskChannel(FileChannel stat, String comm) {
+            this.stat = stat;
+            this.comm = comm;
+        }
+    }
+
+    private final Path taskDir;
+    private final FileChannel statChannel;
+    private final FileChannel meminfoChannel;
+    private final FileChannel thermalChannel;
+    private final Map<Integer, TaskChannel> tasks = new HashMap<>();
+
+    private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+    private long lastTotalTicks = -1;
+    private long lastIdleTicks = -1;
+    private long lastSampleNanos = 0;
+    private int cpuCount = 1;
+
+    private double cpuUsage = 0;
+    private double totalMemoryMiB = -1;
+    private double availableMemoryMiB = -1;
+    private double temperature = -1;
+    private List<ThreadCpuUsage> threadUsage = List.of();
+
+    /**
+     * Open a sampler for the running system.
+     *
+     * @param thermalZoneTypes Comma-separated thermal zone types to read the CPU temperature from, in
+     *     order of preference. May be null.
+     * @return The sampler, or null if procfs isn't available
+     */
+    public static ProcfsSampler open(String thermalZoneTypes) {
+        try {
+            return new ProcfsSampler(Path.of("/proc"), Path.of("/sys/class/thermal"), thermalZoneTypes);
+        } catch (IOException e) {
+            logger.warn("Could not open procfs, falling back to OSHI for metrics: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Create a sampler.
+     *
+     * @param procRoot Where procfs is mounted
+     * @param thermalRoot The sysfs thermal class directory
+     * @param thermalZoneTypes Comma-separated thermal zone types to read the CPU temperature from, in
+     *     order of preference. May be null.
+     * @throws IOException If /proc/stat or /proc/meminfo can't be opened
+     */
+    ProcfsSampler(Path procRoot, Path thermalRoot, String thermalZoneTypes) throws IOException {
+        this.taskDir = procRoot.resolve("self").resolve("task");
+        this.statChannel = FileChannel.open(procRoot.resolve("stat"), StandardOpenOption.READ);
+        this.meminfoChannel = FileChannel.open(procRoot.resolve("meminfo"), StandardOpenOption.READ);
+        this.thermalChannel = openThermalZone(thermalRoot, thermalZoneTypes);
+    }
+
+    /**
+     * Report the calling thread's CPU usage under the given name rather than its truncated native
+     * name. Does nothing on systems without procfs.
+     *
+     * @param label The name to report, e.g. "VisionRunner - Front Camera"
+     */
+    public static void labelCurrentThread(String label) {
+        try {
+            // /proc/thread-self links to <pid>/task/<tid>
+            var link = Files.readSymbolicLink(Path.of("/proc/thread-self"));
+            labelThread(Integer.parseInt(link.getFileName().toString()), label);
+        } catch (IOException | UnsupportedOperationException | NumberFormatException e) {
+            // Not Linux, nothing to label
+        }
+    }
+
+    static void labelThread(int tid, String label) {
+        threadLabels.put(tid, label);
+    }
+
+    private FileChannel openThermalZone(Path thermalRoot, String thermalZoneTypes) {
+        if (thermalZoneTypes == null || thermalZoneTypes.isBlank()) {
+            return null;
+        }
+
+        var zoneTypes = new HashMap<String, Path>();
+        try (var zones = Files.newDirectoryStream(thermalRoot, "thermal_zone*")) {
+            for (var zone : zones) {
+                try {
+                    zoneTypes.putIfAbsent(Files.readString(zone.resolve("type")).trim(), zone);
+                } catch (IOException e) {
+                    // Zone without a readable type
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        for (var type : thermalZoneTypes.split(",")) {
+            var zone = zoneTypes.get(type.trim());
+            if (zone == null) continue;
+            try {
+                logger.debug("Reading CPU temperature from " + zone + " (" + type.trim() + ")");
+                return FileChannel.open(zone.resolve("temp"), StandardOpenOption.READ);
+            } catch (IOException e) {
+                logger.warn("Could not open " + zone.resolve("temp") + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read a whole file through an already-open channel, starting from the beginning. Procfs
+     * regenerates the contents on every read at offset 0.
+     */
+    private String read(FileChannel channel) throws IOException {
+        buffer.clear();
+        long position = 0;
+        int count;
+        while ((count = channel.read(buffer, position)) > 0) {
+            position += count;
+            if (!buffer.hasRemaining()) {
+                var bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                bigger.put(buffer);
+                buffer = bigger;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Take a new sample if the last one is older than the given interval. Usage figures are averaged
+     * over the time between samples.
+     *
+     * @param minIntervalMillis The minimum time between samples
+     */
+    public synchronized void sampleIfOlderThan(long minIntervalMillis) {
+        long now = System.nanoTime();
+        if (lastSampleNanos != 0 && (now - lastSampleNanos) / 1_000_000 < minIntervalMillis) {
+            return;
+        }
+        lastSampleNanos = now;
+
+        long elapsedTicksPerCpu = sampleCpu();
+        sampleMemory();
+        sampleTemperature();
+        sampleThreads(elapsedTicksPerCpu);
+    }
+
+    /** Returns the number of ticks that elapsed on each CPU since the last sample. */
+    private long sampleCpu() {
+        String stat;
+        try {
+            stat = read(statChannel);
+        } catch (IOException e) {
+            logger.error("Could not read /proc/stat", e);
+            return 0;
+        }
+
+        long total = 0;
+        long idle = 0;
+        int cpus = 0;
+        for (var line : stat.split("\n")) {
+            if (line.startsWith("cpu ")) {
+                // cpu user nice system idle iowait irq softirq steal guest guest_nice
+                // guest time is already included in user and nice
+                var fields = line.trim().split("\\s+");
+                for (int i = 1; i < Math.min(fields.length, 9); i++) {
+                    total += Long.parseLong(fields[i]);
+                }
+                idle = Long.parseLong(fields[4]) + (fields.length > 5 ? Long.parseLong(fields[5]) : 0);
+            } else if (line.startsWith("cpu")) {
+                cpus++;
+            } else if (cpus > 0) {
+                break;
+            }
+        }
+        cpuCount = Math.max(1, cpus);
+
+        long elapsed = 0;
+        if (lastTotalTicks >= 0 && total > lastTotalTicks) {
+            elapsed = total - lastTotalTicks;
+            cpuUsage = 100.0 * (1.0 - (double) (idle - lastIdleTicks) / elapsed);
+        }
+        lastTotalTicks = total;
+        lastIdleTicks = idle;
+        return elapsed / cpuCount;
+    }
+
+    private void sampleMemory() {
+        try {
+            for (var line : read(meminfoChannel).split("\n")) {
+                if (line.startsWith("MemTotal:")) {
+                    totalMemoryMiB = parseKiB(line) / 1024.0;
+                } else if (line.startsWith("MemAvailable:")) {
+                    availableMemoryMiB = parseKiB(line) / 1024.0;
+                    break;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Could not read /proc/meminfo", e);
+        }
+    }
+
+    private static long parseKiB(String line) {
+        // e.g. "MemTotal:        8029356 kB"
+        var fields = line.trim().split("\\s+");
+        return Long.parseLong(fields[1]);
+    }
+
+    private void sampleTemperature() {
+        if (thermalChannel == null) {
+            return;
+        }
+        try {
+            // Millidegrees Celsius
+            temperature = Long.parseLong(read(thermalChannel).trim()) / 1000.0;
+        } catch (IOException | NumberFormatException e) {
+            // Some zones return EAGAIN or EINVAL while the sensor is powered down
+            temperature = -1;
+        }
+    }
+
+    private void sampleThreads(long elapsedTicksPerCpu) {
+        var alive = new HashSet<Integer>();
+        var usage = new ArrayList<ThreadCpuUsage>();
+
+        try (var dirs = Files.newDirectoryStream(taskDir)) {
+            for (var dir : dirs) {
+                int tid;
+                try {
+                    tid = Integer.parseInt(dir.getFileName().toString());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                var task = tasks.get(tid);
+                try {
+                    if (task == null) {
+                        task =
+                                new TaskChannel(
+                                        FileChannel.open(dir.resolve("stat"), StandardOpenOption.READ),
+                                        Files.readString(dir.resolve("comm")).trim());
+                        tasks.put(tid, task);
+                    }
+
+                    long ticks = parseTaskTicks(read(task.stat));
+                    if (task.lastTicks >= 0 && elapsedTicksPerCpu > 0) {
+                        usage.add(
+                                new ThreadCpuUsage(
+                                        threadLabels.getOrDefault(tid, task.comm),
+                                        tid,
+                                        100.0 * (ticks - task.lastTicks) / elapsedTicksPerCpu));
+                    }
+                    task.lastTicks = ticks;
+                    alive.add(tid);
+                } catch (IOException | RuntimeException e) {
+                    // The thread exited while we were reading it
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not list " + taskDir, e);
+            return;
+        }
+
+        var it = tasks.entrySet().iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (!alive.contains(entry.getKey())) {
+                closeQuietly(entry.getValue().stat);
+                threadLabels.remove(entry.getKey());
+                it.remove();
+            }
+        }
+
+        usage.sort(Comparator.comparingDouble(ThreadCpuUsage::cpuPercent).reversed());
+        threadUsage = List.copyOf(usage);
+    }
+
+    /** Returns utime + stime from the contents of /proc/[pid]/task/[tid]/stat */
+    static long parseTaskTicks(String stat) {
+        // The name field is in parentheses and may itself contain spaces and parentheses, so start
+        // after the last closing one. What follows is field 3 (state); utime and stime are 14 and 15.
+        var fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+
+    /**
+     * @return Total CPU usage from 0 to 100% between the last two samples
+     */
+    public synchronized double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    /**
+     * @return Total RAM in MiB, or -1 if it couldn't be read
+     */
+    public synchronized double getTotalMemory() {
+        return totalMemoryMiB;
+    }
+
+    /**
+     * @return RAM in use in MiB, or -1 if it couldn't be read
+     */
+    public synchronized double getUsedMemory() {
+        if (totalMemoryMiB < 0 || availableMemoryMiB < 0) {
+            return -1;
+        }
+        return totalMemoryMiB - availableMemoryMiB;
+    }
+
+    /**
+     * @return If a thermal zone matching the requested types was found
+     */
+    public boolean hasTemperature() {
+        return thermalChannel != null;
+    }
+
+    /**
+     * @return CPU temperature in °C, or -1 if it couldn't be read
+     */
+    public synchronized double getCpuTemperature() {
+        return temperature;
+    }
+
+    /**
+     * @return The CPU usage of every thread in this process between the last two samples, busiest
+     *     first. 100% is one fully loaded core.
+     */
+    public synchronized List<ThreadCpuUsage> getThreadCpuUsage() {
+        return threadUsage;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing we can do
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly(statChannel);
+        closeQuietly(meminfoChannel);
+        if (thermalChannel != null) {
+            closeQuietly(thermalChannel);
+        }
+        tasks.values().forEach(task -> closeQuietly(task.stat));
+        tasks.clear();
+    }
+}
@@ -22,6 +22,7 @@ import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.photonvision.common.configuration.ConfigManager;
@@ -69,6 +70,7 @@ public class SystemMonitor {
     private GlobalMemory mem;
     private HardwareAbstractionLayer hal;
     private FileStore fs;
+    private ProcfsSampler procfs;
 
     private double totalMemory = -1.0;
 
@@ -135,6 +137,15 @@ public class SystemMonitor {
         // initialize CPU monitoring
         oldTicks = cpu.getSystemCpuLoadTicks();
 
+        // On Linux, read CPU, memory and temperature straight from procfs and sysfs instead of going
+        // through OSHI, and keep track of CPU usage per thread
+        if (Platform.isLinux()) {
+            procfs = ProcfsSampler.open(getThermalZoneTypes());
+            if (procfs != null) {
+                procfs.sampleIfOlderThan(0);
+            }
+        }
+
         // initialize network traffic monitoring
         selectNetworkIfByName(
                 ConfigManager.getInstance().getConfig().getNetworkConfig().networkManagerIface);
@@ -213,6 +224,7 @@ public class SystemMonitor {
 
         if (writeMetricsToLog) {
             logMetrics(metrics);
+            logThreadCpuUsage();
         }
 
         DataChangeService.getInstance().publishEvent(OutgoingUIEvent.wrappedOf("metrics", metrics));
@@ -239,6 +251,21 @@ public class SystemMonitor {
         logger.debug(sb.toString());
     }
 
+    private void logThreadCpuUsage() {
+        var usage = getThreadCpuUsage();
+        if (usage.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Thread CPU Usage:");
+        for (var thread : usage) {
+            if (thread.cpuPercent() < 1.0) {
+                break;
+            }
+            sb.append(String.format(" %s: %.1f%%,", thread.name(), thread.cpuPercent()));
+        }
+        logger.debug(sb.toString());
+    }
+
     private void resetNetworkTraffic() {
         lastBytesSent = monitoredIFace.getBytesSent();
         lastBytesRecv = monitoredIFace.getBytesRecv();
@@ -371,6 +398,10 @@ public class SystemMonitor {
      * @return The temperature of the CPU in °C or -1.0 if it cannot be retrieved.
      */
     public double getCpuTemperature() {
+        if (procfs != null && procfs.hasTemperature()) {
+            procfs.sampleIfOlderThan((long) (minimumDeltaTime * 1000));
+            return procfs.getCpuTemperature();
+        }
         double temperature = hal.getSensors().getCpuTemperature();
         // OSHI returns 0 or NaN if the temperature isn't available.
         if (temperature == 0.0 || Double.isNaN(temperature)) {
@@ -385,6 +416,10 @@ public class SystemMonitor {
      * @return total RAM in MiB.
      */
     public double getTotalMemory() {
+        if (totalMemory < 0 && procfs != null) {
+            procfs.sampleIfOlderThan((long) (minimumDeltaTime * 1000));
+            totalMemory = procfs.getTotalMemory();
+        }
         if (totalMemory < 0) {
             totalMemory = mem.getTotal() / mebi;
         }
@@ -397,6 +432,13 @@ public class SystemMonitor {
      * @return the used RAM in MiB.
      */
     public double getUsedMemory() {
+        if (procfs != null) {
+            procfs.sampleIfOlderThan((long) (minimumDeltaTime * 1000));
+            double used = procfs.getUsedMemory();
+            if (used >= 0) {
+                return used;
+            }
+        }
         return (mem.getTotal() - mem.getAvailable()) / mebi;
     }
 
@@ -416,6 +458,10 @@ public class SystemMonitor {
      * @return load on the cpu in %.
      */
     public synchronized double getCpuUsage() {
+        if (procfs != null) {
+            procfs.sampleIfOlderThan((long) (minimumDeltaTime * 1000));
+            return procfs.getCpuUsage();
+        }
         long now = System.currentTimeMillis();
         double dTime = (now - lastCpuUpdate) / 1000.0;
         if (dTime > minimumDeltaTime) {
@@ -427,6 +473,21 @@ public class SystemMonitor {
         return lastCpuLoad;
     }
 
+    /**
+     * Returns the CPU usage of each thread in PhotonVision since the metrics were last sampled,
+     * busiest first. Vision and stream threads report under their full name, including the camera.
+     *
+     * @return the usage of each thread, where 100% is one fully loaded core, or an empty list if not
+     *     available on this platform.
+     */
+    public List<ProcfsSampler.ThreadCpuUsage> getThreadCpuUsage() {
+        if (procfs == null) {
+            return List.of();
+        }
+        procfs.sampleIfOlderThan((long) (minimumDeltaTime * 1000));
+        return procfs.getThreadCpuUsage();
+    }
+
     /**
      * Returns the npu usage, if available. Platforms with NPUs will need to override this method to
      * return a useful value.
@@ -531,6 +592,8 @@ public class SystemMonitor {
                 timeIt(
                         sb, () -> String.format("GPU Memory: %.0f / %.0f MiB", getGpuMemUtil(), getGpuMem()));
         total += timeIt(sb, () -> String.format("CPU Throttle: %s", getCpuThrottleReason()));
+        total +=
+                timeIt(sb, () -> String.format("Thread CPU Usage: %d threads", getThreadCpuUsage().size()));
 
         total +=
                 timeIt(
@@ -18,20 +18,67 @@
 package org.photonvision.common.hardware.metrics;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import org.photonvision.common.util.ShellExec;
 
 public class SystemMonitorRaspberryPi extends SystemMonitor {
+    // The firmware driver exposes the same value as `vcgencmd get_throttled` (in hex, without the 0x)
+    private static final Path[] kThrottledPaths = {
+        Path.of("/sys/devices/platform/soc/soc:firmware/get_throttled"),
+        Path.of("/sys/devices/platform/axi/axi:firmware/get_throttled")
+    };
+
     private final ShellExec runCommand = new ShellExec(true, true);
+    private final FileChannel throttledChannel = openThrottled();
+    private final ByteBuffer throttledBuffer = ByteBuffer.allocate(32);
+
+    // The GPU memory split is set at boot, so only ask the firmware once
+    private double gpuMem = -2.0;
+
+    private static FileChannel openThrottled() {
+        for (var path : kThrottledPaths) {
+            if (Files.isReadable(path)) {
+                try {
+                    return FileChannel.open(path, StandardOpenOption.READ);
+                } catch (IOException e) {
+                    logger.warn("Could not open " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    private int readThrottled() {
+        if (throttledChannel != null) {
+            try {
+                throttledBuffer.clear();
+                int count = throttledChannel.read(throttledBuffer, 0);
+                if (count > 0) {
+                    return Integer.parseInt(
+                            new String(throttledBuffer.array(), 0, count, StandardCharsets.US_ASCII).trim(), 16);
+                }
+            } catch (IOException | NumberFormatException e) {
+                logger.warn("Could not read throttle state from sysfs: " + e.getMessage());
+            }
+        }
 
-    @Override
-    public String getCpuThrottleReason() {
-        int state = 0;
         String output = vcgencmd("get_throttled");
         try {
-            state = Integer.decode(output);
+            return Integer.decode(output);
         } catch (NumberFormatException e) {
             logger.warn("Could not parse return value: " + output);
+            return 0;
         }
+    }
+
+    @Override
+    public synchronized String getCpuThrottleReason() {
+        int state = readThrottled();
         if ((state & 0x01) != 0) {
             return "LOW VOLTAGE";
         } else if ((state & 0x08) != 0) {
@@ -45,21 +92,19 @@ public class SystemMonitorRaspberryPi extends SystemMonitor {
     }
 
     @Override
-    public double getGpuMem() {
-        String output = vcgencmd("get_mem gpu");
-        if (!output.isBlank()) {
-            return Integer.parseInt(output);
+    public synchronized double getGpuMem() {
+        if (gpuMem < -1.0) {
+            String output = vcgencmd("get_mem gpu");
+            gpuMem = output.isBlank() ? -1.0 : Integer.parseInt(output);
         }
-        return -1.0;
+        return gpuMem;
     }
 
     @Override
-    public double getGpuMemUtil() {
+    public synchronized double getGpuMemUtil() {
+        // Live GPU memory use, so sampled every time the metrics are
         String output = vcgencmd("get_mem malloc");
-        if (!output.isBlank()) {
-            return Integer.parseInt(output);
-        }
-        return -1.0;
+        return output.isBlank() ? -1.0 : Integer.parseInt(output);
     }
 
     private String vcgencmd(String cmd) {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hands the latest value from one thread to another. There's room for one value: a newer one
+ * replaces it if it hasn't been taken yet, and the replaced value is handed to a callback right
+ * away, e.g. to release it. The taking thread blocks until there's something to take, rather than
+ * polling.
+ *
+ * @param <T> The type of value
+ */
+public class LatestValueExchanger<T> {
+    private final Object lock = new Object();
+    private final Consumer<T> onSuperseded;
+
+    private T value = null;
+    private long superseded = 0;
+    private long taken = 0;
+
+    /**
+     * @param onSuperseded Called, outside of any lock, with values that were replaced before being
+     *     taken
+     */
+    public LatestValueExchanger(Consumer<T> onSuperseded) {
+        this.onSuperseded = onSuperseded;
+    }
+
+    /**
+     * Offer a value to the taking thread, replacing any it hasn't taken yet.
+     *
+     * @param newValue The value, which must not be null
+     */
+    public void offer(T newValue) {
+        T old;
+        synchronized (lock) {
+            old = value;
+            value = newValue;
+            if (old != null) superseded++;
+            lock.notifyAll();
+        }
+        if (old != null) onSuperseded.accept(old);
+    }
+
+    /**
+     * Wait for a value, and take it.
+     *
+     * @return The latest value offered
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        synchronized (lock) {
+            while (value == null) lock.wait();
+            T ret = value;
+            value = null;
+            taken++;
+            return ret;
+        }
+    }
+
+    /** Drop the value waiting to be taken, if any, handing it to the callback. */
+    public void clear() {
+        T old;
+        synchronized (lock) {
+            old = value;
+            value = null;
+        }
+        if (old != null) onSuperseded.accept(old);
+    }
+
+    /**
+     * @return How many values were replaced before they were taken
+     */
+    public long getSupersededCount() {
+        synchronized (lock) {
+            return superseded;
+        }
+    }
+
+    /**
+     * @return How many values have been taken
+     */
+    public long getTakenCount() {
+        synchronized (lock) {
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import io.avaje.jsonb.Json;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+
+/**
+ * Runs the steps of program startup as a dependency graph. Steps whose dependencies have all
+ * completed run concurrently on a small thread pool, and the start time and duration of every step
+ * is recorded so slow startups can be diagnosed from the logs or the status API.
+ *
+ * <p>Dependencies must be added before the steps that depend on them, which keeps the graph
+ * acyclic. If a step fails, every step that (transitively) depends on it is skipped.
+ */
+public class StartupOrchestrator {
+    private static final Logger logger = new Logger(StartupOrchestrator.class, LogGroup.General);
+
+    /** The most recently run orchestrator, so the status API can report its timeline */
+    private static volatile StartupOrchestrator current = null;
+
+    @FunctionalInterface
+    public interface StartupAction {
+        /**
+         * Run this startup step.
+         *
+         * @return If the step succeeded. Steps depending on a failed step are skipped.
+         */
+        boolean run() throws Exception;
+    }
+
+    public enum StepState {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        SKIPPED
+    }
+
+    /**
+     * Timing of one startup step, relative to the start of the orchestrator.
+     *
+     * @param name The name of the step
+     * @param state The state the step is in
+     * @param thread The thread the step ran on, or empty if it has not run
+     * @param startMs When the step started, in milliseconds since startup began
+     * @param durationMs How long the step took, in milliseconds
+     */
+    @Json
+    public record StepTiming(
+            String name, StepState state, String thread, double startMs, double durationMs) {}
+
+    private static class Step {
+        final String name;
+        final List<String> dependencies;
+        final StartupAction action;
+
+        volatile StepState state = StepState.PENDING;
+        volatile String thread = "";
+        volatile long startNanos = 0;
+        volatile long endNanos = 0;
+
+        Step(String name, List<String> dependencies, StartupAction action) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.action = action;
+        }
+    }
+
+    private final LinkedHashMap<String, Step> steps = new LinkedHashMap<>();
+    private final int threadCount;
+    private long startNanos = 0;
+    private long endNanos = 0;
+
+    public StartupOrchestrator() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public StartupOrchestrator(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Add a step to the startup graph.
+     *
+     * @param name Unique name of the step, used in the timeline and to declare dependencies
+     * @param dependencies Names of steps that must succeed before this one runs. These must have been
+     *     added already.
+     * @param action The work to do
+     * @return this, for chaining
+     */
+    public synchronized StartupOrchestrator addStep(
+            String name, List<String> dependencies, StartupAction action) {
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup step " + name);
+        }
+        for (var dependency : dependencies) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException(
+                        "Startup step " + name + " depends on unknown step " + dependency);
+            }
+        }
+
+        steps.put(name, new Step(name, List.copyOf(dependencies), action));
+        return this;
+    }
+
+    /**
+     * Run every step, blocking until all of them have finished or been skipped. The timeline is
+     * logged once everything is done.
+     *
+     * @return If every step succeeded
+     */
+    public boolean run() {
+        current = this;
+
+        var threadIdx = new AtomicInteger();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        threadCount,
+                        r -> {
+                            var thread = new Thread(r, "Startup-" + threadIdx.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        startNanos = System.nanoTime();
+
+        var futures = new LinkedHashMap<String, CompletableFuture<Boolean>>();
+        for (var step : steps.values()) {
+            var dependencies =
+                    step.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+            futures.put(
+                    step.name,
+                    CompletableFuture.allOf(dependencies)
+                            .thenApplyAsync(
+                                    ignored -> {
+                                        for (var dependency : dependencies) {
+                                            if (!(Boolean) dependency.join()) {
+                                                step.state = StepState.SKIPPED;
+                                                return false;
+                                            }
+                                        }
+                                        return runStep(step);
+                                    },
+                                    executor));
+        }
+
+        boolean success =
+                futures.values().stream().map(CompletableFuture::join).reduce(true, Boolean::logicalAnd);
+        endNanos = System.nanoTime();
+        executor.shutdown();
+
+        logger.info(formatTimeline());
+        return success;
+    }
+
+    private boolean runStep(Step step) {
+        step.thread = Thread.currentThread().getName();
+        step.state = StepState.RUNNING;
+        step.startNanos = System.nanoTime();
+
+        boolean succeeded;
+        try {
+            succeeded = step.action.run();
+        } catch (Throwable t) {
+            logger.error("Startup step " + step.name + " threw an exception!", t);
+            succeeded = false;
+        }
+
+        step.endNanos = System.nanoTime();
+        step.state = succeeded ? StepState.SUCCEEDED : StepState.FAILED;
+        logger.debug(
+                "Startup step "
+                        + step.name
+                        + (succeeded ? " finished" : " failed")
+                        + " in "
+                        + String.format("%.1f", (step.endNanos - step.startNanos) / 1e6)
+                        + " ms");
+        return succeeded;
+    }
+
+    /**
+     * Get the timing of every step, ordered by start time. Steps that have not started yet are listed
+     * last.
+     */
+    public List<StepTiming> getTimeline() {
+        var ret = new ArrayList<StepTiming>();
+        for (var step : steps.values()) {
+            double start = step.startNanos == 0 ? 0 : (step.startNanos - startNanos) / 1e6;
+            long end =
+                    step.state == StepState.RUNNING
+                            ? System.nanoTime()
+                            : (step.endNanos == 0 ? step.startNanos : step.endNanos);
+            double duration = step.startNanos == 0 ? 0 : (end - step.startNanos) / 1e6;
+            ret.add(new StepTiming(step.name, step.state, step.thread, start, duration));
+        }
+        ret.sort(
+                Comparator.comparing((StepTiming it) -> it.state() == StepState.PENDING)
+                        .thenComparingDouble(StepTiming::startMs));
+        return ret;
+    }
+
+    /**
+     * @return Total wall-clock time of the last run in milliseconds, or 0 if it is still running
+     */
+    public double getTotalMs() {
+        return endNanos == 0 ? 0 : (endNanos - startNanos) / 1e6;
+    }
+
+    /** Format the timeline as a human-readable table for the logs. */
+    public String formatTimeline() {
+        var sb = new StringBuilder();
+        sb.append(String.format("Startup timeline (%.1f ms total):", getTotalMs()));
+        for (var timing : getTimeline()) {
+            sb.append(
+                    String.format(
+                            "%n  %-24s %9s  start %8.1f ms  took %8.1f ms  [%s]",
+                            timing.name(),
+                            timing.state(),
+                            timing.startMs(),
+                            timing.durationMs(),
+                            timing.thread()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return The timeline of the most recent startup, or an empty list if startup has not begun
+     */
+    public static List<StepTiming> getStartupTimeline() {
+        var orchestrator = current;
+        return orchestrator == null ? List.of() : orchestrator.getTimeline();
+    }
+}
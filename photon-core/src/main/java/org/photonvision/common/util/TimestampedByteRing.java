@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Blobs of bytes indexed by timestamp, copied into one preallocated buffer used as a circular log.
+ * Adding a blob evicts the oldest ones once either the buffer or the index is full, so the memory
+ * used is fixed up front and nothing is allocated per blob.
+ */
+public class TimestampedByteRing {
+    /**
+     * @param timestamp When the blob was added for
+     * @param data A copy of the blob
+     */
+    public record Entry(long timestamp, byte[] data) {}
+
+    private final byte[] buffer;
+    private final long[] timestamps;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    // The oldest entry, and how many there are
+    private int head = 0;
+    private int count = 0;
+    // Where the next blob goes in the buffer
+    private int writePos = 0;
+    private long bytesUsed = 0;
+
+    public TimestampedByteRing(int maxEntries, int maxBytes) {
+        buffer = new byte[maxBytes];
+        timestamps = new long[maxEntries];
+        offsets = new int[maxEntries];
+        lengths = new int[maxEntries];
+    }
+
+    /**
+     * Remember a blob. Timestamps should only go forward; one that goes back, e.g. because a clock
+     * jumped, starts over, since the older entries can't be compared with it.
+     *
+     * @param timestamp When the blob is for
+     * @param data The blob
+     * @return False if the blob is bigger than the whole buffer, so wasn't kept
+     */
+    public boolean add(long timestamp, byte[] data) {
+        return add(timestamp, data, data.length);
+    }
+
+    /**
+     * Remember the start of an array, e.g. a scratch array that's reused.
+     *
+     * @param timestamp When the blob is for
+     * @param data The array holding the blob
+     * @param length How many bytes of the array to keep
+     * @return False if the blob is bigger than the whole buffer, so wasn't kept
+     */
+    public synchronized boolean add(long timestamp, byte[] data, int length) {
+        if (length > buffer.length) return false;
+        if (count > 0 && timestamp < timestamps[index(count - 1)]) clear();
+
+        if (count == timestamps.length) evictOldest();
+
+        // Doesn't fit before the end of the buffer, so skip the tail and start again at the front.
+        // Anything still in the tail is older than everything at the front.
+        if (writePos + length > buffer.length) {
+            while (count > 0 && offsets[head] >= writePos) evictOldest();
+            writePos = 0;
+        }
+        // Make room for the new blob by dropping whatever's in the way, oldest first
+        while (count > 0
+                && offsets[head] < writePos + length
+                && offsets[head] + lengths[head] > writePos) {
+            evictOldest();
+        }
+
+        System.arraycopy(data, 0, buffer, writePos, length);
+        int i = index(count);
+        timestamps[i] = timestamp;
+        offsets[i] = writePos;
+        lengths[i] = length;
+        count++;
+        writePos += length;
+        bytesUsed += length;
+        return true;
+    }
+
+    /**
+     * Get every blob between two times, inclusive, oldest first.
+     *
+     * @param from Earliest timestamp
+     * @param to Latest timestamp
+     * @return Copies of the blobs
+     */
+    public List<Entry> query(long from, long to) {
+        return query(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the oldest blobs between two times, inclusive, oldest first.
+     *
+     * @param from Earliest timestamp
+     * @param to Latest timestamp
+     * @param maxCount The most blobs to return
+     * @return Copies of the blobs
+     */
+    public synchronized List<Entry> query(long from, long to, int maxCount) {
+        var ret = new ArrayList<Entry>();
+        for (int n = firstAtOrAfter(from); n < count && ret.size() < maxCount; n++) {
+            int i = index(n);
+            if (timestamps[i] > to) break;
+            ret.add(
+                    new Entry(
+                            timestamps[i], Arrays.copyOfRange(buffer, offsets[i], offsets[i] + lengths[i])));
+        }
+        return ret;
+    }
+
+    /**
+     * Forget every blob from before a time.
+     *
+     * @param timestamp The earliest timestamp to keep
+     */
+    public synchronized void evictBefore(long timestamp) {
+        while (count > 0 && timestamps[head] < timestamp) evictOldest();
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @return How many bytes of blobs are held, out of {@link #capacityBytes()}
+     */
+    public synchronized long bytesUsed() {
+        return bytesUsed;
+    }
+
+    public int capacityBytes() {
+        return buffer.length;
+    }
+
+    /**
+     * @return The timestamp of the oldest blob we still have, or -1 if there are none
+     */
+    public synchronized long getOldestTimestamp() {
+        return count > 0 ? timestamps[head] : -1;
+    }
+
+    /**
+     * @return The timestamp of the newest blob, or -1 if there are none
+     */
+    public synchronized long getNewestTimestamp() {
+        return count > 0 ? timestamps[index(count - 1)] : -1;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        count = 0;
+        writePos = 0;
+        bytesUsed = 0;
+    }
+
+    /** The nth oldest entry's slot */
+    private int index(int n) {
+        return (head + n) % timestamps.length;
+    }
+
+    private void evictOldest() {
+        bytesUsed -= lengths[head];
+        head = (head + 1) % timestamps.length;
+        count--;
+    }
+
+    /** Binary search for the first of the (oldest first) entries at or after a timestamp */
+    private int firstAtOrAfter(long timestamp) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[index(mid)] < timestamp) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
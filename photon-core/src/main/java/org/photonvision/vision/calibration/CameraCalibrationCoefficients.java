@@ -18,8 +18,10 @@
 package org.photonvision.vision.calibration;
 
 import io.avaje.jsonb.Json;
+import java.lang.ref.SoftReference;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfDouble;
 import org.opencv.core.Size;
@@ -35,7 +37,28 @@ public class CameraCalibrationCoefficients implements Releasable {
 
     public final JsonMatOfDouble distCoeffs;
 
-    public final List<BoardObservation> observations;
+    /**
+     * Observations held in memory. Empty once this calibration is backed by an observation loader,
+     * see {@link #setObservationLoader(Supplier)}
+     */
+    private List<BoardObservation> observations;
+
+    /**
+     * Loads observations from wherever they are persisted. Observations are only needed by the
+     * calibration details view and exports, so we avoid keeping them on the heap.
+     */
+    @Json.Ignore private Supplier<List<BoardObservation>> observationLoader = null;
+
+    @Json.Ignore
+    private SoftReference<List<BoardObservation>> loadedObservations = new SoftReference<>(null);
+
+    /**
+     * What the UI shows of our observations, so it can be shown without loading them. Null for
+     * calibrations saved before this was kept, until their observations are first loaded.
+     */
+    public ObservationSummary observationSummary = null;
+
+    @Json.Ignore private UICameraCalibrationCoefficients uiCoefficients = null;
 
     public final double[] calobjectWarp;
 
@@ -85,6 +108,9 @@ public class CameraCalibrationCoefficients implements Releasable {
             observations = List.of();
         }
         this.observations = observations;
+        if (!observations.isEmpty()) {
+            this.observationSummary = ObservationSummary.of(observations);
+        }
     }
 
     public CameraCalibrationCoefficients rotateCoefficients(ImageRotationMode rotation) {
@@ -172,15 +198,19 @@ public class CameraCalibrationCoefficients implements Releasable {
         rotatedIntrinsics.release();
         rotatedDistCoeffs.release();
 
-        return new CameraCalibrationCoefficients(
-                rotatedImageSize,
-                newIntrinsics,
-                newDistCoeffs,
-                calobjectWarp,
-                observations,
-                calobjectSize,
-                calobjectSpacing,
-                lensmodel);
+        var rotated =
+                new CameraCalibrationCoefficients(
+                        rotatedImageSize,
+                        newIntrinsics,
+                        newDistCoeffs,
+                        calobjectWarp,
+                        observations,
+                        calobjectSize,
+                        calobjectSpacing,
+                        lensmodel);
+        rotated.observationLoader = observationLoader;
+        rotated.observationSummary = observationSummary;
+        return rotated;
     }
 
     public Mat getCameraIntrinsicsMat() {
@@ -199,8 +229,66 @@ public class CameraCalibrationCoefficients implements Releasable {
         return distCoeffs.data;
     }
 
+    /**
+     * Get the board observations this calibration was built from. If observations are backed by a
+     * loader, they are loaded on first use and kept only as long as the GC allows.
+     *
+     * @return The observations, or an empty list if there are none
+     */
     public List<BoardObservation> getObservations() {
-        return observations;
+        if (observationLoader == null) {
+            return observations;
+        }
+
+        var ret = loadedObservations.get();
+        if (ret == null) {
+            ret = observationLoader.get();
+            if (ret == null) {
+                ret = List.of();
+            }
+            loadedObservations = new SoftReference<>(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Back this calibration's observations with a loader, dropping any observations held in memory.
+     * The loader must return the same observations as are currently held.
+     *
+     * @param loader Loads the observations on demand
+     */
+    public void setObservationLoader(Supplier<List<BoardObservation>> loader) {
+        this.observationLoader = loader;
+        this.observations = List.of();
+        this.loadedObservations = new SoftReference<>(null);
+    }
+
+    /**
+     * @return If our observations are loaded on demand instead of held in memory
+     */
+    public boolean hasObservationLoader() {
+        return observationLoader != null;
+    }
+
+    /**
+     * Create a copy of this calibration that shares our matrices but holds no observations. The copy
+     * must not be released.
+     *
+     * @return The copy
+     */
+    public CameraCalibrationCoefficients withoutObservations() {
+        var ret =
+                new CameraCalibrationCoefficients(
+                        resolution,
+                        cameraIntrinsics,
+                        distCoeffs,
+                        calobjectWarp,
+                        List.of(),
+                        calobjectSize,
+                        calobjectSpacing,
+                        lensmodel);
+        ret.observationSummary = observationSummary;
+        return ret;
     }
 
     @Override
@@ -218,21 +306,31 @@ public class CameraCalibrationCoefficients implements Releasable {
                 + ", distCoeffs="
                 + distCoeffs
                 + ", observationslen="
-                + observations.size()
+                + (observationLoader != null ? "lazy" : observations.size())
                 + ", calobjectWarp="
                 + Arrays.toString(calobjectWarp)
                 + "]";
     }
 
     public UICameraCalibrationCoefficients cloneWithoutObservations() {
-        return new UICameraCalibrationCoefficients(
-                resolution,
-                cameraIntrinsics,
-                distCoeffs,
-                calobjectWarp,
-                observations,
-                calobjectSize,
-                calobjectSpacing,
-                lensmodel);
+        // Observations never change after calibration, so the summary only needs computing once
+        if (uiCoefficients == null) {
+            if (observationSummary == null) {
+                // Saved before summaries were kept. The next save keeps this one, so this only loads
+                // the observations once.
+                observationSummary = ObservationSummary.of(getObservations());
+            }
+            uiCoefficients =
+                    new UICameraCalibrationCoefficients(
+                            resolution,
+                            cameraIntrinsics,
+                            distCoeffs,
+                            calobjectWarp,
+                            observationSummary,
+                            calobjectSize,
+                            calobjectSpacing,
+                            lensmodel);
+        }
+        return uiCoefficients;
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.calibration;
+
+import io.avaje.jsonb.Json;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The per-snapshot numbers the calibration view shows, kept with the calibration so they can be
+ * shown without loading its observations.
+ *
+ * @param meanErrors Each snapshot's mean reprojection error
+ * @param numMissing How many of each snapshot's corners weren't found
+ * @param numOutliers How many of each snapshot's found corners the solver threw out
+ */
+@Json
+public record ObservationSummary(
+        List<Double> meanErrors, List<Integer> numMissing, List<Integer> numOutliers) {
+    private static int countMissing(BoardObservation obs) {
+        return (int) obs.locationInImageSpace.stream().filter(it -> it.x < 0 || it.y < 0).count();
+    }
+
+    public static ObservationSummary of(List<BoardObservation> observations) {
+        return new ObservationSummary(
+                observations.stream().map(BoardObservation::meanReprojectionError).toList(),
+                observations.stream().map(ObservationSummary::countMissing).toList(),
+                observations.stream()
+                        .map(
+                                obs ->
+                                        IntStream.range(0, obs.cornersUsed.length)
+                                                        .filter(i -> !obs.cornersUsed[i])
+                                                        .map(i -> 1)
+                                                        .sum()
+                                                - countMissing(obs))
+                        .toList());
+    }
+}
@@ -19,7 +19,6 @@ package org.photonvision.vision.calibration;
 
 import io.avaje.jsonb.Json;
 import java.util.List;
-import java.util.stream.IntStream;
 import org.opencv.core.Size;
 
 @Json
@@ -30,16 +29,12 @@ public class UICameraCalibrationCoefficients extends CameraCalibrationCoefficien
     public List<Integer> numMissing;
     public List<Integer> numOutliers;
 
-    private static int countOutliers(BoardObservation obs) {
-        return (int) obs.locationInImageSpace.stream().filter(it -> it.x < 0 || it.y < 0).count();
-    }
-
     public UICameraCalibrationCoefficients(
             Size resolution,
             JsonMatOfDouble cameraIntrinsics,
             JsonMatOfDouble distCoeffs,
             double[] calobjectWarp,
-            List<BoardObservation> observations,
+            ObservationSummary observationSummary,
             Size calobjectSize,
             double calobjectSpacing,
             CameraLensModel lensmodel) {
@@ -54,20 +49,9 @@ public class UICameraCalibrationCoefficients extends CameraCalibrationCoefficien
                 calobjectSpacing,
                 lensmodel);
 
-        this.numSnapshots = observations.size();
-        this.meanErrors = observations.stream().map(BoardObservation::meanReprojectionError).toList();
-
-        this.numOutliers =
-                observations.stream()
-                        .map(
-                                obs ->
-                                        IntStream.range(0, obs.cornersUsed.length)
-                                                        .filter(i -> !obs.cornersUsed[i])
-                                                        .map(i -> 1)
-                                                        .sum()
-                                                - countOutliers(obs))
-                        .toList();
-        this.numMissing =
-                observations.stream().map(UICameraCalibrationCoefficients::countOutliers).toList();
+        this.numSnapshots = observationSummary.meanErrors().size();
+        this.meanErrors = observationSummary.meanErrors();
+        this.numOutliers = observationSummary.numOutliers();
+        this.numMissing = observationSummary.numMissing();
     }
 }
@@ -24,6 +24,8 @@ import org.photonvision.common.configuration.CameraConfiguration;
 import org.photonvision.vision.frame.FrameProvider;
 import org.photonvision.vision.frame.FrameStaticProperties;
 import org.photonvision.vision.frame.provider.FileFrameProvider;
+import org.photonvision.vision.frame.provider.ReplayFrameProvider;
+import org.photonvision.vision.frame.provider.ReplayFrameProvider.ReplayMode;
 import org.photonvision.vision.processes.VisionSource;
 import org.photonvision.vision.processes.VisionSourceSettables;
 import org.wpilib.util.PixelFormat;
@@ -31,7 +33,7 @@ import org.wpilib.vision.camera.UsbCameraInfo;
 import org.wpilib.vision.camera.VideoMode;
 
 public class FileVisionSource extends VisionSource {
-    private final FileFrameProvider frameProvider;
+    private final FrameProvider frameProvider;
     private final FileSourceSettables settables;
 
     public FileVisionSource(CameraConfiguration cameraConfiguration) {
@@ -40,13 +42,16 @@ public class FileVisionSource extends VisionSource {
                 !cameraConfiguration.calibrations.isEmpty()
                         ? cameraConfiguration.calibrations.get(0)
                         : null;
-        frameProvider =
-                new FileFrameProvider(
-                        // TODO - create new File/replay camera info type
-                        Path.of(cameraConfiguration.getDevicePath()),
-                        cameraConfiguration.FOV,
-                        FileFrameProvider.MAX_FPS,
-                        calibration);
+        // TODO - create new File/replay camera info type
+        var path = Path.of(cameraConfiguration.getDevicePath());
+        if (ReplayFrameProvider.canReplay(path)) {
+            frameProvider =
+                    new ReplayFrameProvider(path, cameraConfiguration.FOV, calibration, ReplayMode.REAL_TIME);
+        } else {
+            frameProvider =
+                    new FileFrameProvider(
+                            path, cameraConfiguration.FOV, FileFrameProvider.MAX_FPS, calibration);
+        }
 
         if (getCameraConfiguration().cameraQuirks == null)
             getCameraConfiguration().cameraQuirks = QuirkyCamera.DefaultCamera;
@@ -124,6 +124,13 @@ public class FileSaveFrameConsumer implements Consumer<CVMat> {
         }
     }
 
+    /**
+     * @return If a snapshot has been requested but not saved yet
+     */
+    public boolean isSnapshotRequested() {
+        return saveFrameEntry.get() > savedImagesCount;
+    }
+
     public void updateCameraNickname(String newCameraNickname) {
         // Remove existing entries
         if (this.subTable != null) {
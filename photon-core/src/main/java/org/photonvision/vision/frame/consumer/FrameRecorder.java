@@ -0,0 +1,503 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.consumer;
+
+import io.avaje.jsonb.Json;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.configuration.FrameRecorderSettings;
+import org.photonvision.common.dataflow.networktables.NetworkTablesManager;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.common.util.TimestampedByteRing;
+import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.provider.ReplayFrameProvider;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.opencv.Releasable;
+import org.photonvision.vision.target.TrackedTarget;
+import org.wpilib.networktables.IntegerEntry;
+import org.wpilib.networktables.NetworkTable;
+
+/**
+ * Keeps the last few seconds of a camera's frames, JPEG compressed, so that when something goes
+ * wrong the frames that led up to it can be saved for a post-mortem.
+ *
+ * <p>Frames are kept in a {@link TimestampedByteRing} allocated up front to the configured memory
+ * cap. A recording is saved when asked to over NT (by bumping {@value #NT_ENTRY}, like snapshots)
+ * or HTTP, or when a target's pose ambiguity is above the configured limit. Saving copies the
+ * frames out and writes them on a background thread, so recording carries on meanwhile.
+ *
+ * <p>Every input frame is copied on the vision thread, before the output stream can drop it, and
+ * encoded on the recorder's own thread. Output frames only exist once the stream has drawn them, so
+ * they're encoded on the stream thread.
+ *
+ * <p>Each recording is a directory per stream holding the frames and a {@value
+ * ReplayFrameProvider#kTimestampsFile}, so it can be played back with {@link ReplayFrameProvider}.
+ */
+public class FrameRecorder implements Releasable {
+    private final Logger logger;
+
+    private static final String NT_ENTRY = "recordTriggerCmd";
+
+    /** Frames are assumed to come no faster than this, to size the index */
+    private static final int kMaxFps = 120;
+
+    /**
+     * Input frames waiting to be encoded. If the encoder falls this far behind, frames are dropped.
+     */
+    private static final int kMaxPendingFrames = 4;
+
+    /** How quickly the average encode time follows new frames */
+    private static final double kEncodeTimeAlpha = 0.05;
+
+    static final DateTimeFormatter kNameFormat =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HHmmssSSS");
+
+    /**
+     * What the recorder is holding, and what it costs.
+     *
+     * @param enabled Whether frames are being recorded
+     * @param inputFrames Input frames held
+     * @param outputFrames Output frames held
+     * @param secondsHeld How far back the held frames go
+     * @param bytesUsed Memory used by the held frames
+     * @param maxBytes Memory set aside for frames
+     * @param encodeMillis Average time to JPEG encode a frame
+     * @param droppedFrames Input frames not recorded because the encoder fell behind
+     * @param recordings How many recordings have been saved
+     * @param saving Whether a recording is being written now
+     */
+    @Json
+    public record RecorderStats(
+            boolean enabled,
+            int inputFrames,
+            int outputFrames,
+            double secondsHeld,
+            long bytesUsed,
+            long maxBytes,
+            double encodeMillis,
+            long droppedFrames,
+            int recordings,
+            boolean saving) {}
+
+    /** A JPEG encoder for one thread, reusing its buffers */
+    private static class JpegEncoder {
+        private final MatOfByte encoded = new MatOfByte();
+        private MatOfInt params = new MatOfInt();
+        private int quality = -1;
+        byte[] data = new byte[0];
+
+        /**
+         * @return How many bytes of {@link #data} the image took
+         */
+        int encode(Mat mat, int jpegQuality) {
+            if (jpegQuality != quality) {
+                params.release();
+                params = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, jpegQuality);
+                quality = jpegQuality;
+            }
+            Imgcodecs.imencode(".jpg", mat, encoded, params);
+            int length = (int) encoded.total();
+            if (data.length < length) data = new byte[length + length / 4];
+            encoded.get(0, 0, data);
+            return length;
+        }
+
+        void release() {
+            encoded.release();
+            params.release();
+        }
+    }
+
+    private final String cameraUniqueName;
+    private FrameRecorderSettings settings = new FrameRecorderSettings();
+
+    // Null unless enabled. Rings lock themselves, so frames are added to them outside our lock.
+    private TimestampedByteRing inputRing;
+    private TimestampedByteRing outputRing;
+
+    // Mats to copy input frames into, and the thread encoding them
+    private final BlockingQueue<Mat> freeMats = new ArrayBlockingQueue<>(kMaxPendingFrames);
+    private final ExecutorService encoder;
+    private final JpegEncoder inputEncoder = new JpegEncoder();
+    private final JpegEncoder outputEncoder = new JpegEncoder();
+    private double encodeMillis = 0;
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private final NetworkTable rootTable;
+    private IntegerEntry triggerEntry;
+    private long handledTriggers = 0;
+    private volatile String requestedTrigger = null;
+    private long lastRuleTriggerNanos = 0;
+
+    private final ExecutorService saver;
+    private final AtomicBoolean saving = new AtomicBoolean(false);
+    private final AtomicInteger recordings = new AtomicInteger();
+
+    public FrameRecorder(String cameraNickname, String cameraUniqueName) {
+        this.cameraUniqueName = cameraUniqueName;
+        this.logger = new Logger(FrameRecorder.class, cameraNickname, LogGroup.VisionModule);
+        this.rootTable = NetworkTablesManager.getInstance().kRootTable;
+        this.encoder = daemonExecutor("FrameRecorder encoder - " + cameraNickname);
+        this.saver = daemonExecutor("FrameRecorder - " + cameraNickname);
+        for (int i = 0; i < kMaxPendingFrames; i++) freeMats.add(new Mat());
+
+        updateCameraNickname(cameraNickname);
+    }
+
+    private static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(
+                r -> {
+                    var thread = new Thread(r, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Change how frames are recorded. Values out of range are clamped. Changing anything but the
+     * trigger or quality drops what's been recorded, since the memory is set aside again.
+     *
+     * @param newSettings The new settings
+     */
+    public synchronized void setSettings(FrameRecorderSettings newSettings) {
+        newSettings = newSettings.clamped();
+        boolean remake =
+                newSettings.enabled != settings.enabled
+                        || newSettings.seconds != settings.seconds
+                        || newSettings.maxMegabytes != settings.maxMegabytes
+                        || newSettings.recordOutput != settings.recordOutput
+                        || (newSettings.enabled && inputRing == null);
+        settings = newSettings;
+        if (!remake) return;
+
+        inputRing = null;
+        outputRing = null;
+        if (settings.enabled) {
+            long maxBytes = (long) settings.maxMegabytes << 20;
+            int maxFrames = Math.max(1, (int) Math.ceil(settings.seconds * kMaxFps));
+            if (settings.recordOutput) {
+                inputRing = new TimestampedByteRing(maxFrames, (int) (maxBytes / 2));
+                outputRing = new TimestampedByteRing(maxFrames, (int) (maxBytes / 2));
+            } else {
+                inputRing = new TimestampedByteRing(maxFrames, (int) maxBytes);
+            }
+            logger.info(
+                    "Recording the last "
+                            + settings.seconds
+                            + "s of frames in up to "
+                            + settings.maxMegabytes
+                            + "MB");
+        }
+    }
+
+    /**
+     * @return Whether frames are being recorded
+     */
+    public synchronized boolean isEnabled() {
+        return settings.enabled;
+    }
+
+    /**
+     * @return Whether the output image should be drawn, so it can be recorded
+     */
+    public synchronized boolean wantsOutput() {
+        return settings.enabled && settings.recordOutput;
+    }
+
+    /**
+     * Record a pipeline result's input frame, and save a recording if anything asked for one. Called
+     * on the vision thread for every result, before the frame is handed to the output stream. The
+     * frame is copied, so it can be released as soon as this returns.
+     *
+     * @param frame The frame, or null if the pipeline had none
+     * @param targets The targets found in it
+     */
+    public void recordInput(Frame frame, List<TrackedTarget> targets) {
+        String reason;
+        int quality;
+        double seconds;
+        TimestampedByteRing ring;
+        synchronized (this) {
+            checkNtTrigger();
+            if (!settings.enabled) {
+                // Nothing to save
+                requestedTrigger = null;
+                return;
+            }
+            if (frame == null) return;
+
+            reason = requestedTrigger;
+            requestedTrigger = null;
+            if (reason == null) reason = checkRules(frame.timestampNanos, targets);
+            quality = settings.jpegQuality;
+            seconds = settings.seconds;
+            ring = inputRing;
+        }
+
+        Mat copy = null;
+        Mat mat = frame.colorImage != null ? frame.colorImage.getMat() : null;
+        if (mat != null && !mat.empty()) {
+            copy = freeMats.poll();
+            if (copy != null) {
+                mat.copyTo(copy);
+            } else {
+                droppedFrames.incrementAndGet();
+            }
+        }
+
+        // Even with no frame to encode, a save has to wait for those ahead of it
+        if (copy == null && reason == null) return;
+        final Mat pending = copy;
+        final String saveReason = reason;
+        long timestamp = frame.timestampNanos;
+        encoder.execute(
+                () -> {
+                    try {
+                        if (pending != null) {
+                            record(inputEncoder, ring, pending, timestamp, seconds, quality);
+                        }
+                        if (saveReason != null) save(saveReason);
+                    } catch (Exception e) {
+                        logger.error("Couldn't record frame", e);
+                    } finally {
+                        if (pending != null) freeMats.offer(pending);
+                    }
+                });
+    }
+
+    /**
+     * Record a frame's output image, once the output stream has drawn on it. Called on the stream
+     * thread.
+     *
+     * @param frame The frame
+     */
+    public void recordOutput(Frame frame) {
+        int quality;
+        double seconds;
+        TimestampedByteRing ring;
+        synchronized (this) {
+            if (outputRing == null || frame == null) return;
+            quality = settings.jpegQuality;
+            seconds = settings.seconds;
+            ring = outputRing;
+        }
+
+        CVMat image = frame.processedImage;
+        Mat mat = image != null ? image.getMat() : null;
+        if (mat == null || mat.empty()) return;
+        record(outputEncoder, ring, mat, frame.timestampNanos, seconds, quality);
+    }
+
+    /**
+     * @return Why a rule wants a recording saved, or null
+     */
+    private String checkRules(long timestamp, List<TrackedTarget> targets) {
+        if (settings.ambiguityTrigger <= 0 || targets == null) return null;
+
+        String reason = null;
+        for (var target : targets) {
+            if (target.getPoseAmbiguity() > settings.ambiguityTrigger) {
+                reason = "ambiguity";
+                break;
+            }
+        }
+        // Once tripped, let a whole recording's worth of new frames in before tripping again
+        if (reason == null || timestamp - lastRuleTriggerNanos < settings.seconds * 1e9) return null;
+        lastRuleTriggerNanos = timestamp;
+        return reason;
+    }
+
+    private void record(
+            JpegEncoder jpeg,
+            TimestampedByteRing ring,
+            Mat mat,
+            long timestamp,
+            double seconds,
+            int quality) {
+        long start = System.nanoTime();
+        int length = jpeg.encode(mat, quality);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        ring.add(timestamp, jpeg.data, length);
+        ring.evictBefore(timestamp - (long) (seconds * 1e9));
+
+        synchronized (this) {
+            encodeMillis =
+                    encodeMillis == 0 ? millis : encodeMillis + kEncodeTimeAlpha * (millis - encodeMillis);
+        }
+    }
+
+    /** Wait for the input frames recorded so far to be encoded, and any save they triggered */
+    void awaitEncoded() throws InterruptedException, ExecutionException {
+        encoder.submit(() -> {}).get();
+    }
+
+    /**
+     * Save a recording of the frames held, on the next frame. Safe to call from any thread.
+     *
+     * @param reason Why, which goes in the recording's name
+     */
+    public void trigger(String reason) {
+        requestedTrigger = reason;
+    }
+
+    private void checkNtTrigger() {
+        long requested = triggerEntry.get();
+        if (requested > handledTriggers) {
+            handledTriggers = requested;
+            trigger("nt");
+        } else if (requested < handledTriggers) {
+            // Reset local value with NT value in case of de-sync
+            handledTriggers = requested;
+        }
+    }
+
+    private void save(String reason) {
+        TimestampedByteRing input;
+        TimestampedByteRing output;
+        synchronized (this) {
+            input = inputRing;
+            output = outputRing;
+        }
+        // Turned off since the save was asked for
+        if (input == null) return;
+
+        if (!saving.compareAndSet(false, true)) {
+            logger.warn("Already saving a recording, not saving another for " + reason);
+            return;
+        }
+
+        var inputFrames = input.query(Long.MIN_VALUE, Long.MAX_VALUE);
+        var outputFrames =
+                output != null
+                        ? output.query(Long.MIN_VALUE, Long.MAX_VALUE)
+                        : List.<TimestampedByteRing.Entry>of();
+        var dir =
+                ConfigManager.getInstance()
+                        .getImageSavePath()
+                        .resolve(cameraUniqueName)
+                        .resolve("recording_" + kNameFormat.format(LocalDateTime.now()) + "_" + reason);
+
+        logger.info(
+                "Saving " + inputFrames.size() + " recorded frames to " + dir + " (" + reason + ")");
+        saver.execute(
+                () -> {
+                    try {
+                        write(dir.resolve("input"), inputFrames);
+                        if (!outputFrames.isEmpty()) write(dir.resolve("output"), outputFrames);
+                        logger.info("Saved recording to " + dir);
+                    } catch (IOException e) {
+                        logger.error("Couldn't save recording to " + dir, e);
+                    } finally {
+                        saving.set(false);
+                    }
+                });
+        recordings.incrementAndGet();
+    }
+
+    private static void write(Path dir, List<TimestampedByteRing.Entry> frames) throws IOException {
+        Files.createDirectories(dir);
+        var timestamps = new StringBuilder();
+        for (int i = 0; i < frames.size(); i++) {
+            var name = String.format("frame_%05d.jpg", i);
+            Files.write(dir.resolve(name), frames.get(i).data());
+            timestamps.append(name).append(',').append(frames.get(i).timestamp()).append('\n');
+        }
+        Files.writeString(dir.resolve(ReplayFrameProvider.kTimestampsFile), timestamps);
+    }
+
+    public synchronized RecorderStats getStats() {
+        if (!settings.enabled) {
+            return new RecorderStats(
+                    false, 0, 0, 0, 0, 0, 0, droppedFrames.get(), recordings.get(), saving.get());
+        }
+
+        long bytesUsed = inputRing.bytesUsed();
+        long maxBytes = inputRing.capacityBytes();
+        int outputFrames = 0;
+        if (outputRing != null) {
+            bytesUsed += outputRing.bytesUsed();
+            maxBytes += outputRing.capacityBytes();
+            outputFrames = outputRing.size();
+        }
+        double secondsHeld =
+                inputRing.size() > 0
+                        ? (inputRing.getNewestTimestamp() - inputRing.getOldestTimestamp()) / 1e9
+                        : 0;
+        return new RecorderStats(
+                true,
+                inputRing.size(),
+                outputFrames,
+                secondsHeld,
+                bytesUsed,
+                maxBytes,
+                encodeMillis,
+                droppedFrames.get(),
+                recordings.get(),
+                saving.get());
+    }
+
+    public synchronized void updateCameraNickname(String newCameraNickname) {
+        if (triggerEntry != null) triggerEntry.close();
+
+        var subTable = rootTable.getSubTable(newCameraNickname);
+        subTable.getEntry(NT_ENTRY).setInteger(handledTriggers);
+        triggerEntry = subTable.getIntegerTopic(NT_ENTRY).getEntry(0);
+    }
+
+    @Override
+    public void release() {
+        encoder.shutdown();
+        try {
+            // Let frames being encoded finish with their Mats
+            encoder.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            triggerEntry.close();
+            saver.shutdown();
+            inputEncoder.release();
+            outputEncoder.release();
+            Mat mat;
+            while ((mat = freeMats.poll()) != null) mat.release();
+            settings = new FrameRecorderSettings();
+            inputRing = null;
+            outputRing = null;
+        }
+    }
+}
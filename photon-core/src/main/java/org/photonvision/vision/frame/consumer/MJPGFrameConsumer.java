@@ -25,9 +25,8 @@ import org.wpilib.vision.camera.*;
 import org.wpilib.vision.stream.CameraServer;
 
 public class MJPGFrameConsumer implements AutoCloseable {
-    private static final double MAX_FRAMERATE = -1;
-    private static final long MAX_FRAME_PERIOD_NS = Math.round(1e9 / MAX_FRAMERATE);
-
+    // Negative while the frame rate isn't capped
+    private volatile long minFramePeriodNs = -1;
     private long lastFrameTimeNs;
     private CvSource cvSource;
     private MjpegServer mjpegServer;
@@ -46,18 +45,70 @@ public class MJPGFrameConsumer implements AutoCloseable {
     }
 
     public void accept(CVMat image) {
+        // Frames nobody receives would only be copied and thrown away
+        if (!hasViewers()) {
+            return;
+        }
+
         long now = MathUtils.wpiNanoTime();
 
         if (image == null || image.getMat() == null || image.getMat().empty()) {
             image.copyFrom(StaticFrames.LOST_MAT);
         }
 
-        if (now - lastFrameTimeNs > MAX_FRAME_PERIOD_NS) {
+        if (isFrameDue(true, now - lastFrameTimeNs, minFramePeriodNs)) {
             lastFrameTimeNs = now;
             cvSource.putFrame(image.getMat());
         }
     }
 
+    /**
+     * Send clients at most this many frames a second. The MJPEG server sends every frame it is given,
+     * so this is also the rate frames are drawn for it.
+     *
+     * @param fps The highest frame rate, or zero or less for no cap
+     */
+    public void setMaxFramerate(double fps) {
+        minFramePeriodNs = framePeriodNs(fps);
+    }
+
+    /**
+     * @param fps The highest frame rate, or zero or less for no cap
+     * @return The shortest time allowed between frames, or -1 for no cap
+     */
+    static long framePeriodNs(double fps) {
+        // Cameras never deliver at exactly their nominal rate, so leave some slack for frames that
+        // come a little early. Otherwise every so often one would be dropped.
+        return fps > 0 ? Math.round(0.9e9 / fps) : -1;
+    }
+
+    /**
+     * @return If a frame accepted now would be sent on to clients, rather than dropped
+     */
+    public boolean isFrameDue() {
+        return isFrameDue(hasViewers(), MathUtils.wpiNanoTime() - lastFrameTimeNs, minFramePeriodNs);
+    }
+
+    /**
+     * @param hasViewers If any client is connected
+     * @param sinceLastFrameNs How long ago the last frame was sent
+     * @param minFramePeriodNs The shortest time allowed between frames. Negative when the frame rate
+     *     isn't capped.
+     * @return If a frame would be sent on to clients
+     */
+    static boolean isFrameDue(boolean hasViewers, long sinceLastFrameNs, long minFramePeriodNs) {
+        return hasViewers && sinceLastFrameNs > minFramePeriodNs;
+    }
+
+    /**
+     * @return If any client is connected to the stream
+     */
+    public boolean hasViewers() {
+        // The MJPEG server only enables its source while a client is connected
+        var source = cvSource;
+        return source != null && source.isEnabled();
+    }
+
     @Override
     public void close() {
         CameraServer.removeServer(mjpegServer.getName());
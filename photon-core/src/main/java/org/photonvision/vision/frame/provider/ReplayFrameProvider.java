@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.provider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+import org.photonvision.common.hardware.metrics.ProcfsSampler;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.common.util.math.MathUtils;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
+import org.photonvision.vision.frame.FrameProvider;
+import org.photonvision.vision.frame.FrameStaticProperties;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.opencv.Releasable;
+
+/**
+ * A {@link FrameProvider} that replays a recording, either a directory of images or a video file,
+ * with the frames' original timing, so a pipeline's throughput and latency can be measured offline
+ * on the same input every time.
+ *
+ * <p>A directory is replayed in the order, and with the capture timestamps, listed in its {@value
+ * #kTimestampsFile}, one "file,timestamp in nanoseconds" per line. Without one, every image in the
+ * directory is replayed in name order, {@link #kDefaultFrameNanos} apart. A video is replayed with
+ * the timestamps stored in it.
+ *
+ * <p>Frames are decoded a few ahead on a background thread, so reading files doesn't count against
+ * the pipeline. The recording loops forever; {@link #getLoopCount()} says how many times it has
+ * been played through.
+ */
+public class ReplayFrameProvider extends CpuImageProcessor implements Releasable {
+    private static final Logger logger = new Logger(ReplayFrameProvider.class, LogGroup.Camera);
+
+    /** Lists the images in a directory and when each was captured */
+    public static final String kTimestampsFile = "timestamps.csv";
+
+    /** How far apart images are, if the directory doesn't say. 30 fps. */
+    public static final long kDefaultFrameNanos = 33_333_333L;
+
+    /** How many frames to decode ahead of the pipeline */
+    private static final int kDecodeAhead = 8;
+
+    /** How long to wait for the decode thread before handing out an empty frame, like a camera */
+    private static final long kFrameTimeoutMillis = 250;
+
+    /**
+     * In real time mode, a pause between frames longer than this, like before the pipeline starts or
+     * while it's switched, restarts the replay clock rather than skipping everything it missed. A
+     * pipeline that is just slow takes frames much more often than this, so still has frames skipped.
+     */
+    static final long kResyncNanos = 500_000_000L;
+
+    private static final List<String> kImageExtensions = List.of(".jpg", ".jpeg", ".png", ".bmp");
+    private static final List<String> kVideoExtensions =
+            List.of(".mp4", ".avi", ".mkv", ".mov", ".mjpeg", ".mjpg");
+
+    public enum ReplayMode {
+        /**
+         * Hand frames out no faster than they were captured, and skip frames the pipeline is too slow
+         * for, like a camera would. Capture timestamps are when the replay started, or resumed after a
+         * pause, plus each frame's original offset, so latency is measured as it would be on the field.
+         */
+        REAL_TIME,
+        /**
+         * Hand frames out as fast as the pipeline takes them, to measure throughput. Capture timestamps
+         * are when each frame was handed out.
+         */
+        FREE_RUNNING
+    }
+
+    private record DecodedFrame(Mat image, long timestampNanos, int loop) {}
+
+    private static int count = 0;
+
+    private final int thisIndex = count++;
+    private final Path path;
+    private final ReplayMode mode;
+    private final FrameStaticProperties properties;
+    private final Size frameSize;
+    private final ReplaySource source;
+
+    private final BlockingQueue<DecodedFrame> decoded = new ArrayBlockingQueue<>(kDecodeAhead);
+    private final Thread decodeThread;
+    // Set once the decode thread has stopped without being released
+    private volatile boolean decodeFailed = false;
+
+    // Owned by the decode thread
+    private int decodeLoop = 0;
+
+    // Owned by the vision thread
+    private int currentLoop = -1;
+    private long loopStartNanos;
+    private long loopStartSourceNanos;
+    private long lastSourceTimestampNanos;
+    private long lastTakenNanos = 0;
+    private long droppedFrames = 0;
+
+    /**
+     * Instantiates a new ReplayFrameProvider.
+     *
+     * @param path A directory of images, or a video file
+     * @param fov The fov of the recording
+     * @param calibration The calibration of the camera that recorded it, if any
+     * @param mode How to pace the frames
+     */
+    public ReplayFrameProvider(
+            Path path, double fov, CameraCalibrationCoefficients calibration, ReplayMode mode) {
+        if (!Files.exists(path))
+            throw new RuntimeException("Invalid path for recording: " + path.toAbsolutePath());
+        this.path = path;
+        this.mode = mode;
+        this.source = Files.isDirectory(path) ? new ImageDirectorySource(path) : new VideoSource(path);
+
+        // The first frame decides the size of the rest
+        var first = source.read();
+        if (first == null || first.cols() == 0 || first.rows() == 0) {
+            if (first != null) first.release();
+            source.release();
+            throw new RuntimeException("Recording loading failed!");
+        }
+        frameSize = first.size();
+        properties = new FrameStaticProperties(first.width(), first.height(), fov, calibration);
+        decoded.add(new DecodedFrame(first, source.timestampNanos(), 0));
+
+        var name = "ReplayDecode - " + thisIndex;
+        decodeThread =
+                new Thread(
+                        () -> {
+                            ProcfsSampler.labelCurrentThread(name);
+                            decodeLoop();
+                        },
+                        name);
+        decodeThread.setDaemon(true);
+        decodeThread.start();
+    }
+
+    /**
+     * Whether a path looks like something this can replay.
+     *
+     * @param path The path
+     * @return True for directories and video files
+     */
+    public static boolean canReplay(Path path) {
+        return Files.isDirectory(path) || hasExtension(path, kVideoExtensions);
+    }
+
+    private static boolean hasExtension(Path path, List<String> extensions) {
+        var name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return extensions.stream().anyMatch(name::endsWith);
+    }
+
+    private void decodeLoop() {
+        try {
+            while (true) {
+                var image = source.read();
+                if (image == null) {
+                    // Start over from the beginning
+                    source.rewind();
+                    decodeLoop++;
+                    image = source.read();
+                    if (image == null) {
+                        logger.error("Couldn't read " + path + " after rewinding it, giving up");
+                        decodeFailed = true;
+                        return;
+                    }
+                }
+                if (!image.size().equals(frameSize)) {
+                    Imgproc.resize(image, image, frameSize);
+                }
+                try {
+                    decoded.put(new DecodedFrame(image, source.timestampNanos(), decodeLoop));
+                } catch (InterruptedException e) {
+                    // Released, so we're done
+                    image.release();
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Couldn't decode " + path + ", giving up", e);
+            decodeFailed = true;
+        } finally {
+            source.release();
+        }
+    }
+
+    @Override
+    CapturedFrame getInputMat() {
+        DecodedFrame frame;
+        try {
+            frame = decoded.poll(kFrameTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            System.err.println("ReplayFrameProvider interrupted - not busywaiting");
+            // throw back up the stack
+            throw new RuntimeException(e);
+        }
+        if (frame == null) {
+            // The decode thread is behind, or gave up. Either way there's no frame, like a camera that
+            // timed out.
+            lastTakenNanos = 0;
+            return new CapturedFrame(new CVMat(), properties, 0);
+        }
+
+        long now = MathUtils.wpiNanoTime();
+        if (frame.loop() != currentLoop || now - lastTakenNanos > kResyncNanos) {
+            // Hand this frame out now, and the rest relative to it
+            currentLoop = frame.loop();
+            loopStartNanos = now;
+            loopStartSourceNanos = frame.timestampNanos();
+        }
+
+        long captureNanos = now;
+        if (mode == ReplayMode.REAL_TIME) {
+            // A camera would have moved on to a newer frame if we were too slow to take this one
+            var next = decoded.peek();
+            while (next != null && next.loop() == currentLoop && dueAt(next) <= now) {
+                frame.image().release();
+                droppedFrames++;
+                frame = decoded.poll();
+                next = decoded.peek();
+            }
+
+            captureNanos = dueAt(frame);
+            long wait = captureNanos - now;
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    frame.image().release();
+                    System.err.println("ReplayFrameProvider interrupted - not busywaiting");
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        lastSourceTimestampNanos = frame.timestampNanos();
+        lastTakenNanos = MathUtils.wpiNanoTime();
+        return new CapturedFrame(new CVMat(frame.image()), properties, captureNanos);
+    }
+
+    /** When a frame should be handed out, to keep its original offset from the start of the loop */
+    private long dueAt(DecodedFrame frame) {
+        return loopStartNanos + (frame.timestampNanos() - loopStartSourceNanos);
+    }
+
+    /**
+     * @return The capture timestamp recorded with the last frame handed out, in nanoseconds
+     */
+    public long getLastSourceTimestampNanos() {
+        return lastSourceTimestampNanos;
+    }
+
+    /**
+     * @return How many times the recording has been played through
+     */
+    public int getLoopCount() {
+        return Math.max(currentLoop, 0);
+    }
+
+    /**
+     * @return How many frames were skipped in real time mode because the pipeline fell behind
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public String getName() {
+        return "ReplayFrameProvider" + thisIndex + " - " + path.getFileName();
+    }
+
+    @Override
+    public void release() {
+        decodeThread.interrupt();
+        try {
+            decodeThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        DecodedFrame frame;
+        while ((frame = decoded.poll()) != null) frame.image().release();
+    }
+
+    @Override
+    public boolean checkCameraConnected() {
+        return isConnected();
+    }
+
+    @Override
+    public boolean isConnected() {
+        // Frames already decoded are still handed out, but no more are coming
+        return !decodeFailed;
+    }
+
+    @Override
+    public boolean hasConnected() {
+        return true;
+    }
+
+    /** Where frames are decoded from. Only used by one thread at a time. */
+    private interface ReplaySource {
+        /**
+         * Decode the next frame.
+         *
+         * @return The frame, or null at the end of the recording
+         */
+        Mat read();
+
+        /** When the frame last read was captured */
+        long timestampNanos();
+
+        /** Go back to the first frame */
+        void rewind();
+
+        void release();
+    }
+
+    private static class ImageDirectorySource implements ReplaySource {
+        private final List<Path> files = new ArrayList<>();
+        private final List<Long> timestamps = new ArrayList<>();
+        private int next = 0;
+
+        ImageDirectorySource(Path directory) {
+            var timestampsFile = directory.resolve(kTimestampsFile);
+            try {
+                if (Files.exists(timestampsFile)) {
+                    for (var line : Files.readAllLines(timestampsFile)) {
+                        var parts = line.split(",");
+                        if (parts.length != 2) continue;
+                        long timestamp;
+                        try {
+                            timestamp = Long.parseLong(parts[1].trim());
+                        } catch (NumberFormatException e) {
+                            // Most likely a header
+                            continue;
+                        }
+                        files.add(directory.resolve(parts[0].trim()));
+                        timestamps.add(timestamp);
+                    }
+                } else {
+                    try (var listing = Files.list(directory)) {
+                        listing.filter(it -> hasExtension(it, kImageExtensions)).sorted().forEach(files::add);
+                    }
+                    for (int i = 0; i < files.size(); i++) timestamps.add(i * kDefaultFrameNanos);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't list the images in " + directory, e);
+            }
+            if (files.isEmpty()) {
+                throw new RuntimeException("No images to replay in " + directory);
+            }
+        }
+
+        @Override
+        public Mat read() {
+            while (next < files.size()) {
+                var file = files.get(next++);
+                var image = Imgcodecs.imread(file.toString());
+                if (!image.empty()) return image;
+                image.release();
+                logger.warn("Couldn't read " + file + ", skipping it");
+            }
+            return null;
+        }
+
+        @Override
+        public long timestampNanos() {
+            return timestamps.get(next - 1);
+        }
+
+        @Override
+        public void rewind() {
+            next = 0;
+        }
+
+        @Override
+        public void release() {}
+    }
+
+    private static class VideoSource implements ReplaySource {
+        private final Path file;
+        private final VideoCapture capture;
+
+        VideoSource(Path file) {
+            this.file = file;
+            capture = new VideoCapture(file.toString());
+            if (!capture.isOpened()) {
+                capture.release();
+                throw new RuntimeException("Couldn't open video " + file);
+            }
+        }
+
+        @Override
+        public Mat read() {
+            var image = new Mat();
+            if (capture.read(image)) return image;
+            image.release();
+            return null;
+        }
+
+        @Override
+        public long timestampNanos() {
+            return Math.round(capture.get(Videoio.CAP_PROP_POS_MSEC) * 1e6);
+        }
+
+        @Override
+        public void rewind() {
+            if (!capture.set(Videoio.CAP_PROP_POS_FRAMES, 0)) {
+                // Not every backend can seek, so open it again instead
+                capture.open(file.toString());
+            }
+        }
+
+        @Override
+        public void release() {
+            capture.release();
+        }
+    }
+}
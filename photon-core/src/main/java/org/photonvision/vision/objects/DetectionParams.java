@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+/**
+ * Which of the raw outputs of an object detector are kept.
+ *
+ * @param confidence The minimum confidence of a detection
+ * @param nms Of two detections of the same class overlapping by more than this IoU, only the more
+ *     confident one is kept
+ * @param classConfidence The minimum confidence of each class, by class index. Classes without an
+ *     entry, or with a negative one, use {@code confidence}. May be null.
+ * @param maxDetections Stop once this many detections have been kept, or 0 to keep them all
+ */
+public record DetectionParams(
+        double confidence, double nms, double[] classConfidence, int maxDetections) {
+    public DetectionParams(double confidence, double nms) {
+        this(confidence, nms, null, 0);
+    }
+
+    /**
+     * @param classIdx The class of a detection
+     * @return The minimum confidence for detections of that class
+     */
+    public double confidenceFor(int classIdx) {
+        if (classConfidence != null
+                && classIdx >= 0
+                && classIdx < classConfidence.length
+                && classConfidence[classIdx] >= 0) {
+            return classConfidence[classIdx];
+        }
+        return confidence;
+    }
+
+    /**
+     * @return The lowest confidence any class may be detected with
+     */
+    public double minConfidence() {
+        double min = confidence;
+        if (classConfidence != null) {
+            for (double c : classConfidence) {
+                if (c >= 0) min = Math.min(min, c);
+            }
+        }
+        return min;
+    }
+}
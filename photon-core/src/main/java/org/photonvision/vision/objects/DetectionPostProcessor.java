@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.opencv.core.Rect2d;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+
+/**
+ * Filters the raw boxes from an object detector, and maps the ones that are kept back into the
+ * frame. This is shared by every backend, so they all threshold, suppress and rescale the same way.
+ *
+ * <p>Boxes are kept in primitive arrays that are reused between frames, so nothing is allocated per
+ * candidate box, only per kept detection. Candidates are ordered by confidence, then greedily
+ * suppressed against the more confident boxes of the same class, stopping early once enough
+ * detections have been kept.
+ *
+ * <p>Not thread safe. Each detector owns its own.
+ */
+public class DetectionPostProcessor {
+    /**
+     * The NMS threshold to give backends that suppress boxes natively. No two boxes overlap by more
+     * than this, so they keep every box and suppression only happens here.
+     */
+    public static final double kNoNativeNms = 1.0;
+
+    private int count = 0;
+
+    // Boxes in model input coordinates, as corners
+    private float[] x0 = new float[0];
+    private float[] y0 = new float[0];
+    private float[] x1 = new float[0];
+    private float[] y1 = new float[0];
+    private float[] area = new float[0];
+    private double[] confidence = new double[0];
+    private int[] classIdx = new int[0];
+
+    // Confidence and index packed together, so candidates can be sorted without boxing
+    private long[] order = new long[0];
+    private boolean[] suppressed = new boolean[0];
+
+    /** Forget the boxes from the last frame. */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Add a box that the detector found.
+     *
+     * @param x The left edge, in model input coordinates
+     * @param y The top edge, in model input coordinates
+     * @param width The width of the box
+     * @param height The height of the box
+     * @param classIdx The class of the box
+     * @param confidence The confidence of the box, from 0 to 1
+     */
+    public void add(
+            double x, double y, double width, double height, int classIdx, double confidence) {
+        if (count == x0.length) {
+            grow(Math.max(16, count * 2));
+        }
+        x0[count] = (float) x;
+        y0[count] = (float) y;
+        x1[count] = (float) (x + width);
+        y1[count] = (float) (y + height);
+        this.classIdx[count] = classIdx;
+        this.confidence[count] = confidence;
+        count++;
+    }
+
+    private void grow(int capacity) {
+        x0 = Arrays.copyOf(x0, capacity);
+        y0 = Arrays.copyOf(y0, capacity);
+        x1 = Arrays.copyOf(x1, capacity);
+        y1 = Arrays.copyOf(y1, capacity);
+        area = Arrays.copyOf(area, capacity);
+        confidence = Arrays.copyOf(confidence, capacity);
+        classIdx = Arrays.copyOf(classIdx, capacity);
+        order = Arrays.copyOf(order, capacity);
+        suppressed = Arrays.copyOf(suppressed, capacity);
+    }
+
+    /**
+     * Filter the boxes added since the last {@link #clear()}.
+     *
+     * @param params Which boxes to keep
+     * @param scale How the frame was letterboxed into the model input
+     * @return The kept detections in frame coordinates, most confident first
+     */
+    public List<NeuralNetworkPipeResult> process(DetectionParams params, Letterbox scale) {
+        int candidates = 0;
+        for (int i = 0; i < count; i++) {
+            if (confidence[i] < params.confidenceFor(classIdx[i])) continue;
+
+            area[i] = (x1[i] - x0[i]) * (y1[i] - y0[i]);
+            // Confidence is never negative, so its bits sort the same way it does
+            order[candidates++] = ((long) Float.floatToIntBits((float) confidence[i]) << 32) | i;
+        }
+        Arrays.sort(order, 0, candidates);
+        Arrays.fill(suppressed, 0, count, false);
+
+        int max = params.maxDetections() > 0 ? params.maxDetections() : Integer.MAX_VALUE;
+        var kept = new ArrayList<NeuralNetworkPipeResult>(Math.min(candidates, max));
+
+        // Most confident first
+        for (int a = candidates - 1; a >= 0 && kept.size() < max; a--) {
+            int i = (int) order[a];
+            if (suppressed[i]) continue;
+            kept.add(toFrame(i, scale));
+
+            for (int b = a - 1; b >= 0; b--) {
+                int j = (int) order[b];
+                if (suppressed[j] || classIdx[j] != classIdx[i]) continue;
+                if (iou(i, j) > params.nms()) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        return kept;
+    }
+
+    private double iou(int i, int j) {
+        float w = Math.min(x1[i], x1[j]) - Math.max(x0[i], x0[j]);
+        float h = Math.min(y1[i], y1[j]) - Math.max(y0[i], y0[j]);
+        if (w <= 0 || h <= 0) return 0;
+        float intersection = w * h;
+        return intersection / (area[i] + area[j] - intersection);
+    }
+
+    private NeuralNetworkPipeResult toFrame(int i, Letterbox scale) {
+        double inverse = 1.0 / scale.scale;
+        return new NeuralNetworkPipeResult(
+                new Rect2d(
+                        (x0[i] - scale.dx) * inverse,
+                        (y0[i] - scale.dy) * inverse,
+                        (x1[i] - x0[i]) * inverse,
+                        (y1[i] - y0[i]) * inverse),
+                classIdx[i],
+                confidence[i]);
+    }
+}
@@ -88,25 +88,31 @@ public class Letterbox {
      */
     public List<NeuralNetworkPipeResult> resizeDetections(List<NeuralNetworkPipeResult> unscaled) {
         var ret = new ArrayList<NeuralNetworkPipeResult>(unscaled.size());
-
-        for (var t : unscaled) {
-            var scale = 1.0 / this.scale;
-            var boundingBox = t.bbox();
-
-            double cx = (boundingBox.center.x - this.dx) * scale;
-            double cy = (boundingBox.center.y - this.dy) * scale;
-            double width = boundingBox.size.width * scale;
-            double height = boundingBox.size.height * scale;
-
-            Point center = new Point(cx, cy);
-            Size size = new Size(width, height);
-
-            // angle is unchanged from letterbox transformation
-
-            ret.add(
-                    new NeuralNetworkPipeResult(
-                            new RotatedRect(center, size, boundingBox.angle), t.classIdx(), t.confidence()));
+        for (int i = 0; i < unscaled.size(); i++) {
+            ret.add(resizeDetection(unscaled.get(i)));
         }
         return ret;
     }
+
+    /**
+     * Resizes a detection to the original frame size.
+     *
+     * @param unscaled The detection to resize
+     * @return The resized detection
+     */
+    public NeuralNetworkPipeResult resizeDetection(NeuralNetworkPipeResult unscaled) {
+        double inverse = 1.0 / this.scale;
+        var boundingBox = unscaled.bbox();
+
+        double cx = (boundingBox.center.x - this.dx) * inverse;
+        double cy = (boundingBox.center.y - this.dy) * inverse;
+        double width = boundingBox.size.width * inverse;
+        double height = boundingBox.size.height * inverse;
+
+        // angle is unchanged from letterbox transformation
+        return new NeuralNetworkPipeResult(
+                new RotatedRect(new Point(cx, cy), new Size(width, height), boundingBox.angle),
+                unscaled.classIdx(),
+                unscaled.confidence());
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.vision.opencv.Releasable;
+
+/**
+ * A reusable model input image that frames are letterboxed into.
+ *
+ * <p>Unlike {@link Letterbox#letterbox}, which resizes into a temporary image and then copies it
+ * again to add the padding, frames are resized straight into the middle of a preallocated image.
+ * The padding is only filled in when the frame size changes, since nothing else ever writes to it.
+ */
+public class LetterboxBuffer implements Releasable {
+    private final Size inputSize;
+    private final Scalar color;
+
+    private final Mat buffer = new Mat();
+    // The part of the buffer the frame is resized into
+    private Mat inner = null;
+    private Letterbox letterbox = null;
+
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+    private int frameType = -1;
+
+    /**
+     * @param inputSize The input size of the model
+     * @param color The color to pad the frame with
+     */
+    public LetterboxBuffer(Size inputSize, Scalar color) {
+        this.inputSize = inputSize;
+        this.color = color;
+    }
+
+    /**
+     * Resize the frame into the buffer, keeping its aspect ratio.
+     *
+     * @param frame The frame to letterbox
+     * @return How to map detections in the buffer back to the frame
+     */
+    public Letterbox letterbox(Mat frame) {
+        if (frame.cols() != frameWidth || frame.rows() != frameHeight || frame.type() != frameType) {
+            resetGeometry(frame);
+        }
+
+        if (inner.cols() == frame.cols() && inner.rows() == frame.rows()) {
+            frame.copyTo(inner);
+        } else {
+            // inner is already the right size and type, so this writes straight into the buffer
+            Imgproc.resize(frame, inner, inner.size(), 0, 0, Imgproc.INTER_LINEAR);
+        }
+        return letterbox;
+    }
+
+    private void resetGeometry(Mat frame) {
+        frameWidth = frame.cols();
+        frameHeight = frame.rows();
+        frameType = frame.type();
+
+        // Same geometry as Letterbox.letterbox
+        double r = Math.min(inputSize.height / frameHeight, inputSize.width / frameWidth);
+        int unpadWidth = (int) Math.round(frameWidth * r);
+        int unpadHeight = (int) Math.round(frameHeight * r);
+        double dw = (inputSize.width - unpadWidth) / 2;
+        double dh = (inputSize.height - unpadHeight) / 2;
+        int top = (int) Math.round(dh - 0.1f);
+        int left = (int) Math.round(dw - 0.1f);
+
+        buffer.create((int) inputSize.height, (int) inputSize.width, frameType);
+        buffer.setTo(color);
+
+        if (inner != null) {
+            inner.release();
+        }
+        inner = buffer.submat(new Rect(left, top, unpadWidth, unpadHeight));
+        letterbox = new Letterbox(dw, dh, r);
+    }
+
+    /**
+     * @return The letterboxed image, the same size as the model input
+     */
+    public Mat getMat() {
+        return buffer;
+    }
+
+    @Override
+    public void release() {
+        if (inner != null) {
+            inner.release();
+            inner = null;
+        }
+        buffer.release();
+        frameWidth = frameHeight = frameType = -1;
+    }
+}
@@ -35,6 +35,15 @@ public interface Model {
 
     public Family getFamily();
 
+    /**
+     * Gets the backend the model runs on. Together with the path, this identifies a loaded model.
+     *
+     * @return the backend name
+     */
+    public default String getBackend() {
+        return String.valueOf(getFamily());
+    }
+
     public ModelProperties getProperties();
 
     public String toString();
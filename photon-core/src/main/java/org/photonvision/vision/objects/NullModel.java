@@ -79,7 +79,7 @@ public class NullModel implements Model, ObjectDetector {
     }
 
     @Override
-    public List<NeuralNetworkPipeResult> detect(Mat in, double nmsThresh, double boxThresh) {
+    public List<NeuralNetworkPipeResult> detect(Mat in, DetectionParams params) {
         return List.of();
     }
 
@@ -31,7 +31,7 @@ import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
  *   <li>{@link Model} is selected as a parameter of {@link
  *       org.photonvision.vision.pipe.impl.ObjectDetectionPipe ObjectDetectionPipe}
  *   <li>{@link Model#load()} is called to create a ObjectDetector instance
- *   <li>{@link ObjectDetector#detect(Mat, double, double)} is called to perform object detection
+ *   <li>{@link ObjectDetector#detect(Mat, DetectionParams)} is called to perform object detection
  *   <li>{@link ObjectDetector#release()} is called to release resources
  * </ol>
  */
@@ -48,13 +48,12 @@ public interface ObjectDetector extends Releasable {
 
     /**
      * Detects objects in the given input image. Preprocessing and postprocessing steps should be
-     * embedded into this call.
+     * embedded into this call, with the raw detections filtered by a {@link DetectionPostProcessor}.
      *
      * @param in The input image to perform object detection on.
-     * @param nmsThresh The threshold value for non-maximum suppression.
-     * @param boxThresh The threshold value for bounding box detection.
+     * @param params Which detections to keep.
      * @return A list of NeuralNetworkPipeResult objects representing the detected objects. Returns an
      *     empty list if the detector is not initialized or if no objects are detected.
      */
-    public List<NeuralNetworkPipeResult> detect(Mat in, double nmsThresh, double boxThresh);
+    public List<NeuralNetworkPipeResult> detect(Mat in, DetectionParams params);
 }
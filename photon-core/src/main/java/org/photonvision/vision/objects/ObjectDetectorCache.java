@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import io.avaje.jsonb.Json;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.opencv.core.Mat;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+
+/**
+ * Shares loaded {@link ObjectDetector}s between every pipeline that uses the same model, so two
+ * cameras running one model don't each hold their own copy, and a pipeline never loads a model it
+ * isn't going to run.
+ *
+ * <p>{@link #acquire(Model)} hands out a reference-counted handle. The model is only loaded the
+ * first time a handle runs detection, and up to {@link #getMaxInstancesPerModel()} interpreters are
+ * created per model so that cameras can run it concurrently. Once the last handle is released, the
+ * interpreters are released as well.
+ */
+public class ObjectDetectorCache {
+    private static final Logger logger = new Logger(ObjectDetectorCache.class, LogGroup.General);
+
+    /** Enough for two cameras to run the same model at once */
+    public static final int kDefaultInstancesPerModel = 2;
+
+    /**
+     * Load statistics for one model.
+     *
+     * @param modelPath The path of the model file
+     * @param backend The backend the model runs on
+     * @param nickname The nickname of the model
+     * @param references How many pipelines currently hold this model
+     * @param instances How many interpreters are loaded
+     * @param totalLoadMillis How long it took to load all of the interpreters
+     * @param residentBytes Approximate growth in resident memory caused by loading the interpreters
+     */
+    @Json
+    public record ModelStats(
+            String modelPath,
+            String backend,
+            String nickname,
+            int references,
+            int instances,
+            double totalLoadMillis,
+            long residentBytes) {}
+
+    private record Key(Path path, String backend) {}
+
+    private class Entry {
+        final Key key;
+        final Model model;
+        final List<ObjectDetector> instances = new ArrayList<>();
+        final ArrayDeque<ObjectDetector> idle = new ArrayDeque<>();
+
+        // Guarded by ObjectDetectorCache.this
+        int references = 0;
+        boolean detached = false;
+
+        // Guarded by this
+        int loading = 0;
+        long loadNanos = 0;
+        long residentBytes = 0;
+        boolean released = false;
+
+        Entry(Key key, Model model) {
+            this.key = key;
+            this.model = model;
+        }
+
+        /** Take an idle interpreter, loading a new one if all of them are busy and there's room. */
+        ObjectDetector checkout() throws InterruptedException {
+            synchronized (this) {
+                while (true) {
+                    if (released) {
+                        return null;
+                    }
+                    if (!idle.isEmpty()) {
+                        return idle.pop();
+                    }
+                    if (instances.size() + loading < maxInstancesPerModel) {
+                        loading++;
+                        break;
+                    }
+                    wait();
+                }
+            }
+
+            // Load without holding the lock, so other cameras can keep using the loaded instances
+            ObjectDetector detector = null;
+            long rssBefore = readResidentBytes();
+            long start = System.nanoTime();
+            try {
+                detector = model.load();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                long rssAfter = readResidentBytes();
+                synchronized (this) {
+                    loading--;
+                    if (detector != null) {
+                        loadNanos += elapsed;
+                        if (rssBefore >= 0 && rssAfter >= rssBefore) {
+                            residentBytes += rssAfter - rssBefore;
+                        }
+                        logger.info(
+                                "Loaded interpreter "
+                                        + (instances.size() + 1)
+                                        + " for "
+                                        + model.getNickname()
+                                        + " ("
+                                        + key.backend()
+                                        + ") in "
+                                        + elapsed / 1_000_000
+                                        + " ms");
+
+                        if (released) {
+                            // Every handle was released while we were loading
+                            detector.release();
+                            detector = null;
+                        } else {
+                            instances.add(detector);
+                        }
+                    }
+                    notifyAll();
+                }
+            }
+            return detector;
+        }
+
+        synchronized void checkin(ObjectDetector detector) {
+            if (released) {
+                detector.release();
+                instances.remove(detector);
+            } else {
+                idle.push(detector);
+            }
+            notifyAll();
+        }
+
+        synchronized void releaseAll() {
+            released = true;
+            // Busy instances are released when they are checked back in
+            for (var detector : idle) {
+                detector.release();
+                instances.remove(detector);
+            }
+            idle.clear();
+            notifyAll();
+        }
+
+        synchronized ModelStats stats(int references) {
+            return new ModelStats(
+                    key.path().toString(),
+                    key.backend(),
+                    model.getNickname(),
+                    references,
+                    instances.size(),
+                    loadNanos / 1e6,
+                    residentBytes);
+        }
+    }
+
+    /** A reference-counted handle to a shared model. */
+    private class SharedObjectDetector implements ObjectDetector {
+        private final Entry entry;
+        private volatile boolean released = false;
+
+        SharedObjectDetector(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Model getModel() {
+            return entry.model;
+        }
+
+        @Override
+        public List<String> getClasses() {
+            var properties = entry.model.getProperties();
+            return properties != null ? properties.labels() : List.of();
+        }
+
+        @Override
+        public List<NeuralNetworkPipeResult> detect(Mat in, DetectionParams params) {
+            if (released) {
+                logger.error("Detector for " + entry.model.getNickname() + " used after release!");
+                return List.of();
+            }
+
+            ObjectDetector detector;
+            try {
+                detector = entry.checkout();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            if (detector == null) {
+                return List.of();
+            }
+
+            try {
+                return detector.detect(in, params);
+            } finally {
+                entry.checkin(detector);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            ObjectDetectorCache.this.release(entry);
+        }
+    }
+
+    private static class SingletonHolder {
+        private static final ObjectDetectorCache INSTANCE = new ObjectDetectorCache();
+    }
+
+    public static ObjectDetectorCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final List<Entry> detachedEntries = new ArrayList<>();
+    private volatile int maxInstancesPerModel = kDefaultInstancesPerModel;
+
+    ObjectDetectorCache() {}
+
+    private static Key keyOf(Model model) {
+        return new Key(model.getPath(), model.getBackend());
+    }
+
+    /**
+     * Get a handle to a detector for the given model. Nothing is loaded until the handle is first
+     * used. The handle must be released when the caller is done with it.
+     *
+     * @param model The model to run
+     * @return A detector handle
+     */
+    public synchronized ObjectDetector acquire(Model model) {
+        if (model instanceof NullModel nullModel) {
+            return nullModel;
+        }
+
+        var key = keyOf(model);
+        var entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, model);
+            entries.put(key, entry);
+        }
+        entry.references++;
+        return new SharedObjectDetector(entry);
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.references--;
+        if (entry.references > 0) {
+            return;
+        }
+
+        if (entry.detached) {
+            detachedEntries.remove(entry);
+        } else {
+            entries.remove(entry.key);
+        }
+        logger.debug("Releasing interpreters for " + entry.model.getNickname());
+        entry.releaseAll();
+    }
+
+    /**
+     * Load an interpreter for a handle from {@link #acquire(Model)} now, rather than on its first
+     * detection.
+     *
+     * @param detector A handle returned by {@link #acquire(Model)}
+     */
+    public void warmUp(ObjectDetector detector) {
+        if (detector instanceof SharedObjectDetector shared) {
+            try {
+                var instance = shared.entry.checkout();
+                if (instance != null) {
+                    shared.entry.checkin(instance);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Forget every cached model, e.g. because models were re-discovered and files may have changed.
+     * Models still in use keep running until their last handle is released; new handles load the
+     * model again.
+     */
+    public synchronized void invalidate() {
+        for (var entry : entries.values()) {
+            entry.detached = true;
+            detachedEntries.add(entry);
+        }
+        entries.clear();
+    }
+
+    /**
+     * Set how many interpreters may be loaded for each model. More instances let more cameras run the
+     * same model concurrently, at the cost of memory. Existing instances are kept.
+     *
+     * @param instances The maximum number of interpreters per model, at least 1
+     */
+    public void setMaxInstancesPerModel(int instances) {
+        maxInstancesPerModel = Math.max(1, instances);
+    }
+
+    public int getMaxInstancesPerModel() {
+        return maxInstancesPerModel;
+    }
+
+    /**
+     * @return Load time and memory for every model currently in use
+     */
+    public synchronized List<ModelStats> getStats() {
+        var stats = new ArrayList<ModelStats>();
+        for (var entry : entries.values()) {
+            stats.add(entry.stats(entry.references));
+        }
+        for (var entry : detachedEntries) {
+            stats.add(entry.stats(entry.references));
+        }
+        return stats;
+    }
+
+    /** Returns VmRSS from /proc/self/status in bytes, or -1 if it can't be read. */
+    private static long readResidentBytes() {
+        try {
+            for (var line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
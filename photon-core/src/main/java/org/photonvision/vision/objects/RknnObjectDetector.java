@@ -48,7 +48,9 @@ public class RknnObjectDetector implements ObjectDetector {
 
     private final Size inputSize;
 
-    private final Mat letterboxed = new Mat();
+    private final LetterboxBuffer letterboxed;
+
+    private final DetectionPostProcessor postProcessor = new DetectionPostProcessor();
 
     /** Returns the model in use by this detector. */
     @Override
@@ -67,6 +69,7 @@ public class RknnObjectDetector implements ObjectDetector {
         this.model = model;
         this.inputSize =
                 new Size(model.properties.resolutionWidth(), model.properties.resolutionHeight());
+        this.letterboxed = new LetterboxBuffer(inputSize, ColorHelper.colorToScalar(Color.GRAY));
 
         // Create the detector
         objPointer =
@@ -102,37 +105,39 @@ public class RknnObjectDetector implements ObjectDetector {
      * Detects objects in the given input image using the RknnDetector.
      *
      * @param in The input image to perform object detection on.
-     * @param nmsThresh The threshold value for non-maximum suppression.
-     * @param boxThresh The threshold value for bounding box detection.
+     * @param params Which detections to keep.
      * @return A list of NeuralNetworkPipeResult objects representing the detected objects. Returns an
      *     empty list if the detector is not initialized or if no objects are detected.
      */
     @Override
-    public List<NeuralNetworkPipeResult> detect(Mat in, double nmsThresh, double boxThresh) {
+    public List<NeuralNetworkPipeResult> detect(Mat in, DetectionParams params) {
         if (objPointer <= 0) {
             // Report error and make sure to include the model name
             logger.error("Detector is not initialized! Model: " + model.modelFile.getName());
             return List.of();
         }
 
-        // Resize the frame to the input size of the model
-        Letterbox scale =
-                Letterbox.letterbox(in, letterboxed, this.inputSize, ColorHelper.colorToScalar(Color.GRAY));
-        if (!letterboxed.size().equals(this.inputSize)) {
-            throw new RuntimeException("Letterboxed frame is not the right size!");
-        }
+        // Resize the frame straight into our reusable input image
+        Letterbox scale = letterboxed.letterbox(in);
 
-        // Detect objects in the letterboxed frame
-        var results = RknnJNI.detect(objPointer, letterboxed.getNativeObjAddr(), nmsThresh, boxThresh);
+        // Detect objects in the letterboxed frame. The backend only drops boxes no class would keep,
+        // and leaves the actual filtering to the post processor.
+        var results =
+                RknnJNI.detect(
+                        objPointer,
+                        letterboxed.getMat().getNativeObjAddr(),
+                        DetectionPostProcessor.kNoNativeNms,
+                        params.minConfidence());
 
         if (results == null) {
             return List.of();
         }
 
-        return scale.resizeDetections(
-                List.of(results).stream()
-                        .map(it -> new NeuralNetworkPipeResult(it.rect, it.class_id, it.conf))
-                        .toList());
+        postProcessor.clear();
+        for (var it : results) {
+            postProcessor.add(it.rect.x, it.rect.y, it.rect.width, it.rect.height, it.class_id, it.conf);
+        }
+        return postProcessor.process(params, scale);
     }
 
     /** Thread-safe method to release the detector. */
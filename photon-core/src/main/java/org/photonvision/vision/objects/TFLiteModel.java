@@ -80,6 +80,11 @@ public class TFLiteModel implements Model {
         return properties;
     }
 
+    @Override
+    public String getBackend() {
+        return getFamily() + "/" + backend;
+    }
+
     public ObjectDetector load() {
         return new TFLiteObjectDetector(this, backend);
     }
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.pipe.CVPipe;
+import org.wpilib.vision.apriltag.AprilTagDetection;
+
+/**
+ * Refines the corners of AprilTags found on a decimated image against the full resolution image, so
+ * tags can be found quickly with a high decimation without giving up corner accuracy.
+ *
+ * <p>Each side of a tag is searched for the strongest dark to light edge along its normal, at a
+ * number of points along its length, to sub-pixel precision. A line is fit through those points,
+ * and the corners are moved to where the lines of neighbouring sides meet. Only a small patch of
+ * the image around each tag is copied out of native memory. Corners whose sides couldn't be found,
+ * or that would move further than the search allows, are left where they were.
+ */
+public class AprilTagCornerRefinePipe
+        extends CVPipe<
+                AprilTagCornerRefinePipe.AprilTagCornerRefineInput,
+                List<AprilTagDetection>,
+                AprilTagCornerRefinePipe.AprilTagCornerRefinePipeParams> {
+    /** Don't sample too near the corners, where the neighbouring side's edge gets in the way */
+    private static final double kEdgeMargin = 0.15;
+
+    /** Samples per pixel of side length, within these limits */
+    private static final double kSamplesPerPixel = 1.0 / 3;
+
+    private static final int kMinSamples = 4;
+    private static final int kMaxSamples = 24;
+
+    /** Spacing of the search along the normal, in pixels */
+    private static final double kSearchStep = 0.5;
+
+    /** The weakest edge worth using, in grey levels per pixel */
+    private static final double kMinContrast = 8;
+
+    /** Edge points further than this from the fit line are dropped, in pixels */
+    private static final double kMaxResidual = 1;
+
+    /**
+     * @param image The full resolution greyscale image
+     * @param detections Tags found on a decimated copy of it
+     */
+    public static record AprilTagCornerRefineInput(CVMat image, List<AprilTagDetection> detections) {}
+
+    /**
+     * @param searchRadius How far either side of a coarse side to look for the real edge, in pixels.
+     *     About one more than the decimation is enough.
+     */
+    public static record AprilTagCornerRefinePipeParams(double searchRadius) {}
+
+    // The patch of the image around the tag being refined
+    private byte[] patch = new byte[0];
+    private int patchX;
+    private int patchY;
+    private int patchWidth;
+    private int patchHeight;
+
+    // Scratch for the edge points of one side
+    private final double[] edgeX = new double[kMaxSamples];
+    private final double[] edgeY = new double[kMaxSamples];
+    private final double[] edgeWeight = new double[kMaxSamples];
+    private double[] profile = new double[0];
+
+    // The fit line of each side, as a point on it and its direction
+    private final double[] lineX = new double[4];
+    private final double[] lineY = new double[4];
+    private final double[] lineDx = new double[4];
+    private final double[] lineDy = new double[4];
+    private final boolean[] lineFound = new boolean[4];
+
+    @Override
+    protected List<AprilTagDetection> process(AprilTagCornerRefineInput in) {
+        var image = in.image().getMat();
+        if (image.empty() || image.channels() != 1 || in.detections().isEmpty()) {
+            return in.detections();
+        }
+
+        var refined = new ArrayList<AprilTagDetection>(in.detections().size());
+        for (var detection : in.detections()) {
+            refined.add(refine(image, detection));
+        }
+        return refined;
+    }
+
+    private AprilTagDetection refine(Mat image, AprilTagDetection detection) {
+        double radius = params.searchRadius();
+        double[] corners = detection.getCorners();
+        if (!loadPatch(image, corners, radius + 2)) {
+            return detection;
+        }
+
+        double centerX = 0, centerY = 0;
+        for (int i = 0; i < 4; i++) {
+            centerX += corners[2 * i] / 4;
+            centerY += corners[2 * i + 1] / 4;
+        }
+        for (int side = 0; side < 4; side++) {
+            int next = (side + 1) % 4;
+            lineFound[side] =
+                    fitSide(
+                            side,
+                            corners[2 * side],
+                            corners[2 * side + 1],
+                            corners[2 * next],
+                            corners[2 * next + 1],
+                            centerX,
+                            centerY,
+                            radius);
+        }
+
+        var refinedCorners = corners.clone();
+        boolean moved = false;
+        for (int corner = 0; corner < 4; corner++) {
+            // Corner i is where the sides before and after it meet
+            int before = (corner + 3) % 4;
+            if (!lineFound[before] || !lineFound[corner]) continue;
+
+            double cross = lineDx[before] * lineDy[corner] - lineDy[before] * lineDx[corner];
+            // Nearly parallel sides don't meet anywhere useful
+            if (Math.abs(cross) < 1e-3) continue;
+            double t =
+                    ((lineX[corner] - lineX[before]) * lineDy[corner]
+                                    - (lineY[corner] - lineY[before]) * lineDx[corner])
+                            / cross;
+            double x = lineX[before] + t * lineDx[before];
+            double y = lineY[before] + t * lineDy[before];
+
+            // Each side may move by the radius, so a corner may move by a bit more
+            if (Math.hypot(x - corners[2 * corner], y - corners[2 * corner + 1])
+                    <= radius * Math.sqrt(2)) {
+                refinedCorners[2 * corner] = x;
+                refinedCorners[2 * corner + 1] = y;
+                moved = true;
+            }
+        }
+        if (!moved) {
+            return detection;
+        }
+
+        // The center of a square seen in perspective is where its diagonals cross
+        double d0x = refinedCorners[4] - refinedCorners[0], d0y = refinedCorners[5] - refinedCorners[1];
+        double d1x = refinedCorners[6] - refinedCorners[2], d1y = refinedCorners[7] - refinedCorners[3];
+        double cross = d0x * d1y - d0y * d1x;
+        double refinedCenterX = detection.getCenterX(), refinedCenterY = detection.getCenterY();
+        if (Math.abs(cross) > 1e-6) {
+            double t =
+                    ((refinedCorners[2] - refinedCorners[0]) * d1y
+                                    - (refinedCorners[3] - refinedCorners[1]) * d1x)
+                            / cross;
+            refinedCenterX = refinedCorners[0] + t * d0x;
+            refinedCenterY = refinedCorners[1] + t * d0y;
+        }
+
+        return new AprilTagDetection(
+                detection.getFamily(),
+                detection.getId(),
+                detection.getHamming(),
+                detection.getDecisionMargin(),
+                detection.getHomography(),
+                refinedCenterX,
+                refinedCenterY,
+                refinedCorners);
+    }
+
+    /** Copy the part of the image around some corners into {@link #patch} */
+    private boolean loadPatch(Mat image, double[] corners, double margin) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 4; i++) {
+            minX = Math.min(minX, corners[2 * i]);
+            maxX = Math.max(maxX, corners[2 * i]);
+            minY = Math.min(minY, corners[2 * i + 1]);
+            maxY = Math.max(maxY, corners[2 * i + 1]);
+        }
+        patchX = Math.max(0, (int) Math.floor(minX - margin));
+        patchY = Math.max(0, (int) Math.floor(minY - margin));
+        patchWidth = Math.min(image.cols(), (int) Math.ceil(maxX + margin) + 1) - patchX;
+        patchHeight = Math.min(image.rows(), (int) Math.ceil(maxY + margin) + 1) - patchY;
+        if (patchWidth < 2 || patchHeight < 2) {
+            return false;
+        }
+
+        if (patch.length < patchWidth * patchHeight) {
+            patch = new byte[patchWidth * patchHeight];
+        }
+        var roi = image.submat(new Rect(patchX, patchY, patchWidth, patchHeight));
+        roi.get(0, 0, patch);
+        roi.release();
+        return true;
+    }
+
+    /**
+     * Bilinearly interpolate the image at a point. Like the AprilTag detector, pixel centers are at
+     * half-integer coordinates, so refined corners line up with ones that weren't refined.
+     *
+     * @return The grey level there, or NaN if it's outside the patch
+     */
+    private double sample(double x, double y) {
+        x -= patchX + 0.5;
+        y -= patchY + 0.5;
+        if (x < 0 || y < 0 || x >= patchWidth - 1 || y >= patchHeight - 1) {
+            return Double.NaN;
+        }
+        int x0 = (int) x, y0 = (int) y;
+        double fx = x - x0, fy = y - y0;
+        int i = y0 * patchWidth + x0;
+        double top = (patch[i] & 0xFF) * (1 - fx) + (patch[i + 1] & 0xFF) * fx;
+        double bottom =
+                (patch[i + patchWidth] & 0xFF) * (1 - fx) + (patch[i + patchWidth + 1] & 0xFF) * fx;
+        return top * (1 - fy) + bottom * fy;
+    }
+
+    /**
+     * Find the edge along one side of a tag, and fit a line through it.
+     *
+     * @return If enough of the edge was found
+     */
+    private boolean fitSide(
+            int side,
+            double ax,
+            double ay,
+            double bx,
+            double by,
+            double centerX,
+            double centerY,
+            double radius) {
+        double length = Math.hypot(bx - ax, by - ay);
+        if (length < 4) return false;
+        double dx = (bx - ax) / length, dy = (by - ay) / length;
+
+        // The normal pointing out of the tag, from the dark inside to the light outside
+        double nx = -dy, ny = dx;
+        if (nx * ((ax + bx) / 2 - centerX) + ny * ((ay + by) / 2 - centerY) < 0) {
+            nx = -nx;
+            ny = -ny;
+        }
+
+        int steps = (int) Math.ceil(radius / kSearchStep);
+        int profileLength = 2 * steps + 1;
+        if (profile.length < profileLength) {
+            profile = new double[profileLength];
+        }
+
+        int samples = (int) Math.round(length * (1 - 2 * kEdgeMargin) * kSamplesPerPixel);
+        samples = Math.max(kMinSamples, Math.min(kMaxSamples, samples));
+        int found = 0;
+        for (int s = 0; s < samples; s++) {
+            double t = kEdgeMargin + (1 - 2 * kEdgeMargin) * (s + 0.5) / samples;
+            double px = ax + (bx - ax) * t, py = ay + (by - ay) * t;
+
+            boolean inside = true;
+            for (int k = 0; k < profileLength && inside; k++) {
+                double offset = (k - steps) * kSearchStep;
+                profile[k] = sample(px + nx * offset, py + ny * offset);
+                inside = !Double.isNaN(profile[k]);
+            }
+            if (!inside) continue;
+
+            // Strongest rise in brightness going outwards, by central difference
+            int best = -1;
+            double bestGradient = kMinContrast * 2 * kSearchStep;
+            for (int k = 1; k < profileLength - 1; k++) {
+                double gradient = profile[k + 1] - profile[k - 1];
+                if (gradient > bestGradient) {
+                    bestGradient = gradient;
+                    best = k;
+                }
+            }
+            if (best < 2 || best > profileLength - 3) continue;
+
+            // Fit a parabola through the gradient around its peak for the sub-pixel position
+            double left = profile[best] - profile[best - 2];
+            double right = profile[best + 2] - profile[best];
+            double denominator = left - 2 * bestGradient + right;
+            double shift = denominator < 0 ? 0.5 * (left - right) / denominator : 0;
+            double offset = (best - steps + shift) * kSearchStep;
+
+            edgeX[found] = px + nx * offset;
+            edgeY[found] = py + ny * offset;
+            edgeWeight[found] = bestGradient;
+            found++;
+        }
+        int needed = Math.max(3, samples / 2);
+        if (found < needed) return false;
+        fitLine(side, found);
+
+        // Edges inside the tag's pattern can outshine its border at some samples, so drop points far
+        // from the first fit and fit again
+        int kept = 0;
+        for (int i = 0; i < found; i++) {
+            double residual =
+                    Math.abs(
+                            (edgeX[i] - lineX[side]) * lineDy[side] - (edgeY[i] - lineY[side]) * lineDx[side]);
+            if (residual <= kMaxResidual) {
+                edgeX[kept] = edgeX[i];
+                edgeY[kept] = edgeY[i];
+                edgeWeight[kept] = edgeWeight[i];
+                kept++;
+            }
+        }
+        if (kept < needed) return false;
+        if (kept < found) fitLine(side, kept);
+        return true;
+    }
+
+    /**
+     * Fit a line through the first few edge points by weighted total least squares. The line runs
+     * through their centroid, along the direction they're most spread out in.
+     */
+    private void fitLine(int side, int count) {
+        double sumWeight = 0, meanX = 0, meanY = 0;
+        for (int i = 0; i < count; i++) {
+            sumWeight += edgeWeight[i];
+            meanX += edgeWeight[i] * edgeX[i];
+            meanY += edgeWeight[i] * edgeY[i];
+        }
+        meanX /= sumWeight;
+        meanY /= sumWeight;
+        double sxx = 0, sxy = 0, syy = 0;
+        for (int i = 0; i < count; i++) {
+            double ex = edgeX[i] - meanX, ey = edgeY[i] - meanY;
+            sxx += edgeWeight[i] * ex * ex;
+            sxy += edgeWeight[i] * ex * ey;
+            syy += edgeWeight[i] * ey * ey;
+        }
+        double angle = 0.5 * Math.atan2(2 * sxy, sxx - syy);
+
+        lineX[side] = meanX;
+        lineY[side] = meanY;
+        lineDx[side] = Math.cos(angle);
+        lineDy[side] = Math.sin(angle);
+    }
+
+    @Override
+    public void release() {}
+}
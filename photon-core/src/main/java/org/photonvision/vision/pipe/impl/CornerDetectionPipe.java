@@ -58,7 +58,7 @@ public class CornerDetectionPipe
     private List<Point> findBoundingBoxCorners(TrackedTarget target) {
         // extract the corners
         var points = new Point[4];
-        target.m_mainContour.getMinAreaRect().points(points);
+        target.getMainContour().getMinAreaRect().points(points);
 
         // find the bl/br/tr/tl corners
         // first, min by left/right
@@ -101,9 +101,9 @@ public class CornerDetectionPipe
 
         MatOfPoint2f targetContour;
         if (convexHull) {
-            targetContour = target.m_mainContour.getConvexHull();
+            targetContour = target.getMainContour().getConvexHull();
         } else {
-            targetContour = target.m_mainContour.getMat2f();
+            targetContour = target.getMainContour().getMat2f();
         }
 
         /*
@@ -156,8 +156,8 @@ public class CornerDetectionPipe
         // add points that are below the center of the min area rectangle of the target
         for (var p : pointList) {
             if (p.y
-                    > target.m_mainContour.getBoundingRect().y
-                            + target.m_mainContour.getBoundingRect().height / 2.0) {
+                    > target.getMainContour().getBoundingRect().y
+                            + target.getMainContour().getBoundingRect().height / 2.0) {
                 if (p.x < averageXCoordinate) {
                     leftList.add(p);
                 } else {
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Rect2d;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.video.Video;
+import org.photonvision.vision.pipe.CVPipe;
+
+/**
+ * Follows object detections between runs of the detector, so the network only has to run every few
+ * frames.
+ *
+ * <p>When fresh detections are given, they're matched to existing tracks of the same class by IoU,
+ * and keep that track's ID. On frames in between, each track's box is moved by the median sparse
+ * optical flow of the features inside it, and its confidence decays with time and with how many of
+ * those features were lost.
+ */
+public class DetectionTrackerPipe
+        extends CVPipe<
+                DetectionTrackerPipe.TrackerInput,
+                List<DetectionTrackerPipe.TrackedDetection>,
+                DetectionTrackerPipe.DetectionTrackerParams> {
+    /** Confidence is multiplied by this for every frame a track is only followed by optical flow */
+    private static final double kConfidenceDecay = 0.97;
+
+    /** Tracks with too few features to follow lose confidence quickly, so the detector runs again */
+    private static final double kUntrackableDecay = 0.5;
+
+    /** Tracks that lose more than this fraction of their features are dropped */
+    private static final double kMinTrackedFraction = 0.3;
+
+    /** Tracks the detector missed this many times in a row are dropped */
+    private static final int kMaxMisses = 2;
+
+    private static final int kMaxFeaturesPerTrack = 20;
+    private static final int kMinFeaturesPerTrack = 4;
+
+    /**
+     * @param image The current color or grayscale image
+     * @param detections Fresh detections in this image, or null to follow the previous ones
+     */
+    public static record TrackerInput(Mat image, List<NeuralNetworkPipeResult> detections) {}
+
+    /**
+     * @param trackId An ID that stays the same while the object is tracked
+     * @param detection Where the object is in the current image
+     */
+    public static record TrackedDetection(int trackId, NeuralNetworkPipeResult detection) {}
+
+    /**
+     * @param iouThreshold The minimum IoU for a detection to continue a track
+     * @param redetectConfidence Request a detection once a track's confidence decays below this
+     *     fraction of its detected confidence
+     */
+    public static record DetectionTrackerParams(double iouThreshold, double redetectConfidence) {}
+
+    private static class Track {
+        final int id;
+        int classIdx;
+        double detectedConfidence;
+        double confidence;
+        // Axis aligned box, from the top left corner
+        double x, y, width, height;
+        int misses = 0;
+        boolean matched = false;
+
+        Track(int id, NeuralNetworkPipeResult detection) {
+            this.id = id;
+            update(detection);
+        }
+
+        void update(NeuralNetworkPipeResult detection) {
+            var box = detection.bbox();
+            classIdx = detection.classIdx();
+            detectedConfidence = confidence = detection.confidence();
+            width = box.size.width;
+            height = box.size.height;
+            x = box.center.x - width / 2;
+            y = box.center.y - height / 2;
+            misses = 0;
+        }
+
+        double iou(NeuralNetworkPipeResult detection) {
+            var box = detection.bbox();
+            double dx = box.center.x - box.size.width / 2;
+            double dy = box.center.y - box.size.height / 2;
+            double iw = Math.min(x + width, dx + box.size.width) - Math.max(x, dx);
+            double ih = Math.min(y + height, dy + box.size.height) - Math.max(y, dy);
+            if (iw <= 0 || ih <= 0) return 0;
+            double intersection = iw * ih;
+            return intersection / (width * height + box.size.area() - intersection);
+        }
+    }
+
+    private record Match(Track track, int detection, double iou) {}
+
+    private final List<Track> tracks = new ArrayList<>();
+    private int nextId = 0;
+
+    private Mat gray = new Mat();
+    private Mat prevGray = new Mat();
+    private final MatOfPoint features = new MatOfPoint();
+    private final MatOfPoint2f prevPoints = new MatOfPoint2f();
+    private final MatOfPoint2f nextPoints = new MatOfPoint2f();
+    private final MatOfByte status = new MatOfByte();
+    private final MatOfFloat error = new MatOfFloat();
+
+    @Override
+    protected List<TrackedDetection> process(TrackerInput in) {
+        var image = in.image();
+        if (image.empty()) {
+            return output();
+        }
+
+        if (image.channels() == 1) {
+            image.copyTo(gray);
+        } else {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        }
+
+        if (in.detections() != null) {
+            associate(in.detections());
+        } else if (prevGray.cols() == gray.cols() && prevGray.rows() == gray.rows()) {
+            propagate();
+        }
+
+        // Keep this image to follow features from next frame
+        var tmp = prevGray;
+        prevGray = gray;
+        gray = tmp;
+
+        return output();
+    }
+
+    /**
+     * @return If any track has decayed enough that the detector should run on the next frame
+     */
+    public boolean needsDetection() {
+        for (var track : tracks) {
+            if (track.misses == 0
+                    && track.confidence < track.detectedConfidence * params.redetectConfidence()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Forget every track, e.g. because the model changed. Track IDs keep counting up. */
+    public void reset() {
+        tracks.clear();
+    }
+
+    private void associate(List<NeuralNetworkPipeResult> detections) {
+        var matches = new ArrayList<Match>();
+        for (var track : tracks) {
+            track.matched = false;
+            for (int i = 0; i < detections.size(); i++) {
+                var detection = detections.get(i);
+                if (detection.classIdx() != track.classIdx) continue;
+
+                double iou = track.iou(detection);
+                if (iou >= params.iouThreshold()) {
+                    matches.add(new Match(track, i, iou));
+                }
+            }
+        }
+
+        // Greedily take the best overlaps first
+        matches.sort(Comparator.comparingDouble(Match::iou).reversed());
+        var used = new boolean[detections.size()];
+        for (var match : matches) {
+            if (match.track().matched || used[match.detection()]) continue;
+
+            match.track().update(detections.get(match.detection()));
+            match.track().matched = true;
+            used[match.detection()] = true;
+        }
+
+        // Keep missed tracks around for a little while, so their ID survives a flicker of the
+        // detector. They aren't reported until they're detected again.
+        tracks.removeIf(track -> !track.matched && ++track.misses > kMaxMisses);
+
+        for (int i = 0; i < detections.size(); i++) {
+            if (!used[i]) {
+                tracks.add(new Track(nextId++, detections.get(i)));
+            }
+        }
+    }
+
+    private void propagate() {
+        if (tracks.isEmpty()) return;
+
+        // Find features in every track, and follow them all in one go
+        var points = new ArrayList<Point>();
+        var counts = new int[tracks.size()];
+        for (int i = 0; i < tracks.size(); i++) {
+            var roi = clampedRoi(tracks.get(i));
+            if (roi.width < 2 || roi.height < 2) continue;
+
+            var sub = prevGray.submat(roi);
+            Imgproc.goodFeaturesToTrack(sub, features, kMaxFeaturesPerTrack, 0.01, 3);
+            sub.release();
+
+            for (var p : features.toArray()) {
+                points.add(new Point(p.x + roi.x, p.y + roi.y));
+            }
+            counts[i] = (int) features.total();
+        }
+
+        Point[] before = new Point[0];
+        Point[] after = new Point[0];
+        byte[] found = new byte[0];
+        if (!points.isEmpty()) {
+            prevPoints.fromList(points);
+            Video.calcOpticalFlowPyrLK(prevGray, gray, prevPoints, nextPoints, status, error);
+            before = prevPoints.toArray();
+            after = nextPoints.toArray();
+            found = status.toArray();
+        }
+
+        int offset = 0;
+        var it = tracks.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            var track = it.next();
+            int start = offset;
+            int count = counts[i];
+            offset += count;
+
+            if (count < kMinFeaturesPerTrack) {
+                // Nothing to follow, so leave it where it is and ask for a detection soon
+                track.confidence *= kUntrackableDecay;
+                continue;
+            }
+
+            var dx = new double[count];
+            var dy = new double[count];
+            int tracked = 0;
+            for (int k = start; k < start + count; k++) {
+                if (found[k] == 0) continue;
+                dx[tracked] = after[k].x - before[k].x;
+                dy[tracked] = after[k].y - before[k].y;
+                tracked++;
+            }
+
+            if (tracked < Math.max(kMinFeaturesPerTrack, kMinTrackedFraction * count)) {
+                // Occluded, or it left the image
+                it.remove();
+                continue;
+            }
+
+            double shiftX = median(dx, tracked);
+            double shiftY = median(dy, tracked);
+            double scale = scale(before, after, found, start, count);
+
+            double centerX = track.x + track.width / 2 + shiftX;
+            double centerY = track.y + track.height / 2 + shiftY;
+            track.width *= scale;
+            track.height *= scale;
+            track.x = centerX - track.width / 2;
+            track.y = centerY - track.height / 2;
+            track.confidence *= kConfidenceDecay * tracked / count;
+
+            if (centerX < 0 || centerY < 0 || centerX >= gray.cols() || centerY >= gray.rows()) {
+                it.remove();
+            }
+        }
+    }
+
+    /** The median change in spread of the followed features, which is how much the box grew. */
+    private static double scale(Point[] before, Point[] after, byte[] found, int start, int count) {
+        double bx = 0, by = 0, ax = 0, ay = 0;
+        int n = 0;
+        for (int k = start; k < start + count; k++) {
+            if (found[k] == 0) continue;
+            bx += before[k].x;
+            by += before[k].y;
+            ax += after[k].x;
+            ay += after[k].y;
+            n++;
+        }
+        bx /= n;
+        by /= n;
+        ax /= n;
+        ay /= n;
+
+        var ratios = new double[n];
+        int m = 0;
+        for (int k = start; k < start + count; k++) {
+            if (found[k] == 0) continue;
+            double distBefore = Math.hypot(before[k].x - bx, before[k].y - by);
+            // Features right at the center say nothing about scale
+            if (distBefore < 1) continue;
+            ratios[m++] = Math.hypot(after[k].x - ax, after[k].y - ay) / distBefore;
+        }
+        if (m == 0) return 1;
+
+        // Objects don't change size much between two frames, so anything more is noise
+        return Math.max(0.8, Math.min(1.25, median(ratios, m)));
+    }
+
+    private static double median(double[] values, int count) {
+        Arrays.sort(values, 0, count);
+        return count % 2 == 1 ? values[count / 2] : (values[count / 2 - 1] + values[count / 2]) / 2;
+    }
+
+    private Rect clampedRoi(Track track) {
+        int x0 = (int) Math.max(0, Math.floor(track.x));
+        int y0 = (int) Math.max(0, Math.floor(track.y));
+        int x1 = (int) Math.min(prevGray.cols(), Math.ceil(track.x + track.width));
+        int y1 = (int) Math.min(prevGray.rows(), Math.ceil(track.y + track.height));
+        return new Rect(x0, y0, Math.max(0, x1 - x0), Math.max(0, y1 - y0));
+    }
+
+    private List<TrackedDetection> output() {
+        var out = new ArrayList<TrackedDetection>(tracks.size());
+        for (var track : tracks) {
+            if (track.misses > 0) continue;
+            out.add(
+                    new TrackedDetection(
+                            track.id,
+                            new NeuralNetworkPipeResult(
+                                    new Rect2d(track.x, track.y, track.width, track.height),
+                                    track.classIdx,
+                                    track.confidence)));
+        }
+        return out;
+    }
+
+    @Override
+    public void release() {
+        tracks.clear();
+        gray.release();
+        prevGray.release();
+        features.release();
+        prevPoints.release();
+        nextPoints.release();
+        status.release();
+        error.release();
+    }
+}
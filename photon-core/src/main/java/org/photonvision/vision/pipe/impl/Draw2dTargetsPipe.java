@@ -114,7 +114,7 @@ public class Draw2dTargetsPipe
                 }
 
                 if (params.showShape) {
-                    divideMat(target.m_mainContour.mat, contourMat);
+                    divideMat(target.getMainContour().mat, contourMat);
                     Imgproc.drawContours(
                             in.getFirst(),
                             List.of(contourMat),
@@ -124,7 +124,7 @@ public class Draw2dTargetsPipe
                 }
 
                 if (params.showContourNumber) {
-                    var center = target.m_mainContour.getCenterPoint();
+                    var center = target.getMainContour().getCenterPoint();
                     var textPos =
                             new Point(
                                     center.x + params.kPixelsToOffset * imageSize,
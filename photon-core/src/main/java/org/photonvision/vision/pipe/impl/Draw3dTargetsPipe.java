@@ -66,11 +66,11 @@ public class Draw3dTargetsPipe
         for (var target : in.getSecond()) {
             // draw convex hull
             if (params.shouldDrawHull(target)) {
-                divideMat2f(target.m_mainContour.getConvexHull(), contourMat);
+                divideMat2f(target.getMainContour().getConvexHull(), contourMat);
                 if (contourMat.size().empty()) {
                     logger.error("Convex hull is empty?");
                     logger.debug(
-                            "Orig. Convex Hull: " + target.m_mainContour.getConvexHull().size().toString());
+                            "Orig. Convex Hull: " + target.getMainContour().getConvexHull().size().toString());
                     continue;
                 }
                 Imgproc.drawContours(
@@ -18,9 +18,11 @@
 package org.photonvision.vision.pipe.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
+import org.opencv.core.Rect;
 import org.opencv.imgproc.Imgproc;
 import org.opencv.imgproc.Moments;
 import org.photonvision.vision.opencv.CVShape;
@@ -34,6 +36,27 @@ public class FindCirclesPipe
     // (x,y,radius) or (x,y,radius,votes) .
     private final Mat circles = new Mat();
 
+    // Per frame scratch, grown as needed
+    private float[] circleBuffer = new float[0];
+    // x, y, radius of each circle found this frame
+    private double[] circleData = new double[0];
+    private int circleCount = 0;
+    private int[] circleMatch = new int[0];
+
+    // Contour centroids, bucketed into a grid as singly linked lists per cell
+    private double[] centroids = new double[0];
+    private int[] nextInCell = new int[0];
+    private boolean[] contourMatched = new boolean[0];
+    private int[] contourColumn = new int[0];
+    private int[] cellHead = new int[0];
+    private int cellSize = 1;
+    private int gridCols = 0;
+    private int gridRows = 0;
+
+    // Candidate pairs as {row, column, cost, circle}, and the contour behind each column
+    private final List<double[]> candidates = new ArrayList<>();
+    private int[] columns = new int[0];
+
     /**
      * Runs the process for the pipe. The reason we need a separate pipe for circles is because if we
      * were to use the FindShapes pipe, we would have to assume that any shape more than 10-20+ sides
@@ -48,13 +71,49 @@ public class FindCirclesPipe
     protected List<CVShape> process(Pair<Mat, List<Contour>> in) {
         circles.release();
         List<CVShape> output = new ArrayList<>();
+        var image = in.getFirst();
+        var contours = in.getSecond();
 
         var diag = params.diagonalLengthPx();
         var minRadius = (int) (params.minRadius() * diag / 100.0);
         var maxRadius = (int) (params.maxRadius() * diag / 100.0);
 
+        circleCount = 0;
+        if (params.roi()) {
+            findCirclesInRois(image, contours, minRadius, maxRadius);
+        } else {
+            houghCircles(image, minRadius, maxRadius);
+            addCircles(0, 0, false);
+        }
+
+        // Great, we now found the center point of the circle, and it's radius, but we have no idea what
+        // contour it corresponds to. Each contour can only match to one circle, and each circle to
+        // one contour, so we pick the pairs that match the most circles, and among those the ones
+        // whose centers are closest overall, rather than whichever pair we happened to look at first.
+        bucketContours(image, contours);
+        var matches = assign();
+        for (int i = 0; i < circleCount; i++) {
+            int contour = matches[i];
+            if (contour < 0) continue;
+            output.add(
+                    new CVShape(
+                            contours.get(contour),
+                            new Point(circleData[i * 3], circleData[i * 3 + 1]),
+                            circleData[i * 3 + 2]));
+            contourMatched[contour] = true;
+        }
+
+        // Release everything we don't use
+        for (int i = 0; i < contours.size(); i++) {
+            if (!contourMatched[i]) contours.get(i).release();
+        }
+
+        return output;
+    }
+
+    private void houghCircles(Mat image, int minRadius, int maxRadius) {
         Imgproc.HoughCircles(
-                in.getFirst(),
+                image,
                 circles,
                 // Detection method, see #HoughModes. The available methods are #HOUGH_GRADIENT and
                 // #HOUGH_GRADIENT_ALT.
@@ -70,41 +129,241 @@ public class FindCirclesPipe
                 Math.max(1.0, params.accuracy()),
                 minRadius,
                 maxRadius);
-        // Great, we now found the center point of the circle, and it's radius, but we have no idea what
-        // contour it corresponds to
-        // Each contour can only match to one circle, so we keep a list of unmatched contours around and
-        // only match against them
-        // This does mean that contours closer than allowableThreshold aren't matched to anything if
-        // there's a 'better' option
-        var unmatchedContours = in.getSecond();
-        for (int x = 0; x < circles.cols(); x++) {
-            // Grab the current circle we are looking at
-            double[] c = circles.get(0, x);
-            // Find the center points of that circle
-            double x_center = c[0];
-            double y_center = c[1];
-
-            for (Contour contour : unmatchedContours) {
-                // Grab the moments of the current contour
-                Moments mu = contour.getMoments();
-                // Determine if the contour is within the threshold of the detected circle
-                // NOTE: This means that the centroid of the contour must be within the "allowable
-                // threshold"
-                // of the center of the circle
-                if (Math.abs(x_center - (mu.m10 / mu.m00)) <= params.allowableThreshold()
-                        && Math.abs(y_center - (mu.m01 / mu.m00)) <= params.allowableThreshold()) {
-                    // If it is, then add it to the output array
-                    output.add(new CVShape(contour, new Point(c[0], c[1]), c[2]));
-                    unmatchedContours.remove(contour);
-                    break;
+    }
+
+    /**
+     * Run HoughCircles only around each contour, rather than over the whole image. The threshold
+     * image is mostly empty, so this skips most of the edge detection and voting. Contours too small
+     * or too big to hold a circle of the allowed size are skipped entirely.
+     */
+    private void findCirclesInRois(Mat image, List<Contour> contours, int minRadius, int maxRadius) {
+        // Leave room around the contour for the edge detector and for a center that's a little off
+        int pad = Math.max(params.allowableThreshold(), 2) + 1;
+        for (var contour : contours) {
+            Rect box = contour.getBoundingRect();
+            int size = Math.max(box.width, box.height);
+            if (size < 2 * minRadius
+                    || (maxRadius > 0 && Math.min(box.width, box.height) > 2 * maxRadius + 2 * pad)) {
+                continue;
+            }
+
+            int x0 = Math.max(box.x - pad, 0);
+            int y0 = Math.max(box.y - pad, 0);
+            int x1 = Math.min(box.x + box.width + pad, image.cols());
+            int y1 = Math.min(box.y + box.height + pad, image.rows());
+            if (x1 <= x0 || y1 <= y0) continue;
+
+            Mat roi = image.submat(y0, y1, x0, x1);
+            houghCircles(roi, minRadius, maxRadius);
+            roi.release();
+            // Boxes can overlap, so the same circle may turn up more than once
+            addCircles(x0, y0, true);
+            circles.release();
+        }
+    }
+
+    /** Copy what HoughCircles found out of the circles Mat, shifted back into image coordinates */
+    private void addCircles(int offsetX, int offsetY, boolean dedupe) {
+        int n = circles.cols();
+        if (n == 0) return;
+        if (circleBuffer.length < n * 3) circleBuffer = new float[n * 3];
+        // HoughCircles always gives us a 1xN CV_32FC3 Mat
+        circles.get(0, 0, circleBuffer);
+
+        for (int i = 0; i < n; i++) {
+            double x = circleBuffer[i * 3] + offsetX;
+            double y = circleBuffer[i * 3 + 1] + offsetY;
+            if (dedupe && isDuplicate(x, y)) continue;
+
+            if (circleData.length < (circleCount + 1) * 3) {
+                circleData = Arrays.copyOf(circleData, (circleCount + 1) * 6);
+            }
+            circleData[circleCount * 3] = x;
+            circleData[circleCount * 3 + 1] = y;
+            circleData[circleCount * 3 + 2] = circleBuffer[i * 3 + 2];
+            circleCount++;
+        }
+    }
+
+    private boolean isDuplicate(double x, double y) {
+        double minDistSq = (double) params.minDist() * params.minDist();
+        for (int i = 0; i < circleCount; i++) {
+            double dx = circleData[i * 3] - x;
+            double dy = circleData[i * 3 + 1] - y;
+            if (dx * dx + dy * dy < minDistSq) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Put each contour's centroid into a grid of allowableThreshold sized cells, so a circle only has
+     * to look at the 3x3 cells around its center to find every contour it could match.
+     */
+    private void bucketContours(Mat image, List<Contour> contours) {
+        int n = contours.size();
+        if (centroids.length < n * 2) {
+            centroids = new double[n * 2];
+            nextInCell = new int[n];
+            contourMatched = new boolean[n];
+            contourColumn = new int[n];
+            columns = new int[n];
+        }
+        Arrays.fill(contourMatched, 0, n, false);
+        Arrays.fill(contourColumn, 0, n, -1);
+
+        cellSize = Math.max(params.allowableThreshold(), 1);
+        gridCols = image.cols() / cellSize + 1;
+        gridRows = image.rows() / cellSize + 1;
+        if (cellHead.length < gridCols * gridRows) cellHead = new int[gridCols * gridRows];
+        Arrays.fill(cellHead, 0, gridCols * gridRows, -1);
+
+        for (int i = 0; i < n; i++) {
+            Moments mu = contours.get(i).getMoments();
+            double x = mu.m10 / mu.m00;
+            double y = mu.m01 / mu.m00;
+            centroids[i * 2] = x;
+            centroids[i * 2 + 1] = y;
+            // A contour with no area has no centroid, and can't match anything
+            if (!Double.isFinite(x) || !Double.isFinite(y)) continue;
+
+            int cell = cell(y, gridRows) * gridCols + cell(x, gridCols);
+            nextInCell[i] = cellHead[cell];
+            cellHead[cell] = i;
+        }
+    }
+
+    private int cell(double v, int cells) {
+        return Math.clamp((int) Math.floor(v / cellSize), 0, cells - 1);
+    }
+
+    /**
+     * Match circles to contours whose centroid is within allowableThreshold of the circle's center on
+     * both axes. Only circles and contours that have some candidate go into the assignment problem,
+     * which is then solved exactly.
+     *
+     * @return For each circle, the index of its contour, or -1 if it has none
+     */
+    private int[] assign() {
+        if (circleMatch.length < circleCount) circleMatch = new int[circleCount];
+        Arrays.fill(circleMatch, 0, circleCount, -1);
+
+        // Find every candidate pair, renumbering the contours that show up as columns
+        double threshold = params.allowableThreshold();
+        candidates.clear();
+        int rows = 0;
+        int cols = 0;
+        for (int i = 0; i < circleCount; i++) {
+            double x = circleData[i * 3];
+            double y = circleData[i * 3 + 1];
+            int cx = cell(x, gridCols);
+            int cy = cell(y, gridRows);
+            boolean any = false;
+            for (int gy = Math.max(cy - 1, 0); gy <= Math.min(cy + 1, gridRows - 1); gy++) {
+                for (int gx = Math.max(cx - 1, 0); gx <= Math.min(cx + 1, gridCols - 1); gx++) {
+                    for (int c = cellHead[gy * gridCols + gx]; c >= 0; c = nextInCell[c]) {
+                        double dx = x - centroids[c * 2];
+                        double dy = y - centroids[c * 2 + 1];
+                        if (Math.abs(dx) > threshold || Math.abs(dy) > threshold) continue;
+
+                        if (contourColumn[c] < 0) {
+                            contourColumn[c] = cols;
+                            columns[cols++] = c;
+                        }
+                        candidates.add(new double[] {rows, contourColumn[c], dx * dx + dy * dy, i});
+                        any = true;
+                    }
                 }
             }
+            if (any) rows++;
         }
+        if (candidates.isEmpty()) return circleMatch;
 
-        // Release everything we don't use
-        for (var c : unmatchedContours) c.release();
+        // Anything not a candidate costs more than every candidate put together, so the most pairs
+        // possible get matched before distance is considered at all
+        double forbidden = (2 * threshold * threshold + 1) * (Math.min(rows, cols) + 1);
+        boolean transpose = rows > cols;
+        int n = transpose ? cols : rows;
+        int m = transpose ? rows : cols;
+        double[][] cost = new double[n][m];
+        for (var row : cost) Arrays.fill(row, forbidden);
+        int[] rowCircle = new int[rows];
+        for (var candidate : candidates) {
+            int r = (int) candidate[0];
+            int c = (int) candidate[1];
+            rowCircle[r] = (int) candidate[3];
+            if (transpose) cost[c][r] = candidate[2];
+            else cost[r][c] = candidate[2];
+        }
 
-        return output;
+        int[] rowMatch = hungarian(cost, n, m);
+        for (int r = 0; r < n; r++) {
+            int c = rowMatch[r];
+            if (cost[r][c] >= forbidden) continue;
+            int circleRow = transpose ? c : r;
+            int column = transpose ? r : c;
+            circleMatch[rowCircle[circleRow]] = columns[column];
+        }
+        return circleMatch;
+    }
+
+    /**
+     * Minimum cost assignment of n rows to m >= n columns, with the Hungarian algorithm in O(n^2 m).
+     *
+     * @return The column assigned to each row
+     */
+    private static int[] hungarian(double[][] cost, int n, int m) {
+        // 1-indexed, with row/column 0 as the sentinel
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] rowMatch = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) rowMatch[p[j] - 1] = j - 1;
+        }
+        return rowMatch;
     }
 
     @Override
@@ -128,6 +387,7 @@ public class FindCirclesPipe
      *     such as 300 or normally exposed and contrasty images.
      * @param accuracy Circle accuracy, [1, 100]
      * @param diagonalLengthPx The diagonal length of the image in pixels
+     * @param roi Only look for circles around each contour, instead of over the whole image
      */
     public static record FindCirclePipeParams(
             int allowableThreshold,
@@ -136,5 +396,6 @@ public class FindCirclesPipe
             int maxRadius,
             int maxCannyThresh,
             int accuracy,
-            double diagonalLengthPx) {}
+            double diagonalLengthPx,
+            boolean roi) {}
 }
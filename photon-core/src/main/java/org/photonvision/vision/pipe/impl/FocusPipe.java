@@ -21,42 +21,114 @@ import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfDouble;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
 import org.photonvision.vision.pipe.CVPipe;
 
+/** Scores how sharp part of an image is by the variance of its Laplacian. Higher is sharper. */
 public class FocusPipe extends CVPipe<Mat, FocusPipe.FocusResult, FocusPipe.FocusParams> {
+    // The Laplacian's kernel is 3x3, so anything smaller has nothing to measure
+    private static final int kMinSize = 3;
+
     // cache these
     MatOfDouble mean = new MatOfDouble();
     MatOfDouble stddev = new MatOfDouble();
 
+    // Reused between frames, since on big images these are big too
+    private final Mat gray = new Mat();
+    private final Mat decimated = new Mat();
+    private final Mat laplacian = new Mat();
+
     @Override
     protected FocusResult process(Mat in) {
-        var outputMat = new Mat();
+        var roi = params.roiIn(in.cols(), in.rows());
+        var region = in.submat(roi);
 
-        Imgproc.Laplacian(in, outputMat, CvType.CV_64F, 3);
+        // One channel is a third of the work, and uses all of the colour channels rather than just
+        // the first
+        Mat toMeasure = region;
+        if (toMeasure.channels() > 1) {
+            Imgproc.cvtColor(toMeasure, gray, Imgproc.COLOR_BGR2GRAY);
+            toMeasure = gray;
+        }
 
-        Core.meanStdDev(outputMat, mean, stddev);
+        if (params.decimate() > 1) {
+            // Nearest neighbour, since anything smoother would blur the edges we're measuring
+            var size =
+                    new Size(
+                            Math.max(kMinSize, toMeasure.cols() / params.decimate()),
+                            Math.max(kMinSize, toMeasure.rows() / params.decimate()));
+            Imgproc.resize(toMeasure, decimated, size, 0, 0, Imgproc.INTER_NEAREST);
+            toMeasure = decimated;
+        }
+
+        // 8 bit input can't overflow 16 bits with a 3x3 kernel
+        Imgproc.Laplacian(toMeasure, laplacian, CvType.CV_16S, 3);
+        region.release();
+
+        Core.meanStdDev(laplacian, mean, stddev);
         var sd = stddev.get(0, 0)[0];
         var variance = sd * sd;
 
-        return new FocusResult(outputMat, variance);
+        return new FocusResult(laplacian, roi, variance);
     }
 
     @Override
     public void release() {
         mean.release();
         stddev.release();
+        gray.release();
+        decimated.release();
+        laplacian.release();
     }
 
     public static class FocusResult {
+        /** The Laplacian of the measured region, which is only valid until the pipe runs again */
         public final Mat frame;
+
+        /** The region measured, in pixels of the input image */
+        public final Rect roi;
+
         public final double variance;
 
-        public FocusResult(Mat frame, double variance) {
+        public FocusResult(Mat frame, Rect roi, double variance) {
             this.frame = frame;
+            this.roi = roi;
             this.variance = variance;
         }
     }
 
-    public static class FocusParams {}
+    /**
+     * @param roiX The left of the region to measure, as a fraction of the image's width
+     * @param roiY The top of the region to measure, as a fraction of the image's height
+     * @param roiWidth The width of the region, as a fraction of the image's width
+     * @param roiHeight The height of the region, as a fraction of the image's height
+     * @param decimate Measure only every nth pixel in each direction
+     */
+    public static record FocusParams(
+            double roiX, double roiY, double roiWidth, double roiHeight, int decimate) {
+        /**
+         * @return The region to measure in an image of the given size, kept inside the image and big
+         *     enough to measure
+         */
+        public Rect roiIn(int cols, int rows) {
+            int x = clamp((int) Math.round(roiX * cols), 0, cols - kMinSize);
+            int y = clamp((int) Math.round(roiY * rows), 0, rows - kMinSize);
+            int width = clamp((int) Math.round(roiWidth * cols), kMinSize, cols - x);
+            int height = clamp((int) Math.round(roiHeight * rows), kMinSize, rows - y);
+            return new Rect(x, y, width, height);
+        }
+
+        /**
+         * @return Whether the whole image is measured
+         */
+        public boolean isWholeImage() {
+            return roiX <= 0 && roiY <= 0 && roiX + roiWidth >= 1 && roiY + roiHeight >= 1;
+        }
+
+        private static int clamp(int value, int min, int max) {
+            return Math.max(min, Math.min(value, max));
+        }
+    }
 }
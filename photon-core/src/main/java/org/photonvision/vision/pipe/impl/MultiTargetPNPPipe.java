@@ -17,20 +17,31 @@
 
 package org.photonvision.vision.pipe.impl;
 
+import io.avaje.jsonb.Json;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.estimation.TargetModel;
 import org.photonvision.estimation.VisionEstimation;
 import org.photonvision.targeting.MultiTargetPNPResult;
+import org.photonvision.targeting.PnpResult;
 import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.pipe.CVPipe;
 import org.photonvision.vision.target.TrackedTarget;
+import org.wpilib.math.geometry.Transform3d;
 import org.wpilib.vision.apriltag.AprilTagFieldLayout;
 
-/** Estimate the camera pose given multiple Apriltag observations */
+/**
+ * Estimate the camera pose given multiple Apriltag observations
+ *
+ * <p>With warm starting enabled, the last accepted pose is refined with Levenberg-Marquardt instead
+ * of solving from scratch, as long as the same tags are visible. The global solve is still used if
+ * refinement fails, moves the camera too far, or fits the corners noticeably worse than the last
+ * global solve did.
+ */
 public class MultiTargetPNPPipe
         extends CVPipe<
                 List<TrackedTarget>,
@@ -38,8 +49,71 @@ public class MultiTargetPNPPipe
                 MultiTargetPNPPipe.MultiTargetPNPPipeParams> {
     private static final Logger logger = new Logger(MultiTargetPNPPipe.class, LogGroup.VisionModule);
 
+    /** The most the camera may move between frames for a refined pose to be trusted */
+    private static final double kMaxWarmTranslationMeters = 0.05;
+
+    private static final double kMaxWarmRotationRadians = Math.toRadians(2);
+
+    /** Refined poses may fit the corners this much worse than the last global solve */
+    private static final double kMaxWarmErrorGrowth = 1.5;
+
+    private static final double kWarmErrorSlackPixels = 0.5;
+
+    /** Don't refine from a pose older than this, e.g. after the tags were out of view */
+    private static final long kMaxSeedAgeNanos = 100_000_000L;
+
+    /** Smoothing factor for solve times */
+    private static final double kAlpha = 0.05;
+
+    /**
+     * How often the warm start was used, and what it saved.
+     *
+     * @param warmSolves How many frames used the refined pose
+     * @param globalSolves How many frames were solved from scratch
+     * @param fallbacks How many refinements were rejected, falling back to the global solve
+     * @param warmMillis Average time of a refinement
+     * @param globalMillis Average time of a global solve
+     * @param savedMillis Total time saved by refining, less the time spent on rejected refinements
+     */
+    @Json
+    public record WarmStartStats(
+            long warmSolves,
+            long globalSolves,
+            long fallbacks,
+            double warmMillis,
+            double globalMillis,
+            double savedMillis) {}
+
     private boolean hasWarned = false;
 
+    // The last accepted pose, and the tags it was solved with
+    private Transform3d seed = null;
+    private List<Short> seedTagIds = List.of();
+    private long seedNanos = 0;
+    // Reprojection error of the last global solve
+    private double referenceError = 0;
+
+    private long warmSolves = 0;
+    private long globalSolves = 0;
+    private long fallbacks = 0;
+    private double warmNanos = 0;
+    private double globalNanos = 0;
+    private double savedNanos = 0;
+
+    @Override
+    public void setParams(MultiTargetPNPPipeParams params) {
+        if (!Objects.equals(this.params, params)) {
+            // The calibration or layout changed, so the last pose says nothing about this one
+            seed = null;
+        }
+        super.setParams(params);
+    }
+
+    /** Forget the last pose, so the next frame is solved from scratch. */
+    public void reset() {
+        seed = null;
+    }
+
     @Override
     protected Optional<MultiTargetPNPResult> process(List<TrackedTarget> targetList) {
         if (params == null
@@ -70,26 +144,90 @@ public class MultiTargetPNPPipe
             return Optional.empty();
         }
 
+        var cameraMatrix = params.cameraCoefficients().cameraIntrinsics.getAsWpilibMat();
+        var distCoeffs = params.cameraCoefficients().distCoeffs.getAsWpilibMat();
+        var visTags = TrackedTarget.simpleFromTrackedTargets(targetList);
+
+        var sortedTagIds = new ArrayList<>(tagIDsUsed);
+        sortedTagIds.sort(null);
+
+        long start = System.nanoTime();
+        if (params.warmStart()
+                && seed != null
+                && start - seedNanos < kMaxSeedAgeNanos
+                && sortedTagIds.equals(seedTagIds)) {
+            var refinedPose =
+                    VisionEstimation.refineCamPosePNP(
+                            cameraMatrix, distCoeffs, visTags, params.atfl(), params.targetModel(), seed);
+            long elapsed = System.nanoTime() - start;
+
+            if (refinedPose.isPresent() && isTrusted(refinedPose.get())) {
+                synchronized (this) {
+                    warmSolves++;
+                    warmNanos = average(warmNanos, elapsed, warmSolves);
+                    if (globalSolves > 0) savedNanos += globalNanos - elapsed;
+                }
+                seed = refinedPose.get().best;
+                seedNanos = start;
+                return Optional.of(new MultiTargetPNPResult(refinedPose.get(), tagIDsUsed));
+            }
+
+            synchronized (this) {
+                fallbacks++;
+                savedNanos -= elapsed;
+            }
+            start = System.nanoTime();
+        }
+
         var estimatedPose =
                 VisionEstimation.estimateCamPosePNP(
-                        params.cameraCoefficients().cameraIntrinsics.getAsWpilibMat(),
-                        params.cameraCoefficients().distCoeffs.getAsWpilibMat(),
-                        TrackedTarget.simpleFromTrackedTargets(targetList),
-                        params.atfl(),
-                        params.targetModel());
+                        cameraMatrix, distCoeffs, visTags, params.atfl(), params.targetModel());
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            globalSolves++;
+            globalNanos = average(globalNanos, elapsed, globalSolves);
+        }
 
         if (estimatedPose.isPresent()) {
+            seed = estimatedPose.get().best;
+            seedTagIds = sortedTagIds;
+            seedNanos = start;
+            referenceError = estimatedPose.get().bestReprojErr;
             return Optional.of(new MultiTargetPNPResult(estimatedPose.get(), tagIDsUsed));
         } else {
+            seed = null;
             return Optional.empty();
         }
     }
 
+    /** If a refined pose is close to where we started, and fits about as well as a global solve */
+    private boolean isTrusted(PnpResult refined) {
+        var motion = seed.inverse().plus(refined.best);
+        return motion.getTranslation().getNorm() <= kMaxWarmTranslationMeters
+                && motion.getRotation().getAngle() <= kMaxWarmRotationRadians
+                && refined.bestReprojErr <= referenceError * kMaxWarmErrorGrowth + kWarmErrorSlackPixels;
+    }
+
+    private static double average(double average, long sample, long count) {
+        // Plain mean until there are enough samples for the moving average to settle
+        double alpha = Math.max(kAlpha, 1.0 / count);
+        return average + alpha * (sample - average);
+    }
+
+    /**
+     * @return How often the warm start was used, and what it saved
+     */
+    public synchronized WarmStartStats getWarmStartStats() {
+        return new WarmStartStats(
+                warmSolves, globalSolves, fallbacks, warmNanos / 1e6, globalNanos / 1e6, savedNanos / 1e6);
+    }
+
     @Override
     public void release() {}
 
     public static record MultiTargetPNPPipeParams(
             CameraCalibrationCoefficients cameraCoefficients,
             AprilTagFieldLayout atfl,
-            TargetModel targetModel) {}
+            TargetModel targetModel,
+            boolean warmStart) {}
 }
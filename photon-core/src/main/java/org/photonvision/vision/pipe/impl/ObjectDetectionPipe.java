@@ -18,47 +18,74 @@
 package org.photonvision.vision.pipe.impl;
 
 import java.util.List;
-import java.util.Optional;
 import org.opencv.core.Mat;
-import org.photonvision.common.configuration.NeuralNetworkModelManager;
+import org.photonvision.vision.objects.DetectionParams;
 import org.photonvision.vision.objects.Model;
 import org.photonvision.vision.objects.NullModel;
 import org.photonvision.vision.objects.ObjectDetector;
+import org.photonvision.vision.objects.ObjectDetectorCache;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.pipe.CVPipe;
 
 public class ObjectDetectionPipe
         extends CVPipe<
                 CVMat, List<NeuralNetworkPipeResult>, ObjectDetectionPipe.ObjectDetectionPipeParams> {
-    private ObjectDetector detector;
+    // Nothing is loaded until we know which model the pipeline wants
+    private ObjectDetector detector = NullModel.getInstance();
 
-    public ObjectDetectionPipe() {
-        Optional<Model> defaultModel = NeuralNetworkModelManager.getInstance().getDefaultModel();
-        detector = defaultModel.map(Model::load).orElse(NullModel.getInstance());
+    /**
+     * Load the given model if it isn't the one already loaded.
+     *
+     * @param model The model to run
+     */
+    public void loadModel(Model model) {
+        if (detector.getModel() != model) {
+            detector.release();
+            detector = ObjectDetectorCache.getInstance().acquire(model);
+        }
+    }
+
+    /**
+     * Load the given model now, rather than when the first frame arrives.
+     *
+     * @param model The model to run
+     */
+    public void prewarm(Model model) {
+        loadModel(model);
+        ObjectDetectorCache.getInstance().warmUp(detector);
+    }
+
+    /**
+     * Get the detector for the model in the current params, loading it if it changed. The detector
+     * may be run from other threads until the model changes or this pipe is released.
+     *
+     * @return The detector
+     */
+    public ObjectDetector getDetector() {
+        loadModel(params.model());
+        return detector;
     }
 
     @Override
     protected List<NeuralNetworkPipeResult> process(CVMat in) {
         // Check if the model has changed
-        if (detector.getModel() != params.model()) {
-            detector.release();
-            detector = params.model().load();
-        }
+        loadModel(params.model());
 
         Mat frame = in.getMat();
         if (frame.empty()) {
             return List.of();
         }
 
-        return detector.detect(in.getMat(), params.nms(), params.confidence());
+        return detector.detect(in.getMat(), params.detection());
     }
 
     @Override
     public void release() {
         detector.release();
+        detector = NullModel.getInstance();
     }
 
-    public static record ObjectDetectionPipeParams(double confidence, double nms, Model model) {}
+    public static record ObjectDetectionPipeParams(DetectionParams detection, Model model) {}
 
     public List<String> getClassNames() {
         return detector.getClasses();
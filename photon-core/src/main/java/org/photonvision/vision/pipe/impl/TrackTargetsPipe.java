@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import org.photonvision.vision.pipe.CVPipe;
+import org.photonvision.vision.target.TrackedTarget;
+
+/**
+ * Follows targets from frame to frame, giving each a track ID and smoothing its yaw, pitch and
+ * area.
+ *
+ * <p>Each track runs a constant velocity Kalman filter on yaw, pitch and area independently.
+ * Targets are matched to the predicted tracks greedily, closest first, by how unlikely the
+ * difference in yaw and pitch is given each track's uncertainty. Targets that already have a track
+ * ID, from object detection's detect-then-track mode, keep it instead.
+ *
+ * <p>Tracks are kept in fixed primitive arrays, so following targets doesn't allocate. The targets
+ * are updated in place.
+ */
+public class TrackTargetsPipe
+        extends CVPipe<
+                TrackTargetsPipe.TrackTargetsInput,
+                List<TrackedTarget>,
+                TrackTargetsPipe.TrackTargetsParams> {
+    private static final int kYaw = 0;
+    private static final int kPitch = 1;
+    private static final int kArea = 2;
+    private static final int kAxes = 3;
+
+    private static final int kMaxTracks = 64;
+
+    /**
+     * Variance of a single measurement of yaw and pitch (degrees squared), and area (percent squared)
+     */
+    private static final double[] kMeasurementVariance = {0.25, 0.25, 0.05};
+
+    /** Variance of the acceleration of each axis, i.e. how quickly velocity may change */
+    private static final double[] kAccelerationVariance = {2500, 2500, 100};
+
+    /** Variance of the velocity of a new track, whose velocity is unknown */
+    private static final double[] kInitialVelocityVariance = {2500, 2500, 100};
+
+    /** Chi-squared with two degrees of freedom at 99%, on the yaw and pitch innovation */
+    private static final double kGate = 9.21;
+
+    /** Start over if we haven't had a frame in this long, since no prediction would be any good */
+    private static final long kMaxGapNanos = 500_000_000L;
+
+    /** How many frames in a row a track survives unseen, enough to ride out a flickering target */
+    public static final int kDefaultMaxMisses = 5;
+
+    /**
+     * @param targets The targets found in this frame
+     * @param timestampNanos When the frame was captured
+     */
+    public static record TrackTargetsInput(List<TrackedTarget> targets, long timestampNanos) {}
+
+    /**
+     * @param enabled If targets are tracked at all. While disabled, targets pass through untouched
+     *     and every track is forgotten.
+     * @param maxMisses How many frames in a row a track may go unseen before it's dropped
+     */
+    public static record TrackTargetsParams(boolean enabled, int maxMisses) {
+        public TrackTargetsParams(int maxMisses) {
+            this(true, maxMisses);
+        }
+    }
+
+    private final boolean[] active = new boolean[kMaxTracks];
+    private final boolean[] matched = new boolean[kMaxTracks];
+    private final int[] id = new int[kMaxTracks];
+    private final int[] misses = new int[kMaxTracks];
+    private final int[] classId = new int[kMaxTracks];
+    private final int[] fiducialId = new int[kMaxTracks];
+
+    // Filter state, indexed by track * kAxes + axis
+    private final double[] x = new double[kMaxTracks * kAxes];
+    private final double[] v = new double[kMaxTracks * kAxes];
+    // Covariance of [x, v]
+    private final double[] p00 = new double[kMaxTracks * kAxes];
+    private final double[] p01 = new double[kMaxTracks * kAxes];
+    private final double[] p11 = new double[kMaxTracks * kAxes];
+
+    // Per frame scratch, grown to the most targets seen
+    private double[] cost = new double[0];
+    private int[] targetTrack = new int[0];
+
+    private long lastTimestampNanos = 0;
+    private int nextId = 0;
+
+    @Override
+    protected List<TrackedTarget> process(TrackTargetsInput in) {
+        var targets = in.targets();
+        if (!params.enabled()) {
+            // Tracks would be long gone by the time tracking is turned back on
+            reset();
+            return targets;
+        }
+        long gap = in.timestampNanos() - lastTimestampNanos;
+        if (lastTimestampNanos == 0 || gap < 0 || gap > kMaxGapNanos) {
+            Arrays.fill(active, false);
+            gap = 0;
+        }
+        lastTimestampNanos = in.timestampNanos();
+
+        predict(gap / 1e9);
+        associate(targets);
+
+        for (int t = 0; t < targets.size(); t++) {
+            var target = targets.get(t);
+            int track = targetTrack[t];
+            if (track < 0) {
+                track = start(target);
+                if (track < 0) continue;
+            } else {
+                correct(track, target);
+            }
+
+            int i = track * kAxes;
+            target.setTrack(
+                    id[track],
+                    x[i + kYaw],
+                    x[i + kPitch],
+                    x[i + kArea],
+                    v[i + kYaw],
+                    v[i + kPitch],
+                    v[i + kArea]);
+        }
+
+        for (int track = 0; track < kMaxTracks; track++) {
+            if (active[track] && !matched[track] && ++misses[track] > params.maxMisses()) {
+                active[track] = false;
+            }
+        }
+
+        return targets;
+    }
+
+    /** Forget every track, e.g. because the pipeline's settings changed. Track IDs keep counting. */
+    public void reset() {
+        Arrays.fill(active, false);
+        lastTimestampNanos = 0;
+    }
+
+    private void predict(double dt) {
+        double dt2 = dt * dt;
+        for (int track = 0; track < kMaxTracks; track++) {
+            matched[track] = false;
+            if (!active[track]) continue;
+
+            for (int axis = 0; axis < kAxes; axis++) {
+                int i = track * kAxes + axis;
+                double q = kAccelerationVariance[axis];
+                x[i] += v[i] * dt;
+                // P = F P F' + Q, with Q for white noise acceleration
+                p00[i] += 2 * dt * p01[i] + dt2 * p11[i] + q * dt2 * dt2 / 4;
+                p01[i] += dt * p11[i] + q * dt2 * dt / 2;
+                p11[i] += q * dt2;
+            }
+        }
+    }
+
+    private void associate(List<TrackedTarget> targets) {
+        int n = targets.size();
+        if (targetTrack.length < n) {
+            targetTrack = new int[n];
+            cost = new double[n * kMaxTracks];
+        }
+        Arrays.fill(targetTrack, 0, n, -1);
+
+        for (int t = 0; t < n; t++) {
+            var target = targets.get(t);
+            int presetId = target.getTrackId();
+            for (int track = 0; track < kMaxTracks; track++) {
+                int c = t * kMaxTracks + track;
+                cost[c] = Double.POSITIVE_INFINITY;
+                if (!active[track]) continue;
+
+                if (presetId >= 0) {
+                    // Already associated upstream, so just find that track
+                    if (id[track] == presetId) cost[c] = 0;
+                    continue;
+                }
+                if (classId[track] != target.getClassID() || fiducialId[track] != target.getFiducialId()) {
+                    continue;
+                }
+
+                double d =
+                        distance(track * kAxes + kYaw, target.getYaw(), kYaw)
+                                + distance(track * kAxes + kPitch, target.getPitch(), kPitch);
+                if (d <= kGate) cost[c] = d;
+            }
+        }
+
+        // Greedily take the closest pair until nothing left is close enough
+        while (true) {
+            int best = -1;
+            for (int c = 0; c < n * kMaxTracks; c++) {
+                if (cost[c] != Double.POSITIVE_INFINITY && (best < 0 || cost[c] < cost[best])) {
+                    best = c;
+                }
+            }
+            if (best < 0) break;
+
+            int t = best / kMaxTracks;
+            int track = best % kMaxTracks;
+            targetTrack[t] = track;
+            matched[track] = true;
+            for (int k = 0; k < kMaxTracks; k++) cost[t * kMaxTracks + k] = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < n; k++) cost[k * kMaxTracks + track] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /** Squared innovation, normalized by its variance */
+    private double distance(int i, double measured, int axis) {
+        double innovation = measured - x[i];
+        return innovation * innovation / (p00[i] + kMeasurementVariance[axis]);
+    }
+
+    private static double measured(TrackedTarget target, int axis) {
+        return switch (axis) {
+            case kYaw -> target.getYaw();
+            case kPitch -> target.getPitch();
+            default -> target.getArea();
+        };
+    }
+
+    private void correct(int track, TrackedTarget target) {
+        misses[track] = 0;
+        for (int axis = 0; axis < kAxes; axis++) {
+            correct(track * kAxes + axis, measured(target, axis), axis);
+        }
+    }
+
+    private void correct(int i, double measured, int axis) {
+        double s = p00[i] + kMeasurementVariance[axis];
+        double k0 = p00[i] / s;
+        double k1 = p01[i] / s;
+        double innovation = measured - x[i];
+
+        x[i] += k0 * innovation;
+        v[i] += k1 * innovation;
+
+        double p00Before = p00[i];
+        double p01Before = p01[i];
+        p00[i] -= k0 * p00Before;
+        p01[i] -= k0 * p01Before;
+        p11[i] -= k1 * p01Before;
+    }
+
+    /**
+     * Start a new track on a target.
+     *
+     * @return The track, or -1 if every track is in use
+     */
+    private int start(TrackedTarget target) {
+        int track = 0;
+        while (track < kMaxTracks && active[track]) track++;
+        if (track == kMaxTracks) return -1;
+
+        active[track] = true;
+        matched[track] = true;
+        misses[track] = 0;
+        id[track] = target.getTrackId() >= 0 ? target.getTrackId() : nextId++;
+        classId[track] = target.getClassID();
+        fiducialId[track] = target.getFiducialId();
+
+        for (int axis = 0; axis < kAxes; axis++) {
+            int i = track * kAxes + axis;
+            x[i] = measured(target, axis);
+            v[i] = 0;
+            p00[i] = kMeasurementVariance[axis];
+            p01[i] = 0;
+            p11[i] = kInitialVelocityVariance[axis];
+        }
+        return track;
+    }
+
+    @Override
+    public void release() {}
+}
@@ -22,6 +22,7 @@ import java.util.Objects;
 import org.opencv.core.Point;
 import org.photonvision.common.util.numbers.DoubleCouple;
 import org.photonvision.common.util.numbers.IntegerCouple;
+import org.photonvision.vision.frame.FrameDivisor;
 import org.photonvision.vision.opencv.ContourGroupingMode;
 import org.photonvision.vision.opencv.ContourIntersectionDirection;
 import org.photonvision.vision.opencv.ContourSortMode;
@@ -79,6 +80,18 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
     // the direction in which contours must intersect to be considered intersecting
     public ContourIntersectionDirection contourIntersection = ContourIntersectionDirection.Up;
 
+    // Follow targets between frames, giving each a track ID. Published yaw, pitch and area are
+    // smoothed by the tracker.
+    public boolean targetTracking = false;
+
+    // Trade image quality for speed at runtime, to hold governorTargetFps and keep the CPU under
+    // governorMaxTemperature (degrees C). Only ever shrinks the stream as far as
+    // governorMaxStreamDivisor; pipelines may have more knobs of their own.
+    public boolean frameBudgetGovernor = false;
+    public int governorTargetFps = 30;
+    public double governorMaxTemperature = 80;
+    public FrameDivisor governorMaxStreamDivisor = FrameDivisor.QUARTER;
+
     // 3d settings
     public boolean solvePNPEnabled = false;
     @SuppressSettingCopy public TargetModel targetModel = TargetModel.k2020HighGoalOuter;
@@ -115,6 +128,11 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
                 && contourSpecklePercentage == that.contourSpecklePercentage
                 && Double.compare(that.offsetDualPointAArea, offsetDualPointAArea) == 0
                 && Double.compare(that.offsetDualPointBArea, offsetDualPointBArea) == 0
+                && targetTracking == that.targetTracking
+                && frameBudgetGovernor == that.frameBudgetGovernor
+                && governorTargetFps == that.governorTargetFps
+                && Double.compare(that.governorMaxTemperature, governorMaxTemperature) == 0
+                && governorMaxStreamDivisor == that.governorMaxStreamDivisor
                 && solvePNPEnabled == that.solvePNPEnabled
                 && cornerDetectionUseConvexHulls == that.cornerDetectionUseConvexHulls
                 && cornerDetectionExactSideCount == that.cornerDetectionExactSideCount
@@ -166,6 +184,11 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
                 offsetDualPointBArea,
                 contourGroupingMode,
                 contourIntersection,
+                targetTracking,
+                frameBudgetGovernor,
+                governorTargetFps,
+                governorMaxTemperature,
+                governorMaxStreamDivisor,
                 solvePNPEnabled,
                 targetModel,
                 cornerDetectionStrategy,
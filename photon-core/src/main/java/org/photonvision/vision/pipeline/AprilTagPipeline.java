@@ -31,6 +31,9 @@ import org.photonvision.vision.apriltag.AprilTagFamily;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameThresholdType;
 import org.photonvision.vision.pipe.CVPipe.CVPipeResult;
+import org.photonvision.vision.pipe.impl.AprilTagCornerRefinePipe;
+import org.photonvision.vision.pipe.impl.AprilTagCornerRefinePipe.AprilTagCornerRefineInput;
+import org.photonvision.vision.pipe.impl.AprilTagCornerRefinePipe.AprilTagCornerRefinePipeParams;
 import org.photonvision.vision.pipe.impl.AprilTagDetectionPipe;
 import org.photonvision.vision.pipe.impl.AprilTagDetectionPipe.AprilTagDetectionPipeParams;
 import org.photonvision.vision.pipe.impl.AprilTagPoseEstimatorPipe;
@@ -55,6 +58,7 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
     private static final Logger logger = new Logger(AprilTagPipeline.class, LogGroup.VisionModule);
 
     private final AprilTagDetectionPipe aprilTagDetectionPipe = new AprilTagDetectionPipe();
+    private final AprilTagCornerRefinePipe cornerRefinePipe = new AprilTagCornerRefinePipe();
     private final AprilTagPoseEstimatorPipe singleTagPoseEstimatorPipe =
             new AprilTagPoseEstimatorPipe();
     private final MultiTargetPNPPipe multiTagPNPPipe = new MultiTargetPNPPipe();
@@ -88,10 +92,10 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
         }
 
         var config = new AprilTagDetector.Config();
-        config.numThreads = settings.threads;
+        config.numThreads = frameBudget != null ? frameBudget.threads() : settings.threads;
         config.refineEdges = settings.refineEdges;
         config.quadSigma = (float) settings.blur;
-        config.quadDecimate = settings.decimate;
+        config.quadDecimate = frameBudget != null ? frameBudget.decimate() : settings.decimate;
 
         var quadParams = new AprilTagDetector.QuadThresholdParameters();
         // 5 was the default minClusterPixels in WPILib prior to 2025
@@ -107,6 +111,8 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
 
         aprilTagDetectionPipe.setParams(
                 new AprilTagDetectionPipeParams(settings.tagFamily, config, quadParams));
+        // Decimated corners can be off by about the decimation
+        cornerRefinePipe.setParams(new AprilTagCornerRefinePipeParams(config.quadDecimate + 1));
 
         if (frameStaticProperties.cameraCalibration != null) {
             var cameraMatrix = frameStaticProperties.cameraCalibration.getCameraIntrinsicsMat();
@@ -125,7 +131,11 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
                 // TODO global state ew
                 var atfl = ConfigManager.getInstance().getConfig().getApriltagFieldLayout();
                 multiTagPNPPipe.setParams(
-                        new MultiTargetPNPPipeParams(frameStaticProperties.cameraCalibration, atfl, tagModel));
+                        new MultiTargetPNPPipeParams(
+                                frameStaticProperties.cameraCalibration,
+                                atfl,
+                                tagModel,
+                                settings.multiTargetWarmStart));
             }
         }
     }
@@ -154,7 +164,16 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
             if (detection.getHamming() > settings.hammingDist) continue;
 
             usedDetections.add(detection);
+        }
 
+        if (settings.refineCornersFullRes) {
+            var refineResult =
+                    cornerRefinePipe.run(new AprilTagCornerRefineInput(frame.processedImage, usedDetections));
+            sumPipeNanosElapsed += refineResult.nanosElapsed;
+            usedDetections = refineResult.output;
+        }
+
+        for (AprilTagDetection detection : usedDetections) {
             // Populate target list for multitag
             // (TODO: Address circular dependencies. Multitag only requires corners and IDs, this should
             // not be necessary.)
@@ -250,9 +269,22 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
                 frame.sequenceID, sumPipeNanosElapsed, fps, targetList, multiTagResult, frame);
     }
 
+    /**
+     * @return How often the multi-target warm start was used, and what it saved
+     */
+    public MultiTargetPNPPipe.WarmStartStats getWarmStartStats() {
+        return multiTagPNPPipe.getWarmStartStats();
+    }
+
+    @Override
+    public void reset() {
+        multiTagPNPPipe.reset();
+    }
+
     @Override
     public void release() {
         aprilTagDetectionPipe.release();
+        cornerRefinePipe.release();
         singleTagPoseEstimatorPipe.release();
         multiTagPNPPipe.release();
         calculateFPSPipe.release();
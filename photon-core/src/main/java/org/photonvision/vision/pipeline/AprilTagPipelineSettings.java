@@ -27,11 +27,20 @@ public class AprilTagPipelineSettings extends AdvancedPipelineSettings {
     public int threads = 4; // Multiple threads seems to be better performance on most platforms
     public boolean debug = false;
     public boolean refineEdges = true;
+    // Refine the corners of each tag against the full resolution image, to get the accuracy of a low
+    // decimate with the speed of a high one
+    public boolean refineCornersFullRes = false;
     public int numIterations = 40;
     public int hammingDist = 0;
     public int decisionMargin = 35;
     public boolean doMultiTarget = false;
     public boolean doSingleTargetAlways = false;
+    // Refine the previous multi-target pose rather than solving from scratch, while the same tags
+    // are visible and the camera is barely moving
+    public boolean multiTargetWarmStart = false;
+    // How far the frame budget governor may raise decimate and threads
+    public int governorMaxDecimate = 3;
+    public int governorMaxThreads = 4;
 
     // 3d settings
 
@@ -56,11 +65,15 @@ public class AprilTagPipelineSettings extends AdvancedPipelineSettings {
         result = prime * result + threads;
         result = prime * result + (debug ? 1231 : 1237);
         result = prime * result + (refineEdges ? 1231 : 1237);
+        result = prime * result + (refineCornersFullRes ? 1231 : 1237);
         result = prime * result + numIterations;
         result = prime * result + hammingDist;
         result = prime * result + decisionMargin;
         result = prime * result + (doMultiTarget ? 1231 : 1237);
         result = prime * result + (doSingleTargetAlways ? 1231 : 1237);
+        result = prime * result + (multiTargetWarmStart ? 1231 : 1237);
+        result = prime * result + governorMaxDecimate;
+        result = prime * result + governorMaxThreads;
         return result;
     }
 
@@ -76,11 +89,15 @@ public class AprilTagPipelineSettings extends AdvancedPipelineSettings {
         if (threads != other.threads) return false;
         if (debug != other.debug) return false;
         if (refineEdges != other.refineEdges) return false;
+        if (refineCornersFullRes != other.refineCornersFullRes) return false;
         if (numIterations != other.numIterations) return false;
         if (hammingDist != other.hammingDist) return false;
         if (decisionMargin != other.decisionMargin) return false;
         if (doMultiTarget != other.doMultiTarget) return false;
         if (doSingleTargetAlways != other.doSingleTargetAlways) return false;
+        if (multiTargetWarmStart != other.multiTargetWarmStart) return false;
+        if (governorMaxDecimate != other.governorMaxDecimate) return false;
+        if (governorMaxThreads != other.governorMaxThreads) return false;
         return true;
     }
 }
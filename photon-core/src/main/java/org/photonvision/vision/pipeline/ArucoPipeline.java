@@ -119,7 +119,11 @@ public class ArucoPipeline extends CVPipeline<CVPipelineResult, ArucoPipelineSet
                 // TODO global state ew
                 var atfl = ConfigManager.getInstance().getConfig().getApriltagFieldLayout();
                 multiTagPNPPipe.setParams(
-                        new MultiTargetPNPPipeParams(frameStaticProperties.cameraCalibration, atfl, tagModel));
+                        new MultiTargetPNPPipeParams(
+                                frameStaticProperties.cameraCalibration,
+                                atfl,
+                                tagModel,
+                                settings.multiTargetWarmStart));
             }
         }
     }
@@ -250,6 +254,18 @@ public class ArucoPipeline extends CVPipeline<CVPipelineResult, ArucoPipelineSet
                 constant);
     }
 
+    /**
+     * @return How often the multi-target warm start was used, and what it saved
+     */
+    public MultiTargetPNPPipe.WarmStartStats getWarmStartStats() {
+        return multiTagPNPPipe.getWarmStartStats();
+    }
+
+    @Override
+    public void reset() {
+        multiTagPNPPipe.reset();
+    }
+
     @Override
     public void release() {
         arucoDetectionPipe.release();
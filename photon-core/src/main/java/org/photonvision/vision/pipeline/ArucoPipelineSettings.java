@@ -39,6 +39,9 @@ public class ArucoPipelineSettings extends AdvancedPipelineSettings {
 
     public boolean doMultiTarget = false;
     public boolean doSingleTargetAlways = false;
+    // Refine the previous multi-target pose rather than solving from scratch, while the same tags
+    // are visible and the camera is barely moving
+    public boolean multiTargetWarmStart = false;
 
     public ArucoPipelineSettings() {
         super();
@@ -35,6 +35,17 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
     // So releaseable doesn't keep track of if we double-free something. so (ew) remember that here
     protected volatile boolean released = false;
 
+    // If anything will look at the output image, like a stream viewer or a snapshot. Pipelines can
+    // skip preparing it when nothing will.
+    protected boolean outputWanted = true;
+
+    // Values to run with in place of the saved settings, or null to use the settings as they are
+    protected FrameBudget frameBudget = null;
+
+    // Set if the pipeline kept the frame it was last run with, e.g. to finish it later. That frame is
+    // then released by the pipeline, and must not be released by whoever ran it.
+    private boolean frameTaken = false;
+
     public CVPipeline(FrameThresholdType thresholdType) {
         this.thresholdType = thresholdType;
     }
@@ -54,8 +65,27 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
 
     protected abstract void setPipeParamsImpl();
 
+    /**
+     * Process a frame.
+     *
+     * @param frame The frame to process
+     * @param settings The settings to process it with
+     * @return The result, or null if the pipeline took the frame and has nothing to publish yet
+     */
     protected abstract R process(Frame frame, S settings);
 
+    /** Take ownership of the frame being processed. Its release is now up to this pipeline. */
+    protected void takeFrame() {
+        frameTaken = true;
+    }
+
+    /**
+     * @return If the pipeline took ownership of the frame it was last run with
+     */
+    public boolean tookFrame() {
+        return frameTaken;
+    }
+
     public S getSettings() {
         return settings;
     }
@@ -64,6 +94,33 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
         this.settings = s;
     }
 
+    /**
+     * Tell the pipeline if the output image of the next frame will be used.
+     *
+     * @param outputWanted False if nothing will look at the output image
+     */
+    public void setOutputWanted(boolean outputWanted) {
+        this.outputWanted = outputWanted;
+    }
+
+    /**
+     * Tell the pipeline what to run the next frame with, to keep within its frame budget.
+     *
+     * @param frameBudget The values to use in place of the saved settings, or null to use the saved
+     *     settings
+     */
+    public void setFrameBudget(FrameBudget frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    /**
+     * Run the pipeline on a frame.
+     *
+     * @param frame The frame to process. Unless the pipeline takes it (see {@link #tookFrame()}), it
+     *     belongs to the returned result, or to the caller if processing failed.
+     * @param cameraQuirks Quirks of the camera the frame came from
+     * @return The result, or null if the pipeline took the frame and has nothing to publish yet
+     */
     public R run(Frame frame, QuirkyCamera cameraQuirks) {
         if (released) {
             throw new RuntimeException("Pipeline use-after-free!");
@@ -71,6 +128,7 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
         if (settings == null) {
             throw new RuntimeException("No settings provided for pipeline!");
         }
+        frameTaken = false;
         setPipeParams(frame.frameStaticProperties, settings, cameraQuirks);
 
         // if (frame.image.getMat().empty()) {
@@ -78,12 +136,30 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
         //     return (R) new CVPipelineResult(0, 0, List.of(), frame);
         // }
         R result = process(frame, settings);
+        if (result == null) {
+            return null;
+        }
 
-        result.setImageCaptureTimestampNanos(frame.timestampNanos);
+        // Pipelines that return results for an earlier frame set its timestamp themselves
+        if (result.getImageCaptureTimestampNanos() == 0) {
+            result.setImageCaptureTimestampNanos(frame.timestampNanos);
+        }
 
         return result;
     }
 
+    /**
+     * Load anything expensive this pipeline needs ahead of its first frame, so switching to it later
+     * doesn't stall. Called by the pipeline manager when a pipeline is prewarmed.
+     */
+    public void prewarm() {}
+
+    /**
+     * Forget anything carried over from earlier frames, like target tracks or frames still being
+     * processed. Called by the pipeline manager when a cached pipeline becomes active again.
+     */
+    public void reset() {}
+
     /**
      * Release any native memory associated with this pipeline. Called by pipelinemanager at pipeline
      * switch. This should always be implemented to prevent accidental leaks from pipe changes.
@@ -42,6 +42,7 @@ public class ColoredShapePipeline
     private final FilterShapesPipe filterShapesPipe = new FilterShapesPipe();
     private final SortContoursPipe sortContoursPipe = new SortContoursPipe();
     private final Collect2dTargetsPipe collect2dTargetsPipe = new Collect2dTargetsPipe();
+    private final TrackTargetsPipe trackTargetsPipe = new TrackTargetsPipe();
     private final CornerDetectionPipe cornerDetectionPipe = new CornerDetectionPipe();
     private final SolvePNPPipe solvePNPPipe = new SolvePNPPipe();
     private final Draw2dCrosshairPipe draw2dCrosshairPipe = new Draw2dCrosshairPipe();
@@ -88,7 +89,8 @@ public class ColoredShapePipeline
                         settings.contourRadius.getSecond(),
                         settings.maxCannyThresh,
                         settings.circleAccuracy,
-                        Math.hypot(frameStaticProperties.imageWidth, frameStaticProperties.imageHeight)));
+                        Math.hypot(frameStaticProperties.imageWidth, frameStaticProperties.imageHeight),
+                        settings.circleDetectionRoi));
 
         filterShapesPipe.setParams(
                 new FilterShapesPipe.FilterShapesPipeParams(
@@ -112,6 +114,10 @@ public class ColoredShapePipeline
                         settings.contourTargetOrientation,
                         frameStaticProperties));
 
+        trackTargetsPipe.setParams(
+                new TrackTargetsPipe.TrackTargetsParams(
+                        settings.targetTracking, TrackTargetsPipe.kDefaultMaxMisses));
+
         cornerDetectionPipe.setParams(
                 new CornerDetectionPipe.CornerDetectionPipeParameters(
                         settings.cornerDetectionStrategy,
@@ -191,6 +197,12 @@ public class ColoredShapePipeline
                 collect2dTargetsPipe.run(sortContoursResult.output);
         sumPipeNanosElapsed += collect2dTargetsResult.nanosElapsed;
 
+        var trackTargetsResult =
+                trackTargetsPipe.run(
+                        new TrackTargetsPipe.TrackTargetsInput(
+                                collect2dTargetsResult.output, frame.timestampNanos));
+        sumPipeNanosElapsed += trackTargetsResult.nanosElapsed;
+
         List<TrackedTarget> targetList;
 
         if (settings.solvePNPEnabled && settings.contourShape == ContourShape.Circle) {
@@ -216,6 +228,11 @@ public class ColoredShapePipeline
         return new CVPipelineResult(frame.sequenceID, sumPipeNanosElapsed, fps, targetList, frame);
     }
 
+    @Override
+    public void reset() {
+        trackTargetsPipe.reset();
+    }
+
     @Override
     public void release() {
         speckleRejectPipe.release();
@@ -225,6 +242,7 @@ public class ColoredShapePipeline
         filterShapesPipe.release();
         sortContoursPipe.release();
         collect2dTargetsPipe.release();
+        trackTargetsPipe.release();
         cornerDetectionPipe.release();
         solvePNPPipe.release();
         draw2dCrosshairPipe.release();
@@ -33,6 +33,8 @@ public class ColoredShapePipelineSettings extends AdvancedPipelineSettings {
     public int minDist = 20;
     public int maxCannyThresh = 90;
     public int circleAccuracy = 20;
+    // Only run circle detection around contours, rather than over the whole image
+    public boolean circleDetectionRoi = false;
 
     // 3d settings
     public CameraCalibrationCoefficients cameraCalibration;
@@ -54,6 +56,7 @@ public class ColoredShapePipelineSettings extends AdvancedPipelineSettings {
                 && minDist == that.minDist
                 && maxCannyThresh == that.maxCannyThresh
                 && circleAccuracy == that.circleAccuracy
+                && circleDetectionRoi == that.circleDetectionRoi
                 && cornerDetectionUseConvexHulls == that.cornerDetectionUseConvexHulls
                 && cornerDetectionExactSideCount == that.cornerDetectionExactSideCount
                 && cornerDetectionSideCount == that.cornerDetectionSideCount
@@ -82,6 +85,7 @@ public class ColoredShapePipelineSettings extends AdvancedPipelineSettings {
                 minDist,
                 maxCannyThresh,
                 circleAccuracy,
+                circleDetectionRoi,
                 contourGroupingMode,
                 contourIntersection,
                 cameraCalibration,
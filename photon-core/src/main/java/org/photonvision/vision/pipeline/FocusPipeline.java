@@ -17,21 +17,30 @@
 
 package org.photonvision.vision.pipeline;
 
-import org.opencv.core.Mat;
+import java.awt.Color;
+import org.opencv.core.Core;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.util.ColorHelper;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameThresholdType;
-import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.pipe.impl.CalculateFPSPipe;
 import org.photonvision.vision.pipe.impl.FocusPipe;
 import org.photonvision.vision.pipe.impl.ResizeImagePipe;
 import org.photonvision.vision.pipeline.result.FocusPipelineResult;
 
 public class FocusPipeline extends CVPipeline<FocusPipelineResult, FocusPipelineSettings> {
+    // About 10 seconds at 30 fps, enough to sweep the lens through focus and back
+    private static final int kHistoryLength = 300;
+
     private final FocusPipe focusPipe = new FocusPipe();
     private final CalculateFPSPipe calculateFPSPipe = new CalculateFPSPipe();
     private final ResizeImagePipe resizeImagePipe = new ResizeImagePipe();
 
+    // Every frame's score, so the UI can graph them even though it only updates at 10hz
+    private final ScoreHistory history = new ScoreHistory(kHistoryLength);
+
     private static final FrameThresholdType PROCESSING_TYPE = FrameThresholdType.NONE;
 
     public FocusPipeline() {
@@ -48,6 +57,19 @@ public class FocusPipeline extends CVPipeline<FocusPipelineResult, FocusPipeline
     protected void setPipeParamsImpl() {
         resizeImagePipe.setParams(
                 new ResizeImagePipe.ResizeImageParams(settings.streamingFrameDivisor));
+
+        var focusParams =
+                new FocusPipe.FocusParams(
+                        settings.focusRoiX,
+                        settings.focusRoiY,
+                        settings.focusRoiWidth,
+                        settings.focusRoiHeight,
+                        Math.max(1, settings.focusDecimate));
+        if (!focusParams.equals(focusPipe.getParams())) {
+            // Scores from a different region aren't comparable
+            history.clear();
+            focusPipe.setParams(focusParams);
+        }
     }
 
     @Override
@@ -55,40 +77,48 @@ public class FocusPipeline extends CVPipeline<FocusPipelineResult, FocusPipeline
         long totalNanos = 0;
 
         var inputMat = frame.colorImage.getMat();
-        Mat displayMat;
         double variance = 0.0;
 
         if (!inputMat.empty()) {
-            totalNanos += resizeImagePipe.run(inputMat).nanosElapsed;
-
+            // Score the full resolution image, before it's shrunk to stream
             var focusResult = focusPipe.run(inputMat);
             totalNanos += focusResult.nanosElapsed;
             variance = focusResult.output.variance;
-            displayMat = focusResult.output.frame;
-        } else {
-            displayMat = inputMat;
+            history.add(variance);
+
+            if (outputWanted) {
+                // Drawn into the frame's own output image, rather than a new one each frame
+                var displayMat = frame.processedImage.getMat();
+                Core.convertScaleAbs(focusResult.output.frame, displayMat);
+                totalNanos += resizeImagePipe.run(displayMat).nanosElapsed;
+            }
+
+            totalNanos += resizeImagePipe.run(inputMat).nanosElapsed;
+
+            if (!focusPipe.getParams().isWholeImage()) {
+                // Show what's being scored
+                var roi = focusResult.output.roi;
+                double scale = 1.0 / settings.streamingFrameDivisor.value;
+                Imgproc.rectangle(
+                        inputMat,
+                        new Point(roi.x * scale, roi.y * scale),
+                        new Point((roi.x + roi.width) * scale, (roi.y + roi.height) * scale),
+                        ColorHelper.colorToScalar(Color.GREEN),
+                        2);
+            }
         }
 
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
-        var processedCVMat = new CVMat(displayMat);
-
-        // we no longer need the input frame's processed image, and nobody else will release it if we
-        // don't
-        frame.processedImage.release();
+        var recent = history.toArray();
+        double peak = 0.0;
+        for (var score : recent) {
+            peak = Math.max(peak, score);
+        }
 
         return new FocusPipelineResult(
-                frame.sequenceID,
-                MathUtils.nanosToMillis(totalNanos),
-                fps,
-                new Frame(
-                        frame.sequenceID,
-                        frame.colorImage,
-                        processedCVMat,
-                        frame.type,
-                        frame.frameStaticProperties),
-                variance);
+                frame.sequenceID, MathUtils.nanosToMillis(totalNanos), fps, frame, variance, peak, recent);
     }
 
     @Override
@@ -98,4 +128,41 @@ public class FocusPipeline extends CVPipeline<FocusPipelineResult, FocusPipeline
         resizeImagePipe.release();
         super.release();
     }
+
+    /** The last few scores, dropping the oldest once full. */
+    static final class ScoreHistory {
+        private final double[] scores;
+        private int head = 0;
+        private int size = 0;
+
+        ScoreHistory(int capacity) {
+            scores = new double[capacity];
+        }
+
+        void add(double score) {
+            if (size < scores.length) {
+                scores[(head + size) % scores.length] = score;
+                size++;
+            } else {
+                scores[head] = score;
+                head = (head + 1) % scores.length;
+            }
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * @return The scores held, oldest first
+         */
+        double[] toArray() {
+            var ret = new double[size];
+            for (int i = 0; i < size; i++) {
+                ret[i] = scores[(head + i) % scores.length];
+            }
+            return ret;
+        }
+    }
 }
@@ -17,9 +17,20 @@
 
 package org.photonvision.vision.pipeline;
 
+import java.util.Objects;
 import org.photonvision.vision.processes.PipelineManager;
 
 public class FocusPipelineSettings extends CVPipelineSettings {
+    // The part of the image to score, as fractions of its width and height, so it survives a change
+    // of resolution
+    public double focusRoiX = 0;
+    public double focusRoiY = 0;
+    public double focusRoiWidth = 1;
+    public double focusRoiHeight = 1;
+
+    // Score only every nth pixel in each direction, for big images
+    public int focusDecimate = 1;
+
     public FocusPipelineSettings() {
         super();
         pipelineNickname = "Focus Camera";
@@ -28,4 +39,23 @@ public class FocusPipelineSettings extends CVPipelineSettings {
         inputShouldShow = true;
         cameraAutoExposure = true;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        FocusPipelineSettings that = (FocusPipelineSettings) o;
+        return Double.compare(that.focusRoiX, focusRoiX) == 0
+                && Double.compare(that.focusRoiY, focusRoiY) == 0
+                && Double.compare(that.focusRoiWidth, focusRoiWidth) == 0
+                && Double.compare(that.focusRoiHeight, focusRoiHeight) == 0
+                && focusDecimate == that.focusDecimate;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                super.hashCode(), focusRoiX, focusRoiY, focusRoiWidth, focusRoiHeight, focusDecimate);
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import org.photonvision.vision.frame.FrameDivisor;
+
+/**
+ * Values a pipeline should run with in place of its saved settings, picked by the frame budget
+ * governor to keep up with the camera. The saved settings are left alone, so turning the governor
+ * off goes straight back to them.
+ *
+ * @param decimate AprilTag quad decimation
+ * @param threads AprilTag detector threads
+ * @param streamDivisor How much to shrink the streamed image by
+ */
+public record FrameBudget(int decimate, int threads, FrameDivisor streamDivisor) {}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.photonvision.common.hardware.metrics.ProcfsSampler;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.objects.DetectionParams;
+import org.photonvision.vision.objects.Model;
+import org.photonvision.vision.objects.ObjectDetector;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+import org.photonvision.vision.pipeline.ObjectDetectionPipeline.InferenceStats;
+
+/**
+ * Runs object detection on worker threads, so inference of one frame overlaps with capture and
+ * publication of the frames around it.
+ *
+ * <p>Each submitted frame is owned by the queue until its detections are handed back. At most
+ * {@code depth} frames are in flight; submitting one more blocks until the oldest has finished, and
+ * returns it. Results therefore come back in capture order, {@code depth} frames behind.
+ */
+class InferenceQueue {
+    private static final Logger logger = new Logger(InferenceQueue.class, LogGroup.VisionModule);
+
+    /** Deeper queues only add latency, since each model has a limited number of interpreters */
+    static final int kMaxDepth = 3;
+
+    /** Frames in flight that were captured this long before a new one are stale, and dropped */
+    private static final long kStaleNanos = 500_000_000L;
+
+    /** Weight of the newest sample in the moving averages */
+    private static final double kAlpha = 0.05;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * A frame whose inference has finished.
+     *
+     * @param frame The frame that was submitted
+     * @param detections The detections in that frame
+     * @param executionNanos How long inference took
+     */
+    record Completed(Frame frame, List<NeuralNetworkPipeResult> detections, long executionNanos) {}
+
+    private record Pending(Frame frame, Model model, Future<Completed> future) {}
+
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+    private ExecutorService executor = null;
+    private int depth = 0;
+
+    private long frames = 0;
+    private double queueNanos = 0;
+    private double executionNanos = 0;
+    private double waitNanos = 0;
+
+    /**
+     * Start inference of a frame. If more than {@code depth} frames are then in flight, wait for the
+     * oldest one and return it.
+     *
+     * @param frame The frame to detect objects in. It must not be used or released by the caller
+     *     until it is returned.
+     * @param detector The detector to run, which must be safe to use from another thread
+     * @param params Which detections to keep
+     * @param depth How many frames may be in flight
+     * @return The oldest frame and its detections, or null if the queue is still filling up
+     */
+    Completed submit(Frame frame, ObjectDetector detector, DetectionParams params, int depth) {
+        depth = Math.max(1, Math.min(depth, kMaxDepth));
+        if (depth != this.depth) {
+            // Let everything in flight finish on the old workers
+            flush();
+            if (executor != null) {
+                executor.shutdown();
+            }
+            executor = Executors.newFixedThreadPool(depth, InferenceQueue::newThread);
+            this.depth = depth;
+        }
+
+        // We were probably switched away from and kept warm, don't publish what we had back then
+        var newest = pending.peekLast();
+        if (newest != null && frame.timestampNanos - newest.frame().timestampNanos > kStaleNanos) {
+            flush();
+        }
+
+        long submitted = System.nanoTime();
+        var future =
+                executor.submit(
+                        () -> {
+                            long start = System.nanoTime();
+                            var mat = frame.colorImage.getMat();
+                            List<NeuralNetworkPipeResult> detections =
+                                    mat.empty() ? List.of() : detector.detect(mat, params);
+                            long end = System.nanoTime();
+
+                            synchronized (this) {
+                                frames++;
+                                queueNanos = average(queueNanos, start - submitted);
+                                executionNanos = average(executionNanos, end - start);
+                            }
+                            return new Completed(frame, detections, end - start);
+                        });
+        pending.add(new Pending(frame, detector.getModel(), future));
+
+        if (pending.size() <= depth) {
+            return null;
+        }
+        return take();
+    }
+
+    /** Wait for the oldest frame in flight, and return it. */
+    private Completed take() {
+        var oldest = pending.poll();
+
+        long start = System.nanoTime();
+        var completed = await(oldest);
+        synchronized (this) {
+            waitNanos = average(waitNanos, System.nanoTime() - start);
+        }
+        return completed;
+    }
+
+    private Completed await(Pending pending) {
+        // Never give a frame back while a worker may still be reading it, even if we're interrupted
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pending.future().get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    logger.error("Inference failed on frame " + pending.frame().sequenceID, e.getCause());
+                    return new Completed(pending.frame(), List.of(), 0);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static double average(double average, long sample) {
+        // Start from the first sample rather than from zero
+        return average == 0 ? sample : average + kAlpha * (sample - average);
+    }
+
+    /**
+     * @return The model of the frames in flight, or null if there are none
+     */
+    Model getModel() {
+        var newest = pending.peekLast();
+        return newest != null ? newest.model() : null;
+    }
+
+    /** Wait for every frame in flight to finish, and release them without using their results. */
+    void flush() {
+        while (!pending.isEmpty()) {
+            await(pending.poll()).frame().release();
+        }
+    }
+
+    synchronized InferenceStats getStats() {
+        return new InferenceStats(
+                depth, frames, queueNanos / 1e6, executionNanos / 1e6, waitNanos / 1e6);
+    }
+
+    /** Release every frame in flight and stop the worker threads. */
+    void release() {
+        flush();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        depth = 0;
+    }
+
+    private static Thread newThread(Runnable runnable) {
+        var name = "Inference - " + threadCount.incrementAndGet();
+        var thread =
+                new Thread(
+                        () -> {
+                            ProcfsSampler.labelCurrentThread(name);
+                            runnable.run();
+                        },
+                        name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -17,11 +17,13 @@
 
 package org.photonvision.vision.pipeline;
 
+import io.avaje.jsonb.Json;
 import java.util.List;
 import java.util.Optional;
 import org.photonvision.common.configuration.NeuralNetworkModelManager;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameThresholdType;
+import org.photonvision.vision.objects.DetectionParams;
 import org.photonvision.vision.objects.Model;
 import org.photonvision.vision.objects.NullModel;
 import org.photonvision.vision.opencv.DualOffsetValues;
@@ -39,10 +41,37 @@ public class ObjectDetectionPipeline
     private final ObjectDetectionPipe objectDetectorPipe = new ObjectDetectionPipe();
     private final SortContoursPipe sortContoursPipe = new SortContoursPipe();
     private final Collect2dTargetsPipe collect2dTargetsPipe = new Collect2dTargetsPipe();
+    private final TrackTargetsPipe trackTargetsPipe = new TrackTargetsPipe();
     private final FilterObjectDetectionsPipe filterContoursPipe = new FilterObjectDetectionsPipe();
+    private final DetectionTrackerPipe detectionTrackerPipe = new DetectionTrackerPipe();
+    private final InferenceQueue inferenceQueue = new InferenceQueue();
+
+    private Model selectedModel = NullModel.getInstance();
+    private Model trackedModel = NullModel.getInstance();
+    private int framesSinceDetection = Integer.MAX_VALUE;
 
     private static final FrameThresholdType PROCESSING_TYPE = FrameThresholdType.NONE;
 
+    /** How much a detection has to overlap a track to continue it */
+    private static final double kTrackIouThreshold = 0.3;
+
+    /** Run the detector early once a track decays below this fraction of its detected confidence */
+    private static final double kRedetectConfidence = 0.6;
+
+    /**
+     * Timing of asynchronous inference, averaged over recent frames.
+     *
+     * @param depth How many frames may be in flight
+     * @param frames How many frames have completed inference
+     * @param queueMillis How long a frame waited for a worker thread before inference started
+     * @param executionMillis How long letterboxing and inference took
+     * @param waitMillis How long the vision thread blocked waiting for a result. Inference is fully
+     *     hidden behind capture when this is close to zero.
+     */
+    @Json
+    public record InferenceStats(
+            int depth, long frames, double queueMillis, double executionMillis, double waitMillis) {}
+
     public ObjectDetectionPipeline() {
         super(PROCESSING_TYPE);
         settings = new ObjectDetectionPipelineSettings();
@@ -53,8 +82,7 @@ public class ObjectDetectionPipeline
         this.settings = settings;
     }
 
-    @Override
-    protected void setPipeParamsImpl() {
+    private Model getSelectedModel() {
         Optional<Model> selectedModel =
                 settings.model != null
                         ? NeuralNetworkModelManager.getInstance().getModel(settings.model.modelPath())
@@ -69,8 +97,48 @@ public class ObjectDetectionPipeline
         if (selectedModel.isEmpty()) {
             selectedModel = Optional.of(NullModel.getInstance());
         }
+        return selectedModel.get();
+    }
+
+    /**
+     * @return The per class confidence thresholds from the settings, indexed by the model's classes
+     */
+    private double[] classConfidence(Model model) {
+        var properties = model.getProperties();
+        if (settings.classConfidence == null
+                || settings.classConfidence.isEmpty()
+                || properties == null
+                || properties.labels() == null) {
+            return null;
+        }
+
+        var labels = properties.labels();
+        var thresholds = new double[labels.size()];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = settings.classConfidence.getOrDefault(labels.get(i), -1.0);
+        }
+        return thresholds;
+    }
+
+    @Override
+    public void prewarm() {
+        objectDetectorPipe.prewarm(getSelectedModel());
+    }
+
+    @Override
+    protected void setPipeParamsImpl() {
+        selectedModel = getSelectedModel();
         objectDetectorPipe.setParams(
-                new ObjectDetectionPipeParams(settings.confidence, settings.nms, selectedModel.get()));
+                new ObjectDetectionPipeParams(
+                        new DetectionParams(
+                                settings.confidence,
+                                settings.nms,
+                                classConfidence(selectedModel),
+                                Math.max(1, settings.maxDetections)),
+                        selectedModel));
+
+        detectionTrackerPipe.setParams(
+                new DetectionTrackerPipe.DetectionTrackerParams(kTrackIouThreshold, kRedetectConfidence));
 
         DualOffsetValues dualOffsetValues =
                 new DualOffsetValues(
@@ -98,32 +166,134 @@ public class ObjectDetectionPipeline
                         settings.contourTargetOffsetPointEdge,
                         settings.contourTargetOrientation,
                         frameStaticProperties));
+
+        trackTargetsPipe.setParams(
+                new TrackTargetsPipe.TrackTargetsParams(
+                        settings.targetTracking, TrackTargetsPipe.kDefaultMaxMisses));
     }
 
     @Override
     protected CVPipelineResult process(Frame frame, ObjectDetectionPipelineSettings settings) {
+        if (settings.trackDetections) {
+            inferenceQueue.flush();
+            return processTracked(frame, settings);
+        }
+        // Tracks would be long gone by the time tracking is turned back on
+        detectionTrackerPipe.reset();
+        framesSinceDetection = Integer.MAX_VALUE;
+
+        if (!settings.asyncInference) {
+            // Drop anything left over from async mode
+            inferenceQueue.flush();
+
+            CVPipeResult<List<NeuralNetworkPipeResult>> neuralNetworkResult =
+                    objectDetectorPipe.run(frame.colorImage);
+            return postProcess(frame, neuralNetworkResult.output, neuralNetworkResult.nanosElapsed);
+        }
+
+        // Frames in flight must finish before their model is released
+        var inFlightModel = inferenceQueue.getModel();
+        if (inFlightModel != null && inFlightModel != selectedModel) {
+            inferenceQueue.flush();
+        }
+
+        var completed =
+                inferenceQueue.submit(
+                        frame,
+                        objectDetectorPipe.getDetector(),
+                        objectDetectorPipe.getParams().detection(),
+                        settings.inferenceDepth);
+        // The frame we were given belongs to the queue now
+        takeFrame();
+        if (completed == null) {
+            // The queue is still filling up, so there's nothing to publish yet
+            return null;
+        }
+
+        CVPipelineResult result;
+        try {
+            result = postProcess(completed.frame(), completed.detections(), completed.executionNanos());
+        } catch (RuntimeException e) {
+            // Nobody else knows about this frame
+            completed.frame().release();
+            throw e;
+        }
+        // This is an older frame than the one we were given
+        result.setImageCaptureTimestampNanos(completed.frame().timestampNanos);
+        return result;
+    }
+
+    /** Run the detector every few frames, and follow its detections with the tracker in between. */
+    private CVPipelineResult processTracked(Frame frame, ObjectDetectionPipelineSettings settings) {
         long sumPipeNanosElapsed = 0;
 
-        CVPipeResult<List<NeuralNetworkPipeResult>> neuralNetworkResult =
-                objectDetectorPipe.run(frame.colorImage);
-        sumPipeNanosElapsed += neuralNetworkResult.nanosElapsed;
+        if (trackedModel != selectedModel) {
+            // Class indexes mean something else now
+            detectionTrackerPipe.reset();
+            trackedModel = selectedModel;
+            framesSinceDetection = Integer.MAX_VALUE;
+        }
 
-        var names = objectDetectorPipe.getClassNames();
+        List<NeuralNetworkPipeResult> detections = null;
+        if (framesSinceDetection >= settings.detectionInterval
+                || detectionTrackerPipe.needsDetection()) {
+            CVPipeResult<List<NeuralNetworkPipeResult>> neuralNetworkResult =
+                    objectDetectorPipe.run(frame.colorImage);
+            sumPipeNanosElapsed += neuralNetworkResult.nanosElapsed;
+
+            var filterContoursResult = filterContoursPipe.run(neuralNetworkResult.output);
+            sumPipeNanosElapsed += filterContoursResult.nanosElapsed;
+
+            detections = filterContoursResult.output;
+            framesSinceDetection = 0;
+        }
+        framesSinceDetection++;
+
+        var trackerResult =
+                detectionTrackerPipe.run(
+                        new DetectionTrackerPipe.TrackerInput(frame.colorImage.getMat(), detections));
+        sumPipeNanosElapsed += trackerResult.nanosElapsed;
 
-        frame.colorImage.getMat().copyTo(frame.processedImage.getMat());
+        return collectTargets(
+                frame,
+                trackerResult.output.stream()
+                        .map(track -> new PotentialTarget(track.detection(), track.trackId()))
+                        .toList(),
+                sumPipeNanosElapsed);
+    }
 
-        var filterContoursResult = filterContoursPipe.run(neuralNetworkResult.output);
-        sumPipeNanosElapsed += filterContoursResult.nanosElapsed;
+    private CVPipelineResult postProcess(
+            Frame frame, List<NeuralNetworkPipeResult> detections, long inferenceNanos) {
+        var filterContoursResult = filterContoursPipe.run(detections);
 
-        CVPipeResult<List<PotentialTarget>> sortContoursResult =
-                sortContoursPipe.run(
-                        filterContoursResult.output.stream().map(shape -> new PotentialTarget(shape)).toList());
+        return collectTargets(
+                frame,
+                filterContoursResult.output.stream().map(shape -> new PotentialTarget(shape)).toList(),
+                inferenceNanos + filterContoursResult.nanosElapsed);
+    }
+
+    private CVPipelineResult collectTargets(
+            Frame frame, List<PotentialTarget> targets, long sumPipeNanosElapsed) {
+        var names = objectDetectorPipe.getClassNames();
+
+        // The output stream draws on a copy of the input, but don't make one if nobody is watching
+        if (outputWanted) {
+            frame.colorImage.getMat().copyTo(frame.processedImage.getMat());
+        }
+
+        CVPipeResult<List<PotentialTarget>> sortContoursResult = sortContoursPipe.run(targets);
         sumPipeNanosElapsed += sortContoursResult.nanosElapsed;
 
         CVPipeResult<List<TrackedTarget>> collect2dTargetsResult =
                 collect2dTargetsPipe.run(sortContoursResult.output);
         sumPipeNanosElapsed += collect2dTargetsResult.nanosElapsed;
 
+        var trackTargetsResult =
+                trackTargetsPipe.run(
+                        new TrackTargetsPipe.TrackTargetsInput(
+                                collect2dTargetsResult.output, frame.timestampNanos));
+        sumPipeNanosElapsed += trackTargetsResult.nanosElapsed;
+
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
@@ -131,12 +301,32 @@ public class ObjectDetectionPipeline
                 frame.sequenceID, sumPipeNanosElapsed, fps, collect2dTargetsResult.output, frame, names);
     }
 
+    /**
+     * @return Timing of asynchronous inference, or all zeros if it hasn't been used
+     */
+    public InferenceStats getInferenceStats() {
+        return inferenceQueue.getStats();
+    }
+
+    @Override
+    public void reset() {
+        // Whatever is still in flight was captured before we were switched away from
+        inferenceQueue.flush();
+        detectionTrackerPipe.reset();
+        framesSinceDetection = Integer.MAX_VALUE;
+        trackTargetsPipe.reset();
+    }
+
     @Override
     public void release() {
+        // Wait for the workers to be done with the detector before releasing it
+        inferenceQueue.release();
         calculateFPSPipe.release();
         objectDetectorPipe.release();
+        detectionTrackerPipe.release();
         sortContoursPipe.release();
         collect2dTargetsPipe.release();
+        trackTargetsPipe.release();
         filterContoursPipe.release();
         super.release();
     }
@@ -17,6 +17,8 @@
 
 package org.photonvision.vision.pipeline;
 
+import java.util.HashMap;
+import java.util.Map;
 import org.photonvision.common.configuration.NeuralNetworkModelManager;
 import org.photonvision.common.configuration.NeuralNetworkModelsSettings;
 import org.photonvision.vision.objects.Model;
@@ -26,6 +28,22 @@ public class ObjectDetectionPipelineSettings extends AdvancedPipelineSettings {
     public double nms; // non maximal suppression
     public NeuralNetworkModelsSettings.ModelProperties model;
 
+    // Minimum confidence of particular classes, by class name. Other classes use confidence.
+    public Map<String, Double> classConfidence = new HashMap<>();
+
+    // At most this many detections are kept, the most confident first
+    public int maxDetections = 100;
+
+    // Run inference on a worker thread, overlapping it with capture of the next frames. Results are
+    // published up to inferenceDepth frames late, tagged with the time their frame was captured.
+    public boolean asyncInference = false;
+    public int inferenceDepth = 1;
+
+    // Only run the detector every detectionInterval frames, and follow its detections with optical
+    // flow in between. Followed detections keep a track ID. Takes precedence over asyncInference.
+    public boolean trackDetections = false;
+    public int detectionInterval = 4;
+
     public ObjectDetectionPipelineSettings() {
         super();
         this.pipelineType = PipelineType.ObjectDetection; // TODO: FIX this
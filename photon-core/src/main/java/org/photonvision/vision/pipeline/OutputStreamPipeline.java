@@ -19,6 +19,7 @@ package org.photonvision.vision.pipeline;
 
 import java.util.List;
 import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.FrameDivisor;
 import org.photonvision.vision.frame.FrameStaticProperties;
 import org.photonvision.vision.opencv.DualOffsetValues;
 import org.photonvision.vision.opencv.Releasable;
@@ -48,7 +49,9 @@ public class OutputStreamPipeline implements Releasable {
     private final long[] pipeProfileNanos = new long[12];
 
     protected void setPipeParams(
-            FrameStaticProperties frameStaticProperties, AdvancedPipelineSettings settings) {
+            FrameStaticProperties frameStaticProperties,
+            AdvancedPipelineSettings settings,
+            FrameDivisor divisor) {
         var dualOffsetValues =
                 new DualOffsetValues(
                         settings.offsetDualPointA,
@@ -58,21 +61,15 @@ public class OutputStreamPipeline implements Releasable {
 
         draw2dTargetsPipe.setParams(
                 new Draw2dTargetsPipe.Draw2dTargetsParams(
-                        settings.outputShouldDraw,
-                        settings.outputMaximumTargets,
-                        settings.streamingFrameDivisor));
+                        settings.outputShouldDraw, settings.outputMaximumTargets, divisor));
 
         draw2dAprilTagsPipe.setParams(
                 new Draw2dAprilTagsPipe.Draw2dAprilTagsParams(
-                        settings.outputShouldDraw,
-                        settings.outputMaximumTargets,
-                        settings.streamingFrameDivisor));
+                        settings.outputShouldDraw, settings.outputMaximumTargets, divisor));
 
         draw2dArucoPipe.setParams(
                 new Draw2dArucoPipe.Draw2dArucoParams(
-                        settings.outputShouldDraw,
-                        settings.outputMaximumTargets,
-                        settings.streamingFrameDivisor));
+                        settings.outputShouldDraw, settings.outputMaximumTargets, divisor));
 
         draw2dCrosshairPipe.setParams(
                 new Draw2dCrosshairPipe.Draw2dCrosshairParams(
@@ -81,7 +78,7 @@ public class OutputStreamPipeline implements Releasable {
                         settings.offsetSinglePoint,
                         dualOffsetValues,
                         frameStaticProperties,
-                        settings.streamingFrameDivisor,
+                        divisor,
                         settings.inputImageRotationMode));
 
         draw3dTargetsPipe.setParams(
@@ -89,29 +86,28 @@ public class OutputStreamPipeline implements Releasable {
                         settings.outputShouldDraw,
                         frameStaticProperties.cameraCalibration,
                         settings.targetModel,
-                        settings.streamingFrameDivisor));
+                        divisor));
 
         draw3dAprilTagsPipe.setParams(
                 new Draw3dAprilTagsPipe.Draw3dAprilTagsParams(
                         settings.outputShouldDraw,
                         frameStaticProperties.cameraCalibration,
                         settings.targetModel,
-                        settings.streamingFrameDivisor));
+                        divisor));
 
         draw3dArucoPipe.setParams(
                 new Draw3dArucoPipe.Draw3dArucoParams(
                         settings.outputShouldDraw,
                         frameStaticProperties.cameraCalibration,
                         settings.targetModel,
-                        settings.streamingFrameDivisor));
+                        divisor));
 
-        resizeImagePipe.setParams(
-                new ResizeImagePipe.ResizeImageParams(settings.streamingFrameDivisor));
+        resizeImagePipe.setParams(new ResizeImagePipe.ResizeImageParams(divisor));
 
         if (settings instanceof Calibration3dPipelineSettings pipelineSettings) {
             drawCalibrationPipe.setParams(
                     new DrawCalibrationPipe.DrawCalibrationPipeParams(
-                            pipelineSettings.streamingFrameDivisor, pipelineSettings.drawAllSnapshots));
+                            divisor, pipelineSettings.drawAllSnapshots));
         }
     }
 
@@ -119,7 +115,20 @@ public class OutputStreamPipeline implements Releasable {
             Frame inputAndOutputFrame,
             AdvancedPipelineSettings settings,
             List<TrackedTarget> targetsToDraw) {
-        setPipeParams(inputAndOutputFrame.frameStaticProperties, settings);
+        return process(inputAndOutputFrame, settings, settings.streamingFrameDivisor, targetsToDraw);
+    }
+
+    /**
+     * Draw on and resize a frame for streaming.
+     *
+     * @param divisor How much to shrink the streamed image by, in place of the one in the settings
+     */
+    public CVPipelineResult process(
+            Frame inputAndOutputFrame,
+            AdvancedPipelineSettings settings,
+            FrameDivisor divisor,
+            List<TrackedTarget> targetsToDraw) {
+        setPipeParams(inputAndOutputFrame.frameStaticProperties, settings, divisor);
         var inMat = inputAndOutputFrame.colorImage.getMat();
         var outMat = inputAndOutputFrame.processedImage.getMat();
 
@@ -37,6 +37,7 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
     private final GroupContoursPipe groupContoursPipe = new GroupContoursPipe();
     private final SortContoursPipe sortContoursPipe = new SortContoursPipe();
     private final Collect2dTargetsPipe collect2dTargetsPipe = new Collect2dTargetsPipe();
+    private final TrackTargetsPipe trackTargetsPipe = new TrackTargetsPipe();
     private final CornerDetectionPipe cornerDetectionPipe = new CornerDetectionPipe();
     private final SolvePNPPipe solvePNPPipe = new SolvePNPPipe();
     private final CalculateFPSPipe calculateFPSPipe = new CalculateFPSPipe();
@@ -96,6 +97,10 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
                         settings.contourTargetOrientation,
                         frameStaticProperties));
 
+        trackTargetsPipe.setParams(
+                new TrackTargetsPipe.TrackTargetsParams(
+                        settings.targetTracking, TrackTargetsPipe.kDefaultMaxMisses));
+
         cornerDetectionPipe.setParams(
                 new CornerDetectionPipe.CornerDetectionPipeParameters(
                         settings.cornerDetectionStrategy,
@@ -137,6 +142,12 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
                 collect2dTargetsPipe.run(sortContoursResult.output);
         sumPipeNanosElapsed += pipeProfileNanos[7] = collect2dTargetsResult.nanosElapsed;
 
+        var trackTargetsResult =
+                trackTargetsPipe.run(
+                        new TrackTargetsPipe.TrackTargetsInput(
+                                collect2dTargetsResult.output, frame.timestampNanos));
+        sumPipeNanosElapsed += trackTargetsResult.nanosElapsed;
+
         List<TrackedTarget> targetList;
 
         // 3d stuff
@@ -162,6 +173,11 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
         return new CVPipelineResult(frame.sequenceID, sumPipeNanosElapsed, fps, targetList, frame);
     }
 
+    @Override
+    public void reset() {
+        trackTargetsPipe.reset();
+    }
+
     @Override
     public void release() {
         findContoursPipe.release();
@@ -170,6 +186,7 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
         groupContoursPipe.release();
         sortContoursPipe.release();
         collect2dTargetsPipe.release();
+        trackTargetsPipe.release();
         cornerDetectionPipe.release();
         solvePNPPipe.release();
         calculateFPSPipe.release();
@@ -23,9 +23,23 @@ import org.photonvision.vision.frame.Frame;
 public class FocusPipelineResult extends CVPipelineResult {
     public final double focus;
 
+    /** The highest score in {@link #focusHistory}, to turn the lens back towards */
+    public final double peakFocus;
+
+    /** Recent scores, oldest first, so they can be graphed between updates */
+    public final double[] focusHistory;
+
     public FocusPipelineResult(
-            long seq, double latencyNanos, double fps, Frame outputFrame, double focus) {
+            long seq,
+            double latencyNanos,
+            double fps,
+            Frame outputFrame,
+            double focus,
+            double peakFocus,
+            double[] focusHistory) {
         super(seq, latencyNanos, fps, List.of(), outputFrame);
         this.focus = focus;
+        this.peakFocus = peakFocus;
+        this.focusHistory = focusHistory;
     }
 }
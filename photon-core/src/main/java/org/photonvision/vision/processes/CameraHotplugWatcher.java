@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+
+/**
+ * Watches the V4L device directories for cameras being plugged in or unplugged, so camera
+ * enumeration only needs to happen when something actually changed.
+ *
+ * <p>udev creates /dev/videoN nodes and then symlinks them under /dev/v4l/by-id and
+ * /dev/v4l/by-path. Those directories only exist while at least one camera is connected, so we also
+ * watch /dev and /dev/v4l to notice them being created.
+ */
+public class CameraHotplugWatcher implements AutoCloseable {
+    private static final Logger logger = new Logger(CameraHotplugWatcher.class, LogGroup.Camera);
+
+    private final Path devRoot;
+    private final Path v4lDir;
+    private final List<Path> linkDirs;
+    private final Runnable onChange;
+    private final long settleMillis;
+
+    private final ConcurrentHashMap<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private final AtomicLong changeCount = new AtomicLong();
+
+    private WatchService watchService = null;
+    private Thread watchThread = null;
+
+    /**
+     * Create a watcher for the system's /dev directory.
+     *
+     * @param onChange Called from the watcher thread after cameras were added or removed
+     */
+    public CameraHotplugWatcher(Runnable onChange) {
+        this(Path.of("/dev"), onChange, 50);
+    }
+
+    /**
+     * Create a watcher.
+     *
+     * @param devRoot The directory containing videoN nodes and the v4l directory
+     * @param onChange Called from the watcher thread after cameras were added or removed
+     * @param settleMillis How long to wait for more events after a change before calling onChange.
+     *     udev creates the device node and its symlinks one after another, so this coalesces them.
+     */
+    public CameraHotplugWatcher(Path devRoot, Runnable onChange, long settleMillis) {
+        this.devRoot = devRoot;
+        this.v4lDir = devRoot.resolve("v4l");
+        this.linkDirs = List.of(v4lDir.resolve("by-id"), v4lDir.resolve("by-path"));
+        this.onChange = onChange;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Start watching for changes on a background thread.
+     *
+     * @return If the watcher started. If not, callers should fall back to polling.
+     */
+    public synchronized boolean start() {
+        if (watchThread != null) {
+            return true;
+        }
+
+        try {
+            watchService = devRoot.getFileSystem().newWatchService();
+            if (!register(watchService, devRoot)) {
+                watchService.close();
+                watchService = null;
+                return false;
+            }
+            registerV4lDirs(watchService);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Could not start camera hotplug watcher, falling back to polling: " + e);
+            watchService = null;
+            return false;
+        }
+
+        final var service = watchService;
+        watchThread = new Thread(() -> watchLoop(service), "CameraHotplugWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        logger.info("Watching " + devRoot + " for camera hotplug events");
+        return true;
+    }
+
+    /**
+     * @return The number of changes that have been reported to the callback
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    private boolean register(WatchService service, Path dir) {
+        if (!Files.isDirectory(dir) || watchedDirs.containsValue(dir)) {
+            return Files.isDirectory(dir);
+        }
+
+        try {
+            watchedDirs.put(dir.register(service, ENTRY_CREATE, ENTRY_DELETE), dir);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Could not watch " + dir + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void registerV4lDirs(WatchService service) {
+        register(service, v4lDir);
+        for (var dir : linkDirs) {
+            register(service, dir);
+        }
+    }
+
+    private boolean isRelevant(Path dir, WatchEvent<?> event) {
+        if (event.kind() == OVERFLOW) {
+            // We lost events, so we don't know what happened
+            return true;
+        }
+
+        var name = event.context().toString();
+        if (dir.equals(devRoot)) {
+            // /dev sees every device node on the system, so only look at cameras
+            return name.startsWith("video") || name.equals("v4l");
+        }
+        return true;
+    }
+
+    /** Handle events from one key. Returns if any of them were camera related. */
+    private boolean processKey(WatchKey key) {
+        var dir = watchedDirs.get(key);
+        boolean relevant = false;
+        for (var event : key.pollEvents()) {
+            if (dir != null && isRelevant(dir, event)) {
+                relevant = true;
+            }
+        }
+
+        if (!key.reset()) {
+            // The directory was deleted (e.g. by-id after the last camera was unplugged)
+            watchedDirs.remove(key);
+        }
+        return relevant;
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = processKey(service.take());
+
+                if (!changed) {
+                    continue;
+                }
+
+                // Coalesce the burst of events udev produces for a single device
+                WatchKey next;
+                while ((next = service.poll(settleMillis, TimeUnit.MILLISECONDS)) != null) {
+                    processKey(next);
+                }
+
+                // by-id/by-path may have just been created
+                registerV4lDirs(service);
+
+                changeCount.incrementAndGet();
+                try {
+                    onChange.run();
+                } catch (Exception e) {
+                    logger.error("Camera hotplug callback threw!", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.error("Error closing camera hotplug watcher", e);
+            }
+            watchService = null;
+        }
+        watchedDirs.clear();
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import io.avaje.jsonb.Json;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.photonvision.common.hardware.metrics.SystemMonitor;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.frame.FrameDivisor;
+import org.photonvision.vision.pipeline.AdvancedPipelineSettings;
+import org.photonvision.vision.pipeline.AprilTagPipelineSettings;
+import org.photonvision.vision.pipeline.CVPipelineSettings;
+import org.photonvision.vision.pipeline.FrameBudget;
+import org.photonvision.vision.pipeline.result.CVPipelineResult;
+
+/**
+ * Keeps a camera's pipeline within its frame budget by adjusting the stream divisor, and for
+ * AprilTags the decimation and detector threads, between the saved settings and the limits the user
+ * allows.
+ *
+ * <p>Once processing takes longer than a frame at the target FPS, or the CPU is too hot or
+ * throttling, one knob is turned a step at a time, waiting a second between steps to see what it
+ * did. Extra threads are tried first, unless the CPU is hot, then a smaller stream, then more
+ * decimation. Decimation is never raised so far that the smallest tag in view would be lost. Once
+ * there's plenty of headroom again the steps are undone in reverse, so quality comes back first.
+ *
+ * <p>Every adjustment is logged, and the most recent are kept for {@link #getStats()}.
+ */
+public class FrameBudgetGovernor {
+    /** How long to wait after an adjustment before judging it */
+    private static final long kSettleNanos = 1_000_000_000L;
+
+    /** How often to read the CPU temperature and throttle state */
+    private static final long kSensorPeriodNanos = 1_000_000_000L;
+
+    /** Undo a step once processing takes less than this much of the budget */
+    private static final double kRecoverFraction = 0.6;
+
+    /** How far below the maximum temperature the CPU must be before undoing a step */
+    private static final double kTemperatureHysteresis = 5;
+
+    /** The smallest a tag's side may be after decimation, in pixels */
+    private static final double kMinDecimatedTagPixels = 12;
+
+    private static final double kAlpha = 0.1;
+    private static final int kMaxAdjustments = 32;
+
+    /**
+     * A change the governor made.
+     *
+     * @param timeMillis When it was made, as wall clock time
+     * @param knob What was changed
+     * @param from The value before
+     * @param to The value after
+     * @param reason Why
+     */
+    @Json
+    public record Adjustment(long timeMillis, String knob, int from, int to, String reason) {}
+
+    /**
+     * What the governor is seeing, and what it has done about it.
+     *
+     * @param processingMillis Average time to process a frame
+     * @param budgetMillis The time a frame may take at the target FPS
+     * @param cpuTemperature The last CPU temperature read, or -1 if unknown
+     * @param throttled If the CPU was throttling when last checked
+     * @param decimate The decimation in use
+     * @param threads The detector threads in use
+     * @param streamDivisor The stream divisor in use
+     * @param adjustments The most recent adjustments, oldest first
+     */
+    @Json
+    public record GovernorStats(
+            double processingMillis,
+            double budgetMillis,
+            double cpuTemperature,
+            boolean throttled,
+            int decimate,
+            int threads,
+            int streamDivisor,
+            List<Adjustment> adjustments) {}
+
+    // What the user allows. The saved setting is the lower bound of each knob.
+    private record Bounds(
+            int decimate,
+            int maxDecimate,
+            int threads,
+            int maxThreads,
+            FrameDivisor streamDivisor,
+            FrameDivisor maxStreamDivisor,
+            int targetFps,
+            double maxTemperature) {
+        static Bounds of(AdvancedPipelineSettings settings) {
+            int decimate = 1, maxDecimate = 1, threads = 1, maxThreads = 1;
+            if (settings instanceof AprilTagPipelineSettings aprilTag) {
+                decimate = aprilTag.decimate;
+                maxDecimate = Math.max(decimate, aprilTag.governorMaxDecimate);
+                threads = Math.max(1, aprilTag.threads);
+                maxThreads = Math.max(threads, aprilTag.governorMaxThreads);
+            }
+            var maxStreamDivisor =
+                    settings.governorMaxStreamDivisor.ordinal() > settings.streamingFrameDivisor.ordinal()
+                            ? settings.governorMaxStreamDivisor
+                            : settings.streamingFrameDivisor;
+            return new Bounds(
+                    decimate,
+                    maxDecimate,
+                    threads,
+                    maxThreads,
+                    settings.streamingFrameDivisor,
+                    maxStreamDivisor,
+                    Math.max(1, settings.governorTargetFps),
+                    settings.governorMaxTemperature);
+        }
+    }
+
+    private final Logger logger;
+    private final DoubleSupplier temperatureSupplier;
+    private final Supplier<String> throttleReasonSupplier;
+    private final LongSupplier clock;
+
+    private Bounds bounds = null;
+    private int decimate;
+    private int threads;
+    private FrameDivisor streamDivisor;
+    private volatile FrameBudget budget = null;
+
+    private double processingNanos = 0;
+    private long lastAdjustmentNanos = 0;
+    private long lastSensorNanos = 0;
+    private double temperature = -1;
+    private boolean throttled = false;
+
+    private final ArrayDeque<Adjustment> adjustments = new ArrayDeque<>();
+
+    public FrameBudgetGovernor(String cameraNickname) {
+        this(
+                cameraNickname,
+                () -> SystemMonitor.getInstance().getCpuTemperature(),
+                () -> SystemMonitor.getInstance().getCpuThrottleReason(),
+                System::nanoTime);
+    }
+
+    FrameBudgetGovernor(
+            String cameraNickname,
+            DoubleSupplier temperatureSupplier,
+            Supplier<String> throttleReasonSupplier,
+            LongSupplier clock) {
+        this.logger = new Logger(FrameBudgetGovernor.class, cameraNickname, LogGroup.VisionModule);
+        this.temperatureSupplier = temperatureSupplier;
+        this.throttleReasonSupplier = throttleReasonSupplier;
+        this.clock = clock;
+    }
+
+    /**
+     * @return What the pipeline should run the next frame with, or null to use its settings as saved
+     */
+    public FrameBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Look at how long the last frame took, and adjust the budget if need be. Called with every
+     * result from the vision thread.
+     *
+     * @param settings The settings of the pipeline that produced the result
+     * @param result The result
+     */
+    public void update(CVPipelineSettings settings, CVPipelineResult result) {
+        if (!(settings instanceof AdvancedPipelineSettings advanced) || !advanced.frameBudgetGovernor) {
+            if (bounds != null) {
+                synchronized (this) {
+                    bounds = null;
+                    budget = null;
+                }
+            }
+            return;
+        }
+
+        long now = clock.getAsLong();
+        var newBounds = Bounds.of(advanced);
+        if (!newBounds.equals(bounds)) {
+            // Start over from the saved settings whenever they change
+            synchronized (this) {
+                bounds = newBounds;
+                decimate = newBounds.decimate();
+                threads = newBounds.threads();
+                streamDivisor = newBounds.streamDivisor();
+                processingNanos = 0;
+                lastAdjustmentNanos = now;
+                publish();
+            }
+        }
+
+        // Blank results while the camera is disconnected or disabled say nothing about the budget
+        if (result.processingNanos <= 0) return;
+        processingNanos =
+                processingNanos == 0
+                        ? result.processingNanos
+                        : processingNanos + kAlpha * (result.processingNanos - processingNanos);
+
+        if (now - lastSensorNanos >= kSensorPeriodNanos) {
+            lastSensorNanos = now;
+            temperature = temperatureSupplier.getAsDouble();
+            throttled = isThrottling(throttleReasonSupplier.get());
+        }
+
+        if (now - lastAdjustmentNanos < kSettleNanos) return;
+
+        double budgetNanos = 1e9 / bounds.targetFps();
+        boolean hot = throttled || (temperature > 0 && temperature >= bounds.maxTemperature());
+        boolean cool =
+                !throttled
+                        && (temperature <= 0 || temperature < bounds.maxTemperature() - kTemperatureHysteresis);
+        double smallestTag = smallestTagPixels(result);
+
+        boolean adjusted;
+        if (decimate > bounds.decimate() && smallestTag / decimate < kMinDecimatedTagPixels) {
+            // Losing tags is worse than missing the budget
+            adjusted = setDecimate(decimate - 1, "small tags in view");
+        } else if (hot || processingNanos > budgetNanos) {
+            adjusted = degrade(hot, smallestTag);
+        } else if (cool && processingNanos < budgetNanos * kRecoverFraction) {
+            adjusted = recover();
+        } else {
+            adjusted = false;
+        }
+
+        if (adjusted) {
+            lastAdjustmentNanos = now;
+        }
+    }
+
+    private boolean degrade(boolean hot, double smallestTag) {
+        String reason =
+                hot
+                        ? (throttled ? "CPU throttling" : String.format("CPU at %.0f C", temperature))
+                        : String.format("processing takes %.1f ms", processingNanos / 1e6);
+
+        // More threads get through a frame quicker, but run hotter
+        if (hot && threads > bounds.threads()) {
+            return setThreads(threads - 1, reason);
+        }
+        if (!hot && threads < bounds.maxThreads()) {
+            return setThreads(threads + 1, reason);
+        }
+        if (streamDivisor.ordinal() < bounds.maxStreamDivisor().ordinal()) {
+            return setStreamDivisor(FrameDivisor.values()[streamDivisor.ordinal() + 1], reason);
+        }
+        if (decimate < bounds.maxDecimate() && smallestTag / (decimate + 1) >= kMinDecimatedTagPixels) {
+            return setDecimate(decimate + 1, reason);
+        }
+        return false;
+    }
+
+    private boolean recover() {
+        String reason = String.format("processing takes %.1f ms", processingNanos / 1e6);
+        if (decimate > bounds.decimate()) {
+            return setDecimate(decimate - 1, reason);
+        }
+        if (streamDivisor.ordinal() > bounds.streamDivisor().ordinal()) {
+            return setStreamDivisor(FrameDivisor.values()[streamDivisor.ordinal() - 1], reason);
+        }
+        if (threads > bounds.threads()) {
+            return setThreads(threads - 1, reason);
+        }
+        return false;
+    }
+
+    private synchronized boolean setDecimate(int decimate, String reason) {
+        report("decimate", this.decimate, decimate, reason);
+        this.decimate = decimate;
+        publish();
+        return true;
+    }
+
+    private synchronized boolean setThreads(int threads, String reason) {
+        report("threads", this.threads, threads, reason);
+        this.threads = threads;
+        publish();
+        return true;
+    }
+
+    private synchronized boolean setStreamDivisor(FrameDivisor streamDivisor, String reason) {
+        report("streamDivisor", this.streamDivisor.value, streamDivisor.value, reason);
+        this.streamDivisor = streamDivisor;
+        publish();
+        return true;
+    }
+
+    private void report(String knob, int from, int to, String reason) {
+        logger.info("Frame budget: " + knob + " " + from + " -> " + to + " (" + reason + ")");
+        if (adjustments.size() == kMaxAdjustments) {
+            adjustments.removeFirst();
+        }
+        adjustments.addLast(new Adjustment(System.currentTimeMillis(), knob, from, to, reason));
+    }
+
+    private void publish() {
+        budget = new FrameBudget(decimate, threads, streamDivisor);
+    }
+
+    /**
+     * @return The side of the smallest target in view, in pixels, or infinity if nothing is in view
+     */
+    private static double smallestTagPixels(CVPipelineResult result) {
+        if (result.targets == null
+                || result.inputAndOutputFrame == null
+                || result.inputAndOutputFrame.frameStaticProperties == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double imageArea = result.inputAndOutputFrame.frameStaticProperties.imageArea;
+        double smallest = Double.POSITIVE_INFINITY;
+        for (var target : result.targets) {
+            // Area is a percentage of the image
+            smallest = Math.min(smallest, Math.sqrt(target.getArea() / 100 * imageArea));
+        }
+        return smallest;
+    }
+
+    private static boolean isThrottling(String reason) {
+        // Reasons starting with "Prev." are throttling that has since stopped
+        return reason != null
+                && !reason.isBlank()
+                && !reason.equals("None")
+                && !reason.startsWith("Prev.");
+    }
+
+    /**
+     * @return What the governor is seeing, and what it has done about it
+     */
+    public synchronized GovernorStats getStats() {
+        return new GovernorStats(
+                processingNanos / 1e6,
+                bounds == null ? 0 : 1e3 / bounds.targetFps(),
+                temperature,
+                throttled,
+                decimate,
+                threads,
+                streamDivisor == null ? 1 : streamDivisor.value,
+                List.copyOf(adjustments));
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.photonvision.common.logging.LogGroup;
+import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.pipeline.CVPipeline;
+import org.photonvision.vision.pipeline.CVPipelineSettings;
+
+/**
+ * A small LRU cache of constructed user pipelines, so switching back to a recently used pipeline
+ * reuses its native detectors instead of rebuilding them.
+ *
+ * <p>Pipelines are keyed by the identity of their settings object, since pipeline indexes are
+ * reassigned whenever pipelines are added or removed. Pinned (prewarmed) pipelines are only evicted
+ * when the system runs low on memory. The active pipeline is never evicted.
+ */
+@SuppressWarnings("rawtypes")
+class PipelineCache {
+    private static final Logger logger = new Logger(PipelineCache.class, LogGroup.VisionModule);
+
+    /** Default number of unpinned pipelines kept warm per camera, including the active one */
+    static final int kDefaultCapacity = 3;
+
+    /** Below this much available system memory, only the active pipeline is kept */
+    static final long kDefaultLowMemoryBytes = 256L * 1024 * 1024;
+
+    /** Available memory is read at most this often, since pipelines can be switched every frame */
+    private static final long kMemorySampleNanos = 1_000_000_000L;
+
+    private static class Entry {
+        final CVPipelineSettings settings;
+        final CVPipeline pipeline;
+        boolean pinned = false;
+
+        Entry(CVPipelineSettings settings, CVPipeline pipeline) {
+            this.settings = settings;
+            this.pipeline = pipeline;
+        }
+    }
+
+    /** Least recently used first */
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final int capacity;
+    private final LongSupplier availableMemoryBytes;
+    private final long lowMemoryBytes;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    PipelineCache() {
+        this(kDefaultCapacity, sampled(PipelineCache::readAvailableMemory), kDefaultLowMemoryBytes);
+    }
+
+    /**
+     * @param capacity How many unpinned pipelines to keep, including the active one
+     * @param availableMemoryBytes Reports available system memory in bytes, or a negative value if
+     *     unknown
+     * @param lowMemoryBytes Evict everything but the active pipeline below this much free memory
+     */
+    PipelineCache(int capacity, LongSupplier availableMemoryBytes, long lowMemoryBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.availableMemoryBytes = availableMemoryBytes;
+        this.lowMemoryBytes = lowMemoryBytes;
+    }
+
+    private Entry find(CVPipelineSettings settings) {
+        for (var entry : entries) {
+            if (entry.settings == settings) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the pipeline for the given settings, creating it if it isn't cached. The returned pipeline
+     * becomes the most recently used one, and other pipelines may be evicted to make room.
+     *
+     * @param settings The settings of the pipeline to get
+     * @param factory Creates a pipeline from settings on a cache miss
+     * @return The pipeline, or null if the factory couldn't create one
+     */
+    synchronized CVPipeline acquire(
+            CVPipelineSettings settings, Function<CVPipelineSettings, CVPipeline> factory) {
+        var entry = find(settings);
+        if (entry != null && entry.pipeline.getSettings() == settings) {
+            hits++;
+            entries.remove(entry);
+            entries.add(entry);
+        } else {
+            if (entry != null) {
+                // Shouldn't happen, but don't hand out a pipeline bound to other settings
+                release(entry);
+            }
+            misses++;
+            var pipeline = factory.apply(settings);
+            if (pipeline == null) {
+                return null;
+            }
+            entry = new Entry(settings, pipeline);
+            entries.add(entry);
+        }
+
+        trim(settings);
+        return entry.pipeline;
+    }
+
+    /**
+     * Create and pin pipelines ahead of time, so the first switch to them is instant. Previously
+     * pinned pipelines that aren't listed are unpinned, and become normal LRU entries.
+     *
+     * @param settings The settings of the pipelines to keep warm
+     * @param active The settings of the active pipeline, which must not be evicted
+     * @param factory Creates a pipeline from settings
+     * @return How many pipelines had to be created
+     */
+    synchronized int prewarm(
+            Collection<CVPipelineSettings> settings,
+            CVPipelineSettings active,
+            Function<CVPipelineSettings, CVPipeline> factory) {
+        for (var entry : entries) {
+            entry.pinned = false;
+        }
+
+        int created = 0;
+        for (var s : settings) {
+            var entry = find(s);
+            if (entry == null) {
+                var pipeline = factory.apply(s);
+                if (pipeline == null) {
+                    continue;
+                }
+                entry = new Entry(s, pipeline);
+                // Warm but not used yet, so it goes to the cold end of the unpinned order
+                entries.add(0, entry);
+                created++;
+            }
+            entry.pinned = true;
+        }
+
+        trim(active);
+        return created;
+    }
+
+    /**
+     * Evict pipelines until the cache is within capacity, or down to the active pipeline if memory is
+     * low.
+     *
+     * @param active The settings of the pipeline that must be kept, may be null
+     */
+    synchronized void trim(CVPipelineSettings active) {
+        long available = availableMemoryBytes.getAsLong();
+        boolean lowMemory = available >= 0 && available < lowMemoryBytes;
+        if (lowMemory && entries.size() > 1) {
+            logger.warn(
+                    "Only "
+                            + available / (1024 * 1024)
+                            + " MiB of memory available, releasing cached pipelines");
+        }
+
+        var it = entries.iterator();
+        int unpinned = (int) entries.stream().filter(e -> !e.pinned).count();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (entry.settings == active) {
+                continue;
+            }
+            if (lowMemory || (!entry.pinned && unpinned > capacity)) {
+                if (!entry.pinned) unpinned--;
+                it.remove();
+                evictions++;
+                entry.pipeline.release();
+            }
+        }
+    }
+
+    /**
+     * Release pipelines whose settings are no longer in use, e.g. after a pipeline was deleted or had
+     * its type changed.
+     *
+     * @param live The settings of every user pipeline that still exists
+     */
+    synchronized void retainAll(Collection<CVPipelineSettings> live) {
+        var it = entries.iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (live.stream().noneMatch(s -> s == entry.settings)) {
+                it.remove();
+                entry.pipeline.release();
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        entries.remove(entry);
+        entry.pipeline.release();
+    }
+
+    /** Release every cached pipeline. */
+    synchronized void clear() {
+        for (var entry : entries) {
+            entry.pipeline.release();
+        }
+        entries.clear();
+    }
+
+    synchronized boolean contains(CVPipelineSettings settings) {
+        return find(settings) != null;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** Wraps a memory reading so it's only taken once per sample period, and reused in between. */
+    private static LongSupplier sampled(LongSupplier reading) {
+        return new LongSupplier() {
+            private long sampleNanos = 0;
+            private long value = -1;
+
+            @Override
+            public long getAsLong() {
+                long now = System.nanoTime();
+                if (sampleNanos == 0 || now - sampleNanos >= kMemorySampleNanos) {
+                    value = reading.getAsLong();
+                    sampleNanos = now;
+                }
+                return value;
+            }
+        };
+    }
+
+    /** Returns MemAvailable from /proc/meminfo in bytes, or -1 if it can't be read. */
+    private static long readAvailableMemory() {
+        try {
+            for (var line : Files.readAllLines(Path.of("/proc/meminfo"))) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
@@ -50,6 +50,18 @@ public class PipelineManager implements AutoCloseable {
     /** The currently active pipeline. */
     private CVPipeline currentUserPipeline = null;
 
+    /** Recently used user pipelines, so switching between them doesn't rebuild native detectors */
+    private final PipelineCache pipelineCache = new PipelineCache();
+
+    /** Pipeline indexes the robot asked us to keep warm, applied by the VisionRunner thread */
+    private volatile int[] requestedPrewarmIndexes = null;
+
+    /**
+     * Set when user pipelines were removed or replaced, so the VisionRunner thread releases the stale
+     * ones and rebuilds the current one before its next frame
+     */
+    private volatile boolean userPipelinesChanged = false;
+
     /**
      * Index of the last active user-created pipeline. <br>
      * <br>
@@ -201,6 +213,16 @@ public class PipelineManager implements AutoCloseable {
      * RAII
      */
     private void updatePipelineFromRequested() {
+        applyPrewarmRequest();
+
+        if (userPipelinesChanged) {
+            userPipelinesChanged = false;
+            releaseStalePipelines();
+            if (currentPipelineIndex >= 0 && currentPipelineIndex < userPipelineSettings.size()) {
+                recreateUserPipeline();
+            }
+        }
+
         int newIndex = requestedIndex;
         if (newIndex == currentPipelineIndex) {
             // nothing to do, probably no change -- give up
@@ -208,8 +230,10 @@ public class PipelineManager implements AutoCloseable {
         }
 
         if (newIndex < 0 && currentPipelineIndex >= 0) {
-            // Transitioning to a built-in pipe, save off the current user one
+            // Transitioning to a built-in pipe, save off the current user one. It stays cached, but
+            // isn't running anymore.
             lastUserPipelineIdx = currentPipelineIndex;
+            currentUserPipeline = null;
         }
 
         if (userPipelineSettings.size() - 1 < newIndex) {
@@ -235,38 +259,100 @@ public class PipelineManager implements AutoCloseable {
      * recreation after changing pipeline type
      */
     private void recreateUserPipeline() {
-        // Cleanup potential old native resources before swapping over from a user pipeline
-        if (currentUserPipeline != null && !(currentPipelineIndex < 0)) {
-            currentUserPipeline.release();
+        // Pipelines we've used recently are still cached, so this is usually just a lookup. Older
+        // pipelines are released by the cache to free their native resources.
+        var desiredPipelineSettings = userPipelineSettings.get(currentPipelineIndex);
+        var pipeline = pipelineCache.acquire(desiredPipelineSettings, PipelineManager::createPipeline);
+        if (pipeline != null) {
+            if (pipeline != currentUserPipeline) {
+                // A cached pipeline still holds tracks and frames from when it last ran
+                pipeline.reset();
+            }
+            currentUserPipeline = pipeline;
         }
+    }
 
-        var desiredPipelineSettings = userPipelineSettings.get(currentPipelineIndex);
-        switch (desiredPipelineSettings.pipelineType) {
+    private static CVPipeline createPipeline(CVPipelineSettings settings) {
+        return switch (settings.pipelineType) {
             case Reflective -> {
                 logger.debug("Creating Reflective pipeline");
-                currentUserPipeline =
-                        new ReflectivePipeline((ReflectivePipelineSettings) desiredPipelineSettings);
+                yield new ReflectivePipeline((ReflectivePipelineSettings) settings);
             }
             case ColoredShape -> {
                 logger.debug("Creating ColoredShape pipeline");
-                currentUserPipeline =
-                        new ColoredShapePipeline((ColoredShapePipelineSettings) desiredPipelineSettings);
+                yield new ColoredShapePipeline((ColoredShapePipelineSettings) settings);
             }
             case AprilTag -> {
                 logger.debug("Creating AprilTag pipeline");
-                currentUserPipeline =
-                        new AprilTagPipeline((AprilTagPipelineSettings) desiredPipelineSettings);
+                yield new AprilTagPipeline((AprilTagPipelineSettings) settings);
             }
             case Aruco -> {
                 logger.debug("Creating ArUco Pipeline");
-                currentUserPipeline = new ArucoPipeline((ArucoPipelineSettings) desiredPipelineSettings);
+                yield new ArucoPipeline((ArucoPipelineSettings) settings);
             }
             case ObjectDetection -> {
                 logger.debug("Creating ObjectDetection Pipeline");
-                currentUserPipeline =
-                        new ObjectDetectionPipeline((ObjectDetectionPipelineSettings) desiredPipelineSettings);
+                yield new ObjectDetectionPipeline((ObjectDetectionPipelineSettings) settings);
+            }
+            case Calib3d, DriverMode, FocusCamera -> null;
+        };
+    }
+
+    /**
+     * Request that the given user pipelines are built ahead of time and kept warm, so the first
+     * switch to them doesn't stall. Robots can declare the pipelines they will use at startup.
+     * Replaces any previous request; the pipelines are built by the VisionRunner thread.
+     *
+     * @param indexes The indexes of the user pipelines to keep warm
+     */
+    public void setPrewarmIndexes(int[] indexes) {
+        requestedPrewarmIndexes = indexes.clone();
+    }
+
+    private void applyPrewarmRequest() {
+        var indexes = requestedPrewarmIndexes;
+        if (indexes == null) {
+            return;
+        }
+        requestedPrewarmIndexes = null;
+
+        var settings = new ArrayList<CVPipelineSettings>();
+        for (int index : indexes) {
+            if (index >= 0 && index < userPipelineSettings.size()) {
+                settings.add(userPipelineSettings.get(index));
+            } else {
+                logger.warn("Can't prewarm non-existent pipeline " + index);
             }
-            case Calib3d, DriverMode, FocusCamera -> {}
+        }
+
+        var active = currentPipelineIndex >= 0 ? userPipelineSettings.get(currentPipelineIndex) : null;
+        long start = System.nanoTime();
+        int created =
+                pipelineCache.prewarm(
+                        settings,
+                        active,
+                        s -> {
+                            var pipeline = createPipeline(s);
+                            if (pipeline != null) {
+                                pipeline.prewarm();
+                            }
+                            return pipeline;
+                        });
+        logger.info(
+                "Prewarmed pipelines "
+                        + Arrays.toString(indexes)
+                        + ", built "
+                        + created
+                        + " in "
+                        + (System.nanoTime() - start) / 1_000_000
+                        + " ms");
+    }
+
+    /** Release cached pipelines whose settings were removed or replaced. */
+    private void releaseStalePipelines() {
+        pipelineCache.retainAll(userPipelineSettings);
+        if (currentUserPipeline != null && !pipelineCache.contains(currentUserPipeline.getSettings())) {
+            currentUserPipeline = null;
         }
     }
 
@@ -366,6 +452,7 @@ public class PipelineManager implements AutoCloseable {
         userPipelineSettings.remove(index);
         currentPipelineIndex = Math.min(index, userPipelineSettings.size() - 1);
         reassignIndexes();
+        userPipelinesChanged = true;
         return currentPipelineIndex;
     }
 
@@ -517,7 +604,7 @@ public class PipelineManager implements AutoCloseable {
 
         setPipelineInternal(idx);
         reassignIndexes();
-        recreateUserPipeline();
+        userPipelinesChanged = true;
     }
 
     @Override
@@ -525,6 +612,7 @@ public class PipelineManager implements AutoCloseable {
         calibration3dPipeline.release();
         focusPipeline.release();
         driverModePipeline.release();
-        currentUserPipeline.release();
+        pipelineCache.clear();
+        currentUserPipeline = null;
     }
 }
@@ -17,6 +17,7 @@
 
 package org.photonvision.vision.processes;
 
+import io.avaje.jsonb.Json;
 import io.javalin.websocket.WsContext;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,22 +25,27 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BiConsumer;
 import org.opencv.core.Size;
 import org.photonvision.common.configuration.CameraConfiguration;
 import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.configuration.FrameRecorderSettings;
 import org.photonvision.common.dataflow.CVPipelineResultConsumer;
 import org.photonvision.common.dataflow.DataChangeService;
 import org.photonvision.common.dataflow.DataChangeService.SubscriberHandle;
 import org.photonvision.common.dataflow.events.OutgoingUIEvent;
 import org.photonvision.common.dataflow.networktables.NTDataPublisher;
+import org.photonvision.common.dataflow.networktables.ResultHistory;
 import org.photonvision.common.dataflow.statusLEDs.StatusLEDConsumer;
 import org.photonvision.common.dataflow.websocket.UICameraConfiguration;
 import org.photonvision.common.dataflow.websocket.UIDataPublisher;
 import org.photonvision.common.dataflow.websocket.UIPhotonConfiguration;
 import org.photonvision.common.hardware.HardwareManager;
+import org.photonvision.common.hardware.metrics.ProcfsSampler;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
+import org.photonvision.common.util.LatestValueExchanger;
 import org.photonvision.common.util.SerializationUtils;
 import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.camera.CameraQuirk;
@@ -47,9 +53,15 @@ import org.photonvision.vision.camera.CameraType;
 import org.photonvision.vision.camera.QuirkyCamera;
 import org.photonvision.vision.camera.csi.LibcameraGpuSource;
 import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.FrameDivisor;
 import org.photonvision.vision.frame.consumer.FileSaveFrameConsumer;
+import org.photonvision.vision.frame.consumer.FrameRecorder;
 import org.photonvision.vision.frame.consumer.MJPGFrameConsumer;
+import org.photonvision.vision.pipe.impl.MultiTargetPNPPipe;
 import org.photonvision.vision.pipeline.AdvancedPipelineSettings;
+import org.photonvision.vision.pipeline.AprilTagPipeline;
+import org.photonvision.vision.pipeline.ArucoPipeline;
+import org.photonvision.vision.pipeline.ObjectDetectionPipeline;
 import org.photonvision.vision.pipeline.OutputStreamPipeline;
 import org.photonvision.vision.pipeline.ReflectivePipelineSettings;
 import org.photonvision.vision.pipeline.UICalibrationData;
@@ -71,6 +83,7 @@ public class VisionModule implements AutoCloseable {
     protected final VisionSource visionSource;
     private final VisionRunner visionRunner;
     private final StreamRunnable streamRunnable;
+    private final FrameBudgetGovernor frameBudgetGovernor;
     private final VisionModuleChangeSubscriber changeSubscriber;
     private final SubscriberHandle changeSubscriberHandle;
     private final LinkedList<CVPipelineResultConsumer> resultConsumers = new LinkedList<>();
@@ -79,6 +92,7 @@ public class VisionModule implements AutoCloseable {
     private final LinkedList<BiConsumer<Frame, List<TrackedTarget>>> streamResultConsumers =
             new LinkedList<>();
     private final NTDataPublisher ntConsumer;
+    private final ResultHistory resultHistory = new ResultHistory();
     private final UIDataPublisher uiDataConsumer;
     private final StatusLEDConsumer statusLEDsConsumer;
     protected final QuirkyCamera cameraQuirks;
@@ -93,6 +107,7 @@ public class VisionModule implements AutoCloseable {
 
     FileSaveFrameConsumer inputFrameSaver;
     FileSaveFrameConsumer outputFrameSaver;
+    FrameRecorder frameRecorder;
 
     MJPGFrameConsumer inputVideoStreamer;
     MJPGFrameConsumer outputVideoStreamer;
@@ -135,6 +150,8 @@ public class VisionModule implements AutoCloseable {
         this.pipelineManager = pipelineManager;
         this.visionSource = visionSource;
         changeSubscriber = new VisionModuleChangeSubscriber(this);
+        frameBudgetGovernor =
+                new FrameBudgetGovernor(visionSource.getSettables().getConfiguration().nickname);
         this.visionRunner =
                 new VisionRunner(
                         this.visionSource.getFrameProvider(),
@@ -143,7 +160,9 @@ public class VisionModule implements AutoCloseable {
                         this.cameraQuirks,
                         getChangeSubscriber(),
                         this::getFPSLimit,
-                        this::getEnabled);
+                        this::getEnabled,
+                        this::isOutputWanted,
+                        frameBudgetGovernor::getBudget);
         this.streamRunnable = new StreamRunnable(new OutputStreamPipeline());
         changeSubscriberHandle = DataChangeService.getInstance().addSubscriber(changeSubscriber);
 
@@ -161,7 +180,9 @@ public class VisionModule implements AutoCloseable {
                         this::getFPSLimit,
                         this::setFPSLimit,
                         this::getEnabled,
-                        this::setEnabled);
+                        this::setEnabled,
+                        pipelineManager::setPrewarmIndexes,
+                        resultHistory);
         uiDataConsumer = new UIDataPublisher(visionSource.getSettables().getConfiguration().uniqueName);
         statusLEDsConsumer =
                 new StatusLEDConsumer(visionSource.getSettables().getConfiguration().uniqueName);
@@ -215,6 +236,15 @@ public class VisionModule implements AutoCloseable {
                         visionSource.getSettables().getConfiguration().nickname,
                         visionSource.getSettables().getConfiguration().uniqueName,
                         "output");
+        frameRecorder =
+                new FrameRecorder(
+                        visionSource.getSettables().getConfiguration().nickname,
+                        visionSource.getSettables().getConfiguration().uniqueName);
+        // Configs from before the recorder won't have its settings
+        if (getCameraConfiguration().recorderSettings == null) {
+            getCameraConfiguration().recorderSettings = new FrameRecorderSettings();
+        }
+        frameRecorder.setSettings(getCameraConfiguration().recorderSettings);
 
         String camHostname = CameraServerJNI.getHostname();
         inputVideoStreamer =
@@ -242,86 +272,138 @@ public class VisionModule implements AutoCloseable {
                 (frame, tgts) -> {
                     if (frame != null) outputVideoStreamer.accept(frame.processedImage);
                 });
+        // Input frames are recorded before the stream, which may drop them
+        streamResultConsumers.add(
+                (frame, tgts) -> {
+                    if (frame != null) frameRecorder.recordOutput(frame);
+                });
     }
 
     private class StreamRunnable extends Thread {
         private final OutputStreamPipeline outputStreamPipeline;
 
-        private final Object frameLock = new Object();
-        private Frame latestFrame;
-        private AdvancedPipelineSettings settings = new AdvancedPipelineSettings();
-        private List<TrackedTarget> targets = new ArrayList<>();
-
-        private boolean shouldRun = false;
+        /** Everything the stream needs to draw one frame */
+        private record StreamInput(
+                Frame frame,
+                AdvancedPipelineSettings settings,
+                FrameDivisor divisor,
+                List<TrackedTarget> targets) {}
+
+        private final LatestValueExchanger<StreamInput> latest =
+                new LatestValueExchanger<>(
+                        input -> {
+                            logger.trace("Fell behind; releasing last unused Mats");
+                            release(input);
+                        });
+
+        private final Object statsLock = new Object();
+        private long rendered = 0;
+        private long skipped = 0;
+        private double renderNanos = 0;
 
         public StreamRunnable(OutputStreamPipeline outputStreamPipeline) {
             this.outputStreamPipeline = outputStreamPipeline;
+            setName("StreamRunnable - " + visionSource.getFrameProvider().getName());
         }
 
         public void updateData(
-                Frame inputOutputFrame, AdvancedPipelineSettings settings, List<TrackedTarget> targets) {
-            synchronized (frameLock) {
-                if (shouldRun && this.latestFrame != null) {
-                    logger.trace("Fell behind; releasing last unused Mats");
-                    this.latestFrame.release();
-                    if (this.targets != null) {
-                        this.targets.forEach(TrackedTarget::release);
-                    }
-                }
-
-                this.latestFrame = inputOutputFrame;
-                this.settings = settings;
-                this.targets = targets;
+                Frame inputOutputFrame,
+                AdvancedPipelineSettings settings,
+                FrameDivisor divisor,
+                List<TrackedTarget> targets) {
+            if (inputOutputFrame == null) return;
+            latest.offer(new StreamInput(inputOutputFrame, settings, divisor, targets));
+        }
 
-                shouldRun = inputOutputFrame != null;
+        public StreamStats getStats() {
+            synchronized (statsLock) {
+                double renderMillis = rendered > 0 ? renderNanos / rendered / 1e6 : 0;
+                return new StreamStats(
+                        latest.getTakenCount(),
+                        latest.getSupersededCount(),
+                        rendered,
+                        skipped,
+                        renderMillis,
+                        renderMillis * skipped);
             }
         }
 
         @Override
         public void run() {
-            while (!Thread.interrupted()) {
-                final Frame m_frame;
-                final AdvancedPipelineSettings settings;
-                final List<TrackedTarget> targets;
-                final boolean shouldRun;
-                synchronized (frameLock) {
-                    m_frame = this.latestFrame;
-                    this.latestFrame = null;
-
-                    settings = this.settings;
-                    targets = this.targets;
-                    shouldRun = this.shouldRun;
-
-                    this.shouldRun = false;
+            ProcfsSampler.labelCurrentThread(getName());
+
+            while (true) {
+                final StreamInput input;
+                try {
+                    input = latest.take();
+                } catch (InterruptedException e) {
+                    logger.warn("StreamRunnable was interrupted - exiting");
+                    latest.clear();
+                    return;
                 }
-                if (shouldRun) {
-                    try {
-                        CVPipelineResult osr = outputStreamPipeline.process(m_frame, settings, targets);
-                        consumeResults(m_frame, targets);
-                    } catch (Exception e) {
-                        // Never die
-                        logger.error("Exception while running stream runnable!", e);
-                    } finally {
-                        if (targets != null) {
-                            targets.forEach(TrackedTarget::release);
+
+                try {
+                    // Drawing is most of the work here, so don't bother if nothing would use it. Either
+                    // everything is drawn or nothing is, so no consumer ever gets a half-drawn frame.
+                    if (isStreamFrameWanted()) {
+                        var result =
+                                outputStreamPipeline.process(
+                                        input.frame(), input.settings(), input.divisor(), input.targets());
+                        consumeResults(input.frame(), input.targets());
+                        synchronized (statsLock) {
+                            rendered++;
+                            renderNanos += result.processingNanos;
                         }
-                        try {
-                            m_frame.release();
-                        } catch (Exception e) {
-                            logger.error("Exception freeing frames", e);
+                    } else {
+                        synchronized (statsLock) {
+                            skipped++;
                         }
                     }
-                } else {
-                    // busy wait! hurray!
-                    try {
-                        Thread.sleep(1);
-                    } catch (InterruptedException e) {
-                        logger.warn("StreamRunnable was interrupted - exiting");
-                        return;
-                    }
+                } catch (Exception e) {
+                    // Never die
+                    logger.error("Exception while running stream runnable!", e);
+                } finally {
+                    release(input);
                 }
             }
         }
+
+        private void release(StreamInput input) {
+            if (input.targets() != null) {
+                input.targets().forEach(TrackedTarget::release);
+            }
+            try {
+                input.frame().release();
+            } catch (Exception e) {
+                logger.error("Exception freeing frames", e);
+            }
+        }
+    }
+
+    /**
+     * How the output stream is keeping up with the pipeline.
+     *
+     * @param streamed Frames the stream thread took from the pipeline
+     * @param superseded Frames dropped because a newer one came before the stream was ready
+     * @param rendered Frames drawn on and handed to the streams and savers
+     * @param skipped Frames not drawn on, because no stream was due a frame and nothing was saving
+     * @param renderMillis The average time to draw on a frame
+     * @param savedMillis About how much drawing time skipping frames has saved
+     */
+    @Json
+    public record StreamStats(
+            long streamed,
+            long superseded,
+            long rendered,
+            long skipped,
+            double renderMillis,
+            double savedMillis) {}
+
+    /**
+     * @return How the output stream is keeping up with the pipeline
+     */
+    public StreamStats getStreamStats() {
+        return streamRunnable.getStats();
     }
 
     private void start() {
@@ -415,10 +497,44 @@ public class VisionModule implements AutoCloseable {
         inputFrameSaver.overrideTakeSnapshot();
     }
 
+    /** Whether anyone is watching the output stream, or wants a snapshot of it. */
+    private boolean isOutputWanted() {
+        return outputVideoStreamer.hasViewers()
+                || outputFrameSaver.isSnapshotRequested()
+                || frameRecorder.wantsOutput();
+    }
+
+    /**
+     * Whether the stream thread's next frame would be used: a stream is due a frame, a snapshot was
+     * asked for, or the recorder wants the output.
+     */
+    boolean isStreamFrameWanted() {
+        return inputVideoStreamer.isFrameDue()
+                || outputVideoStreamer.isFrameDue()
+                || inputFrameSaver.isSnapshotRequested()
+                || outputFrameSaver.isSnapshotRequested()
+                || frameRecorder.wantsOutput();
+    }
+
     public void saveOutputSnapshot() {
         outputFrameSaver.overrideTakeSnapshot();
     }
 
+    /** Save what the frame recorder has been holding, on the next frame. */
+    public void saveRecording() {
+        frameRecorder.trigger("request");
+    }
+
+    public void setRecorderSettings(FrameRecorderSettings settings) {
+        getCameraConfiguration().recorderSettings = settings;
+        frameRecorder.setSettings(settings);
+        saveAndBroadcastAll();
+    }
+
+    public FrameRecorder.RecorderStats getRecorderStats() {
+        return frameRecorder.getStats();
+    }
+
     public void takeCalibrationSnapshot() {
         pipelineManager.calibration3dPipeline.takeSnapshot();
     }
@@ -555,6 +671,7 @@ public class VisionModule implements AutoCloseable {
         ntConsumer.updateCameraNickname(newName);
         inputFrameSaver.updateCameraNickname(newName);
         outputFrameSaver.updateCameraNickname(newName);
+        frameRecorder.updateCameraNickname(newName);
 
         // Push new data to the UI
         saveAndBroadcastAll();
@@ -679,13 +796,22 @@ public class VisionModule implements AutoCloseable {
     }
 
     private void consumeResult(CVPipelineResult result) {
+        frameBudgetGovernor.update(pipelineManager.getCurrentPipelineSettings(), result);
+        updateStreamFramerate();
         consumePipelineResult(result);
+        // Before the frame is handed off, so frames the stream drops are still recorded
+        frameRecorder.recordInput(result.inputAndOutputFrame, result.targets);
 
         // Pipelines like DriverMode and Calibrate3dPipeline have null output frames
         if (result.inputAndOutputFrame != null
                 && (pipelineManager.getCurrentPipelineSettings()
                         instanceof AdvancedPipelineSettings settings)) {
-            streamRunnable.updateData(result.inputAndOutputFrame, settings, result.targets);
+            var budget = frameBudgetGovernor.getBudget();
+            streamRunnable.updateData(
+                    result.inputAndOutputFrame,
+                    settings,
+                    budget != null ? budget.streamDivisor() : settings.streamingFrameDivisor,
+                    result.targets);
             // The streamRunnable manages releasing in this case
         } else {
             consumeResults(result.inputAndOutputFrame, result.targets);
@@ -701,6 +827,18 @@ public class VisionModule implements AutoCloseable {
         }
     }
 
+    /**
+     * Keep the streams from sending, and so drawing, frames faster than the camera captures them.
+     * Sources that run faster than their video mode, like files, would otherwise have every frame
+     * drawn.
+     */
+    private void updateStreamFramerate() {
+        var videoMode = visionSource.getSettables().getCurrentVideoMode();
+        double fps = videoMode != null ? videoMode.fps : -1;
+        inputVideoStreamer.setMaxFramerate(fps);
+        outputVideoStreamer.setMaxFramerate(fps);
+    }
+
     /** Consume stream/target results, no rate limiting applied */
     private void consumeResults(Frame frame, List<TrackedTarget> targets) {
         for (var c : streamResultConsumers) {
@@ -750,6 +888,57 @@ public class VisionModule implements AutoCloseable {
         saveAndBroadcastAll();
     }
 
+    /**
+     * @return Inference timing of the current pipeline, if it runs object detection asynchronously
+     */
+    public Optional<ObjectDetectionPipeline.InferenceStats> getInferenceStats() {
+        if (pipelineManager.getCurrentPipeline() instanceof ObjectDetectionPipeline pipeline
+                && pipeline.getSettings().asyncInference) {
+            return Optional.of(pipeline.getInferenceStats());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return Multi-target warm start metrics of the current pipeline, if it has warm starting on
+     */
+    public Optional<MultiTargetPNPPipe.WarmStartStats> getWarmStartStats() {
+        var pipeline = pipelineManager.getCurrentPipeline();
+        if (pipeline instanceof AprilTagPipeline aprilTag
+                && aprilTag.getSettings().multiTargetWarmStart) {
+            return Optional.of(aprilTag.getWarmStartStats());
+        } else if (pipeline instanceof ArucoPipeline aruco
+                && aruco.getSettings().multiTargetWarmStart) {
+            return Optional.of(aruco.getWarmStartStats());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return What the frame budget governor is seeing, if it's on for the current pipeline
+     */
+    public Optional<FrameBudgetGovernor.GovernorStats> getFrameBudgetStats() {
+        if (pipelineManager.getCurrentPipelineSettings() instanceof AdvancedPipelineSettings settings
+                && settings.frameBudgetGovernor) {
+            return Optional.of(frameBudgetGovernor.getStats());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return How much this camera is publishing to NetworkTables
+     */
+    public NTDataPublisher.PublishStats getNTPublishStats() {
+        return ntConsumer.getPublishStats();
+    }
+
+    /**
+     * @return The last few seconds of results, as they were published to NT
+     */
+    public ResultHistory getResultHistory() {
+        return resultHistory;
+    }
+
     public String uniqueName() {
         return this.visionSource.cameraConfiguration.uniqueName;
     }
@@ -771,6 +960,7 @@ public class VisionModule implements AutoCloseable {
         outputVideoStreamer.close();
         inputFrameSaver.close();
         outputFrameSaver.close();
+        frameRecorder.release();
 
         changeSubscriberHandle.stop();
         setVisionLEDs(false);
@@ -19,6 +19,7 @@ package org.photonvision.vision.processes;
 
 import io.avaje.jsonb.Jsonb;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -296,6 +297,11 @@ public class VisionModuleChangeSubscriber extends DataChangeSubscriber {
             } else {
                 propField.setBoolean(currentSettings, (Boolean) newPropValue);
             }
+        } else if (Map.class.isAssignableFrom(propType) && newPropValue instanceof Map<?, ?> map) {
+            // Numbers come off the wire as whatever type fits them, but settings maps hold doubles
+            var actual = new HashMap<String, Double>();
+            map.forEach((key, value) -> actual.put(key.toString(), ((Number) value).doubleValue()));
+            propField.set(currentSettings, actual);
         } else if (propField.getType() == ModelProperties.class
                 && newPropValue instanceof LinkedHashMap) {
             ModelProperties modelProps =
@@ -28,6 +28,7 @@ import org.photonvision.common.configuration.ConfigManager;
 import org.photonvision.common.dataflow.DataChangeService;
 import org.photonvision.common.dataflow.events.OutgoingUIEvent;
 import org.photonvision.common.dataflow.websocket.UIPhotonConfiguration;
+import org.photonvision.common.hardware.metrics.ProcfsSampler;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.vision.camera.QuirkyCamera;
@@ -36,6 +37,7 @@ import org.photonvision.vision.frame.FrameProvider;
 import org.photonvision.vision.pipe.impl.HSVPipe;
 import org.photonvision.vision.pipeline.AdvancedPipelineSettings;
 import org.photonvision.vision.pipeline.CVPipeline;
+import org.photonvision.vision.pipeline.FrameBudget;
 import org.photonvision.vision.pipeline.result.CVPipelineResult;
 
 /**
@@ -54,6 +56,8 @@ public class VisionRunner implements AutoCloseable {
     private final QuirkyCamera cameraQuirks;
     private final Supplier<Integer> fpsLimitSupplier;
     private final Supplier<Boolean> enabledSupplier;
+    private final Supplier<Boolean> outputWantedSupplier;
+    private final Supplier<FrameBudget> frameBudgetSupplier;
 
     private long loopCount;
 
@@ -69,6 +73,9 @@ public class VisionRunner implements AutoCloseable {
      *     update its settings when they change.
      * @param fpsLimitSupplier
      * @param enabledSupplier
+     * @param outputWantedSupplier Whether anything will look at the output image of the next frame
+     * @param frameBudgetSupplier What the pipeline should run the next frame with in place of its
+     *     settings, or null
      */
     public VisionRunner(
             FrameProvider frameSupplier,
@@ -77,7 +84,9 @@ public class VisionRunner implements AutoCloseable {
             QuirkyCamera cameraQuirks,
             VisionModuleChangeSubscriber changeSubscriber,
             Supplier<Integer> fpsLimitSupplier,
-            Supplier<Boolean> enabledSupplier) {
+            Supplier<Boolean> enabledSupplier,
+            Supplier<Boolean> outputWantedSupplier,
+            Supplier<FrameBudget> frameBudgetSupplier) {
         this.frameSupplier = frameSupplier;
         this.pipelineSupplier = pipelineSupplier;
         this.pipelineResultConsumer = pipelineResultConsumer;
@@ -85,6 +94,8 @@ public class VisionRunner implements AutoCloseable {
         this.changeSubscriber = changeSubscriber;
         this.fpsLimitSupplier = fpsLimitSupplier;
         this.enabledSupplier = enabledSupplier;
+        this.outputWantedSupplier = outputWantedSupplier;
+        this.frameBudgetSupplier = frameBudgetSupplier;
 
         visionProcessThread = new Thread(this::update);
         visionProcessThread.setName("VisionRunner - " + frameSupplier.getName());
@@ -168,6 +179,9 @@ public class VisionRunner implements AutoCloseable {
     }
 
     private void update() {
+        // Native thread names are truncated, so report CPU usage under the full name
+        ProcfsSampler.labelCurrentThread(visionProcessThread.getName());
+
         // wait for the camera to connect
         while (!frameSupplier.isConnected() && !Thread.interrupted()) {
             // yield
@@ -248,17 +262,25 @@ public class VisionRunner implements AutoCloseable {
                 // If we have an FPS limit, check if it's 0, in which case we skip processing and just send
                 // a blank frame, otherwise we sleep until the next tick
                 waitUntilNextTick(start);
+                pipeline.setOutputWanted(outputWantedSupplier.get());
+                pipeline.setFrameBudget(frameBudgetSupplier.get());
                 try {
                     var pipelineResult = pipeline.run(frame, cameraQuirks);
-                    try {
-                        pipelineResultConsumer.accept(pipelineResult);
-                    } catch (Exception ex) {
-                        logger.error("Exception on loop " + loopCount, ex);
-                        pipelineResult.release();
+                    // Pipelines that took the frame may have nothing to publish yet
+                    if (pipelineResult != null) {
+                        try {
+                            pipelineResultConsumer.accept(pipelineResult);
+                        } catch (Exception ex) {
+                            logger.error("Exception on loop " + loopCount, ex);
+                            pipelineResult.release();
+                        }
                     }
                 } catch (Exception ex) {
                     logger.error("Pipeline exception on loop " + loopCount, ex);
-                    frame.release();
+                    // A frame the pipeline took is released by the pipeline
+                    if (!pipeline.tookFrame()) {
+                        frame.release();
+                    }
                 }
                 loopCount++;
             }
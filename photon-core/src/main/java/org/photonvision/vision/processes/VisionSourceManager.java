@@ -85,8 +85,31 @@ public class VisionSourceManager implements AutoCloseable {
     // The subset of cameras that are "active", converted to VisionModules
     public VisionModuleManager vmm = new VisionModuleManager();
 
+    // How often to enumerate cameras when we can't be notified of hotplug events
+    private static final long kPollIntervalMillis = 1000;
+    // How often to enumerate cameras as a safety net when the hotplug watcher is running. CSI cameras
+    // and anything inotify missed are still picked up, just more slowly
+    private static final long kWatchedPollIntervalMillis = 10000;
+
+    private final CameraHotplugWatcher hotplugWatcher = new CameraHotplugWatcher(this::onHotplug);
+
     public void registerTimedTasks() {
-        TimedTaskManager.getInstance().addTask("CameraDeviceExplorer", this::pushUiUpdate, 1000);
+        long pollInterval = kPollIntervalMillis;
+        if (Platform.isLinux() && hotplugWatcher.start()) {
+            pollInterval = kWatchedPollIntervalMillis;
+        }
+        TimedTaskManager.getInstance()
+                .addTask("CameraDeviceExplorer", this::pushUiUpdate, pollInterval);
+    }
+
+    private void onHotplug() {
+        logger.debug("Camera hotplug event, re-enumerating cameras");
+        pushUiUpdate();
+    }
+
+    /** Re-enumerate connected cameras and send the result to the UI. */
+    public void requestCameraRescan() {
+        pushUiUpdate();
     }
 
     /**
@@ -511,6 +534,7 @@ public class VisionSourceManager implements AutoCloseable {
 
     @Override
     public void close() {
+        hotplugWatcher.close();
         vmm.close();
     }
 }
@@ -34,6 +34,7 @@ public class PotentialTarget implements Releasable {
     // additional metadata about object detections we need to keep around
     public final double confidence;
     public final int clsId;
+    public final int trackId;
 
     public PotentialTarget(Contour inputContour) {
         this(inputContour, List.of());
@@ -49,6 +50,7 @@ public class PotentialTarget implements Releasable {
         this.shape = shape;
         this.clsId = -1;
         this.confidence = -1;
+        this.trackId = -1;
     }
 
     public PotentialTarget(Contour inputContour, CVShape shape) {
@@ -56,11 +58,16 @@ public class PotentialTarget implements Releasable {
     }
 
     public PotentialTarget(NeuralNetworkPipeResult det) {
+        this(det, -1);
+    }
+
+    public PotentialTarget(NeuralNetworkPipeResult det, int trackId) {
         this.shape = new CVShape(new Contour(det.bbox()), ContourShape.Quadrilateral);
         this.m_mainContour = this.shape.getContour();
         m_subContours = List.of();
         this.clsId = det.classIdx();
         this.confidence = det.confidence();
+        this.trackId = trackId;
     }
 
     public PotentialTarget(CVShape cvShape) {
@@ -17,10 +17,12 @@
 
 package org.photonvision.vision.target;
 
+import java.util.List;
 import org.opencv.calib3d.Calib3d;
 import org.opencv.core.MatOfPoint2f;
 import org.opencv.core.Point;
 import org.opencv.core.RotatedRect;
+import org.opencv.core.Size;
 import org.opencv.core.TermCriteria;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.common.util.numbers.DoubleCouple;
@@ -96,6 +98,91 @@ public class TargetCalculations {
         return angle;
     }
 
+    /**
+     * The area of a polygon, like {@link org.opencv.imgproc.Imgproc#contourArea} but without needing
+     * a Mat.
+     *
+     * @param points The polygon's vertices, in order
+     * @return Its area, in square pixels
+     */
+    public static double calculatePolygonArea(List<Point> points) {
+        double twiceArea = 0;
+        for (int i = 0; i < points.size(); i++) {
+            var a = points.get(i);
+            var b = points.get((i + 1) % points.size());
+            twiceArea += a.x * b.y - b.x * a.y;
+        }
+        return Math.abs(twiceArea) / 2;
+    }
+
+    /**
+     * The smallest rotated rectangle around some points, like {@link
+     * org.opencv.imgproc.Imgproc#minAreaRect} but without needing a Mat. Meant for the handful of
+     * corners of a fiducial, since it tries every pair of points.
+     *
+     * @param points The points
+     * @return The rectangle, with its angle in (0, 90] degrees and its width along that angle, as
+     *     OpenCV gives it
+     */
+    public static RotatedRect calculateMinAreaRect(List<Point> points) {
+        // The smallest rectangle has a side along an edge of the convex hull. Every hull edge joins
+        // two of the points, so trying the direction between every pair finds it.
+        double bestArea = Double.POSITIVE_INFINITY;
+        double ux = 1, uy = 0;
+        double minU = 0, maxU = 0, minV = 0, maxV = 0;
+        for (int i = 0; i < points.size(); i++) {
+            for (int j = i + 1; j < points.size(); j++) {
+                double dx = points.get(j).x - points.get(i).x;
+                double dy = points.get(j).y - points.get(i).y;
+                double length = Math.hypot(dx, dy);
+                if (length == 0) continue;
+                dx /= length;
+                dy /= length;
+
+                // Project onto the direction, and the one perpendicular to it
+                double lowU = Double.POSITIVE_INFINITY, highU = Double.NEGATIVE_INFINITY;
+                double lowV = Double.POSITIVE_INFINITY, highV = Double.NEGATIVE_INFINITY;
+                for (var p : points) {
+                    double u = p.x * dx + p.y * dy;
+                    double v = p.y * dx - p.x * dy;
+                    lowU = Math.min(lowU, u);
+                    highU = Math.max(highU, u);
+                    lowV = Math.min(lowV, v);
+                    highV = Math.max(highV, v);
+                }
+
+                double area = (highU - lowU) * (highV - lowV);
+                if (area < bestArea) {
+                    bestArea = area;
+                    ux = dx;
+                    uy = dy;
+                    minU = lowU;
+                    maxU = highU;
+                    minV = lowV;
+                    maxV = highV;
+                }
+            }
+        }
+        if (points.isEmpty()) return new RotatedRect();
+        if (bestArea == Double.POSITIVE_INFINITY) {
+            // Every point is in the same place
+            return new RotatedRect(points.get(0).clone(), new Size(0, 0), 90);
+        }
+
+        double midU = (minU + maxU) / 2;
+        double midV = (minV + maxV) / 2;
+        var center = new Point(midU * ux - midV * uy, midU * uy + midV * ux);
+
+        // The sides run along u and v, which is u turned 90 degrees. Pick whichever is in (0, 90].
+        double angle = Math.toDegrees(Math.atan2(uy, ux)) % 180;
+        if (angle < 0) angle += 180;
+        if (angle > 0 && angle <= 90) {
+            return new RotatedRect(center, new Size(maxU - minU, maxV - minV), angle);
+        }
+        return new RotatedRect(
+                center, new Size(maxV - minV, maxU - minU), angle == 0 ? 90 : angle - 90);
+    }
+
     public static Point calculateTargetOffsetPoint(
             boolean isLandscape, TargetOffsetPointEdge offsetRegion, RotatedRect minAreaRect) {
         Point[] vertices = new Point[4];
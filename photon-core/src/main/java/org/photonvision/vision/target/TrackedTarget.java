@@ -42,7 +42,8 @@ import org.wpilib.vision.apriltag.AprilTagDetection;
 import org.wpilib.vision.apriltag.AprilTagPoseEstimate;
 
 public class TrackedTarget implements Releasable {
-    public final Contour m_mainContour;
+    // Fiducial targets only build this if something asks for it, see getMainContour()
+    private Contour m_mainContour;
     public List<Contour> m_subContours; // can be empty
 
     private MatOfPoint2f m_approximateBoundingPolygon;
@@ -67,8 +68,21 @@ public class TrackedTarget implements Releasable {
 
     private Mat m_cameraRelativeTvec, m_cameraRelativeRvec;
 
+    // Fiducial targets keep their geometry in Java, and only make the Mats above when asked for
+    // them. A dozen tags at 100 fps would otherwise be thousands of native allocations a second,
+    // nearly all of which nothing looks at.
+    private boolean m_lazyGeometry = false;
+    private RotatedRect m_minAreaRect;
+    private double[] m_tvecData, m_rvecData;
+
     private int m_classId = -1;
     private double m_confidence = -1;
+    private int m_trackId = -1;
+
+    // Filtered by TrackTargetsPipe, if targets are being tracked
+    private boolean m_smoothed = false;
+    private double m_smoothedYaw, m_smoothedPitch, m_smoothedArea;
+    private double m_yawVelocity, m_pitchVelocity, m_areaVelocity;
 
     public TrackedTarget(
             PotentialTarget origTarget, TargetCalculationParameters params, CVShape shape) {
@@ -79,6 +93,7 @@ public class TrackedTarget implements Releasable {
 
         this.m_classId = origTarget.clsId;
         this.m_confidence = origTarget.confidence;
+        this.m_trackId = origTarget.trackId;
     }
 
     public TrackedTarget(
@@ -118,21 +133,7 @@ public class TrackedTarget implements Releasable {
 
             m_poseAmbiguity = tagPose.getAmbiguity();
 
-            var tvec = new Mat(3, 1, CvType.CV_64FC1);
-            tvec.put(
-                    0,
-                    0,
-                    bestPose.getTranslation().getX(),
-                    bestPose.getTranslation().getY(),
-                    bestPose.getTranslation().getZ());
-            setCameraRelativeTvec(tvec);
-            tvec.release();
-
-            // Opencv expects a 3d vector with norm = angle and direction = axis
-            var rvec = new Mat(3, 1, CvType.CV_64FC1);
-            MathUtils.rotationToOpencvRvec(bestPose.getRotation(), rvec);
-            setCameraRelativeRvec(rvec);
-            rvec.release();
+            setFiducialPose(bestPose);
         }
 
         double[] corners = tagDetection.getCorners();
@@ -142,11 +143,7 @@ public class TrackedTarget implements Releasable {
             new Point(corners[4], corners[5]),
             new Point(corners[6], corners[7])
         };
-        m_targetCorners = List.of(cornerPoints);
-        MatOfPoint contourMat = new MatOfPoint(cornerPoints);
-        m_approximateBoundingPolygon = new MatOfPoint2f(cornerPoints);
-        m_mainContour = new Contour(contourMat);
-        m_area = m_mainContour.getArea() / params.imageArea * 100;
+        setFiducialCorners(cornerPoints, params);
         m_fiducialId = tagDetection.getId();
         m_shape = null;
 
@@ -176,6 +173,84 @@ public class TrackedTarget implements Releasable {
         return m_classId;
     }
 
+    /**
+     * @return An ID that stays the same while the target is tracked across frames, or -1
+     */
+    public int getTrackId() {
+        return m_trackId;
+    }
+
+    /**
+     * Set the filtered state of the track following this target.
+     *
+     * @param trackId The ID of the track
+     * @param yaw Smoothed yaw, in degrees
+     * @param pitch Smoothed pitch, in degrees
+     * @param area Smoothed area, in percent of the image
+     * @param yawVelocity Rate of change of yaw, in degrees per second
+     * @param pitchVelocity Rate of change of pitch, in degrees per second
+     * @param areaVelocity Rate of change of area, in percent per second
+     */
+    public void setTrack(
+            int trackId,
+            double yaw,
+            double pitch,
+            double area,
+            double yawVelocity,
+            double pitchVelocity,
+            double areaVelocity) {
+        m_trackId = trackId;
+        m_smoothed = true;
+        m_smoothedYaw = yaw;
+        m_smoothedPitch = pitch;
+        m_smoothedArea = area;
+        m_yawVelocity = yawVelocity;
+        m_pitchVelocity = pitchVelocity;
+        m_areaVelocity = areaVelocity;
+    }
+
+    /**
+     * @return Smoothed yaw if the target is tracked, otherwise the measured yaw
+     */
+    public double getSmoothedYaw() {
+        return m_smoothed ? m_smoothedYaw : m_yaw;
+    }
+
+    /**
+     * @return Smoothed pitch if the target is tracked, otherwise the measured pitch
+     */
+    public double getSmoothedPitch() {
+        return m_smoothed ? m_smoothedPitch : m_pitch;
+    }
+
+    /**
+     * @return Smoothed area if the target is tracked, otherwise the measured area
+     */
+    public double getSmoothedArea() {
+        return m_smoothed ? m_smoothedArea : m_area;
+    }
+
+    /**
+     * @return Rate of change of yaw in degrees per second, or 0 if the target isn't tracked
+     */
+    public double getYawVelocity() {
+        return m_yawVelocity;
+    }
+
+    /**
+     * @return Rate of change of pitch in degrees per second, or 0 if the target isn't tracked
+     */
+    public double getPitchVelocity() {
+        return m_pitchVelocity;
+    }
+
+    /**
+     * @return Rate of change of area in percent per second, or 0 if the target isn't tracked
+     */
+    public double getAreaVelocity() {
+        return m_areaVelocity;
+    }
+
     public TrackedTarget(
             ArucoDetectionResult result,
             AprilTagPoseEstimate tagPose,
@@ -203,11 +278,7 @@ public class TrackedTarget implements Releasable {
             new Point(xCorners[2], yCorners[2]),
             new Point(xCorners[3], yCorners[3])
         };
-        m_targetCorners = List.of(cornerPoints);
-        MatOfPoint contourMat = new MatOfPoint(cornerPoints);
-        m_approximateBoundingPolygon = new MatOfPoint2f(cornerPoints);
-        m_mainContour = new Contour(contourMat);
-        m_area = m_mainContour.getArea() / params.imageArea * 100;
+        setFiducialCorners(cornerPoints, params);
         m_fiducialId = result.getId();
         m_shape = null;
 
@@ -230,21 +301,28 @@ public class TrackedTarget implements Releasable {
 
             m_poseAmbiguity = tagPose.getAmbiguity();
 
-            var tvec = new Mat(3, 1, CvType.CV_64FC1);
-            tvec.put(
-                    0,
-                    0,
+            setFiducialPose(bestPose);
+        }
+    }
+
+    /** Keep a fiducial's corners, and work out what can be from them without any Mats. */
+    private void setFiducialCorners(Point[] cornerPoints, TargetCalculationParameters params) {
+        m_lazyGeometry = true;
+        m_targetCorners = List.of(cornerPoints);
+        m_area = TargetCalculations.calculatePolygonArea(m_targetCorners) / params.imageArea * 100;
+    }
+
+    /** Keep the pose a fiducial's rvec and tvec will be made from, if they're asked for. */
+    private void setFiducialPose(Transform3d bestPose) {
+        m_tvecData =
+                new double[] {
                     bestPose.getTranslation().getX(),
                     bestPose.getTranslation().getY(),
-                    bestPose.getTranslation().getZ());
-            setCameraRelativeTvec(tvec);
-            tvec.release();
-
-            var rvec = new Mat(3, 1, CvType.CV_64FC1);
-            MathUtils.rotationToOpencvRvec(bestPose.getRotation(), rvec);
-            setCameraRelativeRvec(rvec);
-            rvec.release();
-        }
+                    bestPose.getTranslation().getZ()
+                };
+        // Opencv expects a 3d vector with norm = angle and direction = axis
+        var rotation = bestPose.getRotation();
+        m_rvecData = rotation.getAxis().times(rotation.getAngle()).getData();
     }
 
     public void setFiducialId(int id) {
@@ -298,13 +376,33 @@ public class TrackedTarget implements Releasable {
     }
 
     public RotatedRect getMinAreaRect() {
-        return m_mainContour.getMinAreaRect();
+        if (m_mainContour == null && m_lazyGeometry) {
+            if (m_minAreaRect == null) {
+                m_minAreaRect = TargetCalculations.calculateMinAreaRect(m_targetCorners);
+            }
+            return m_minAreaRect;
+        }
+        return getMainContour().getMinAreaRect();
     }
 
     public MatOfPoint2f getApproximateBoundingPolygon() {
+        if (m_approximateBoundingPolygon == null && m_lazyGeometry) {
+            m_approximateBoundingPolygon = new MatOfPoint2f(m_targetCorners.toArray(new Point[0]));
+        }
         return m_approximateBoundingPolygon;
     }
 
+    /**
+     * @return The target's outline. For fiducials, this is made from the corners the first time it's
+     *     asked for.
+     */
+    public Contour getMainContour() {
+        if (m_mainContour == null && m_lazyGeometry) {
+            m_mainContour = new Contour(new MatOfPoint(m_targetCorners.toArray(new Point[0])));
+        }
+        return m_mainContour;
+    }
+
     public void calculateValues(TargetCalculationParameters params) {
         // this MUST happen in this exact order! (TODO: document why)
         m_targetOffsetPoint =
@@ -337,7 +435,7 @@ public class TrackedTarget implements Releasable {
 
     @Override
     public void release() {
-        m_mainContour.release();
+        if (m_mainContour != null) m_mainContour.release();
 
         // TODO how can this check fail?
         if (m_subContours != null) {
@@ -353,6 +451,7 @@ public class TrackedTarget implements Releasable {
 
     public void setTargetCorners(List<Point> targetCorners) {
         this.m_targetCorners = targetCorners;
+        m_minAreaRect = null;
     }
 
     public List<Point> getTargetCorners() {
@@ -380,19 +479,29 @@ public class TrackedTarget implements Releasable {
     }
 
     public Mat getCameraRelativeTvec() {
+        if (m_cameraRelativeTvec == null && m_tvecData != null) {
+            m_cameraRelativeTvec = new Mat(3, 1, CvType.CV_64FC1);
+            m_cameraRelativeTvec.put(0, 0, m_tvecData);
+        }
         return m_cameraRelativeTvec;
     }
 
     public void setCameraRelativeTvec(Mat cameraRelativeTvec) {
+        m_tvecData = null;
         if (this.m_cameraRelativeTvec == null) m_cameraRelativeTvec = new Mat();
         cameraRelativeTvec.copyTo(this.m_cameraRelativeTvec);
     }
 
     public Mat getCameraRelativeRvec() {
+        if (m_cameraRelativeRvec == null && m_rvecData != null) {
+            m_cameraRelativeRvec = new Mat(3, 1, CvType.CV_64FC1);
+            m_cameraRelativeRvec.put(0, 0, m_rvecData);
+        }
         return m_cameraRelativeRvec;
     }
 
     public void setCameraRelativeRvec(Mat cameraRelativeRvec) {
+        m_rvecData = null;
         if (this.m_cameraRelativeRvec == null) m_cameraRelativeRvec = new Mat();
         cameraRelativeRvec.copyTo(this.m_cameraRelativeRvec);
     }
@@ -414,6 +523,13 @@ public class TrackedTarget implements Releasable {
         ret.put("ambiguity", getPoseAmbiguity());
         ret.put("confidence", m_confidence);
         ret.put("classId", m_classId);
+        ret.put("trackId", m_trackId);
+        ret.put("smoothedYaw", getSmoothedYaw());
+        ret.put("smoothedPitch", getSmoothedPitch());
+        ret.put("smoothedArea", getSmoothedArea());
+        ret.put("yawVelocity", m_yawVelocity);
+        ret.put("pitchVelocity", m_pitchVelocity);
+        ret.put("areaVelocity", m_areaVelocity);
 
         var bestCameraToTarget3d = getBestCameraToTarget3d();
         if (bestCameraToTarget3d != null) {
@@ -461,7 +577,15 @@ public class TrackedTarget implements Releasable {
                             t.getAltCameraToTarget3d(),
                             t.getPoseAmbiguity(),
                             minAreaRectCorners,
-                            detectedCorners));
+                            detectedCorners,
+                            t.getTrackId(),
+                            // The same as measured unless the target is being tracked
+                            t.getSmoothedYaw(),
+                            t.getSmoothedPitch(),
+                            t.getSmoothedArea(),
+                            t.getYawVelocity(),
+                            t.getPitchVelocity(),
+                            t.getAreaVelocity()));
         }
         return ret;
     }
@@ -23,6 +23,11 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
 import org.photonvision.common.util.TestUtils;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.common.util.numbers.NumberListUtils;
@@ -30,6 +35,8 @@ import org.photonvision.vision.camera.QuirkyCamera;
 import org.photonvision.vision.frame.FrameProvider;
 import org.photonvision.vision.frame.FrameStaticProperties;
 import org.photonvision.vision.frame.provider.FileFrameProvider;
+import org.photonvision.vision.objects.Letterbox;
+import org.photonvision.vision.objects.LetterboxBuffer;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.opencv.ContourGroupingMode;
 import org.photonvision.vision.opencv.ContourIntersectionDirection;
@@ -119,6 +126,47 @@ public class BenchmarkTest {
         }
     }
 
+    @Test
+    @Order(5)
+    public void Letterbox720pBenchmark() {
+        var inputSize = new Size(640, 640);
+        var gray = new Scalar(128, 128, 128);
+        var frame = new Mat(720, 1280, CvType.CV_8UC3);
+        Core.randu(frame, 0, 255);
+
+        var letterboxed = new Mat();
+        var buffer = new LetterboxBuffer(inputSize, gray);
+        int loops = 500;
+
+        for (int i = 0; i < 20; i++) {
+            Letterbox.letterbox(frame, letterboxed, inputSize, gray);
+            buffer.letterbox(frame);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            Letterbox.letterbox(frame, letterboxed, inputSize, gray);
+        }
+        double copyMillis = (System.nanoTime() - start) / 1e6 / loops;
+
+        start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            buffer.letterbox(frame);
+        }
+        double bufferMillis = (System.nanoTime() - start) / 1e6 / loops;
+
+        System.out.println(
+                "Letterbox 1280x720 -> 640x640 - Resize and pad: "
+                        + MathUtils.roundTo(copyMillis, 3)
+                        + "ms, Into buffer: "
+                        + MathUtils.roundTo(bufferMillis, 3)
+                        + "ms");
+
+        frame.release();
+        letterboxed.release();
+        buffer.release();
+    }
+
     static <P extends CVPipeline<?, ?>> void benchmarkPipeline(
             FrameProvider frameProvider, P pipeline, int secondsToRun) {
         // warmup for 5 loops.
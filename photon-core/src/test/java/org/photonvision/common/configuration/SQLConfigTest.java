@@ -19,6 +19,7 @@ package org.photonvision.common.configuration;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import io.avaje.json.JsonDataException;
@@ -31,10 +32,17 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.Point;
+import org.opencv.core.Point3;
+import org.opencv.core.Size;
 import org.photonvision.common.LoadJNI;
 import org.photonvision.common.configuration.NeuralNetworkModelManager.Family;
 import org.photonvision.common.hardware.Platform;
 import org.photonvision.common.util.TestUtils;
+import org.photonvision.vision.calibration.BoardObservation;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
+import org.photonvision.vision.calibration.CameraLensModel;
+import org.photonvision.vision.calibration.JsonMatOfDouble;
 import org.photonvision.vision.camera.PVCameraInfo;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.pipeline.AdvancedPipelineSettings;
@@ -44,6 +52,7 @@ import org.photonvision.vision.pipeline.ColoredShapePipelineSettings;
 import org.photonvision.vision.pipeline.ObjectDetectionPipelineSettings;
 import org.photonvision.vision.pipeline.PipelineType;
 import org.photonvision.vision.pipeline.ReflectivePipelineSettings;
+import org.wpilib.math.geometry.Pose3d;
 import org.wpilib.vision.camera.UsbCameraInfo;
 
 public class SQLConfigTest {
@@ -95,6 +104,82 @@ public class SQLConfigTest {
         assertEquals(cfgLoader.getConfig().getNetworkConfig().ntServerAddress, "5940");
     }
 
+    @Test
+    public void testCalibrationObservationsLoadedLazily() {
+        var cfgLoader = new SqlConfigProvider(tmpDir);
+        cfgLoader.load();
+
+        var testCamCfg =
+                new CameraConfiguration(
+                        PVCameraInfo.fromUsbCameraInfo(
+                                new UsbCameraInfo(0, "/dev/videoN", "some_name", new String[0], -1, 01)));
+        var observation =
+                new BoardObservation(
+                        List.of(new Point3(0, 0, 0)),
+                        List.of(new Point(12, 34)),
+                        List.of(new Point(0.1, 0.2)),
+                        new Pose3d(),
+                        new boolean[] {true},
+                        "img0.png",
+                        Path.of("img0.png"));
+        testCamCfg.addCalibration(
+                new CameraCalibrationCoefficients(
+                        new Size(640, 480),
+                        new JsonMatOfDouble(3, 3, new double[] {500, 0, 320, 0, 500, 240, 0, 0, 1}),
+                        new JsonMatOfDouble(1, 5, new double[5]),
+                        new double[0],
+                        List.of(observation),
+                        new Size(8, 8),
+                        0.0254,
+                        CameraLensModel.LENSMODEL_OPENCV));
+
+        cfgLoader.getConfig().addCameraConfig(testCamCfg);
+        cfgLoader.saveToDisk();
+
+        // Once saved, observations should no longer be held by the calibration
+        assertTrue(testCamCfg.calibrations.get(0).hasObservationLoader());
+
+        cfgLoader.load();
+        var calibration =
+                cfgLoader
+                        .getConfig()
+                        .getCameraConfigurations()
+                        .get(testCamCfg.uniqueName)
+                        .calibrations
+                        .get(0);
+        assertTrue(calibration.hasObservationLoader());
+
+        // The UI's view comes from the saved summary, without loading observations
+        calibration.setObservationLoader(
+                () -> {
+                    throw new AssertionError("Observations loaded for the UI");
+                });
+        var uiView =
+                cfgLoader
+                        .getConfig()
+                        .getCameraConfigurations()
+                        .get(testCamCfg.uniqueName)
+                        .toUiConfig()
+                        .calibrations
+                        .get(0);
+        assertEquals(1, uiView.numSnapshots);
+        assertEquals(List.of(0), uiView.numMissing);
+
+        cfgLoader.load();
+        calibration =
+                cfgLoader
+                        .getConfig()
+                        .getCameraConfigurations()
+                        .get(testCamCfg.uniqueName)
+                        .calibrations
+                        .get(0);
+        var loaded = calibration.getObservations();
+        assertEquals(1, loaded.size());
+        assertEquals(12, loaded.get(0).locationInImageSpace.get(0).x);
+        assertEquals("img0.png", loaded.get(0).snapshotName);
+        assertEquals(1, calibration.cloneWithoutObservations().numSnapshots);
+    }
+
     void common2025p3p1Assertions(PhotonConfiguration config) {
         // Make sure we got 8 cameras
         assertEquals(8, config.getCameraConfigurations().size());
@@ -212,6 +297,6 @@ public class SQLConfigTest {
         assertEquals(720, camCfg.calibrations.get(0).resolution.height);
         assertEquals(
                 "C:\\Users\\matth\\Documents\\GitHub\\photonvision\\test\\photonvision_config\\calibration\\1414304b-6812-487a-ab5c-89ee70704fae\\imgs\\1280x720\\img0.png",
-                camCfg.calibrations.get(0).observations.get(0).snapshotDataLocation.toString());
+                camCfg.calibrations.get(0).getObservations().get(0).snapshotDataLocation.toString());
     }
 }
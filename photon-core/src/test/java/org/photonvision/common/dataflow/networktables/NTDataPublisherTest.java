@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.networktables;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.photonvision.jni.LibraryLoader;
+import org.photonvision.vision.pipeline.result.CVPipelineResult;
+import org.wpilib.hardware.hal.HAL;
+import org.wpilib.networktables.NetworkTable;
+import org.wpilib.networktables.NetworkTableInstance;
+
+public class NTDataPublisherTest {
+    private static final String kNickname = "publisherTest";
+
+    NetworkTableInstance inst = null;
+
+    @BeforeAll
+    public static void init() throws IOException {
+        if (!LibraryLoader.loadWpiLibraries()) {
+            fail();
+        }
+
+        if (!LibraryLoader.loadTargeting()) {
+            fail();
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        inst = NetworkTablesManager.getInstance().getNTInst();
+        inst.stopClient();
+        inst.stopServer();
+        inst.startLocal();
+    }
+
+    @AfterEach
+    public void teardown() {
+        HAL.shutdown();
+    }
+
+    private static CVPipelineResult result(long sequenceID) {
+        return new CVPipelineResult(sequenceID, 0, 0, List.of(), null);
+    }
+
+    @Test
+    public void testSkipsUnchangedValues() {
+        var pipelineIndex = new AtomicInteger(0);
+        var publisher =
+                new NTDataPublisher(
+                        kNickname,
+                        pipelineIndex::get,
+                        i -> {},
+                        () -> false,
+                        b -> {},
+                        () -> -1,
+                        i -> {},
+                        () -> true,
+                        b -> {},
+                        i -> {},
+                        new ResultHistory());
+        NetworkTable table = NetworkTablesManager.getInstance().kRootTable.getSubTable(kNickname);
+        var indexTopic = table.getIntegerTopic("pipelineIndexState");
+        var driverModeTopic = table.getBooleanTopic("driverMode");
+
+        try (var indexSub = indexTopic.subscribe(-1);
+                var driverModeSub = driverModeTopic.subscribe(true);
+                var heartbeatSub = table.getIntegerTopic("heartbeat").subscribe(-1);
+                var otherIndexPub = indexTopic.publish();
+                var otherDriverModePub = driverModeTopic.publish()) {
+            publisher.accept(result(1));
+            assertEquals(0, indexSub.get());
+            assertFalse(driverModeSub.get());
+
+            // Overwrite what was published. Values that haven't changed aren't sent again, so these
+            // stick around even though the next frame is published.
+            otherIndexPub.set(5);
+            otherDriverModePub.set(true);
+            publisher.accept(result(2));
+            assertEquals(2, heartbeatSub.get());
+            assertEquals(5, indexSub.get());
+            assertTrue(driverModeSub.get());
+
+            // A change is published straight away
+            pipelineIndex.set(1);
+            publisher.accept(result(3));
+            assertEquals(1, indexSub.get());
+            assertTrue(driverModeSub.get());
+
+            // Remaking the topics forgets what was sent, so everything is published once more
+            publisher.updateCameraNickname(kNickname);
+            publisher.accept(result(4));
+            assertEquals(4, heartbeatSub.get());
+            assertEquals(1, indexSub.get());
+            assertFalse(driverModeSub.get());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.networktables;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class ResultHistoryTest {
+    private static byte[] result(int length, int fill) {
+        var data = new byte[length];
+        Arrays.fill(data, (byte) fill);
+        return data;
+    }
+
+    @Test
+    public void testQueryRange() {
+        var history = new ResultHistory(16, 1024);
+        for (int i = 0; i < 10; i++) history.add(1000 + i * 10, result(8, i));
+
+        var entries = history.query(1025, 1060);
+        assertEquals(4, entries.size());
+        assertEquals(1030, entries.get(0).captureTimestampMicros());
+        assertEquals(1060, entries.get(3).captureTimestampMicros());
+        assertArrayEquals(result(8, 3), entries.get(0).data());
+
+        assertEquals(10, history.query(0, Long.MAX_VALUE).size());
+        assertEquals(0, history.query(2000, 3000).size());
+        assertEquals(0, history.query(1060, 1050).size());
+    }
+
+    @Test
+    public void testQueryLimit() {
+        var history = new ResultHistory(16, 1024);
+        for (int i = 0; i < 10; i++) history.add(1000 + i * 10, result(8, i));
+
+        var entries = history.query(1025, 1080, 3);
+        assertEquals(3, entries.size());
+        assertEquals(1030, entries.get(0).captureTimestampMicros());
+        assertEquals(1050, entries.get(2).captureTimestampMicros());
+
+        // Paging on from the last one gets the rest
+        entries = history.query(entries.get(2).captureTimestampMicros() + 1, 1080, 3);
+        assertEquals(3, entries.size());
+        assertEquals(1060, entries.get(0).captureTimestampMicros());
+        assertEquals(1080, entries.get(2).captureTimestampMicros());
+
+        assertEquals(0, history.query(0, Long.MAX_VALUE, 0).size());
+    }
+
+    @Test
+    public void testEvictsOldestWhenIndexIsFull() {
+        var history = new ResultHistory(4, 1024);
+        for (int i = 0; i < 6; i++) history.add(i, result(8, i));
+
+        assertEquals(4, history.size());
+        assertEquals(2, history.getOldestTimestampMicros());
+        var entries = history.query(0, 10);
+        for (int i = 0; i < 4; i++) assertArrayEquals(result(8, i + 2), entries.get(i).data());
+    }
+
+    @Test
+    public void testEvictsOldestWhenBufferIsFull() {
+        var history = new ResultHistory(16, 32);
+        history.add(0, result(10, 0));
+        history.add(1, result(10, 1));
+        history.add(2, result(10, 2));
+        assertEquals(3, history.size());
+
+        // Doesn't fit in the last 2 bytes, so it wraps and overwrites the first result
+        history.add(3, result(10, 3));
+        assertEquals(3, history.size());
+        assertEquals(1, history.getOldestTimestampMicros());
+
+        // Needs the space of the next two
+        history.add(4, result(15, 4));
+        assertEquals(2, history.size());
+        var entries = history.query(0, 10);
+        assertArrayEquals(result(10, 3), entries.get(0).data());
+        assertArrayEquals(result(15, 4), entries.get(1).data());
+
+        // Too big to ever keep
+        history.add(5, result(33, 5));
+        assertEquals(2, history.size());
+    }
+
+    @Test
+    public void testStartsOverWhenTimeGoesBack() {
+        var history = new ResultHistory(16, 1024);
+        history.add(100, result(4, 0));
+        history.add(200, result(4, 1));
+        history.add(50, result(4, 2));
+
+        assertEquals(1, history.size());
+        assertEquals(50, history.getOldestTimestampMicros());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.hardware.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.photonvision.common.hardware.Platform;
+
+public class ProcfsSamplerTest {
+    @TempDir private Path root;
+
+    private Path proc;
+    private Path thermal;
+
+    private void writeStat(long user, long idle) throws IOException {
+        // Two CPUs
+        Files.writeString(
+                proc.resolve("stat"),
+                "cpu  "
+                        + user
+                        + " 0 0 "
+                        + idle
+                        + " 0 0 0 0 0 0\n"
+                        + "cpu0 0 0 0 0 0 0 0 0 0 0\n"
+                        + "cpu1 0 0 0 0 0 0 0 0 0 0\n"
+                        + "intr 12345\n");
+    }
+
+    private void writeTask(int tid, String comm, long utime, long stime) throws IOException {
+        var dir = Files.createDirectories(proc.resolve("self").resolve("task").resolve("" + tid));
+        Files.writeString(dir.resolve("comm"), comm + "\n");
+        Files.writeString(
+                dir.resolve("stat"),
+                tid
+                        + " ("
+                        + comm
+                        + ") S 1 1 1 0 -1 4194368 100 0 0 0 "
+                        + utime
+                        + " "
+                        + stime
+                        + " 0 0 20 0 1 0 100 0 0\n");
+    }
+
+    private ProcfsSampler setUp() throws IOException {
+        proc = Files.createDirectories(root.resolve("proc"));
+        thermal = Files.createDirectories(root.resolve("thermal"));
+
+        Files.writeString(
+                proc.resolve("meminfo"),
+                "MemTotal:        4194304 kB\nMemFree:          100000 kB\nMemAvailable:    3145728 kB\n");
+
+        var zone0 = Files.createDirectories(thermal.resolve("thermal_zone0"));
+        Files.writeString(zone0.resolve("type"), "gpu-thermal\n");
+        Files.writeString(zone0.resolve("temp"), "30000\n");
+        var zone1 = Files.createDirectories(thermal.resolve("thermal_zone1"));
+        Files.writeString(zone1.resolve("type"), "cpu-thermal\n");
+        Files.writeString(zone1.resolve("temp"), "45500\n");
+
+        writeStat(0, 0);
+        writeTask(100, "java", 0, 0);
+        writeTask(101, "VisionRunner - ", 0, 0);
+
+        return new ProcfsSampler(proc, thermal, "bigcore0-thermal, cpu-thermal");
+    }
+
+    @Test
+    public void testSampling() throws IOException {
+        try (var sampler = setUp()) {
+            ProcfsSampler.labelThread(101, "VisionRunner - Front Camera");
+            sampler.sampleIfOlderThan(0);
+
+            assertEquals(4096, sampler.getTotalMemory(), 1e-6);
+            assertEquals(1024, sampler.getUsedMemory(), 1e-6);
+            assertTrue(sampler.hasTemperature());
+            assertEquals(45.5, sampler.getCpuTemperature(), 1e-6);
+            // Nothing to compare against yet
+            assertTrue(sampler.getThreadCpuUsage().isEmpty());
+
+            // 200 ticks pass on each of the two CPUs, a quarter of them busy
+            writeStat(100, 300);
+            writeTask(101, "VisionRunner - ", 120, 30);
+            writeTask(102, "NTWorker", 0, 0);
+            Files.writeString(thermal.resolve("thermal_zone1").resolve("temp"), "50000\n");
+            sampler.sampleIfOlderThan(0);
+
+            assertEquals(25, sampler.getCpuUsage(), 1e-6);
+            assertEquals(50, sampler.getCpuTemperature(), 1e-6);
+
+            var usage = sampler.getThreadCpuUsage();
+            // The new thread doesn't have a usage until its second sample
+            assertEquals(2, usage.size());
+            assertEquals("VisionRunner - Front Camera", usage.get(0).name());
+            assertEquals(75, usage.get(0).cpuPercent(), 1e-6);
+            assertEquals("java", usage.get(1).name());
+            assertEquals(0, usage.get(1).cpuPercent(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testParseTaskTicksWithAwkwardName() {
+        // Thread names may contain spaces and parentheses
+        assertEquals(
+                35,
+                ProcfsSampler.parseTaskTicks(
+                        "42 (Foo) (bar) baz) R 1 1 1 0 -1 4194368 100 0 0 0 30 5 0 0 20 0 1 0 100 0 0"));
+    }
+
+    @Test
+    public void testRealProcfs() {
+        assumeTrue(Platform.isLinux());
+
+        try (var sampler = ProcfsSampler.open("")) {
+            assertNotNull(sampler);
+            assertFalse(sampler.hasTemperature());
+            ProcfsSampler.labelCurrentThread("ProcfsSamplerTest");
+            sampler.sampleIfOlderThan(0);
+            sampler.sampleIfOlderThan(0);
+
+            assertTrue(sampler.getTotalMemory() > 0);
+            assertTrue(sampler.getUsedMemory() > 0);
+            assertTrue(
+                    sampler.getThreadCpuUsage().stream()
+                            .anyMatch(it -> it.name().equals("ProcfsSamplerTest")));
+        }
+    }
+}
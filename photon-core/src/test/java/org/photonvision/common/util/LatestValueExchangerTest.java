@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class LatestValueExchangerTest {
+    @Test
+    public void testNewerValuesReplaceUntaken() throws InterruptedException {
+        var dropped = new ArrayList<Integer>();
+        var exchanger = new LatestValueExchanger<Integer>(dropped::add);
+
+        exchanger.offer(1);
+        exchanger.offer(2);
+        exchanger.offer(3);
+        assertEquals(3, exchanger.take());
+        assertEquals(List.of(1, 2), dropped);
+
+        exchanger.offer(4);
+        exchanger.clear();
+        assertEquals(List.of(1, 2, 4), dropped);
+
+        assertEquals(1, exchanger.getTakenCount());
+        assertEquals(2, exchanger.getSupersededCount());
+    }
+
+    @Test
+    public void testTakeBlocksUntilOffered() throws InterruptedException {
+        var exchanger = new LatestValueExchanger<Integer>(it -> {});
+        var took = new AtomicInteger();
+        var done = new CountDownLatch(1);
+        var taker =
+                new Thread(
+                        () -> {
+                            try {
+                                took.set(exchanger.take());
+                                done.countDown();
+                            } catch (InterruptedException e) {
+                                // Not expected
+                            }
+                        });
+        taker.start();
+
+        assertFalse(done.await(50, TimeUnit.MILLISECONDS));
+        exchanger.offer(7);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(7, took.get());
+    }
+
+    @Test
+    public void testInterruptWakesTake() throws InterruptedException {
+        var exchanger = new LatestValueExchanger<Integer>(it -> {});
+        var interrupted = new CountDownLatch(1);
+        var taker =
+                new Thread(
+                        () -> {
+                            try {
+                                exchanger.take();
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                            }
+                        });
+        taker.start();
+        taker.interrupt();
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.photonvision.common.util.StartupOrchestrator.StepState;
+
+public class StartupOrchestratorTest {
+    private static StepState stateOf(StartupOrchestrator orchestrator, String name) {
+        return orchestrator.getTimeline().stream()
+                .filter(it -> it.name().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .state();
+    }
+
+    @Test
+    public void independentStepsRunConcurrently() {
+        // Both steps wait for each other, so this only completes if they run at the same time
+        var latch = new CountDownLatch(2);
+        StartupOrchestrator.StartupAction waitForOther =
+                () -> {
+                    latch.countDown();
+                    return latch.await(5, TimeUnit.SECONDS);
+                };
+
+        var orchestrator =
+                new StartupOrchestrator(2)
+                        .addStep("a", List.of(), waitForOther)
+                        .addStep("b", List.of(), waitForOther);
+
+        assertTrue(orchestrator.run());
+        assertEquals(StepState.SUCCEEDED, stateOf(orchestrator, "a"));
+        assertEquals(StepState.SUCCEEDED, stateOf(orchestrator, "b"));
+    }
+
+    @Test
+    public void dependenciesRunFirst() {
+        var firstDone = new AtomicBoolean(false);
+        var orchestrator =
+                new StartupOrchestrator(4)
+                        .addStep(
+                                "first",
+                                List.of(),
+                                () -> {
+                                    Thread.sleep(20);
+                                    firstDone.set(true);
+                                    return true;
+                                })
+                        .addStep("second", List.of("first"), firstDone::get);
+
+        assertTrue(orchestrator.run());
+
+        var timeline = orchestrator.getTimeline();
+        assertEquals("first", timeline.get(0).name());
+        assertTrue(
+                timeline.get(1).startMs() >= timeline.get(0).startMs() + timeline.get(0).durationMs());
+    }
+
+    @Test
+    public void failureSkipsDependents() {
+        var orchestrator =
+                new StartupOrchestrator(2)
+                        .addStep("ok", List.of(), () -> true)
+                        .addStep(
+                                "broken",
+                                List.of("ok"),
+                                () -> {
+                                    throw new IllegalStateException("nope");
+                                })
+                        .addStep("dependent", List.of("broken"), () -> true)
+                        .addStep("unrelated", List.of("ok"), () -> true);
+
+        assertFalse(orchestrator.run());
+        assertEquals(StepState.SUCCEEDED, stateOf(orchestrator, "ok"));
+        assertEquals(StepState.FAILED, stateOf(orchestrator, "broken"));
+        assertEquals(StepState.SKIPPED, stateOf(orchestrator, "dependent"));
+        assertEquals(StepState.SUCCEEDED, stateOf(orchestrator, "unrelated"));
+    }
+
+    @Test
+    public void unknownDependencyRejected() {
+        var orchestrator = new StartupOrchestrator(1);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> orchestrator.addStep("a", List.of("not-added-yet"), () -> true));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+public class TimestampedByteRingTest {
+    @Test
+    public void testKeepsOnlyTheUsedPartOfAnArray() {
+        var ring = new TimestampedByteRing(8, 64);
+        var scratch = new byte[] {1, 2, 3, 4, 5, 6};
+        ring.add(10, scratch, 4);
+        scratch[0] = 9;
+
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, ring.query(0, 100).get(0).data());
+        assertEquals(4, ring.bytesUsed());
+        assertFalse(ring.add(20, new byte[65]));
+    }
+
+    @Test
+    public void testEvictBefore() {
+        var ring = new TimestampedByteRing(8, 64);
+        for (int i = 0; i < 5; i++) ring.add(i * 10, new byte[4]);
+        assertEquals(20, ring.bytesUsed());
+
+        ring.evictBefore(25);
+        assertEquals(2, ring.size());
+        assertEquals(30, ring.getOldestTimestamp());
+        assertEquals(40, ring.getNewestTimestamp());
+        assertEquals(8, ring.bytesUsed());
+
+        ring.clear();
+        assertEquals(0, ring.bytesUsed());
+        assertEquals(-1, ring.getNewestTimestamp());
+    }
+
+    @Test
+    public void testBytesUsedFollowsEviction() {
+        var ring = new TimestampedByteRing(3, 64);
+        for (int i = 0; i < 5; i++) ring.add(i, new byte[i + 1]);
+        // Only the last three, of 3, 4 and 5 bytes
+        assertEquals(12, ring.bytesUsed());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.configuration.FrameRecorderSettings;
+import org.photonvision.common.dataflow.networktables.NetworkTablesManager;
+import org.photonvision.jni.LibraryLoader;
+import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.FrameStaticProperties;
+import org.photonvision.vision.frame.FrameThresholdType;
+import org.photonvision.vision.frame.provider.ReplayFrameProvider;
+import org.photonvision.vision.opencv.CVMat;
+import org.wpilib.hardware.hal.HAL;
+import org.wpilib.networktables.NetworkTableInstance;
+
+public class FrameRecorderTest {
+    private static final long kFrameNanos = 100_000_000L;
+
+    NetworkTableInstance inst = null;
+    private String cameraUniqueName;
+    private FrameRecorder recorder;
+
+    @BeforeAll
+    public static void init() throws IOException {
+        if (!LibraryLoader.loadWpiLibraries()) {
+            fail();
+        }
+
+        if (!LibraryLoader.loadTargeting()) {
+            fail();
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        inst = NetworkTablesManager.getInstance().getNTInst();
+        inst.stopClient();
+        inst.stopServer();
+        inst.startLocal();
+
+        cameraUniqueName = "recorder_test_" + UUID.randomUUID();
+        recorder = new FrameRecorder("recorderTest", cameraUniqueName);
+    }
+
+    @AfterEach
+    public void teardown() {
+        recorder.release();
+        HAL.shutdown();
+    }
+
+    private static FrameRecorderSettings settings(double seconds, int maxMegabytes, int quality) {
+        var settings = new FrameRecorderSettings();
+        settings.enabled = true;
+        settings.seconds = seconds;
+        settings.maxMegabytes = maxMegabytes;
+        settings.jpegQuality = quality;
+        return settings;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Timed out waiting for the recorder");
+            Thread.sleep(5);
+        }
+    }
+
+    /** Record a frame of noise, and wait for it to be encoded */
+    private void record(int index, int width, int height) throws Exception {
+        var mat = new Mat(height, width, CvType.CV_8UC3);
+        Core.randu(mat, 0, 256);
+        var frame =
+                new Frame(
+                        index,
+                        new CVMat(mat),
+                        new CVMat(),
+                        FrameThresholdType.NONE,
+                        (index + 1) * kFrameNanos,
+                        new FrameStaticProperties(width, height, 70, null));
+        recorder.recordInput(frame, List.of());
+        // The frame is copied, so it can go straight away
+        frame.release();
+        recorder.awaitEncoded();
+    }
+
+    @Test
+    public void testTriggerSavesRecording() throws Exception {
+        recorder.setSettings(settings(1, 4, 75));
+        for (int i = 0; i < 20; i++) record(i, 160, 120);
+
+        // Only a second's worth, at 10 fps
+        var stats = recorder.getStats();
+        assertEquals(11, stats.inputFrames());
+        assertEquals(1.0, stats.secondsHeld(), 1e-6);
+        assertEquals(0, stats.droppedFrames());
+
+        // Saved along with the next frame
+        recorder.trigger("test");
+        record(20, 160, 120);
+        assertEquals(1, recorder.getStats().recordings());
+        await(() -> !recorder.getStats().saving());
+
+        Path recording;
+        try (var dirs =
+                Files.list(ConfigManager.getInstance().getImageSavePath().resolve(cameraUniqueName))) {
+            var found = dirs.toList();
+            assertEquals(1, found.size());
+            recording = found.get(0);
+        }
+        assertTrue(recording.getFileName().toString().startsWith("recording_"));
+        assertTrue(recording.getFileName().toString().endsWith("_test"));
+
+        var input = recording.resolve("input");
+        var timestamps = Files.readAllLines(input.resolve(ReplayFrameProvider.kTimestampsFile));
+        assertEquals(11, timestamps.size());
+        for (var line : timestamps) {
+            assertTrue(Files.size(input.resolve(line.split(",")[0])) > 0);
+        }
+        assertEquals("frame_00010.jpg," + 21 * kFrameNanos, timestamps.get(10));
+    }
+
+    @Test
+    public void testStaysUnderByteCap() throws Exception {
+        // Noise barely compresses, so only a few of these fit in a megabyte
+        recorder.setSettings(settings(60, 1, 100));
+        for (int i = 0; i < 20; i++) record(i, 320, 240);
+
+        var stats = recorder.getStats();
+        assertEquals(1 << 20, stats.maxBytes());
+        assertTrue(stats.bytesUsed() <= stats.maxBytes());
+        assertTrue(stats.inputFrames() > 0 && stats.inputFrames() < 20, stats.toString());
+        // The newest frames are the ones kept
+        assertEquals((stats.inputFrames() - 1) * kFrameNanos / 1e9, stats.secondsHeld(), 1e-6);
+    }
+
+    @Test
+    public void testSettingsAreClamped() {
+        var settings = new FrameRecorderSettings();
+        settings.seconds = Double.NaN;
+        settings.maxMegabytes = 4096;
+        settings.jpegQuality = 150;
+        settings.ambiguityTrigger = -1;
+
+        var clamped = settings.clamped();
+        assertEquals(10, clamped.seconds);
+        assertEquals(FrameRecorderSettings.kMaxMegabytes, clamped.maxMegabytes);
+        assertEquals(100, clamped.jpegQuality);
+        assertEquals(0, clamped.ambiguityTrigger);
+
+        settings.seconds = 0;
+        settings.maxMegabytes = -5;
+        settings.jpegQuality = -1;
+        clamped = settings.clamped();
+        assertEquals(FrameRecorderSettings.kMinSeconds, clamped.seconds);
+        assertEquals(FrameRecorderSettings.kMinMegabytes, clamped.maxMegabytes);
+        assertEquals(0, clamped.jpegQuality);
+    }
+}
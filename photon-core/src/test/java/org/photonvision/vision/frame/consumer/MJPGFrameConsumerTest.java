@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.photonvision.common.LoadJNI;
+
+public class MJPGFrameConsumerTest {
+    private static final long kUncapped = MJPGFrameConsumer.framePeriodNs(-1);
+    private static final long k30FpsPeriod = MJPGFrameConsumer.framePeriodNs(30);
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void testNoViewersMeansNoFrameDue() {
+        assertFalse(MJPGFrameConsumer.isFrameDue(false, 0, kUncapped));
+        assertFalse(MJPGFrameConsumer.isFrameDue(false, Long.MAX_VALUE, k30FpsPeriod));
+    }
+
+    @Test
+    public void testUncappedIsAlwaysDue() {
+        assertTrue(MJPGFrameConsumer.isFrameDue(true, 0, kUncapped));
+        assertTrue(MJPGFrameConsumer.isFrameDue(true, 1, kUncapped));
+    }
+
+    @Test
+    public void testCapSpacesFrames() {
+        assertFalse(MJPGFrameConsumer.isFrameDue(true, 0, k30FpsPeriod));
+        assertFalse(MJPGFrameConsumer.isFrameDue(true, k30FpsPeriod, k30FpsPeriod));
+        assertTrue(MJPGFrameConsumer.isFrameDue(true, k30FpsPeriod + 1, k30FpsPeriod));
+    }
+
+    @Test
+    public void testCapFollowsCameraRate() {
+        long cameraPeriod = Math.round(1e9 / 30);
+        // Frames straight from a 30 FPS camera all go out, even ones that come a little early
+        assertTrue(MJPGFrameConsumer.isFrameDue(true, cameraPeriod, k30FpsPeriod));
+        assertTrue(MJPGFrameConsumer.isFrameDue(true, cameraPeriod * 95 / 100, k30FpsPeriod));
+        // But frames coming twice as fast are halved
+        assertFalse(MJPGFrameConsumer.isFrameDue(true, cameraPeriod / 2, k30FpsPeriod));
+        assertTrue(kUncapped < 0);
+        assertTrue(MJPGFrameConsumer.framePeriodNs(0) < 0);
+    }
+
+    @Test
+    public void testUnwatchedStream() {
+        try (var consumer = new MJPGFrameConsumer("mjpgTest", 1199)) {
+            // The server only enables its source once a client connects
+            assertFalse(consumer.hasViewers());
+            assertFalse(consumer.isFrameDue());
+            consumer.setMaxFramerate(30);
+            assertFalse(consumer.isFrameDue());
+        }
+    }
+}
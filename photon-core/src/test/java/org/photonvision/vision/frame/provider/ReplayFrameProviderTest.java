@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.provider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.common.util.TestUtils;
+import org.photonvision.vision.frame.provider.ReplayFrameProvider.ReplayMode;
+
+public class ReplayFrameProviderTest {
+    @TempDir Path recording;
+
+    @BeforeAll
+    public static void initPath() {
+        LoadJNI.loadLibraries();
+    }
+
+    /** Three 320x240 frames captured 50ms apart */
+    private void record() throws IOException {
+        record("");
+    }
+
+    private void record(String header) throws IOException {
+        var images =
+                new TestUtils.WPI2019Image[] {
+                    TestUtils.WPI2019Image.kCargoStraightDark72in,
+                    TestUtils.WPI2019Image.kCargoAngledDark48in,
+                    TestUtils.WPI2019Image.kCargoSideStraightDark36in
+                };
+        var timestamps = new StringBuilder(header);
+        for (int i = 0; i < images.length; i++) {
+            var name = "frame" + i + ".jpg";
+            Files.copy(TestUtils.getWPIImagePath(images[i], false), recording.resolve(name));
+            timestamps.append(name).append(",").append(1_000_000_000L + i * 50_000_000L).append("\n");
+        }
+        Files.writeString(recording.resolve(ReplayFrameProvider.kTimestampsFile), timestamps);
+    }
+
+    @Test
+    public void testFreeRunningLoops() throws IOException {
+        record();
+
+        try (var provider = new ReplayFrameProvider(recording, 68.5, null, ReplayMode.FREE_RUNNING)) {
+            for (int i = 0; i < 7; i++) {
+                try (var frame = provider.get()) {
+                    assertEquals(320, frame.colorImage.getMat().cols());
+                    assertEquals(240, frame.colorImage.getMat().rows());
+                }
+                assertEquals(
+                        1_000_000_000L + (i % 3) * 50_000_000L, provider.getLastSourceTimestampNanos());
+                assertEquals(i / 3, provider.getLoopCount());
+            }
+        }
+    }
+
+    @Test
+    public void testRealTimeKeepsOriginalSpacing() throws IOException {
+        record();
+
+        try (var provider = new ReplayFrameProvider(recording, 68.5, null, ReplayMode.REAL_TIME)) {
+            long first;
+            try (var frame = provider.get()) {
+                first = frame.timestampNanos;
+            }
+            for (int i = 1; i < 3; i++) {
+                try (var frame = provider.get()) {
+                    assertEquals(i * 50_000_000L, frame.timestampNanos - first);
+                }
+            }
+            assertEquals(0, provider.getDroppedFrames());
+        }
+    }
+
+    @Test
+    public void testRealTimeResumesAfterPause() throws Exception {
+        record();
+
+        try (var provider = new ReplayFrameProvider(recording, 68.5, null, ReplayMode.REAL_TIME)) {
+            // Like the first frame FileVisionSource takes, long before the pipeline starts
+            provider.get().release();
+            Thread.sleep(ReplayFrameProvider.kResyncNanos / 1_000_000 + 100);
+
+            // Picks up where it left off, rather than skipping the frames it would have missed
+            long second;
+            try (var frame = provider.get()) {
+                second = frame.timestampNanos;
+            }
+            assertEquals(1_050_000_000L, provider.getLastSourceTimestampNanos());
+            try (var frame = provider.get()) {
+                assertEquals(50_000_000L, frame.timestampNanos - second);
+            }
+            assertEquals(0, provider.getDroppedFrames());
+        }
+    }
+
+    @Test
+    public void testTimestampsHeaderIsSkipped() throws IOException {
+        record("file,timestamp\n");
+
+        try (var provider = new ReplayFrameProvider(recording, 68.5, null, ReplayMode.FREE_RUNNING)) {
+            for (int i = 0; i < 3; i++) {
+                provider.get().release();
+                assertEquals(1_000_000_000L + i * 50_000_000L, provider.getLastSourceTimestampNanos());
+            }
+        }
+    }
+
+    @Test
+    public void testRecordingGoneReportsDisconnected() throws IOException {
+        record();
+
+        try (var provider = new ReplayFrameProvider(recording, 68.5, null, ReplayMode.FREE_RUNNING)) {
+            for (int i = 0; i < 3; i++) {
+                Files.delete(recording.resolve("frame" + i + ".jpg"));
+            }
+
+            // Frames already decoded still come out, then empty ones rather than blocking forever
+            assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> {
+                        while (true) {
+                            try (var frame = provider.get()) {
+                                if (frame.colorImage.getMat().empty()) break;
+                            }
+                        }
+                    });
+            assertFalse(provider.isConnected());
+        }
+    }
+
+    @Test
+    public void testMissingRecording() {
+        assertThrows(
+                RuntimeException.class,
+                () -> new ReplayFrameProvider(Path.of("bad"), 68.5, null, ReplayMode.FREE_RUNNING));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class DetectionPostProcessorTest {
+    private static final Letterbox kNoScale = new Letterbox(0, 0, 1);
+
+    @Test
+    public void testSuppressesWithinClass() {
+        var processor = new DetectionPostProcessor();
+        processor.add(100, 100, 50, 50, 0, 0.8);
+        // Mostly overlaps the first, but is less confident
+        processor.add(105, 102, 50, 50, 0, 0.7);
+        // Overlaps just as much, but is something else
+        processor.add(104, 101, 50, 50, 1, 0.6);
+        // Same class, but far away
+        processor.add(300, 300, 50, 50, 0, 0.95);
+        // Not confident enough
+        processor.add(10, 10, 20, 20, 2, 0.2);
+
+        var kept = processor.process(new DetectionParams(0.5, 0.45), kNoScale);
+
+        assertEquals(3, kept.size());
+        assertEquals(0.95, kept.get(0).confidence());
+        assertEquals(0.8, kept.get(1).confidence());
+        assertEquals(1, kept.get(2).classIdx());
+        assertEquals(125, kept.get(1).bbox().center.x, 1e-4);
+        assertEquals(125, kept.get(1).bbox().center.y, 1e-4);
+
+        // Boxes are forgotten once cleared
+        processor.clear();
+        assertEquals(0, processor.process(new DetectionParams(0.5, 0.45), kNoScale).size());
+    }
+
+    @Test
+    public void testClassConfidenceAndTopK() {
+        var processor = new DetectionPostProcessor();
+        for (int i = 0; i < 50; i++) {
+            processor.add(i * 20, 0, 10, 10, i % 2, 0.305 + i * 0.01);
+        }
+
+        // Class 1 may be less confident than class 0
+        var params = new DetectionParams(0.5, 0.45, new double[] {-1, 0.3}, 0);
+        var kept = processor.process(params, kNoScale);
+        // Class 0 from 0.5, and all of class 1
+        assertEquals(15 + 25, kept.size());
+        for (int i = 1; i < kept.size(); i++) {
+            assertTrue(kept.get(i - 1).confidence() >= kept.get(i).confidence());
+        }
+
+        // Only the most confident are kept
+        var top = processor.process(new DetectionParams(0.3, 0.45, null, 3), kNoScale);
+        assertEquals(3, top.size());
+        assertEquals(0.795, top.get(0).confidence(), 1e-9);
+        assertEquals(0.775, top.get(2).confidence(), 1e-9);
+    }
+
+    @Test
+    public void testMapsToFrame() {
+        var processor = new DetectionPostProcessor();
+        processor.add(100, 200, 50, 20, 3, 0.8);
+
+        // A 1280x720 frame is halved, and padded by 140 pixels on the top and bottom
+        var detection =
+                processor.process(new DetectionParams(0.5, 0.45), new Letterbox(0, 140, 0.5)).get(0);
+
+        assertEquals(250, detection.bbox().center.x, 1e-4);
+        assertEquals(140, detection.bbox().center.y, 1e-4);
+        assertEquals(100, detection.bbox().size.width, 1e-4);
+        assertEquals(40, detection.bbox().size.height, 1e-4);
+        assertEquals(3, detection.classIdx());
+    }
+}
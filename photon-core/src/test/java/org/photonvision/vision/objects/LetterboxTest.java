@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect2d;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+
+public class LetterboxTest {
+    private static final Size kInputSize = new Size(640, 640);
+    private static final Scalar kGray = new Scalar(128, 128, 128);
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void testMatchesLetterbox() {
+        var buffer = new LetterboxBuffer(kInputSize, kGray);
+        var expected = new Mat();
+        var diff = new Mat();
+
+        // Wide, tall, already the right size, and back to wide again to check the padding is redone
+        int[][] sizes = {{1280, 720}, {480, 640}, {640, 640}, {1280, 720}, {1281, 721}};
+        for (var size : sizes) {
+            var frame = new Mat(size[1], size[0], CvType.CV_8UC3);
+            Core.randu(frame, 0, 255);
+
+            var expectedScale = Letterbox.letterbox(frame, expected, kInputSize, kGray);
+            var scale = buffer.letterbox(frame);
+
+            assertEquals(kInputSize, buffer.getMat().size());
+            Core.absdiff(expected, buffer.getMat(), diff);
+            assertEquals(0, Core.norm(diff, Core.NORM_INF), "Mismatch at " + size[0] + "x" + size[1]);
+
+            assertEquals(expectedScale.dx, scale.dx);
+            assertEquals(expectedScale.dy, scale.dy);
+            assertEquals(expectedScale.scale, scale.scale);
+
+            frame.release();
+        }
+
+        buffer.release();
+        expected.release();
+        diff.release();
+    }
+
+    @Test
+    public void testResizeDetection() {
+        // A 1280x720 frame is halved, and padded by 140 pixels on the top and bottom
+        var scale = new Letterbox(0, 140, 0.5);
+        var resized =
+                scale.resizeDetection(new NeuralNetworkPipeResult(new Rect2d(100, 200, 50, 20), 3, 0.8));
+
+        assertEquals(250, resized.bbox().center.x, 1e-9);
+        assertEquals(140, resized.bbox().center.y, 1e-9);
+        assertEquals(100, resized.bbox().size.width, 1e-9);
+        assertEquals(40, resized.bbox().size.height, 1e-9);
+        assertEquals(3, resized.classIdx());
+        assertEquals(0.8, resized.confidence());
+    }
+}
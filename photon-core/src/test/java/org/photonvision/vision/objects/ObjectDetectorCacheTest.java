@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Mat;
+import org.photonvision.common.configuration.NeuralNetworkModelManager.Family;
+import org.photonvision.common.configuration.NeuralNetworkModelsSettings.ModelProperties;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+
+public class ObjectDetectorCacheTest {
+    private static final DetectionParams kParams = new DetectionParams(0.25, 0.45);
+
+    /** A model that counts how many interpreters are alive, and can block detection */
+    private static class FakeModel implements Model {
+        final AtomicInteger loaded = new AtomicInteger();
+        final AtomicInteger alive = new AtomicInteger();
+        volatile CountDownLatch inDetect = null;
+        volatile CountDownLatch finishDetect = null;
+
+        @Override
+        public ObjectDetector load() {
+            loaded.incrementAndGet();
+            alive.incrementAndGet();
+            var model = this;
+            return new ObjectDetector() {
+                @Override
+                public Model getModel() {
+                    return model;
+                }
+
+                @Override
+                public List<String> getClasses() {
+                    return List.of();
+                }
+
+                @Override
+                public List<NeuralNetworkPipeResult> detect(Mat in, DetectionParams params) {
+                    var entered = inDetect;
+                    var finish = finishDetect;
+                    if (entered != null && finish != null) {
+                        entered.countDown();
+                        try {
+                            finish.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return List.of();
+                }
+
+                @Override
+                public void release() {
+                    alive.decrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public Path getPath() {
+            return Path.of("fake.tflite");
+        }
+
+        @Override
+        public String getNickname() {
+            return "Fake";
+        }
+
+        @Override
+        public Family getFamily() {
+            return Family.RUBIK;
+        }
+
+        @Override
+        public ModelProperties getProperties() {
+            return null;
+        }
+    }
+
+    @Test
+    public void testSharedAndLazy() {
+        var cache = new ObjectDetectorCache();
+        var model = new FakeModel();
+
+        var a = cache.acquire(model);
+        var b = cache.acquire(model);
+        assertSame(model, a.getModel());
+        // Nothing is loaded until we detect
+        assertEquals(0, model.loaded.get());
+
+        a.detect(null, kParams);
+        b.detect(null, kParams);
+        // Used one at a time, so both handles share one interpreter
+        assertEquals(1, model.loaded.get());
+
+        var stats = cache.getStats();
+        assertEquals(1, stats.size());
+        assertEquals(2, stats.get(0).references());
+        assertEquals(1, stats.get(0).instances());
+
+        a.release();
+        a.release(); // Releasing twice only drops one reference
+        assertEquals(1, model.alive.get());
+        b.release();
+        assertEquals(0, model.alive.get());
+        assertTrue(cache.getStats().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentInstances() throws InterruptedException {
+        var cache = new ObjectDetectorCache();
+        cache.setMaxInstancesPerModel(2);
+        var model = new FakeModel();
+        model.inDetect = new CountDownLatch(2);
+        model.finishDetect = new CountDownLatch(1);
+
+        var a = cache.acquire(model);
+        var b = cache.acquire(model);
+        var c = cache.acquire(model);
+
+        var threadA = new Thread(() -> a.detect(null, kParams));
+        var threadB = new Thread(() -> b.detect(null, kParams));
+        threadA.start();
+        threadB.start();
+
+        // Both cameras are detecting at the same time, on separate interpreters
+        assertTrue(model.inDetect.await(5, TimeUnit.SECONDS));
+        assertEquals(2, model.loaded.get());
+
+        // A third camera has to wait for one of them rather than loading another
+        var threadC = new Thread(() -> c.detect(null, kParams));
+        threadC.start();
+        Thread.sleep(100);
+        assertEquals(2, model.loaded.get());
+
+        model.finishDetect.countDown();
+        threadA.join(5000);
+        threadB.join(5000);
+        threadC.join(5000);
+        assertEquals(2, model.loaded.get());
+
+        a.release();
+        b.release();
+        c.release();
+        assertEquals(0, model.alive.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        var cache = new ObjectDetectorCache();
+        var model = new FakeModel();
+
+        var before = cache.acquire(model);
+        before.detect(null, kParams);
+
+        // e.g. the model file was replaced
+        cache.invalidate();
+        var after = cache.acquire(model);
+        after.detect(null, kParams);
+        assertEquals(2, model.loaded.get());
+
+        // The old interpreter lives until its last user is done with it
+        assertEquals(2, model.alive.get());
+        before.release();
+        assertEquals(1, model.alive.get());
+        after.release();
+        assertEquals(0, model.alive.get());
+    }
+}
@@ -18,9 +18,12 @@
 package org.photonvision.vision.pipeline;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.opencv.core.Point;
 import org.photonvision.common.LoadJNI;
 import org.photonvision.common.configuration.ConfigManager;
 import org.photonvision.common.util.TestUtils;
@@ -179,4 +182,85 @@ public class AprilTagTest {
             }
         }
     }
+
+    /** Where tag 1 was found in the image, and where it was solved to be */
+    private record Tag1Detection(List<Point> corners, Transform3d pose) {}
+
+    private static Tag1Detection detectTag1(
+            int decimate, boolean refineEdges, boolean refineCornersFullRes) {
+        try (var pipeline = new AprilTagPipeline()) {
+            pipeline.getSettings().solvePNPEnabled = true;
+            pipeline.getSettings().targetModel = TargetModel.kAprilTag6p5in_36h11;
+            pipeline.getSettings().tagFamily = AprilTagFamily.kTag36h11;
+            pipeline.getSettings().decimate = decimate;
+            pipeline.getSettings().refineEdges = refineEdges;
+            pipeline.getSettings().refineCornersFullRes = refineCornersFullRes;
+
+            try (var frameProvider =
+                    new FileFrameProvider(
+                            TestUtils.getApriltagImagePath(TestUtils.ApriltagTestImages.kTag1_640_480, false),
+                            TestUtils.WPI2020Image.FOV,
+                            TestUtils.get2020LifeCamCoeffs(false))) {
+                frameProvider.requestFrameThresholdType(pipeline.getThresholdType());
+
+                try (CVPipelineResult pipelineResult =
+                        pipeline.run(frameProvider.get(), QuirkyCamera.DefaultCamera)) {
+                    assertEquals(1, pipelineResult.targets.size());
+                    var target = pipelineResult.targets.get(0);
+                    return new Tag1Detection(
+                            List.copyOf(target.getTargetCorners()), target.getBestCameraToTarget3d());
+                }
+            }
+        }
+    }
+
+    private static double maxCornerError(List<Point> corners, List<Point> reference) {
+        double error = 0;
+        for (int i = 0; i < 4; i++) {
+            error =
+                    Math.max(
+                            error,
+                            Math.hypot(
+                                    corners.get(i).x - reference.get(i).x, corners.get(i).y - reference.get(i).y));
+        }
+        return error;
+    }
+
+    @Test
+    public void testCoarseToFineCorners() {
+        // Decimate 1 with edge refinement is as close to ground truth as we get
+        var reference = detectTag1(1, true, false);
+        var coarse = detectTag1(4, false, false);
+        var refined = detectTag1(4, false, true);
+
+        double coarseError = maxCornerError(coarse.corners(), reference.corners());
+        double refinedError = maxCornerError(refined.corners(), reference.corners());
+        System.out.println(
+                "Corner error at decimate 4: "
+                        + coarseError
+                        + " px coarse, "
+                        + refinedError
+                        + " px refined");
+
+        // Refining at full resolution gets close to what decimate 1 finds
+        assertTrue(refinedError < 1, "Refined corners are " + refinedError + " px off");
+        assertTrue(refinedError < coarseError);
+
+        // And the pose solved from them is at least as good
+        double coarsePoseError = poseError(coarse.pose(), reference.pose());
+        double refinedPoseError = poseError(refined.pose(), reference.pose());
+        System.out.println(
+                "Pose error at decimate 4: "
+                        + coarsePoseError
+                        + " m coarse, "
+                        + refinedPoseError
+                        + " m refined");
+        assertTrue(
+                refinedPoseError <= coarsePoseError,
+                "Refined pose is " + refinedPoseError + " m off, coarse " + coarsePoseError + " m");
+    }
+
+    private static double poseError(Transform3d pose, Transform3d reference) {
+        return pose.getTranslation().getDistance(reference.getTranslation());
+    }
 }
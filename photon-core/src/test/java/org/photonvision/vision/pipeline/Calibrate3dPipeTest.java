@@ -288,7 +288,7 @@ public class Calibrate3dPipeTest {
 
         // Confirm we have indeed gotten valid calibration objects
         assertNotNull(cal);
-        assertNotNull(cal.observations);
+        assertNotNull(cal.getObservations());
 
         // Confirm the calibrated center pixel is fairly close to of the "expected"
         // location at the
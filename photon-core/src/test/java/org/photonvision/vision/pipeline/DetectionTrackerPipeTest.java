@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Rect2d;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.pipe.impl.DetectionTrackerPipe;
+import org.photonvision.vision.pipe.impl.DetectionTrackerPipe.TrackerInput;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+
+public class DetectionTrackerPipeTest {
+    private DetectionTrackerPipe tracker;
+    private Mat texture;
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new DetectionTrackerPipe();
+        tracker.setParams(new DetectionTrackerPipe.DetectionTrackerParams(0.3, 0.6));
+
+        // Something with plenty of corners to follow
+        texture = new Mat(60, 60, CvType.CV_8UC3);
+        Core.setRNGSeed(42);
+        Core.randu(texture, 0, 255);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tracker.release();
+        texture.release();
+    }
+
+    private Mat imageWithObjectAt(int x, int y) {
+        var image = Mat.zeros(240, 320, CvType.CV_8UC3);
+        var roi = image.submat(new Rect(x, y, texture.cols(), texture.rows()));
+        texture.copyTo(roi);
+        roi.release();
+        return image;
+    }
+
+    private static NeuralNetworkPipeResult detection(double x, double y, int classIdx) {
+        return new NeuralNetworkPipeResult(new Rect2d(x, y, 60, 60), classIdx, 0.9);
+    }
+
+    @Test
+    public void testFollowsBetweenDetections() {
+        var first = imageWithObjectAt(100, 80);
+        var detected = tracker.run(new TrackerInput(first, List.of(detection(100, 80, 0)))).output;
+        assertEquals(1, detected.size());
+        int id = detected.get(0).trackId();
+
+        // The detector doesn't run on this frame, so the tracker has to follow the object
+        var second = imageWithObjectAt(106, 84);
+        var followed = tracker.run(new TrackerInput(second, null)).output;
+        assertEquals(1, followed.size());
+        assertEquals(id, followed.get(0).trackId());
+
+        var box = followed.get(0).detection().bbox();
+        assertEquals(136, box.center.x, 1.5);
+        assertEquals(114, box.center.y, 1.5);
+        assertEquals(60, box.size.width, 6);
+        // Confidence decays while we aren't detecting, but not enough to detect early yet
+        assertEquals(0.9 * 0.97, followed.get(0).detection().confidence(), 0.05);
+        assertFalse(tracker.needsDetection());
+
+        // The next detection continues the same track
+        var third = imageWithObjectAt(110, 86);
+        var redetected =
+                tracker.run(new TrackerInput(third, List.of(detection(110, 86, 0), detection(10, 10, 1))))
+                        .output;
+        assertEquals(2, redetected.size());
+        assertEquals(id, redetected.get(0).trackId());
+        assertNotEquals(id, redetected.get(1).trackId());
+
+        first.release();
+        second.release();
+        third.release();
+    }
+
+    @Test
+    public void testMissedTracksKeepTheirId() {
+        var image = imageWithObjectAt(100, 80);
+        int id =
+                tracker
+                        .run(new TrackerInput(image, List.of(detection(100, 80, 0))))
+                        .output
+                        .get(0)
+                        .trackId();
+
+        // One missed detection hides the track, but doesn't forget it
+        assertEquals(0, tracker.run(new TrackerInput(image, List.of())).output.size());
+        var back = tracker.run(new TrackerInput(image, List.of(detection(101, 80, 0)))).output;
+        assertEquals(1, back.size());
+        assertEquals(id, back.get(0).trackId());
+
+        // A detection of another class never continues it
+        tracker.reset();
+        var other = tracker.run(new TrackerInput(image, List.of(detection(100, 80, 1)))).output;
+        assertNotEquals(id, other.get(0).trackId());
+
+        image.release();
+    }
+}
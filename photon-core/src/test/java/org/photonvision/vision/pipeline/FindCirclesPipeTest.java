@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.opencv.CVShape;
+import org.photonvision.vision.opencv.Contour;
+import org.photonvision.vision.pipe.impl.FindCirclesPipe;
+import org.wpilib.math.util.Pair;
+
+public class FindCirclesPipeTest {
+    private static final Point[] kCenters = {new Point(80, 120), new Point(220, 110)};
+    private static final int[] kRadii = {30, 25};
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    private static List<CVShape> findCircles(boolean roi) {
+        var image = Mat.zeros(240, 320, CvType.CV_8UC1);
+        for (int i = 0; i < kCenters.length; i++) {
+            Imgproc.circle(image, kCenters[i], kRadii[i], new Scalar(255), -1);
+        }
+        // A square, which has a contour but no circle
+        Imgproc.rectangle(image, new Point(140, 190), new Point(170, 220), new Scalar(255), -1);
+
+        var points = new ArrayList<MatOfPoint>();
+        var hierarchy = new Mat();
+        Imgproc.findContours(
+                image, points, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        hierarchy.release();
+        var contours = new ArrayList<Contour>();
+        for (var p : points) contours.add(new Contour(p));
+
+        var pipe = new FindCirclesPipe();
+        pipe.setParams(
+                new FindCirclesPipe.FindCirclePipeParams(
+                        5, 5, 20, 20, 90, 20, Math.hypot(image.cols(), image.rows()), roi));
+        var shapes = new ArrayList<>(pipe.run(Pair.of(image, contours)).output);
+        shapes.sort(Comparator.comparingDouble(s -> s.center.x));
+
+        pipe.release();
+        image.release();
+        return shapes;
+    }
+
+    private static void assertFound(List<CVShape> shapes) {
+        assertEquals(kCenters.length, shapes.size());
+        for (int i = 0; i < kCenters.length; i++) {
+            var shape = shapes.get(i);
+            assertEquals(kCenters[i].x, shape.center.x, 2);
+            assertEquals(kCenters[i].y, shape.center.y, 2);
+            assertEquals(kRadii[i], shape.radius, 3);
+
+            var mu = shape.getContour().getMoments();
+            assertEquals(kCenters[i].x, mu.m10 / mu.m00, 1);
+            assertEquals(kCenters[i].y, mu.m01 / mu.m00, 1);
+        }
+    }
+
+    @Test
+    public void testWholeImage() {
+        assertFound(findCircles(false));
+    }
+
+    @Test
+    public void testRoi() {
+        assertFound(findCircles(true));
+    }
+
+    /** A 10x10 square contour centered on a point */
+    private static Contour squareAt(double x, double y) {
+        return new Contour(
+                new MatOfPoint(
+                        new Point(x - 5, y - 5),
+                        new Point(x + 5, y - 5),
+                        new Point(x + 5, y + 5),
+                        new Point(x - 5, y + 5)));
+    }
+
+    /** How many circles matching each to the first unmatched contour in range would match */
+    private static int greedyMatches(Mat circles, List<Contour> contours, int threshold) {
+        var unmatched = new ArrayList<>(contours);
+        int matches = 0;
+        for (int i = 0; i < circles.cols(); i++) {
+            double[] c = circles.get(0, i);
+            for (var contour : unmatched) {
+                var mu = contour.getMoments();
+                if (Math.abs(c[0] - mu.m10 / mu.m00) <= threshold
+                        && Math.abs(c[1] - mu.m01 / mu.m00) <= threshold) {
+                    unmatched.remove(contour);
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void testCirclesCompetingForContour() {
+        int threshold = 50;
+        var image = Mat.zeros(240, 320, CvType.CV_8UC1);
+        Imgproc.circle(image, new Point(100, 120), 30, new Scalar(255), -1);
+        Imgproc.circle(image, new Point(180, 120), 30, new Scalar(255), -1);
+        double diag = Math.hypot(image.cols(), image.rows());
+        var params =
+                new FindCirclesPipe.FindCirclePipeParams(threshold, 5, 20, 20, 90, 20, diag, false);
+
+        // Find out which circle HoughCircles gives first, the same way the pipe will
+        var circles = new Mat();
+        Imgproc.HoughCircles(
+                image,
+                circles,
+                Imgproc.HOUGH_GRADIENT,
+                1.0,
+                params.minDist(),
+                params.maxCannyThresh(),
+                params.accuracy(),
+                (int) (params.minRadius() * diag / 100.0),
+                (int) (params.maxRadius() * diag / 100.0));
+        assertEquals(2, circles.cols());
+        double firstX = circles.get(0, 0)[0];
+
+        // Halfway between the circles is in range of both. Below the first circle is in range of only
+        // that one. Listed first, the shared contour is what the first circle grabs greedily, which
+        // leaves the second circle with nothing.
+        var contours = new ArrayList<Contour>();
+        contours.add(squareAt(140, 120));
+        contours.add(squareAt(firstX, 165));
+        assertEquals(1, greedyMatches(circles, contours, threshold));
+        circles.release();
+
+        var pipe = new FindCirclesPipe();
+        pipe.setParams(params);
+        var shapes = new ArrayList<>(pipe.run(Pair.of(image, new ArrayList<>(contours))).output);
+        pipe.release();
+        image.release();
+
+        // Both circles are matched: the first to the contour below it, the second to the shared one
+        assertEquals(2, shapes.size());
+        for (var shape : shapes) {
+            var mu = shape.getContour().getMoments();
+            double contourX = mu.m10 / mu.m00;
+            double contourY = mu.m01 / mu.m00;
+            if (Math.abs(shape.center.x - firstX) < 2) {
+                assertEquals(firstX, contourX, 1);
+                assertEquals(165, contourY, 1);
+            } else {
+                assertEquals(140, contourX, 1);
+                assertEquals(120, contourY, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.camera.QuirkyCamera;
+import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.FrameStaticProperties;
+import org.photonvision.vision.frame.FrameThresholdType;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.pipe.impl.FocusPipe;
+import org.photonvision.vision.pipe.impl.FocusPipe.FocusParams;
+
+public class FocusPipelineTest {
+    private static final int kWidth = 640;
+    private static final int kHeight = 480;
+
+    private Mat noise;
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        noise = new Mat(kHeight, kWidth, CvType.CV_8UC3);
+        Core.randu(noise, 0, 256);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        noise.release();
+    }
+
+    @Test
+    public void testRoiInImage() {
+        var whole = new FocusParams(0, 0, 1, 1, 1);
+        assertTrue(whole.isWholeImage());
+        assertEquals(new Rect(0, 0, kWidth, kHeight), whole.roiIn(kWidth, kHeight));
+
+        var middle = new FocusParams(0.25, 0.25, 0.5, 0.5, 1);
+        assertFalse(middle.isWholeImage());
+        assertEquals(new Rect(160, 120, 320, 240), middle.roiIn(kWidth, kHeight));
+    }
+
+    @Test
+    public void testRoiClamped() {
+        // Hanging off every edge, so kept inside the image but still big enough to measure
+        var outside = new FocusParams(-0.5, 1.2, 2, 2, 1);
+        assertEquals(new Rect(0, kHeight - 3, kWidth, 3), outside.roiIn(kWidth, kHeight));
+
+        // Too small to measure
+        var empty = new FocusParams(0.5, 0.5, 0, 0, 1);
+        assertEquals(new Rect(320, 240, 3, 3), empty.roiIn(kWidth, kHeight));
+
+        // Runs off the right and bottom
+        var corner = new FocusParams(0.75, 0.75, 0.5, 0.5, 1);
+        assertEquals(new Rect(480, 360, 160, 120), corner.roiIn(kWidth, kHeight));
+    }
+
+    @Test
+    public void testDecimation() {
+        var pipe = new FocusPipe();
+        try {
+            pipe.setParams(new FocusParams(0, 0, 1, 1, 1));
+            var full = pipe.run(noise).output;
+            assertEquals(new Size(kWidth, kHeight), full.frame.size());
+            assertEquals(CvType.CV_16S, full.frame.type());
+            double fullScore = full.variance;
+
+            pipe.setParams(new FocusParams(0, 0, 1, 1, 4));
+            assertEquals(new Size(kWidth / 4, kHeight / 4), pipe.run(noise).output.frame.size());
+
+            // Only the region is decimated
+            pipe.setParams(new FocusParams(0.25, 0.25, 0.5, 0.5, 2));
+            var region = pipe.run(noise).output;
+            assertEquals(new Rect(160, 120, 320, 240), region.roi);
+            assertEquals(new Size(160, 120), region.frame.size());
+
+            // Never too small to measure
+            pipe.setParams(new FocusParams(0, 0, 1, 1, 1000));
+            assertEquals(new Size(3, 3), pipe.run(noise).output.frame.size());
+
+            // Nearest neighbour keeps noise as sharp as it was, and a blurred copy still scores lower
+            pipe.setParams(new FocusParams(0, 0, 1, 1, 2));
+            double decimatedScore = pipe.run(noise).output.variance;
+            assertEquals(fullScore, decimatedScore, fullScore * 0.1);
+
+            var blurred = new Mat();
+            Imgproc.GaussianBlur(noise, blurred, new Size(5, 5), 0);
+            assertTrue(pipe.run(blurred).output.variance < decimatedScore);
+            blurred.release();
+        } finally {
+            pipe.release();
+        }
+    }
+
+    @Test
+    public void testScoreHistoryWrapsAround() {
+        var history = new FocusPipeline.ScoreHistory(4);
+        assertArrayEquals(new double[0], history.toArray());
+
+        history.add(1);
+        history.add(2);
+        history.add(3);
+        assertArrayEquals(new double[] {1, 2, 3}, history.toArray());
+
+        // Once full, the oldest go first
+        history.add(4);
+        history.add(5);
+        history.add(6);
+        assertArrayEquals(new double[] {3, 4, 5, 6}, history.toArray());
+
+        history.clear();
+        assertArrayEquals(new double[0], history.toArray());
+        for (int i = 7; i <= 13; i++) history.add(i);
+        assertArrayEquals(new double[] {10, 11, 12, 13}, history.toArray());
+    }
+
+    private double[] runOnNoise(FocusPipeline pipeline) {
+        var frame =
+                new Frame(
+                        0,
+                        new CVMat(noise.clone()),
+                        new CVMat(),
+                        FrameThresholdType.NONE,
+                        0,
+                        new FrameStaticProperties(kWidth, kHeight, 70, null));
+        var result = pipeline.run(frame, QuirkyCamera.DefaultCamera);
+        assertEquals(result.focus, result.focusHistory[result.focusHistory.length - 1]);
+        double peak = 0;
+        for (var score : result.focusHistory) peak = Math.max(peak, score);
+        assertEquals(peak, result.peakFocus);
+        frame.release();
+        return result.focusHistory;
+    }
+
+    @Test
+    public void testHistoryResetsWithRegion() {
+        var pipeline = new FocusPipeline();
+        try {
+            runOnNoise(pipeline);
+            runOnNoise(pipeline);
+            assertEquals(3, runOnNoise(pipeline).length);
+
+            // Scores from another region can't be compared
+            pipeline.getSettings().focusRoiWidth = 0.5;
+            assertEquals(1, runOnNoise(pipeline).length);
+            assertEquals(2, runOnNoise(pipeline).length);
+
+            pipeline.getSettings().focusDecimate = 2;
+            assertEquals(1, runOnNoise(pipeline).length);
+
+            // Anything else leaves it be
+            pipeline.getSettings().cameraBrightness = 80;
+            assertEquals(2, runOnNoise(pipeline).length);
+        } finally {
+            pipeline.release();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.common.util.TestUtils;
+import org.photonvision.estimation.OpenCVHelp;
+import org.photonvision.estimation.RotTrlTransform3d;
+import org.photonvision.estimation.TargetModel;
+import org.photonvision.estimation.VisionEstimation;
+import org.photonvision.targeting.MultiTargetPNPResult;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
+import org.photonvision.vision.pipe.impl.MultiTargetPNPPipe;
+import org.photonvision.vision.pipe.impl.MultiTargetPNPPipe.MultiTargetPNPPipeParams;
+import org.photonvision.vision.target.TrackedTarget;
+import org.wpilib.math.geometry.Pose3d;
+import org.wpilib.math.geometry.Rotation3d;
+import org.wpilib.vision.apriltag.AprilTag;
+import org.wpilib.vision.apriltag.AprilTagFieldLayout;
+
+public class MultiTargetPNPPipeTest {
+    private static final TargetModel kTagModel = TargetModel.kAprilTag36h11;
+
+    private static final AprilTagFieldLayout kLayout =
+            new AprilTagFieldLayout(
+                    List.of(
+                            new AprilTag(1, new Pose3d(12, 2, 1, new Rotation3d(0, 0, Math.PI))),
+                            new AprilTag(2, new Pose3d(12, 0, 0.5, new Rotation3d(0, 0, Math.PI))),
+                            new AprilTag(3, new Pose3d(11.5, 1.5, 1, new Rotation3d(0, 0, Math.PI)))),
+                    16.5,
+                    8);
+
+    private static final Pose3d kCameraPose = new Pose3d(9, 1, 0.5, new Rotation3d(0, 0, 0.05));
+
+    private CameraCalibrationCoefficients calibration;
+    private MultiTargetPNPPipe pipe;
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        calibration = TestUtils.get2020LifeCamCoeffs(false);
+        pipe = new MultiTargetPNPPipe();
+        pipe.setParams(new MultiTargetPNPPipeParams(calibration, kLayout, kTagModel, true));
+
+        // The first solve loads OpenCV, which would make the seed look stale
+        pipe.run(see(kCameraPose, 1, 2, 3));
+        pipe.reset();
+    }
+
+    /** The tags a camera at this pose sees, with exact corners */
+    private List<TrackedTarget> see(Pose3d cameraPose, int... ids) {
+        var camRt = RotTrlTransform3d.makeRelativeTo(cameraPose);
+        var targets = new ArrayList<TrackedTarget>();
+        for (int id : ids) {
+            var corners =
+                    OpenCVHelp.projectPoints(
+                            calibration.cameraIntrinsics.getAsWpilibMat(),
+                            calibration.distCoeffs.getAsWpilibMat(),
+                            camRt,
+                            kTagModel.getFieldVertices(kLayout.getTagPose(id).get()));
+            var target = new TrackedTarget(List.of(corners));
+            target.setFiducialId(id);
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    private Pose3d solve(Pose3d cameraPose, int... ids) {
+        MultiTargetPNPResult result = pipe.run(see(cameraPose, ids)).output.get();
+        return new Pose3d().plus(result.estimatedPose.best);
+    }
+
+    private Pose3d solveGlobal(Pose3d cameraPose, int... ids) {
+        var result =
+                VisionEstimation.estimateCamPosePNP(
+                        calibration.cameraIntrinsics.getAsWpilibMat(),
+                        calibration.distCoeffs.getAsWpilibMat(),
+                        TrackedTarget.simpleFromTrackedTargets(see(cameraPose, ids)),
+                        kLayout,
+                        kTagModel);
+        return new Pose3d().plus(result.get().best);
+    }
+
+    private static void assertPoseEquals(Pose3d expected, Pose3d actual) {
+        assertEquals(0, expected.getTranslation().getDistance(actual.getTranslation()), 0.005);
+        assertEquals(0, expected.getRotation().minus(actual.getRotation()).getAngle(), 0.005);
+    }
+
+    @Test
+    public void testRefinedMatchesGlobalSolve() {
+        solve(kCameraPose, 1, 2, 3);
+        assertEquals(0, pipe.getWarmStartStats().warmSolves());
+
+        // Barely moved, so the last pose is refined
+        var moved = new Pose3d(9.01, 1.005, 0.5, new Rotation3d(0, 0.002, 0.055));
+        var refined = solve(moved, 1, 2, 3);
+        var stats = pipe.getWarmStartStats();
+        assertEquals(1, stats.warmSolves());
+        assertEquals(0, stats.fallbacks());
+
+        assertPoseEquals(solveGlobal(moved, 1, 2, 3), refined);
+        assertPoseEquals(moved, refined);
+    }
+
+    @Test
+    public void testNewTagsSolveGlobally() {
+        solve(kCameraPose, 1, 2, 3);
+        long globalSolves = pipe.getWarmStartStats().globalSolves();
+
+        var pose = solve(kCameraPose, 1, 2);
+        var stats = pipe.getWarmStartStats();
+        assertEquals(0, stats.warmSolves());
+        assertEquals(0, stats.fallbacks());
+        assertEquals(globalSolves + 1, stats.globalSolves());
+        assertPoseEquals(kCameraPose, pose);
+    }
+
+    @Test
+    public void testBadSeedFallsBack() {
+        solve(kCameraPose, 1, 2, 3);
+        long globalSolves = pipe.getWarmStartStats().globalSolves();
+
+        // Too far from the last pose to trust a refinement, even if it converges
+        var jumped = new Pose3d(9.5, 0.7, 0.5, new Rotation3d(0, 0, -0.1));
+        var pose = solve(jumped, 1, 2, 3);
+        var stats = pipe.getWarmStartStats();
+        assertEquals(0, stats.warmSolves());
+        assertEquals(1, stats.fallbacks());
+        assertEquals(globalSolves + 1, stats.globalSolves());
+        assertPoseEquals(jumped, pose);
+
+        // The global solve is the new seed
+        solve(jumped, 1, 2, 3);
+        assertEquals(1, pipe.getWarmStartStats().warmSolves());
+    }
+
+    @Test
+    public void testDisabledAlwaysSolvesGlobally() {
+        pipe.setParams(new MultiTargetPNPPipeParams(calibration, kLayout, kTagModel, false));
+        solve(kCameraPose, 1, 2, 3);
+        solve(kCameraPose, 1, 2, 3);
+        assertEquals(0, pipe.getWarmStartStats().warmSolves());
+        assertTrue(pipe.getWarmStartStats().globalSolves() >= 2);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Point;
+import org.opencv.core.Rect2d;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.opencv.DualOffsetValues;
+import org.photonvision.vision.pipe.impl.NeuralNetworkPipeResult;
+import org.photonvision.vision.pipe.impl.TrackTargetsPipe;
+import org.photonvision.vision.pipe.impl.TrackTargetsPipe.TrackTargetsInput;
+import org.photonvision.vision.target.PotentialTarget;
+import org.photonvision.vision.target.RobotOffsetPointMode;
+import org.photonvision.vision.target.TargetOffsetPointEdge;
+import org.photonvision.vision.target.TrackedTarget;
+
+public class TrackTargetsPipeTest {
+    // 100 fps
+    private static final long kFrameNanos = 10_000_000L;
+
+    private static final TrackedTarget.TargetCalculationParameters kParams =
+            new TrackedTarget.TargetCalculationParameters(
+                    true,
+                    TargetOffsetPointEdge.Center,
+                    RobotOffsetPointMode.None,
+                    new Point(0, 0),
+                    new DualOffsetValues(),
+                    new Point(400, 300),
+                    600,
+                    600,
+                    800 * 600,
+                    null);
+
+    private TrackTargetsPipe pipe;
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        pipe = new TrackTargetsPipe();
+        pipe.setParams(new TrackTargetsPipe.TrackTargetsParams(TrackTargetsPipe.kDefaultMaxMisses));
+    }
+
+    private static TrackedTarget targetAt(double x, double y, int trackId) {
+        var detection = new NeuralNetworkPipeResult(new Rect2d(x - 10, y - 10, 20, 20), 0, 0.9);
+        return new TrackedTarget(new PotentialTarget(detection, trackId), kParams, null);
+    }
+
+    private List<TrackedTarget> run(int frame, TrackedTarget... targets) {
+        return pipe.run(new TrackTargetsInput(List.of(targets), (frame + 1) * kFrameNanos)).output;
+    }
+
+    @Test
+    public void testFollowsMovingTargets() {
+        int right = -1, left = -1;
+        TrackedTarget movingRight = null, movingLeft = null;
+        for (int i = 0; i < 30; i++) {
+            movingRight = targetAt(500 + 2 * i, 300, -1);
+            movingLeft = targetAt(300 - 2 * i, 250, -1);
+            // The order targets are sorted in shouldn't matter
+            if (i % 2 == 0) {
+                run(i, movingRight, movingLeft);
+            } else {
+                run(i, movingLeft, movingRight);
+            }
+
+            if (i == 0) {
+                right = movingRight.getTrackId();
+                left = movingLeft.getTrackId();
+                assertNotEquals(right, left);
+            }
+            assertEquals(right, movingRight.getTrackId());
+            assertEquals(left, movingLeft.getTrackId());
+        }
+
+        // 2 pixels a frame is a little under 0.2 degrees, at 100 fps
+        assertEquals(18, movingRight.getYawVelocity(), 1.5);
+        assertEquals(-18, movingLeft.getYawVelocity(), 1.5);
+        assertEquals(0, movingRight.getPitchVelocity(), 0.5);
+        assertEquals(movingRight.getYaw(), movingRight.getSmoothedYaw(), 0.05);
+    }
+
+    @Test
+    public void testSmoothsJitter() {
+        double trueYaw = targetAt(500, 300, -1).getYaw();
+        double worstRaw = 0, worstSmoothed = 0;
+        for (int i = 0; i < 40; i++) {
+            var target = targetAt(i % 2 == 0 ? 498 : 502, 300, -1);
+            run(i, target);
+
+            if (i >= 20) {
+                worstRaw = Math.max(worstRaw, Math.abs(target.getYaw() - trueYaw));
+                worstSmoothed = Math.max(worstSmoothed, Math.abs(target.getSmoothedYaw() - trueYaw));
+            }
+        }
+        assertTrue(worstSmoothed < worstRaw / 3, "Smoothed " + worstSmoothed + ", raw " + worstRaw);
+    }
+
+    @Test
+    public void testTracksSurviveShortGaps() {
+        var first = targetAt(500, 300, -1);
+        run(0, first);
+        int id = first.getTrackId();
+
+        // Missing for a couple of frames
+        run(1);
+        run(2);
+        var back = targetAt(500, 300, -1);
+        run(3, back);
+        assertEquals(id, back.getTrackId());
+
+        // Missing for too long
+        for (int i = 4; i < 5 + TrackTargetsPipe.kDefaultMaxMisses; i++) {
+            run(i);
+        }
+        var late = targetAt(500, 300, -1);
+        run(10, late);
+        assertNotEquals(id, late.getTrackId());
+    }
+
+    @Test
+    public void testKeepsUpstreamTrackIds() {
+        // Far apart, but object detection's tracker already says they're the same object
+        var first = targetAt(500, 300, 7);
+        run(0, first);
+        var second = targetAt(100, 100, 7);
+        run(1, second);
+
+        assertEquals(7, second.getTrackId());
+        // The jump was taken at face value, since we were told it's the same target
+        assertTrue(second.getSmoothedYaw() < first.getSmoothedYaw());
+    }
+
+    @Test
+    public void testPublishesMeasuredAndSmoothedValues() {
+        TrackedTarget target = null;
+        for (int i = 0; i < 10; i++) {
+            target = targetAt(500 + 2 * i, 300, -1);
+            run(i, target);
+        }
+
+        var published = TrackedTarget.simpleFromTrackedTargets(List.of(target)).get(0);
+        assertEquals(target.getYaw(), published.getYaw());
+        assertEquals(target.getPitch(), published.getPitch());
+        assertEquals(target.getArea(), published.getArea());
+        assertEquals(target.getTrackId(), published.getTrackId());
+        assertEquals(target.getSmoothedYaw(), published.getSmoothedYaw());
+        assertEquals(target.getSmoothedPitch(), published.getSmoothedPitch());
+        assertEquals(target.getSmoothedArea(), published.getSmoothedArea());
+        assertEquals(target.getYawVelocity(), published.getYawVelocity());
+        assertNotEquals(-1, published.getTrackId());
+    }
+
+    @Test
+    public void testDisabledPassesThroughAndForgets() {
+        var first = targetAt(500, 300, -1);
+        run(0, first);
+
+        pipe.setParams(
+                new TrackTargetsPipe.TrackTargetsParams(false, TrackTargetsPipe.kDefaultMaxMisses));
+        var untracked = targetAt(500, 300, -1);
+        run(1, untracked);
+        assertEquals(-1, untracked.getTrackId());
+        assertEquals(0, untracked.getYawVelocity());
+        var publishedUntracked = TrackedTarget.simpleFromTrackedTargets(List.of(untracked)).get(0);
+        assertEquals(untracked.getYaw(), publishedUntracked.getSmoothedYaw());
+        assertEquals(untracked.getArea(), publishedUntracked.getSmoothedArea());
+
+        pipe.setParams(new TrackTargetsPipe.TrackTargetsParams(TrackTargetsPipe.kDefaultMaxMisses));
+        var again = targetAt(500, 300, -1);
+        run(2, again);
+        assertNotEquals(first.getTrackId(), again.getTrackId());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.photonvision.common.hardware.Platform;
+
+public class CameraHotplugWatcherTest {
+    @TempDir private Path devRoot;
+
+    @Test
+    public void testPlugAndUnplug() throws IOException, InterruptedException {
+        assumeTrue(Platform.isLinux(), "Hotplug watching is only used on Linux");
+
+        var changes = new Semaphore(0);
+        try (var watcher = new CameraHotplugWatcher(devRoot, changes::release, 20)) {
+            assertTrue(watcher.start());
+
+            // Unrelated device nodes are ignored
+            Files.createFile(devRoot.resolve("ttyUSB0"));
+            assertFalse(changes.tryAcquire(200, TimeUnit.MILLISECONDS));
+
+            // Plug in: udev creates the node, then the v4l symlink directories
+            Files.createFile(devRoot.resolve("video0"));
+            Files.createDirectories(devRoot.resolve("v4l").resolve("by-id"));
+            assertTrue(changes.tryAcquire(2, TimeUnit.SECONDS));
+
+            // by-id was created after we started, so it must have been picked up
+            Files.createFile(devRoot.resolve("v4l").resolve("by-id").resolve("usb-cam-video-index0"));
+            assertTrue(changes.tryAcquire(2, TimeUnit.SECONDS));
+
+            // Unplug
+            Files.delete(devRoot.resolve("v4l").resolve("by-id").resolve("usb-cam-video-index0"));
+            Files.delete(devRoot.resolve("video0"));
+            assertTrue(changes.tryAcquire(2, TimeUnit.SECONDS));
+
+            assertTrue(watcher.getChangeCount() >= 3);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.frame.FrameDivisor;
+import org.photonvision.vision.pipeline.AprilTagPipelineSettings;
+import org.photonvision.vision.pipeline.FrameBudget;
+import org.photonvision.vision.pipeline.result.CVPipelineResult;
+
+public class FrameBudgetGovernorTest {
+    // 20 fps
+    private static final long kFrameNanos = 50_000_000L;
+
+    private AprilTagPipelineSettings settings;
+    private FrameBudgetGovernor governor;
+    private long now = 0;
+    private double temperature = 50;
+    private String throttleReason = "None";
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        settings = new AprilTagPipelineSettings();
+        settings.frameBudgetGovernor = true;
+        settings.governorTargetFps = 20;
+        settings.decimate = 1;
+        settings.threads = 2;
+        settings.governorMaxDecimate = 2;
+        settings.governorMaxThreads = 3;
+        settings.streamingFrameDivisor = FrameDivisor.NONE;
+        settings.governorMaxStreamDivisor = FrameDivisor.HALF;
+
+        governor = new FrameBudgetGovernor("test", () -> temperature, () -> throttleReason, () -> now);
+    }
+
+    /** Feed frames that each take processingMillis for the given number of seconds */
+    private FrameBudget run(double processingMillis, double seconds) {
+        for (long end = now + (long) (seconds * 1e9); now < end; now += kFrameNanos) {
+            governor.update(
+                    settings, new CVPipelineResult(0, processingMillis * 1e6, 20, List.of(), null));
+        }
+        return governor.getBudget();
+    }
+
+    @Test
+    public void testDegradesInOrderAndRecovers() {
+        assertEquals(new FrameBudget(1, 2, FrameDivisor.NONE), run(30, 0.5));
+
+        // Over budget: a thread, then a smaller stream, then decimation, a second apart
+        assertEquals(new FrameBudget(1, 3, FrameDivisor.NONE), run(60, 1.1));
+        assertEquals(new FrameBudget(1, 3, FrameDivisor.HALF), run(60, 1));
+        assertEquals(new FrameBudget(2, 3, FrameDivisor.HALF), run(60, 1));
+        // Nothing left to turn
+        assertEquals(new FrameBudget(2, 3, FrameDivisor.HALF), run(60, 3));
+
+        // Comfortably under budget: undone in reverse, so decimation comes back first
+        assertEquals(new FrameBudget(1, 3, FrameDivisor.HALF), run(10, 1));
+        assertEquals(new FrameBudget(1, 2, FrameDivisor.NONE), run(10, 3));
+
+        var stats = governor.getStats();
+        assertEquals(6, stats.adjustments().size());
+        assertEquals("threads", stats.adjustments().get(0).knob());
+        assertEquals(2, stats.adjustments().get(0).from());
+        assertEquals(3, stats.adjustments().get(0).to());
+    }
+
+    @Test
+    public void testHotCpuDropsThreads() {
+        run(60, 1.1);
+        assertEquals(3, governor.getBudget().threads());
+
+        // Under budget, but too hot: give back the extra thread rather than adding one
+        temperature = 85;
+        assertEquals(2, run(30, 1.1).threads());
+        assertEquals(FrameDivisor.HALF, run(30, 1).streamDivisor());
+
+        // Still warm, so nothing is undone yet
+        temperature = 78;
+        assertEquals(new FrameBudget(1, 2, FrameDivisor.HALF), run(10, 3));
+
+        // Throttling with nothing else left to give up, so decimation goes up
+        temperature = 50;
+        throttleReason = "HIGH TEMP";
+        assertEquals(new FrameBudget(2, 2, FrameDivisor.HALF), run(10, 3));
+        throttleReason = "Prev. High Temp";
+        assertEquals(new FrameBudget(1, 2, FrameDivisor.NONE), run(10, 3));
+    }
+
+    @Test
+    public void testResetsWithSettings() {
+        run(60, 1.1);
+        assertEquals(3, governor.getBudget().threads());
+
+        // Any change to the settings starts over from them
+        settings.decimate = 2;
+        assertEquals(new FrameBudget(2, 2, FrameDivisor.NONE), run(60, 0.5));
+
+        settings.frameBudgetGovernor = false;
+        assertNull(run(60, 2));
+    }
+}
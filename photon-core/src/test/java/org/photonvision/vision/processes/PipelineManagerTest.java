@@ -18,6 +18,8 @@
 package org.photonvision.vision.processes;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -79,4 +81,34 @@ public class PipelineManagerTest {
         // and change
         manager.changePipelineType(PipelineType.Aruco.baseIndex);
     }
+
+    @Test
+    public void testSwitchReusesPipelines() {
+        ConfigManager.getInstance().load();
+
+        // Starts with a single AprilTag pipeline
+        PipelineManager manager = new PipelineManager(new DriverModePipelineSettings(), List.of(), -1);
+        manager.addPipeline(PipelineType.Reflective, "Another");
+
+        manager.setIndex(0);
+        var first = manager.getCurrentPipeline();
+        manager.setIndex(1);
+        var second = manager.getCurrentPipeline();
+        assertNotSame(first, second);
+
+        // Switching back is a lookup, not a rebuild
+        manager.setIndex(0);
+        assertSame(first, manager.getCurrentPipeline());
+        manager.setDriverMode(true);
+        manager.getCurrentPipeline();
+        manager.setIndex(1);
+        assertSame(second, manager.getCurrentPipeline());
+
+        // Deleting the first pipeline moves the second one to index 0
+        manager.setIndex(0);
+        manager.getCurrentPipeline();
+        manager.removePipeline(0);
+        assertSame(second, manager.getCurrentPipeline());
+        assertEquals("Another", manager.getCurrentPipelineSettings().pipelineNickname);
+    }
 }
@@ -24,6 +24,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.photonvision.vision.processes.VisionModuleChangeSubscriber.setProperty;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.photonvision.common.util.numbers.DoubleCouple;
@@ -43,6 +46,7 @@ public class VisionModuleChangeSubscriberTest {
         public int intField;
         public boolean booleanField;
         public String stringField;
+        public Map<String, Double> mapField;
 
         public TestClass() {
             enumField = TestEnum.VALUE1;
@@ -52,6 +56,7 @@ public class VisionModuleChangeSubscriberTest {
             intField = 0;
             booleanField = false;
             stringField = "";
+            mapField = new HashMap<>();
         }
     }
 
@@ -95,6 +100,20 @@ public class VisionModuleChangeSubscriberTest {
         assertEquals(2, obj.integerCoupleField.getSecond());
     }
 
+    @Test
+    void testSetMapField() throws Exception {
+        TestClass obj = new TestClass();
+
+        // Whole numbers come off the wire as integers
+        var values = new LinkedHashMap<String, Object>();
+        values.put("note", 0.75);
+        values.put("robot", 1);
+
+        setProperty(obj, "mapField", values);
+
+        assertEquals(Map.of("note", 0.75, "robot", 1.0), obj.mapField);
+    }
+
     @Test
     void testSetDoubleField() throws Exception {
         TestClass obj = new TestClass();
@@ -17,6 +17,7 @@
 
 package org.photonvision.vision.processes;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.photonvision.common.LoadJNI;
 import org.photonvision.common.configuration.CameraConfiguration;
 import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.configuration.FrameRecorderSettings;
 import org.photonvision.common.dataflow.CVPipelineResultConsumer;
 import org.photonvision.common.util.TestUtils;
 import org.photonvision.jni.LibraryLoader;
@@ -245,6 +247,50 @@ public class VisionModuleManagerTest {
         }
     }
 
+    @Test
+    public void testStreamFrameWanted() {
+        ConfigManager.getInstance().load();
+
+        try (var vmm = new VisionModuleManager()) {
+            var conf = new CameraConfiguration(PVCameraInfo.fromFileInfo("Foo", "Bar"));
+            // Never connects, so no frame reaches the stream thread to use up a snapshot
+            var ffp =
+                    new FileFrameProvider(
+                            TestUtils.getWPIImagePath(
+                                    TestUtils.WPI2019Image.kCargoStraightDark72in_HighRes, false),
+                            TestUtils.WPI2019Image.FOV) {
+                        @Override
+                        public boolean isConnected() {
+                            return false;
+                        }
+
+                        @Override
+                        public boolean hasConnected() {
+                            return false;
+                        }
+                    };
+            var module = vmm.addSource(new TestSource(ffp, conf));
+
+            // Nobody is watching either stream
+            assertFalse(module.inputVideoStreamer.hasViewers());
+            assertFalse(module.outputVideoStreamer.hasViewers());
+            assertFalse(module.isStreamFrameWanted());
+
+            var recorderSettings = new FrameRecorderSettings();
+            recorderSettings.enabled = true;
+            module.setRecorderSettings(recorderSettings);
+            assertFalse(module.isStreamFrameWanted());
+            recorderSettings.recordOutput = true;
+            module.setRecorderSettings(recorderSettings);
+            assertTrue(module.isStreamFrameWanted());
+            module.setRecorderSettings(new FrameRecorderSettings());
+            assertFalse(module.isStreamFrameWanted());
+
+            module.saveOutputSnapshot();
+            assertTrue(module.isStreamFrameWanted());
+        }
+    }
+
     private void sleep(int millis) {
         try {
             Thread.sleep(millis);
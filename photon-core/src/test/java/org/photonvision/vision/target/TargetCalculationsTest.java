@@ -329,4 +329,36 @@ public class TargetCalculationsTest {
         assertEquals(expectedOutside.x, crosshairPointOutside.x);
         assertEquals(expectedOutside.y, crosshairPointOutside.y);
     }
+
+    @Test
+    public void testFiducialGeometryMatchesOpenCV() {
+        var quads =
+                List.of(
+                        // Square on, tilted, skewed by perspective, and not quite convex
+                        List.of(
+                                new Point(100, 100), new Point(200, 100), new Point(200, 180), new Point(100, 180)),
+                        List.of(new Point(10, 10), new Point(13, 14), new Point(9, 17), new Point(6, 13)),
+                        List.of(
+                                new Point(300, 210), new Point(420, 190), new Point(440, 330), new Point(310, 300)),
+                        List.of(new Point(50, 50), new Point(90, 60), new Point(60, 65), new Point(55, 95)));
+
+        for (var quad : quads) {
+            var mat = new MatOfPoint2f(quad.toArray(new Point[0]));
+            var expected = Imgproc.minAreaRect(mat);
+            var actual = TargetCalculations.calculateMinAreaRect(quad);
+
+            assertEquals(expected.center.x, actual.center.x, 1e-3);
+            assertEquals(expected.center.y, actual.center.y, 1e-3);
+            assertEquals(expected.size.width, actual.size.width, 1e-3);
+            assertEquals(expected.size.height, actual.size.height, 1e-3);
+            assertEquals(expected.angle, actual.angle, 1e-3);
+
+            var intMat = new MatOfPoint(quad.toArray(new Point[0]));
+            assertEquals(
+                    Imgproc.contourArea(intMat), TargetCalculations.calculatePolygonArea(quad), 1e-6);
+
+            mat.release();
+            intMat.release();
+        }
+    }
 }
@@ -44,8 +44,8 @@ if TYPE_CHECKING:
 
 class PhotonTrackedTargetSerde:
     # Message definition md5sum. See photon_packet.adoc for details
-    MESSAGE_VERSION = "cc6dbb5c5c1e0fa808108019b20863f1"
-    MESSAGE_FORMAT = "float64 yaw;float64 pitch;float64 area;float64 skew;int32 fiducialId;int32 objDetectId;float32 objDetectConf;Transform3d bestCameraToTarget;Transform3d altCameraToTarget;float64 poseAmbiguity;TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 minAreaRectCorners[?];TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 detectedCorners[?];"
+    MESSAGE_VERSION = "1ba4506e1efea23c92bf4fe67089bb9e"
+    MESSAGE_FORMAT = "float64 yaw;float64 pitch;float64 area;float64 skew;int32 fiducialId;int32 objDetectId;float32 objDetectConf;Transform3d bestCameraToTarget;Transform3d altCameraToTarget;float64 poseAmbiguity;TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 minAreaRectCorners[?];TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 detectedCorners[?];int32 trackId;float64 smoothedYaw;float64 smoothedPitch;float64 smoothedArea;float64 yawVelocity;float64 pitchVelocity;float64 areaVelocity;"
 
     @staticmethod
     def pack(value: "PhotonTrackedTarget") -> "Packet":
@@ -86,6 +86,27 @@ class PhotonTrackedTargetSerde:
 
         # detectedCorners is a custom VLA!
         ret.encodeList(value.detectedCorners, TargetCorner.photonStruct)
+
+        # trackId is of intrinsic type int32
+        ret.encodeInt(value.trackId)
+
+        # smoothedYaw is of intrinsic type float64
+        ret.encodeDouble(value.smoothedYaw)
+
+        # smoothedPitch is of intrinsic type float64
+        ret.encodeDouble(value.smoothedPitch)
+
+        # smoothedArea is of intrinsic type float64
+        ret.encodeDouble(value.smoothedArea)
+
+        # yawVelocity is of intrinsic type float64
+        ret.encodeDouble(value.yawVelocity)
+
+        # pitchVelocity is of intrinsic type float64
+        ret.encodeDouble(value.pitchVelocity)
+
+        # areaVelocity is of intrinsic type float64
+        ret.encodeDouble(value.areaVelocity)
         return ret
 
     @staticmethod
@@ -126,6 +147,27 @@ class PhotonTrackedTargetSerde:
         # detectedCorners is a custom VLA!
         ret.detectedCorners = packet.decodeList(TargetCorner.photonStruct)
 
+        # trackId is of intrinsic type int32
+        ret.trackId = packet.decodeInt()
+
+        # smoothedYaw is of intrinsic type float64
+        ret.smoothedYaw = packet.decodeDouble()
+
+        # smoothedPitch is of intrinsic type float64
+        ret.smoothedPitch = packet.decodeDouble()
+
+        # smoothedArea is of intrinsic type float64
+        ret.smoothedArea = packet.decodeDouble()
+
+        # yawVelocity is of intrinsic type float64
+        ret.yawVelocity = packet.decodeDouble()
+
+        # pitchVelocity is of intrinsic type float64
+        ret.pitchVelocity = packet.decodeDouble()
+
+        # areaVelocity is of intrinsic type float64
+        ret.areaVelocity = packet.decodeDouble()
+
         return ret
 
 
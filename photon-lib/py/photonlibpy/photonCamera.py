@@ -98,6 +98,9 @@ class PhotonCamera:
         self._pipelineIndexState = self._cameraTable.getIntegerTopic(
             "pipelineIndexState"
         ).subscribe(0)
+        self._prewarmPipelinesRequest = self._cameraTable.getIntegerArrayTopic(
+            "prewarmPipelinesRequest"
+        ).publish()
         self._heartbeatEntry = self._cameraTable.getIntegerTopic("heartbeat").subscribe(
             -1
         )
@@ -267,6 +270,15 @@ class PhotonCamera:
         """
         self._pipelineIndexRequest.set(index)
 
+    def prewarmPipelines(self, *indexes: int) -> None:
+        """Asks the coprocessor to build the given pipelines ahead of time and keep them loaded, so
+        that switching to them with :meth:`setPipelineIndex` doesn't stall. Call this once at startup
+        with every pipeline the robot will switch between. Each call replaces the previous request.
+
+        :param indexes: The indexes of the pipelines to keep ready.
+        """
+        self._prewarmPipelinesRequest.set(list(indexes))
+
     def getLEDMode(self) -> VisionLEDMode:
         """Returns the current LED mode.
 
@@ -384,10 +384,13 @@ class PhotonCameraSim:
 
             cornersFloat = OpenCVHelp.pointsToTargetCorners(noisyTargetCorners)
 
+            # Simulated targets aren't tracked, so their smoothed values are the measured ones
+            yaw = math.degrees(-centerRot.Z())
+            pitch = math.degrees(-centerRot.Y())
             detectableTgts.append(
                 PhotonTrackedTarget(
-                    yaw=math.degrees(-centerRot.Z()),
-                    pitch=math.degrees(-centerRot.Y()),
+                    yaw=yaw,
+                    pitch=pitch,
                     area=areaPercent,
                     skew=math.degrees(centerRot.X()),
                     fiducialId=tgt.fiducialId,
@@ -398,6 +401,9 @@ class PhotonCameraSim:
                     bestCameraToTarget=pnpSim.best if pnpSim else Transform3d(),
                     altCameraToTarget=pnpSim.alt if pnpSim else Transform3d(),
                     poseAmbiguity=pnpSim.ambiguity if pnpSim else -1,
+                    smoothedYaw=yaw,
+                    smoothedPitch=pitch,
+                    smoothedArea=areaPercent,
                 )
             )
 
@@ -24,6 +24,13 @@ class PhotonTrackedTarget:
     poseAmbiguity: float = 0.0
     objDetectId: int = -1
     objDetectConf: float = 0.0
+    trackId: int = -1
+    smoothedYaw: float = 0.0
+    smoothedPitch: float = 0.0
+    smoothedArea: float = 0.0
+    yawVelocity: float = 0.0
+    pitchVelocity: float = 0.0
+    areaVelocity: float = 0.0
 
     def getYaw(self) -> float:
         return self.yaw
@@ -55,6 +62,27 @@ class PhotonTrackedTarget:
     def getAlternateCameraToTarget(self) -> Transform3d:
         return self.altCameraToTarget
 
+    def getTrackId(self) -> int:
+        return self.trackId
+
+    def getSmoothedYaw(self) -> float:
+        return self.smoothedYaw
+
+    def getSmoothedPitch(self) -> float:
+        return self.smoothedPitch
+
+    def getSmoothedArea(self) -> float:
+        return self.smoothedArea
+
+    def getYawVelocity(self) -> float:
+        return self.yawVelocity
+
+    def getPitchVelocity(self) -> float:
+        return self.pitchVelocity
+
+    def getAreaVelocity(self) -> float:
+        return self.areaVelocity
+
     def _decodeTargetList(self, packet: Packet, numTargets: int) -> list[TargetCorner]:
         retList = []
         for _ in range(numTargets):
@@ -43,6 +43,7 @@ import org.wpilib.math.util.Nat;
 import org.wpilib.networktables.BooleanPublisher;
 import org.wpilib.networktables.BooleanSubscriber;
 import org.wpilib.networktables.DoubleArraySubscriber;
+import org.wpilib.networktables.IntegerArrayPublisher;
 import org.wpilib.networktables.IntegerEntry;
 import org.wpilib.networktables.IntegerPublisher;
 import org.wpilib.networktables.IntegerSubscriber;
@@ -68,8 +69,9 @@ public class PhotonCamera implements AutoCloseable {
     BooleanSubscriber enabledSubscriber;
     BooleanPublisher enabledPublisher;
     StringSubscriber versionEntry;
-    IntegerEntry inputSaveImgEntry, outputSaveImgEntry;
+    IntegerEntry inputSaveImgEntry, outputSaveImgEntry, recordTriggerEntry;
     IntegerPublisher pipelineIndexRequest, ledModeRequest;
+    IntegerArrayPublisher prewarmPipelinesRequest;
     IntegerSubscriber pipelineIndexState, ledModeState;
     IntegerSubscriber heartbeatSubscriber;
     DoubleArraySubscriber cameraIntrinsicsSubscriber;
@@ -89,11 +91,13 @@ public class PhotonCamera implements AutoCloseable {
         versionEntry.close();
         inputSaveImgEntry.close();
         outputSaveImgEntry.close();
+        recordTriggerEntry.close();
         pipelineIndexRequest.close();
         pipelineIndexState.close();
         ledModeRequest.close();
         ledModeState.close();
         pipelineIndexRequest.close();
+        prewarmPipelinesRequest.close();
         cameraIntrinsicsSubscriber.close();
         cameraDistortionSubscriber.close();
         topicNameSubscriber.close();
@@ -116,6 +120,8 @@ public class PhotonCamera implements AutoCloseable {
     private final Alert disconnectAlert;
     private final Alert timesyncAlert;
 
+    private PhotonResultCache resultCache;
+
     /**
      * Sets whether or not coprocessor version checks will occur. Setting this to true will silence
      * all console warnings about coproccessor connection, so be careful when enabling this and ensure
@@ -163,8 +169,10 @@ public class PhotonCamera implements AutoCloseable {
         enabledSubscriber = cameraTable.getBooleanTopic("enabled").subscribe(true);
         inputSaveImgEntry = cameraTable.getIntegerTopic("inputSaveImgCmd").getEntry(0);
         outputSaveImgEntry = cameraTable.getIntegerTopic("outputSaveImgCmd").getEntry(0);
+        recordTriggerEntry = cameraTable.getIntegerTopic("recordTriggerCmd").getEntry(0);
         pipelineIndexRequest = cameraTable.getIntegerTopic("pipelineIndexRequest").publish();
         pipelineIndexState = cameraTable.getIntegerTopic("pipelineIndexState").subscribe(0);
+        prewarmPipelinesRequest = cameraTable.getIntegerArrayTopic("prewarmPipelinesRequest").publish();
         heartbeatSubscriber = cameraTable.getIntegerTopic("heartbeat").subscribe(-1);
         cameraIntrinsicsSubscriber =
                 cameraTable.getDoubleArrayTopic("cameraIntrinsics").subscribe(null);
@@ -257,6 +265,8 @@ public class PhotonCamera implements AutoCloseable {
      * call this exactly ONCE per loop of your robot code! FIFO depth is limited to 20 changes, so
      * make sure to call this frequently enough to avoid old results being discarded, too!
      *
+     * <p>If the result cache is enabled, the results are also added to it.
+     *
      * @return The list of pipeline results
      */
     public List<PhotonPipelineResult> getAllUnreadResults() {
@@ -271,6 +281,7 @@ public class PhotonCamera implements AutoCloseable {
             var result = c.value;
             checkTimeSyncOrWarn(result);
             ret.add(result);
+            if (resultCache != null) resultCache.add(result);
         }
 
         return ret;
@@ -303,6 +314,36 @@ public class PhotonCamera implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Starts keeping the most recent results in a {@link PhotonResultCache}, for looking them up by
+     * capture time. Results are added as they're read by {@link #getAllUnreadResults()}, so it still
+     * needs to be called every loop. Calling this again with a different capacity starts a new, empty
+     * cache.
+     *
+     * @param capacity The most results to keep
+     * @return The cache
+     */
+    public PhotonResultCache enableResultCache(int capacity) {
+        if (resultCache == null || resultCache.capacity() != capacity) {
+            resultCache = new PhotonResultCache(capacity);
+        }
+        return resultCache;
+    }
+
+    /** Stops keeping results in the result cache, and drops it. */
+    public void disableResultCache() {
+        resultCache = null;
+    }
+
+    /**
+     * Returns the result cache, if {@link #enableResultCache(int)} has been called.
+     *
+     * @return The cache, or empty if it isn't enabled
+     */
+    public Optional<PhotonResultCache> getResultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
     private void updateDisconnectAlert() {
         disconnectAlert.set(!isConnected());
     }
@@ -408,6 +449,15 @@ public class PhotonCamera implements AutoCloseable {
         outputSaveImgEntry.set(outputSaveImgEntry.get() + 1);
     }
 
+    /**
+     * Request the camera to save the last few seconds of frames it's been recording, e.g. when a pose
+     * estimate jumps. The frame recorder has to be enabled for the camera on the coprocessor.
+     * Recordings are saved alongside snapshots, so clear them out too.
+     */
+    public void saveRecording() {
+        recordTriggerEntry.set(recordTriggerEntry.get() + 1);
+    }
+
     /**
      * Returns the active pipeline index.
      *
@@ -426,6 +476,17 @@ public class PhotonCamera implements AutoCloseable {
         pipelineIndexRequest.set(index);
     }
 
+    /**
+     * Asks the coprocessor to build the given pipelines ahead of time and keep them loaded, so that
+     * switching to them with {@link #setPipelineIndex(int)} doesn't stall. Call this once at startup
+     * with every pipeline the robot will switch between. Each call replaces the previous request.
+     *
+     * @param indexes The indexes of the pipelines to keep ready.
+     */
+    public void prewarmPipelines(int... indexes) {
+        prewarmPipelinesRequest.set(Arrays.stream(indexes).asLongStream().toArray());
+    }
+
     /**
      * Returns the current LED mode.
      *
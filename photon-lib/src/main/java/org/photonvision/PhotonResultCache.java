@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.photonvision;
+
+import java.util.Arrays;
+import java.util.Optional;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+/**
+ * The most recent pipeline results from a camera, ordered by {@link
+ * PhotonPipelineResult#getTimestampSeconds()}, for looking up the result captured nearest to a
+ * given time. Lookups are binary searches, and results can be handed straight to {@link
+ * PhotonPoseEstimator} one at a time:
+ *
+ * <pre>{@code
+ * var cache = camera.enableResultCache(50);
+ * ...
+ * camera.getAllUnreadResults();
+ * cache.getNearest(timestampSeconds).flatMap(estimator::estimateCoprocMultiTagPose);
+ * }</pre>
+ *
+ * <p>Results aren't interpolated, since the targets in two frames can't be blended. Use {@link
+ * #getAtOrBefore(double)} and {@link #getAtOrAfter(double)} to find the results either side of a
+ * time instead.
+ *
+ * <p>Once full, adding a result drops the oldest one. Nothing is allocated to add or look up
+ * results beyond the returned Optional.
+ */
+public class PhotonResultCache {
+    private final PhotonPipelineResult[] results;
+    private final double[] timestamps;
+
+    // The oldest result, and how many there are
+    private int head = 0;
+    private int count = 0;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The most results to keep
+     */
+    public PhotonResultCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        results = new PhotonPipelineResult[capacity];
+        timestamps = new double[capacity];
+    }
+
+    /**
+     * Adds a result. Results normally arrive in order, but one that's older than the newest is put in
+     * its place, and one captured at the same time as a cached result replaces it.
+     *
+     * @param result The result to add
+     */
+    public void add(PhotonPipelineResult result) {
+        double timestamp = result.getTimestampSeconds();
+
+        int n = firstAtOrAfter(timestamp);
+        if (n < count && timestamps[index(n)] == timestamp) {
+            results[index(n)] = result;
+            return;
+        }
+
+        if (count == results.length) {
+            // Older than everything we're keeping, so it would be dropped right away
+            if (n == 0) return;
+            results[head] = null;
+            head = (head + 1) % results.length;
+            count--;
+            n--;
+        }
+
+        // Shift anything newer up one to make room. This is nothing in the usual case.
+        for (int k = count; k > n; k--) {
+            results[index(k)] = results[index(k - 1)];
+            timestamps[index(k)] = timestamps[index(k - 1)];
+        }
+        results[index(n)] = result;
+        timestamps[index(n)] = timestamp;
+        count++;
+    }
+
+    /**
+     * Returns the result captured closest to a time. Ties go to the older result.
+     *
+     * @param timestampSeconds The time, in the same timebase as {@link
+     *     PhotonPipelineResult#getTimestampSeconds()}
+     * @return The closest result, or empty if there are none
+     */
+    public Optional<PhotonPipelineResult> getNearest(double timestampSeconds) {
+        if (count == 0) return Optional.empty();
+
+        int after = firstAtOrAfter(timestampSeconds);
+        if (after == 0) return Optional.of(get(0));
+        if (after == count) return Optional.of(get(count - 1));
+
+        double toBefore = timestampSeconds - timestamps[index(after - 1)];
+        double toAfter = timestamps[index(after)] - timestampSeconds;
+        return Optional.of(get(toBefore <= toAfter ? after - 1 : after));
+    }
+
+    /**
+     * Returns the newest result captured at or before a time.
+     *
+     * @param timestampSeconds The time, in the same timebase as {@link
+     *     PhotonPipelineResult#getTimestampSeconds()}
+     * @return The result, or empty if every result is newer
+     */
+    public Optional<PhotonPipelineResult> getAtOrBefore(double timestampSeconds) {
+        int n = firstAfter(timestampSeconds) - 1;
+        return n >= 0 ? Optional.of(get(n)) : Optional.empty();
+    }
+
+    /**
+     * Returns the oldest result captured at or after a time.
+     *
+     * @param timestampSeconds The time, in the same timebase as {@link
+     *     PhotonPipelineResult#getTimestampSeconds()}
+     * @return The result, or empty if every result is older
+     */
+    public Optional<PhotonPipelineResult> getAtOrAfter(double timestampSeconds) {
+        int n = firstAtOrAfter(timestampSeconds);
+        return n < count ? Optional.of(get(n)) : Optional.empty();
+    }
+
+    /**
+     * Returns the newest result.
+     *
+     * @return The result, or empty if there are none
+     */
+    public Optional<PhotonPipelineResult> getLatest() {
+        return count > 0 ? Optional.of(get(count - 1)) : Optional.empty();
+    }
+
+    /**
+     * Returns a result by its position, for walking through the cache without allocating.
+     *
+     * @param n Which result, from 0 for the oldest to {@link #size()} - 1 for the newest
+     * @return The result
+     */
+    public PhotonPipelineResult get(int n) {
+        if (n < 0 || n >= count) {
+            throw new IndexOutOfBoundsException("Index " + n + " out of bounds for size " + count);
+        }
+        return results[index(n)];
+    }
+
+    /**
+     * @return How many results are cached
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The most results this cache keeps
+     */
+    public int capacity() {
+        return results.length;
+    }
+
+    /** Drops every result, e.g. after resetting the robot's pose. */
+    public void clear() {
+        Arrays.fill(results, null);
+        head = 0;
+        count = 0;
+    }
+
+    private int index(int n) {
+        return (head + n) % results.length;
+    }
+
+    /** Binary search for the first of the (oldest first) results at or after a time */
+    private int firstAtOrAfter(double timestampSeconds) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[index(mid)] < timestampSeconds) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Binary search for the first of the (oldest first) results after a time */
+    private int firstAfter(double timestampSeconds) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[index(mid)] <= timestampSeconds) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
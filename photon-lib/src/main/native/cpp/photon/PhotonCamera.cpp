@@ -98,6 +98,8 @@ PhotonCamera::PhotonCamera(wpi::nt::NetworkTableInstance instance,
           rootTable->GetIntegerTopic("pipelineIndexRequest").Publish()),
       pipelineIndexSub(
           rootTable->GetIntegerTopic("pipelineIndexState").Subscribe(0)),
+      prewarmPipelinesPub(
+          rootTable->GetIntegerArrayTopic("prewarmPipelinesRequest").Publish()),
       ledModePub(mainTable->GetIntegerTopic("ledModeRequest").Publish()),
       ledModeSub(mainTable->GetIntegerTopic("ledModeState").Subscribe(0)),
       versionEntry(mainTable->GetStringTopic("version").Subscribe("")),
@@ -261,6 +263,10 @@ void PhotonCamera::TakeOutputSnapshot() {
 
 void PhotonCamera::SetPipelineIndex(int index) { pipelineIndexPub.Set(index); }
 
+void PhotonCamera::PrewarmPipelines(std::span<const int> indexes) {
+  prewarmPipelinesPub.Set(std::vector<int64_t>(indexes.begin(), indexes.end()));
+}
+
 int PhotonCamera::GetPipelineIndex() const {
   return static_cast<int>(pipelineIndexSub.Get());
 }
@@ -252,14 +252,18 @@ PhotonPipelineResult PhotonCameraSim::Process(
 
     std::vector<TargetCorner> cornersDouble{cornersFloat.begin(),
                                             cornersFloat.end()};
+    // Simulated targets aren't tracked, so their smoothed values are the
+    // measured ones
+    double yaw = -centerRot.Z().convert<wpi::units::degrees>().to<double>();
+    double pitch = -centerRot.Y().convert<wpi::units::degrees>().to<double>();
     detectableTgts.emplace_back(
-        -centerRot.Z().convert<wpi::units::degrees>().to<double>(),
-        -centerRot.Y().convert<wpi::units::degrees>().to<double>(), areaPercent,
+        yaw, pitch, areaPercent,
         centerRot.X().convert<wpi::units::degrees>().to<double>(),
         tgt.GetFiducialId(), classId, conf,
         pnpSim ? pnpSim->best : wpi::math::Transform3d{},
         pnpSim ? pnpSim->alt : wpi::math::Transform3d{},
-        pnpSim ? pnpSim->ambiguity : -1, smallVec, cornersDouble);
+        pnpSim ? pnpSim->ambiguity : -1, smallVec, cornersDouble, -1, yaw, pitch,
+        areaPercent, 0.0, 0.0, 0.0);
   }
 
   if (videoSimRawEnabled) {
@@ -25,6 +25,7 @@
 #pragma once
 
 #include <memory>
+#include <span>
 #include <string>
 #include <vector>
 
@@ -32,6 +33,7 @@
 #include <wpi/nt/BooleanTopic.hpp>
 #include <wpi/nt/DoubleArrayTopic.hpp>
 #include <wpi/nt/DoubleTopic.hpp>
+#include <wpi/nt/IntegerArrayTopic.hpp>
 #include <wpi/nt/IntegerTopic.hpp>
 #include <wpi/nt/MultiSubscriber.hpp>
 #include <wpi/nt/NetworkTable.hpp>
@@ -162,6 +164,15 @@ class PhotonCamera {
    */
   void SetPipelineIndex(int index);
 
+  /**
+   * Asks the coprocessor to build the given pipelines ahead of time and keep
+   * them loaded, so that switching to them with SetPipelineIndex doesn't stall.
+   * Call this once at startup with every pipeline the robot will switch
+   * between. Each call replaces the previous request.
+   * @param indexes The indexes of the pipelines to keep ready.
+   */
+  void PrewarmPipelines(std::span<const int> indexes);
+
   /**
    * Returns the active pipeline index.
    * @return The active pipeline index.
@@ -243,6 +254,7 @@ class PhotonCamera {
   wpi::nt::IntegerSubscriber outputSaveImgSubscriber;
   wpi::nt::IntegerPublisher pipelineIndexPub;
   wpi::nt::IntegerSubscriber pipelineIndexSub;
+  wpi::nt::IntegerArrayPublisher prewarmPipelinesPub;
   wpi::nt::IntegerPublisher ledModePub;
   wpi::nt::IntegerSubscriber ledModeSub;
   wpi::nt::StringSubscriber versionEntry;
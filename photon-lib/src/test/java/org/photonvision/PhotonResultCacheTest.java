@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.photonvision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+class PhotonResultCacheTest {
+    /** A result captured at some number of milliseconds, with that as its sequence ID too */
+    private static PhotonPipelineResult result(long millis) {
+        return new PhotonPipelineResult(millis, millis * 1000, millis * 1000, 0, List.of());
+    }
+
+    private static long millis(PhotonPipelineResult result) {
+        return result.metadata.sequenceID;
+    }
+
+    @Test
+    public void testLookups() {
+        var cache = new PhotonResultCache(10);
+        assertTrue(cache.getNearest(1).isEmpty());
+
+        for (long t = 100; t <= 500; t += 100) cache.add(result(t));
+
+        assertEquals(100, millis(cache.getNearest(0).get()));
+        assertEquals(200, millis(cache.getNearest(0.240).get()));
+        assertEquals(300, millis(cache.getNearest(0.260).get()));
+        // Halfway goes to the older one
+        assertEquals(200, millis(cache.getNearest(0.250).get()));
+        assertEquals(500, millis(cache.getNearest(9).get()));
+
+        assertEquals(200, millis(cache.getAtOrBefore(0.200).get()));
+        assertEquals(200, millis(cache.getAtOrBefore(0.299).get()));
+        assertTrue(cache.getAtOrBefore(0.099).isEmpty());
+
+        assertEquals(300, millis(cache.getAtOrAfter(0.300).get()));
+        assertEquals(300, millis(cache.getAtOrAfter(0.201).get()));
+        assertTrue(cache.getAtOrAfter(0.501).isEmpty());
+
+        assertEquals(500, millis(cache.getLatest().get()));
+    }
+
+    @Test
+    public void testDropsOldestWhenFull() {
+        var cache = new PhotonResultCache(3);
+        for (long t = 1; t <= 5; t++) cache.add(result(t));
+
+        assertEquals(3, cache.size());
+        assertEquals(3, millis(cache.get(0)));
+        assertEquals(5, millis(cache.get(2)));
+
+        // Older than everything kept, so not kept either
+        cache.add(result(1));
+        assertEquals(3, millis(cache.get(0)));
+    }
+
+    @Test
+    public void testKeepsOrderWhenResultsArriveLate() {
+        var cache = new PhotonResultCache(4);
+        cache.add(result(10));
+        cache.add(result(30));
+        cache.add(result(40));
+        cache.add(result(20));
+        assertEquals(List.of(10L, 20L, 30L, 40L), contents(cache));
+
+        // Full, so 10 makes way
+        cache.add(result(25));
+        assertEquals(List.of(20L, 25L, 30L, 40L), contents(cache));
+
+        // Same time replaces
+        var replacement = new PhotonPipelineResult(99, 30_000, 0, 0, List.of());
+        cache.add(replacement);
+        assertEquals(4, cache.size());
+        assertSame(replacement, cache.getNearest(0.030).get());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(cache.getLatest().isEmpty());
+    }
+
+    private static List<Long> contents(PhotonResultCache cache) {
+        Long[] ret = new Long[cache.size()];
+        for (int i = 0; i < cache.size(); i++) ret[i] = millis(cache.get(i));
+        return List.of(ret);
+    }
+}
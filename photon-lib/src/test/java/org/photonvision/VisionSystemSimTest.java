@@ -582,6 +582,80 @@ class VisionSystemSimTest {
         assertEquals(Math.toRadians(5), pose.getRotation().getZ(), 0.01);
     }
 
+    @Test
+    public void testRefinePoseEstimation() {
+        var visionSysSim = new VisionSystemSim("Test");
+        var camera = new PhotonCamera(inst, "camera");
+        var cameraSim = new PhotonCameraSim(camera);
+        visionSysSim.addCamera(cameraSim, new Transform3d());
+        cameraSim.prop.setCalibration(640, 480, Rotation2d.fromDegrees(90));
+        cameraSim.setMinTargetAreaPixels(20.0);
+
+        List<AprilTag> tagList = new ArrayList<>();
+        tagList.add(new AprilTag(0, new Pose3d(12, 3, 1, new Rotation3d(0, 0, Math.PI))));
+        tagList.add(new AprilTag(1, new Pose3d(12, 1, -1, new Rotation3d(0, 0, Math.PI))));
+        tagList.add(new AprilTag(2, new Pose3d(11, 0, 2, new Rotation3d(0, 0, Math.PI))));
+        double fieldLength = Units.feetToMeters(54.0);
+        double fieldWidth = Units.feetToMeters(27.0);
+        AprilTagFieldLayout layout = new AprilTagFieldLayout(tagList, fieldLength, fieldWidth);
+        Pose2d robotPose = new Pose2d(5, 1, Rotation2d.fromDegrees(5));
+
+        visionSysSim.addVisionTargets(
+                new VisionTargetSim(tagList.get(0).pose, TargetModel.kAprilTag16h5, 0));
+        visionSysSim.update(robotPose);
+        var oneTag = waitForSequenceNumber(camera, 1).getTargets();
+
+        visionSysSim.addVisionTargets(
+                new VisionTargetSim(tagList.get(1).pose, TargetModel.kAprilTag16h5, 1));
+        visionSysSim.addVisionTargets(
+                new VisionTargetSim(tagList.get(2).pose, TargetModel.kAprilTag16h5, 2));
+        visionSysSim.update(robotPose);
+        var allTags = waitForSequenceNumber(camera, 2).getTargets();
+
+        var global =
+                VisionEstimation.estimateCamPosePNP(
+                                camera.getCameraMatrix().get(),
+                                camera.getDistCoeffs().get(),
+                                allTags,
+                                layout,
+                                TargetModel.kAprilTag16h5)
+                        .get();
+
+        // Starting a few centimeters and a degree off, refining finds the global solution
+        var guess =
+                global.best.plus(
+                        new Transform3d(
+                                new Translation3d(0.03, -0.02, 0.01),
+                                new Rotation3d(0, Math.toRadians(1), Math.toRadians(-1))));
+        var refined =
+                VisionEstimation.refineCamPosePNP(
+                                camera.getCameraMatrix().get(),
+                                camera.getDistCoeffs().get(),
+                                allTags,
+                                layout,
+                                TargetModel.kAprilTag16h5,
+                                guess)
+                        .get();
+        Pose3d globalPose = new Pose3d().plus(global.best);
+        Pose3d refinedPose = new Pose3d().plus(refined.best);
+        assertEquals(globalPose.getX(), refinedPose.getX(), .005);
+        assertEquals(globalPose.getY(), refinedPose.getY(), .005);
+        assertEquals(globalPose.getZ(), refinedPose.getZ(), .005);
+        assertEquals(0, globalPose.getRotation().minus(refinedPose.getRotation()).getAngle(), 0.005);
+        assertEquals(global.bestReprojErr, refined.bestReprojErr, 0.1);
+
+        // Refining needs more than one tag to be well constrained
+        assertTrue(
+                VisionEstimation.refineCamPosePNP(
+                                camera.getCameraMatrix().get(),
+                                camera.getDistCoeffs().get(),
+                                oneTag,
+                                layout,
+                                TargetModel.kAprilTag16h5,
+                                global.best)
+                        .isEmpty());
+    }
+
     @Test
     public void testTagAmbiguity() {
         var visionSysSim = new VisionSystemSim("Test");
@@ -290,6 +290,138 @@ def get_struct_schema_str(message: MessageType, message_db: List[MessageType]):
     return ret
 
 
+# Packet.MAX_ARRAY_LEN, since VLA lengths are a signed byte
+VLA_MAX_LEN = 127
+
+
+def get_fixed_size(message_db: List[MessageType], type_str: str):
+    """
+    Get the packed size in bytes of a single value of a type, or None if that depends on its
+    contents (because it, or something nested in it, has a VLA or optional)
+    """
+
+    if is_intrinsic_type(type_str):
+        return data_types[type_str]["len"]
+
+    message = get_message_by_name(message_db, type_str)
+    if get_shimmed_filter(message_db)(type_str):
+        return message["len"]
+
+    total = 0
+    for field in message["fields"]:
+        if field.get("optional") or field.get("vla"):
+            return None
+        size = get_fixed_size(message_db, field["type"])
+        if size is None:
+            return None
+        total += size
+
+    return total
+
+
+def get_max_byte_size(message_db: List[MessageType], message: MessageType) -> int:
+    """
+    Get the most bytes a message can pack into, with every VLA full and every optional present
+    """
+
+    total = 0
+    for field in message["fields"]:
+        size = get_fixed_size(message_db, field["type"])
+        if size is None:
+            size = get_max_byte_size(
+                message_db, get_message_by_name(message_db, field["type"])
+            )
+
+        if field.get("optional"):
+            size = 1 + size
+        elif field.get("vla"):
+            size = 1 + VLA_MAX_LEN * size
+
+        total += size
+
+    return total
+
+
+def get_java_view_fields(message_db: List[MessageType], message: MessageType):
+    """
+    Work out how the generated Java View class finds and reads each field in place. Fields
+    after the first variably sized one don't have a constant offset, so their offset is the
+    previous field's offset plus that field's size, as a Java expression of the previous
+    field's offset `o`.
+    """
+
+    ret = []
+    const_offset = 0
+    prev = None
+    for field in message["fields"]:
+        type_str = field["type"]
+        optional = bool(field.get("optional"))
+        vla = bool(field.get("vla"))
+        element_size = get_fixed_size(message_db, type_str)
+
+        if is_intrinsic_type(type_str):
+            kind = "intrinsic"
+            java_type = data_types[type_str]["java_type"]
+            view_read = data_types[type_str]["java_view_read"]
+        elif get_shimmed_filter(message_db)(type_str):
+            kind = "shimmed"
+            java_type = type_str
+            view_read = get_message_by_name(message_db, type_str)["java_view_read"]
+        else:
+            kind = "message"
+            java_type = type_str + "View"
+            view_read = None
+
+        if optional:
+            present_size = (
+                element_size
+                if element_size is not None
+                else f"{java_type}.sizeOf(data, o + 1)"
+            )
+            size = f"(data[o] == 1 ? 1 + {present_size} : 1)"
+        elif vla:
+            size = (
+                f"1 + data[o] * {element_size}"
+                if element_size is not None
+                else f"{java_type}.sizeOfList(data, o)"
+            )
+        else:
+            size = (
+                str(element_size)
+                if element_size is not None
+                else f"{java_type}.sizeOf(data, o)"
+            )
+
+        ret.append(
+            {
+                "name": field["name"],
+                "accessor": field["name"][0].upper() + field["name"][1:],
+                "kind": kind,
+                "optional": optional,
+                "vla": vla,
+                "java_type": java_type,
+                "view_read": view_read,
+                "element_size": element_size,
+                "const_offset": const_offset,
+                "prev": prev,
+                "size": size,
+            }
+        )
+
+        if (
+            const_offset is not None
+            and not optional
+            and not vla
+            and element_size is not None
+        ):
+            const_offset += element_size
+        else:
+            const_offset = None
+        prev = ret[-1]
+
+    return ret
+
+
 def generate_photon_messages(cpp_java_root, py_root, template_root):
     messages = parse_yaml("messages.yaml")
 
@@ -350,12 +482,14 @@ def generate_photon_messages(cpp_java_root, py_root, template_root):
         message = cast(MessageType, message)
 
         java_name = f"{message['name']}Serde.java"
+        java_view_name = f"{message['name']}View.java"
         cpp_serde_header_name = f"{message['name']}Serde.h"
         cpp_serde_source_name = f"{message['name']}Serde.cpp"
         cpp_struct_header_name = f"{message['name']}Struct.h"
         py_name = f"{message['name']}Serde.py"
 
         java_template = env.get_template("Message.java.jinja")
+        java_view_template = env.get_template("MessageView.java.jinja")
 
         cpp_serde_header_template = env.get_template("ThingSerde.h.jinja")
         cpp_serde_source_template = env.get_template("ThingSerde.cpp.jinja")
@@ -367,6 +501,7 @@ def generate_photon_messages(cpp_java_root, py_root, template_root):
 
         for output_name, template, output_folder in [
             [java_name, java_template, java_output_dir],
+            [java_view_name, java_view_template, java_output_dir],
             [cpp_serde_header_name, cpp_serde_header_template, cpp_serde_header_dir],
             [cpp_serde_source_name, cpp_serde_source_template, cpp_serde_source_dir],
             [cpp_struct_header_name, cpp_struct_header_template, cpp_struct_header_dir],
@@ -406,6 +541,9 @@ def generate_photon_messages(cpp_java_root, py_root, template_root):
                     message_fmt=get_struct_schema_str(message, messages),
                     message_hash=message_hash,
                     cpp_includes=get_includes(messages, message),
+                    max_byte_size=get_max_byte_size(messages, message),
+                    fixed_size=get_fixed_size(messages, message["name"]),
+                    view_fields=get_java_view_fields(messages, message),
                     nested_photon_types=nested_photon_types,
                     nested_wpilib_types=nested_wpilib_types,
                     test=False,
@@ -496,12 +634,14 @@ def generate_tests(cpp_java_test_root, py_test_root, template_root):
         test_message = cast(MessageType, test_message)
 
         java_name = f"{test_message['name']}Serde.java"
+        java_view_name = f"{test_message['name']}View.java"
         cpp_serde_header_name = f"{test_message['name']}Serde.h"
         cpp_serde_source_name = f"{test_message['name']}Serde.cpp"
         cpp_struct_header_name = f"{test_message['name']}Struct.h"
         py_name = f"{test_message['name']}Serde.py"
 
         java_template = env.get_template("Message.java.jinja")
+        java_view_template = env.get_template("MessageView.java.jinja")
 
         cpp_serde_header_template = env.get_template("ThingSerde.h.jinja")
         cpp_serde_source_template = env.get_template("ThingSerde.cpp.jinja")
@@ -522,6 +662,7 @@ def generate_tests(cpp_java_test_root, py_test_root, template_root):
 
         for output_name, template, output_folder in [
             [java_name, java_template, java_output_dir],
+            [java_view_name, java_view_template, java_output_dir],
             [cpp_serde_header_name, cpp_serde_header_template, cpp_serde_header_dir],
             [cpp_serde_source_name, cpp_serde_source_template, cpp_serde_source_dir],
             [cpp_struct_header_name, cpp_struct_header_template, cpp_struct_header_dir],
@@ -576,6 +717,9 @@ def generate_tests(cpp_java_test_root, py_test_root, template_root):
                     message_fmt=get_struct_schema_str(test_message, message_db),
                     message_hash=message_hash,
                     cpp_includes=get_includes(message_db, test_message),
+                    max_byte_size=get_max_byte_size(message_db, test_message),
+                    fixed_size=get_fixed_size(message_db, test_message["name"]),
+                    view_fields=get_java_view_fields(message_db, test_message),
                     nested_photon_types=nested_photon_types,
                     nested_wpilib_types=nested_wpilib_types,
                     test=True,
@@ -41,6 +41,7 @@ import org.photonvision.common.logging.LogLevel;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.common.logging.PvCSCoreLogger;
 import org.photonvision.common.networking.NetworkManager;
+import org.photonvision.common.util.StartupOrchestrator;
 import org.photonvision.common.util.TestUtils;
 import org.photonvision.server.Server;
 import org.photonvision.vision.apriltag.AprilTagFamily;
@@ -183,6 +184,22 @@ public class Main implements Callable<Integer> {
         }
     }
 
+    /**
+     * Add a step that tries to load an optional JNI library. Failing to load one is not fatal, so the
+     * step always succeeds.
+     */
+    private void addJniStep(StartupOrchestrator startup, List<String> stepNames, JNITypes type) {
+        var name = "jni-" + type.name().toLowerCase();
+        startup.addStep(
+                name,
+                List.of("jni"),
+                () -> {
+                    tryLoadJNI(type);
+                    return true;
+                });
+        stepNames.add(name);
+    }
+
     @Override
     public Integer call() {
         var logLevel = debugMode ? LogLevel.TRACE : LogLevel.DEBUG;
@@ -237,99 +254,190 @@ public class Main implements Callable<Integer> {
             return 1;
         }
 
-        try {
-            boolean success = LoadJNI.loadLibraries();
-
-            if (!success) {
-                logger.error("Failed to load native libraries! Giving up :(");
-                return 1;
-            }
-        } catch (Exception e) {
-            logger.error("Failed to load native libraries!", e);
-            return 1;
-        }
-        logger.info("WPILib and photon-targeting JNI libraries loaded.");
-
-        if (!HAL.initialize(500, 0)) {
-            logger.error("Failed to initialize the HAL! Giving up :(");
-            return 1;
-        }
-
+        // Steps that don't depend on each other run concurrently, so a brownout costs as little time
+        // as possible before the first frame
+        var startup = new StartupOrchestrator();
+
+        startup.addStep(
+                "jni",
+                List.of(),
+                () -> {
+                    if (!LoadJNI.loadLibraries()) {
+                        logger.error("Failed to load native libraries! Giving up :(");
+                        return false;
+                    }
+                    logger.info("WPILib and photon-targeting JNI libraries loaded.");
+
+                    CVMat.enablePrint(false);
+                    PipelineProfiler.enablePrint(false);
+                    return true;
+                });
+
+        // Warming up Javalin and its static file handler only needs the classpath
+        startup.addStep(
+                "webserver-prepare",
+                List.of(),
+                () -> {
+                    Server.prepare();
+                    return true;
+                });
+
+        startup.addStep(
+                "hal",
+                List.of("jni"),
+                () -> {
+                    if (!HAL.initialize(500, 0)) {
+                        logger.error("Failed to initialize the HAL! Giving up :(");
+                        return false;
+                    }
+                    return true;
+                });
+
+        var optionalJniSteps = new ArrayList<String>();
         if (Platform.isRaspberryPi()) {
-            tryLoadJNI(JNITypes.LIBCAMERA);
+            addJniStep(startup, optionalJniSteps, JNITypes.LIBCAMERA);
         }
 
         if (Platform.isRK3588()) {
-            tryLoadJNI(JNITypes.RKNN_DETECTOR);
+            addJniStep(startup, optionalJniSteps, JNITypes.RKNN_DETECTOR);
         } else {
             logger.warn("Platform does not support RKNN based machine learning!");
         }
 
         if (Platform.isQCS6490()) {
-            tryLoadJNI(JNITypes.RUBIK_DETECTOR);
+            addJniStep(startup, optionalJniSteps, JNITypes.RUBIK_DETECTOR);
         } else {
             logger.warn("Platform does not support Rubik based machine learning!");
         }
 
         if (Platform.isWindows() || Platform.isLinux()) {
-            tryLoadJNI(JNITypes.MRCAL);
+            addJniStep(startup, optionalJniSteps, JNITypes.MRCAL);
         }
 
-        CVMat.enablePrint(false);
-        PipelineProfiler.enablePrint(false);
-
-        // Add Linux kernel log->Photon logger
-        KernelLogLogger.getInstance();
-
-        // Add CSCore->Photon logger
-        PvCSCoreLogger.getInstance();
-
-        logger.debug("Loading ConfigManager...");
-        ConfigManager.getInstance().load(); // init config manager
-        ConfigManager.getInstance().requestSave();
-
-        logger.info("Loading ML models...");
-        var modelManager = NeuralNetworkModelManager.getInstance();
-        modelManager.extractModels();
-        modelManager.discoverModels();
-
-        logger.debug("Loading NetworkManager...");
-        NetworkManager.getInstance().reinitialize();
-
-        logger.debug("Loading NetworkTablesManager...");
-        NetworkTablesManager.getInstance()
-                .setConfig(ConfigManager.getInstance().getConfig().getNetworkConfig());
-        NetworkTablesManager.getInstance().registerTimedTasks();
-
-        logger.debug("Loading HardwareManager...");
-        // Force load the hardware manager
-        HardwareManager.getInstance();
+        startup.addStep(
+                "loggers",
+                List.of("jni"),
+                () -> {
+                    // Add Linux kernel log->Photon logger
+                    KernelLogLogger.getInstance();
+
+                    // Add CSCore->Photon logger
+                    PvCSCoreLogger.getInstance();
+                    return true;
+                });
+
+        // Config deserialization creates OpenCV objects (e.g. target models), so needs JNI
+        startup.addStep(
+                "config",
+                List.of("jni"),
+                () -> {
+                    logger.debug("Loading ConfigManager...");
+                    ConfigManager.getInstance().load(); // init config manager
+                    ConfigManager.getInstance().requestSave();
+                    return true;
+                });
+
+        startup.addStep(
+                "ml-models",
+                List.of("config"),
+                () -> {
+                    logger.info("Loading ML models...");
+                    var modelManager = NeuralNetworkModelManager.getInstance();
+                    modelManager.extractModels();
+                    modelManager.discoverModels();
+                    return true;
+                });
+
+        startup.addStep(
+                "network",
+                List.of("config"),
+                () -> {
+                    logger.debug("Loading NetworkManager...");
+                    NetworkManager.getInstance().reinitialize();
+                    return true;
+                });
+
+        startup.addStep(
+                "networktables",
+                List.of("config"),
+                () -> {
+                    logger.debug("Loading NetworkTablesManager...");
+                    NetworkTablesManager.getInstance()
+                            .setConfig(ConfigManager.getInstance().getConfig().getNetworkConfig());
+                    NetworkTablesManager.getInstance().registerTimedTasks();
+                    return true;
+                });
+
+        startup.addStep(
+                "hardware",
+                List.of("hal", "networktables"),
+                () -> {
+                    logger.debug("Loading HardwareManager...");
+                    // Force load the hardware manager
+                    HardwareManager.getInstance();
+                    return true;
+                });
 
         if (smoketest) {
+            if (!startup.run()) {
+                return 1;
+            }
             logger.info("PhotonVision base functionality loaded -- smoketest complete");
             return 0;
         }
 
-        logger.debug("Loading SystemMonitor...");
-        SystemMonitor.getInstance().logSystemInformation();
-        SystemMonitor.getInstance().startMonitor(500, 1000);
-
-        // todo - should test mode just add test mode sources, but still allow local usb
-        // cameras to be added?
-        if (!testMode) {
-            logger.debug("Loading VisionSourceManager...");
-            VisionSourceManager.getInstance()
-                    .registerLoadedConfigs(
-                            ConfigManager.getInstance().getConfig().getCameraConfigurations().values());
-        } else {
-            addTestModeSources();
+        startup.addStep(
+                "system-monitor",
+                List.of("networktables"),
+                () -> {
+                    logger.debug("Loading SystemMonitor...");
+                    SystemMonitor.getInstance().logSystemInformation();
+                    SystemMonitor.getInstance().startMonitor(500, 1000);
+                    return true;
+                });
+
+        var visionSourceDependencies = new ArrayList<>(List.of("hardware", "ml-models", "loggers"));
+        visionSourceDependencies.addAll(optionalJniSteps);
+        startup.addStep(
+                "vision-sources",
+                visionSourceDependencies,
+                () -> {
+                    // todo - should test mode just add test mode sources, but still allow local usb
+                    // cameras to be added?
+                    if (!testMode) {
+                        logger.debug("Loading VisionSourceManager...");
+                        VisionSourceManager.getInstance()
+                                .registerLoadedConfigs(
+                                        ConfigManager.getInstance().getConfig().getCameraConfigurations().values());
+                    } else {
+                        addTestModeSources();
+                    }
+                    return true;
+                });
+
+        startup.addStep(
+                "camera-discovery",
+                List.of("vision-sources"),
+                () -> {
+                    VisionSourceManager.getInstance().registerTimedTasks();
+                    return true;
+                });
+
+        startup.addStep(
+                "webserver",
+                List.of("webserver-prepare", "vision-sources"),
+                () -> {
+                    logger.info("Starting server...");
+                    HardwareManager.getInstance().setError(Optional.empty());
+                    Server.initialize(DEFAULT_WEBPORT);
+                    return true;
+                });
+
+        if (!startup.run()) {
+            logger.error("PhotonVision failed to start up!");
+            return 1;
         }
 
-        VisionSourceManager.getInstance().registerTimedTasks();
-
-        logger.info("Starting server...");
-        HardwareManager.getInstance().setError(Optional.empty());
-        Server.initialize(DEFAULT_WEBPORT);
         return -1; // Don't exit, the server is running
     }
 
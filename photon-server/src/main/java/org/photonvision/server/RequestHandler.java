@@ -39,6 +39,7 @@ import org.opencv.core.MatOfInt;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.configuration.FrameRecorderSettings;
 import org.photonvision.common.configuration.NetworkConfig;
 import org.photonvision.common.configuration.NeuralNetworkModelManager;
 import org.photonvision.common.configuration.NeuralNetworkModelsSettings.ModelProperties;
@@ -46,23 +47,32 @@ import org.photonvision.common.dataflow.DataChangeDestination;
 import org.photonvision.common.dataflow.DataChangeService;
 import org.photonvision.common.dataflow.events.IncomingWebSocketEvent;
 import org.photonvision.common.dataflow.events.OutgoingUIEvent;
+import org.photonvision.common.dataflow.networktables.NTDataPublisher;
 import org.photonvision.common.dataflow.networktables.NetworkTablesManager;
 import org.photonvision.common.dataflow.websocket.UIPhotonConfiguration;
 import org.photonvision.common.hardware.HardwareManager;
 import org.photonvision.common.hardware.Platform;
+import org.photonvision.common.hardware.metrics.SystemMonitor;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.common.networking.NetworkManager;
 import org.photonvision.common.util.ShellExec;
+import org.photonvision.common.util.StartupOrchestrator;
 import org.photonvision.common.util.TimedTaskManager;
 import org.photonvision.common.util.file.ProgramDirectoryUtilities;
 import org.photonvision.tflite.TFLiteJNI.TFLiteSource;
 import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.camera.CameraQuirk;
 import org.photonvision.vision.camera.PVCameraInfo;
+import org.photonvision.vision.frame.consumer.FrameRecorder;
 import org.photonvision.vision.objects.ObjectDetector;
+import org.photonvision.vision.objects.ObjectDetectorCache;
 import org.photonvision.vision.objects.RknnModel;
 import org.photonvision.vision.objects.TFLiteModel;
+import org.photonvision.vision.pipe.impl.MultiTargetPNPPipe;
+import org.photonvision.vision.pipeline.ObjectDetectionPipeline;
+import org.photonvision.vision.processes.FrameBudgetGovernor;
+import org.photonvision.vision.processes.VisionModule;
 import org.photonvision.vision.processes.VisionSourceManager;
 import org.zeroturnaround.zip.ZipUtil;
 
@@ -80,6 +90,18 @@ public class RequestHandler {
         ctx.result("not dead yet");
     }
 
+    /** Report how long each step of program startup took, so slow boots can be diagnosed */
+    public static void onStartupTimelineRequest(Context ctx) {
+        ctx.json(StartupOrchestrator.getStartupTimeline());
+        ctx.status(200);
+    }
+
+    /** Report the CPU usage of each thread, so we can see which camera is loading the coprocessor */
+    public static void onThreadMetricsRequest(Context ctx) {
+        ctx.json(SystemMonitor.getInstance().getThreadCpuUsage());
+        ctx.status(200);
+    }
+
     public static void setTestMode(boolean isTestMode) {
         testMode = isTestMode;
     }
@@ -994,6 +1016,156 @@ public class RequestHandler {
                                 UIPhotonConfiguration.programStateToUi(ConfigManager.getInstance().getConfig())));
     }
 
+    /** Report load time and memory of the object detection models that are currently loaded */
+    public static void onObjectDetectionStatsRequest(Context ctx) {
+        ctx.json(ObjectDetectorCache.getInstance().getStats());
+        ctx.status(200);
+    }
+
+    public static void onInferenceStatsRequest(Context ctx) {
+        var stats = new HashMap<String, ObjectDetectionPipeline.InferenceStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            module.getInferenceStats().ifPresent(it -> stats.put(module.uniqueName(), it));
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    public static void onMultiTagStatsRequest(Context ctx) {
+        var stats = new HashMap<String, MultiTargetPNPPipe.WarmStartStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            module.getWarmStartStats().ifPresent(it -> stats.put(module.uniqueName(), it));
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    public static void onFrameBudgetStatsRequest(Context ctx) {
+        var stats = new HashMap<String, FrameBudgetGovernor.GovernorStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            module.getFrameBudgetStats().ifPresent(it -> stats.put(module.uniqueName(), it));
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    public static void onStreamStatsRequest(Context ctx) {
+        var stats = new HashMap<String, VisionModule.StreamStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            stats.put(module.uniqueName(), module.getStreamStats());
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    public static void onNTPublishStatsRequest(Context ctx) {
+        var stats = new HashMap<String, NTDataPublisher.PublishStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            stats.put(module.uniqueName(), module.getNTPublishStats());
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    /**
+     * Get a camera's results captured between two times, packed as they were published to NT. Both
+     * times are capture timestamps in microseconds, in the time sync server's timebase, and are
+     * inclusive.
+     */
+    public static void onResultHistoryRequest(Context ctx) {
+        String cameraUniqueName = ctx.queryParam("cameraUniqueName");
+        long from;
+        long to;
+        try {
+            from = Long.parseLong(ctx.queryParam("from"));
+            to = Long.parseLong(ctx.queryParam("to"));
+        } catch (NumberFormatException e) {
+            ctx.status(400);
+            ctx.result("from and to must be timestamps in microseconds");
+            return;
+        }
+
+        var module = VisionSourceManager.getInstance().vmm.getModule(cameraUniqueName);
+        if (module == null) {
+            ctx.status(404);
+            return;
+        }
+
+        ctx.json(module.getResultHistory().query(from, to));
+        ctx.status(200);
+    }
+
+    public static void onRecorderStatsRequest(Context ctx) {
+        var stats = new HashMap<String, FrameRecorder.RecorderStats>();
+        for (var module : VisionSourceManager.getInstance().vmm.getModules()) {
+            stats.put(module.uniqueName(), module.getRecorderStats());
+        }
+        ctx.json(stats);
+        ctx.status(200);
+    }
+
+    @Json
+    record RecorderSaveRequest(String cameraUniqueName) {}
+
+    public static void onRecorderSaveRequest(Context ctx) {
+        try {
+            RecorderSaveRequest request =
+                    Jsonb.instance().type(RecorderSaveRequest.class).fromJson(ctx.body());
+            if (request == null) {
+                ctx.status(400);
+                ctx.result("Expected a camera to save a recording from");
+                return;
+            }
+
+            var module = VisionSourceManager.getInstance().vmm.getModule(request.cameraUniqueName);
+            if (module == null) {
+                ctx.status(404);
+                return;
+            }
+            module.saveRecording();
+            ctx.status(200);
+            ctx.result("Saving recording");
+        } catch (IllegalStateException | JsonException e) {
+            ctx.status(400).result("Invalid JSON format");
+            logger.error("Failed to process recording save request", e);
+        }
+    }
+
+    @Json
+    record RecorderSettingsRequest(String cameraUniqueName, FrameRecorderSettings settings) {}
+
+    public static void onRecorderSettingsRequest(Context ctx) {
+        try {
+            RecorderSettingsRequest request =
+                    Jsonb.instance().type(RecorderSettingsRequest.class).fromJson(ctx.body());
+
+            if (request == null || request.settings == null) {
+                ctx.status(400);
+                ctx.result("Expected a camera and its recorder settings");
+                logger.error("Recorder settings request was missing its settings");
+                return;
+            }
+
+            var module = VisionSourceManager.getInstance().vmm.getModule(request.cameraUniqueName);
+            if (module == null) {
+                ctx.status(404);
+                return;
+            }
+
+            var settings = request.settings.clamped();
+            if (!settings.equals(request.settings)) {
+                logger.warn("Recorder settings " + request.settings + " were out of range");
+            }
+            module.setRecorderSettings(settings);
+            ctx.status(200);
+            ctx.result("Successfully changed recorder settings");
+            logger.info("Changed recorder settings to " + settings);
+        } catch (IllegalStateException | JsonException e) {
+            ctx.status(400).result("Invalid JSON format");
+            logger.error("Failed to process recorder settings request", e);
+        }
+    }
+
     public static void onDeviceRestartRequest(Context ctx) {
         ctx.status(HardwareManager.getInstance().restartDevice() ? 204 : 500);
     }
@@ -1118,13 +1290,13 @@ public class RequestHandler {
                         .findFirst()
                         .orElse(null);
 
-        if (calList == null || calList.observations.size() < observationIdx) {
+        if (calList == null || calList.getObservations().size() <= observationIdx) {
             ctx.status(404);
             return;
         }
 
         // encode as jpeg to save even more space. reduces size of a 1280p image from 300k to 25k
-        var mat = calList.observations.get(observationIdx).annotateImage();
+        var mat = calList.getObservations().get(observationIdx).annotateImage();
         if (mat == null) {
             ctx.status(404);
             return;
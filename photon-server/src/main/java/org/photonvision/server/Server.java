@@ -50,14 +50,25 @@ public class Server {
         }
     }
 
-    public static void initialize(int port) {
+    /**
+     * Create the Javalin app and register all routes without binding to a port. Loading Javalin and
+     * Jetty takes a while on a coprocessor, so this can be done while the rest of the program starts.
+     */
+    public static synchronized void prepare() {
+        if (app == null) {
+            app = create();
+        }
+    }
+
+    public static synchronized void initialize(int port) {
         DataChangeService.getInstance().addSubscriber(new RestartSubscriber());
 
-        start(port);
+        prepare();
+        app.start(port);
     }
 
-    private static void start(int port) {
-        app =
+    private static Javalin create() {
+        var app =
                 Javalin.create(
                         javalinConfig -> {
                             javalinConfig.showJavalinBanner = false;
@@ -114,6 +125,8 @@ public class Server {
 
         /* API Events */
         app.get("/api/status", RequestHandler::onStatusRequest);
+        app.get("/api/status/startup", RequestHandler::onStartupTimelineRequest);
+        app.get("/api/status/threads", RequestHandler::onThreadMetricsRequest);
 
         // Settings
         app.post("/api/settings", RequestHandler::onSettingsImportRequest);
@@ -158,6 +171,16 @@ public class Server {
         app.post("/api/objectdetection/delete", RequestHandler::onDeleteObjectDetectionModelRequest);
         app.post("/api/objectdetection/rename", RequestHandler::onRenameObjectDetectionModelRequest);
         app.post("/api/objectdetection/nuke", RequestHandler::onNukeObjectDetectionModelsRequest);
+        app.get("/api/objectdetection/stats", RequestHandler::onObjectDetectionStatsRequest);
+        app.get("/api/objectdetection/inference", RequestHandler::onInferenceStatsRequest);
+        app.get("/api/apriltag/multitag", RequestHandler::onMultiTagStatsRequest);
+        app.get("/api/vision/framebudget", RequestHandler::onFrameBudgetStatsRequest);
+        app.get("/api/vision/streamstats", RequestHandler::onStreamStatsRequest);
+        app.get("/api/networktables/publishstats", RequestHandler::onNTPublishStatsRequest);
+        app.get("/api/networktables/history", RequestHandler::onResultHistoryRequest);
+        app.get("/api/recorder/stats", RequestHandler::onRecorderStatsRequest);
+        app.post("/api/recorder/save", RequestHandler::onRecorderSaveRequest);
+        app.post("/api/recorder/settings", RequestHandler::onRecorderSettingsRequest);
 
         /* Testing API Events */
 
@@ -166,17 +189,18 @@ public class Server {
         app.post("/api/test/activateTestMode", TestRequestHandler::testMode);
         app.post("/api/test/override/platform", TestRequestHandler::handlePlatformOverrideRequest);
 
-        app.start(port);
+        return app;
     }
 
     /**
      * Seems like if we change the static IP of this device, Javalin refuses to tell us when new
      * Websocket clients connect. As a hack, we can restart the server every time we change static IPs
      */
-    public static void restart() {
+    public static synchronized void restart() {
         logger.info("Web server going down for restart");
         int oldPort = app.port();
         app.stop();
-        start(oldPort);
+        app = create();
+        app.start(oldPort);
     }
 }
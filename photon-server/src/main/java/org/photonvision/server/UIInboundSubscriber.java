@@ -29,6 +29,7 @@ import org.photonvision.common.dataflow.events.OutgoingUIEvent;
 import org.photonvision.common.dataflow.networktables.NetworkTablesManager;
 import org.photonvision.common.dataflow.websocket.UIPhotonConfiguration;
 import org.photonvision.common.logging.Logger;
+import org.photonvision.vision.processes.VisionSourceManager;
 
 public class UIInboundSubscriber extends DataChangeSubscriber {
     public UIInboundSubscriber() {
@@ -50,6 +51,8 @@ public class UIInboundSubscriber extends DataChangeSubscriber {
                 DataChangeService.getInstance().publishEvent(message);
                 Logger.sendConnectedBacklog();
                 NetworkTablesManager.getInstance().broadcastConnectedStatus();
+                // Camera enumeration is only pushed on change now, so send the current state
+                VisionSourceManager.getInstance().requestCameraRescan();
             }
         }
     }
@@ -55,8 +55,8 @@ public class MultiTargetPNPResultSerde implements PacketSerde<MultiTargetPNPResu
 
     @Override
     public int getMaxByteSize() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
+        // Every VLA full and every optional present
+        return 391;
     }
     @Override
     public void pack(Packet packet, MultiTargetPNPResult value) {
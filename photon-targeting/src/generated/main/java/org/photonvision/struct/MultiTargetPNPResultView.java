@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// THIS FILE WAS AUTO-GENERATED BY ./photon-serde/generate_messages.py. DO NOT MODIFY
+
+package org.photonvision.struct;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.utils.PacketUtils;
+
+// WPILib imports (if any)
+
+/**
+ * Auto-generated flyweight view of a packed MultiTargetPNPResult. Fields are read straight out of the
+ * packed bytes when asked for, rather than decoding the whole message up front like
+ * {@link MultiTargetPNPResultSerde#unpack}. Views can be rewrapped around new data, and nested messages
+ * are read into views the caller passes in, so reading doesn't allocate (except for WPILib types).
+ *
+ * <p>Reading past the end of the wrapped data throws an ArrayIndexOutOfBoundsException.
+ */
+public final class MultiTargetPNPResultView {
+    private byte[] data;
+    private int offset;
+
+    /** Make a view that isn't wrapping anything yet */
+    public MultiTargetPNPResultView() {}
+
+    /**
+     * Point this view at a MultiTargetPNPResult packed into data.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the MultiTargetPNPResult starts
+     * @return This view
+     */
+    public MultiTargetPNPResultView wrap(byte[] data, int offset) {
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Point this view at a MultiTargetPNPResult packed into data.
+     *
+     * @param data Packed bytes, starting with the MultiTargetPNPResult
+     * @return This view
+     */
+    public MultiTargetPNPResultView wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    /**
+     * Point this view at a MultiTargetPNPResult packed at the start of a packet.
+     *
+     * @param packet The packet, which isn't read from or copied
+     * @return This view
+     */
+    public MultiTargetPNPResultView wrap(Packet packet) {
+        return wrap(packet.getData(), 0);
+    }
+
+    /**
+     * @return How many bytes the wrapped MultiTargetPNPResult takes up
+     */
+    public int getByteSize() {
+        return sizeOf(data, offset);
+    }
+
+    /**
+     * Get the packed size of the MultiTargetPNPResult starting at offset.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the MultiTargetPNPResult starts
+     * @return Its size in bytes
+     */
+    public static int sizeOf(byte[] data, int offset) {
+        int o = fiducialIDsUsedOffset(data, offset);
+        return o + 1 + data[o] * 2 - offset;
+    }
+
+    /**
+     * Get the packed size of a VLA of MultiTargetPNPResult, including its length byte.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the VLA's length byte is
+     * @return Its size in bytes
+     */
+    public static int sizeOfList(byte[] data, int offset) {
+        int o = offset + 1;
+        for (int i = 0; i < data[offset]; i++) {
+            o += sizeOf(data, o);
+        }
+        return o - offset;
+    }
+
+    private static int estimatedPoseOffset(byte[] data, int offset) {
+        return offset + 0;
+    }
+
+    public PnpResultView getEstimatedPose(PnpResultView into) {
+        return into.wrap(data, estimatedPoseOffset(data, offset));
+    }
+
+    private static int fiducialIDsUsedOffset(byte[] data, int offset) {
+        return offset + 136;
+    }
+
+    public int getFiducialIDsUsedCount() {
+        return data[fiducialIDsUsedOffset(data, offset)];
+    }
+
+    public short getFiducialIDsUsed(int index) {
+        return PacketUtils.readShort(data, fiducialIDsUsedOffset(data, offset) + 1 + index * 2);
+    }
+}
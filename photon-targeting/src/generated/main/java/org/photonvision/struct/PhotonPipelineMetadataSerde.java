@@ -55,8 +55,8 @@ public class PhotonPipelineMetadataSerde implements PacketSerde<PhotonPipelineMe
 
     @Override
     public int getMaxByteSize() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
+        // Every VLA full and every optional present
+        return 32;
     }
     @Override
     public void pack(Packet packet, PhotonPipelineMetadata value) {
@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// THIS FILE WAS AUTO-GENERATED BY ./photon-serde/generate_messages.py. DO NOT MODIFY
+
+package org.photonvision.struct;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.utils.PacketUtils;
+
+// WPILib imports (if any)
+
+/**
+ * Auto-generated flyweight view of a packed PhotonPipelineMetadata. Fields are read straight out of the
+ * packed bytes when asked for, rather than decoding the whole message up front like
+ * {@link PhotonPipelineMetadataSerde#unpack}. Views can be rewrapped around new data, and nested messages
+ * are read into views the caller passes in, so reading doesn't allocate (except for WPILib types).
+ *
+ * <p>Reading past the end of the wrapped data throws an ArrayIndexOutOfBoundsException.
+ */
+public final class PhotonPipelineMetadataView {
+    private byte[] data;
+    private int offset;
+
+    /** Make a view that isn't wrapping anything yet */
+    public PhotonPipelineMetadataView() {}
+
+    /**
+     * Point this view at a PhotonPipelineMetadata packed into data.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PhotonPipelineMetadata starts
+     * @return This view
+     */
+    public PhotonPipelineMetadataView wrap(byte[] data, int offset) {
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Point this view at a PhotonPipelineMetadata packed into data.
+     *
+     * @param data Packed bytes, starting with the PhotonPipelineMetadata
+     * @return This view
+     */
+    public PhotonPipelineMetadataView wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    /**
+     * Point this view at a PhotonPipelineMetadata packed at the start of a packet.
+     *
+     * @param packet The packet, which isn't read from or copied
+     * @return This view
+     */
+    public PhotonPipelineMetadataView wrap(Packet packet) {
+        return wrap(packet.getData(), 0);
+    }
+
+    /**
+     * @return How many bytes the wrapped PhotonPipelineMetadata takes up
+     */
+    public int getByteSize() {
+        return sizeOf(data, offset);
+    }
+
+    /**
+     * Get the packed size of the PhotonPipelineMetadata starting at offset.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PhotonPipelineMetadata starts
+     * @return Its size in bytes
+     */
+    public static int sizeOf(byte[] data, int offset) {
+        return 32;
+    }
+
+    /**
+     * Get the packed size of a VLA of PhotonPipelineMetadata, including its length byte.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the VLA's length byte is
+     * @return Its size in bytes
+     */
+    public static int sizeOfList(byte[] data, int offset) {
+        return 1 + data[offset] * 32;
+    }
+
+    private static int sequenceIDOffset(byte[] data, int offset) {
+        return offset + 0;
+    }
+
+    public long getSequenceID() {
+        return PacketUtils.readLong(data, sequenceIDOffset(data, offset));
+    }
+
+    private static int captureTimestampMicrosOffset(byte[] data, int offset) {
+        return offset + 8;
+    }
+
+    public long getCaptureTimestampMicros() {
+        return PacketUtils.readLong(data, captureTimestampMicrosOffset(data, offset));
+    }
+
+    private static int publishTimestampMicrosOffset(byte[] data, int offset) {
+        return offset + 16;
+    }
+
+    public long getPublishTimestampMicros() {
+        return PacketUtils.readLong(data, publishTimestampMicrosOffset(data, offset));
+    }
+
+    private static int timeSinceLastPongOffset(byte[] data, int offset) {
+        return offset + 24;
+    }
+
+    public long getTimeSinceLastPong() {
+        return PacketUtils.readLong(data, timeSinceLastPongOffset(data, offset));
+    }
+}
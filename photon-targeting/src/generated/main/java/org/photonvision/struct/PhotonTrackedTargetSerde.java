@@ -47,16 +47,16 @@ import org.wpilib.math.geometry.Transform3d;
 public class PhotonTrackedTargetSerde implements PacketSerde<PhotonTrackedTarget> {
 
     @Override
-    public final String getInterfaceUUID() { return "cc6dbb5c5c1e0fa808108019b20863f1"; }
+    public final String getInterfaceUUID() { return "1ba4506e1efea23c92bf4fe67089bb9e"; }
     @Override
-    public final String getSchema() { return "float64 yaw;float64 pitch;float64 area;float64 skew;int32 fiducialId;int32 objDetectId;float32 objDetectConf;Transform3d bestCameraToTarget;Transform3d altCameraToTarget;float64 poseAmbiguity;TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 minAreaRectCorners[?];TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 detectedCorners[?];"; }
+    public final String getSchema() { return "float64 yaw;float64 pitch;float64 area;float64 skew;int32 fiducialId;int32 objDetectId;float32 objDetectConf;Transform3d bestCameraToTarget;Transform3d altCameraToTarget;float64 poseAmbiguity;TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 minAreaRectCorners[?];TargetCorner:16f6ac0dedc8eaccb951f4895d9e18b6 detectedCorners[?];int32 trackId;float64 smoothedYaw;float64 smoothedPitch;float64 smoothedArea;float64 yawVelocity;float64 pitchVelocity;float64 areaVelocity;"; }
     @Override
     public final String getTypeName() { return "PhotonTrackedTarget"; }
 
     @Override
     public int getMaxByteSize() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
+        // Every VLA full and every optional present
+        return 4282;
     }
     @Override
     public void pack(Packet packet, PhotonTrackedTarget value) {
@@ -95,6 +95,27 @@ public class PhotonTrackedTargetSerde implements PacketSerde<PhotonTrackedTarget
 
         // detectedCorners is a custom VLA!
         packet.encodeListImpl(value.detectedCorners,TargetCorner.photonStruct::pack);
+
+        // field trackId is of intrinsic type int32
+        packet.encode(value.trackId);
+
+        // field smoothedYaw is of intrinsic type float64
+        packet.encode(value.smoothedYaw);
+
+        // field smoothedPitch is of intrinsic type float64
+        packet.encode(value.smoothedPitch);
+
+        // field smoothedArea is of intrinsic type float64
+        packet.encode(value.smoothedArea);
+
+        // field yawVelocity is of intrinsic type float64
+        packet.encode(value.yawVelocity);
+
+        // field pitchVelocity is of intrinsic type float64
+        packet.encode(value.pitchVelocity);
+
+        // field areaVelocity is of intrinsic type float64
+        packet.encode(value.areaVelocity);
     }
 
     @Override
@@ -137,6 +158,27 @@ public class PhotonTrackedTargetSerde implements PacketSerde<PhotonTrackedTarget
         // detectedCorners is a custom VLA!
         ret.detectedCorners = packet.decodeListImpl(TargetCorner.photonStruct::unpack);
 
+        // trackId is of intrinsic type int32
+        ret.trackId = packet.decodeInt();
+
+        // smoothedYaw is of intrinsic type float64
+        ret.smoothedYaw = packet.decodeDouble();
+
+        // smoothedPitch is of intrinsic type float64
+        ret.smoothedPitch = packet.decodeDouble();
+
+        // smoothedArea is of intrinsic type float64
+        ret.smoothedArea = packet.decodeDouble();
+
+        // yawVelocity is of intrinsic type float64
+        ret.yawVelocity = packet.decodeDouble();
+
+        // pitchVelocity is of intrinsic type float64
+        ret.pitchVelocity = packet.decodeDouble();
+
+        // areaVelocity is of intrinsic type float64
+        ret.areaVelocity = packet.decodeDouble();
+
         return ret;
     }
 
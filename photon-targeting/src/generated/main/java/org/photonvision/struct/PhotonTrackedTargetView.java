@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// THIS FILE WAS AUTO-GENERATED BY ./photon-serde/generate_messages.py. DO NOT MODIFY
+
+package org.photonvision.struct;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.utils.PacketUtils;
+
+// WPILib imports (if any)
+import org.wpilib.math.geometry.Transform3d;
+
+/**
+ * Auto-generated flyweight view of a packed PhotonTrackedTarget. Fields are read straight out of the
+ * packed bytes when asked for, rather than decoding the whole message up front like
+ * {@link PhotonTrackedTargetSerde#unpack}. Views can be rewrapped around new data, and nested messages
+ * are read into views the caller passes in, so reading doesn't allocate (except for WPILib types).
+ *
+ * <p>Reading past the end of the wrapped data throws an ArrayIndexOutOfBoundsException.
+ */
+public final class PhotonTrackedTargetView {
+    private byte[] data;
+    private int offset;
+
+    /** Make a view that isn't wrapping anything yet */
+    public PhotonTrackedTargetView() {}
+
+    /**
+     * Point this view at a PhotonTrackedTarget packed into data.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PhotonTrackedTarget starts
+     * @return This view
+     */
+    public PhotonTrackedTargetView wrap(byte[] data, int offset) {
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Point this view at a PhotonTrackedTarget packed into data.
+     *
+     * @param data Packed bytes, starting with the PhotonTrackedTarget
+     * @return This view
+     */
+    public PhotonTrackedTargetView wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    /**
+     * Point this view at a PhotonTrackedTarget packed at the start of a packet.
+     *
+     * @param packet The packet, which isn't read from or copied
+     * @return This view
+     */
+    public PhotonTrackedTargetView wrap(Packet packet) {
+        return wrap(packet.getData(), 0);
+    }
+
+    /**
+     * @return How many bytes the wrapped PhotonTrackedTarget takes up
+     */
+    public int getByteSize() {
+        return sizeOf(data, offset);
+    }
+
+    /**
+     * Get the packed size of the PhotonTrackedTarget starting at offset.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PhotonTrackedTarget starts
+     * @return Its size in bytes
+     */
+    public static int sizeOf(byte[] data, int offset) {
+        int o = areaVelocityOffset(data, offset);
+        return o + 8 - offset;
+    }
+
+    /**
+     * Get the packed size of a VLA of PhotonTrackedTarget, including its length byte.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the VLA's length byte is
+     * @return Its size in bytes
+     */
+    public static int sizeOfList(byte[] data, int offset) {
+        int o = offset + 1;
+        for (int i = 0; i < data[offset]; i++) {
+            o += sizeOf(data, o);
+        }
+        return o - offset;
+    }
+
+    private static int yawOffset(byte[] data, int offset) {
+        return offset + 0;
+    }
+
+    public double getYaw() {
+        return PacketUtils.readDouble(data, yawOffset(data, offset));
+    }
+
+    private static int pitchOffset(byte[] data, int offset) {
+        return offset + 8;
+    }
+
+    public double getPitch() {
+        return PacketUtils.readDouble(data, pitchOffset(data, offset));
+    }
+
+    private static int areaOffset(byte[] data, int offset) {
+        return offset + 16;
+    }
+
+    public double getArea() {
+        return PacketUtils.readDouble(data, areaOffset(data, offset));
+    }
+
+    private static int skewOffset(byte[] data, int offset) {
+        return offset + 24;
+    }
+
+    public double getSkew() {
+        return PacketUtils.readDouble(data, skewOffset(data, offset));
+    }
+
+    private static int fiducialIdOffset(byte[] data, int offset) {
+        return offset + 32;
+    }
+
+    public int getFiducialId() {
+        return PacketUtils.readInt(data, fiducialIdOffset(data, offset));
+    }
+
+    private static int objDetectIdOffset(byte[] data, int offset) {
+        return offset + 36;
+    }
+
+    public int getObjDetectId() {
+        return PacketUtils.readInt(data, objDetectIdOffset(data, offset));
+    }
+
+    private static int objDetectConfOffset(byte[] data, int offset) {
+        return offset + 40;
+    }
+
+    public float getObjDetectConf() {
+        return PacketUtils.readFloat(data, objDetectConfOffset(data, offset));
+    }
+
+    private static int bestCameraToTargetOffset(byte[] data, int offset) {
+        return offset + 44;
+    }
+
+    public Transform3d getBestCameraToTarget() {
+        return PacketUtils.readTransform3d(data, bestCameraToTargetOffset(data, offset));
+    }
+
+    private static int altCameraToTargetOffset(byte[] data, int offset) {
+        return offset + 100;
+    }
+
+    public Transform3d getAltCameraToTarget() {
+        return PacketUtils.readTransform3d(data, altCameraToTargetOffset(data, offset));
+    }
+
+    private static int poseAmbiguityOffset(byte[] data, int offset) {
+        return offset + 156;
+    }
+
+    public double getPoseAmbiguity() {
+        return PacketUtils.readDouble(data, poseAmbiguityOffset(data, offset));
+    }
+
+    private static int minAreaRectCornersOffset(byte[] data, int offset) {
+        return offset + 164;
+    }
+
+    public int getMinAreaRectCornersCount() {
+        return data[minAreaRectCornersOffset(data, offset)];
+    }
+
+    public TargetCornerView getMinAreaRectCorners(int index, TargetCornerView into) {
+        return into.wrap(data, minAreaRectCornersOffset(data, offset) + 1 + index * 16);
+    }
+
+    private static int detectedCornersOffset(byte[] data, int offset) {
+        int o = minAreaRectCornersOffset(data, offset);
+        return o + 1 + data[o] * 16;
+    }
+
+    public int getDetectedCornersCount() {
+        return data[detectedCornersOffset(data, offset)];
+    }
+
+    public TargetCornerView getDetectedCorners(int index, TargetCornerView into) {
+        return into.wrap(data, detectedCornersOffset(data, offset) + 1 + index * 16);
+    }
+
+    private static int trackIdOffset(byte[] data, int offset) {
+        int o = detectedCornersOffset(data, offset);
+        return o + 1 + data[o] * 16;
+    }
+
+    public int getTrackId() {
+        return PacketUtils.readInt(data, trackIdOffset(data, offset));
+    }
+
+    private static int smoothedYawOffset(byte[] data, int offset) {
+        int o = trackIdOffset(data, offset);
+        return o + 4;
+    }
+
+    public double getSmoothedYaw() {
+        return PacketUtils.readDouble(data, smoothedYawOffset(data, offset));
+    }
+
+    private static int smoothedPitchOffset(byte[] data, int offset) {
+        int o = smoothedYawOffset(data, offset);
+        return o + 8;
+    }
+
+    public double getSmoothedPitch() {
+        return PacketUtils.readDouble(data, smoothedPitchOffset(data, offset));
+    }
+
+    private static int smoothedAreaOffset(byte[] data, int offset) {
+        int o = smoothedPitchOffset(data, offset);
+        return o + 8;
+    }
+
+    public double getSmoothedArea() {
+        return PacketUtils.readDouble(data, smoothedAreaOffset(data, offset));
+    }
+
+    private static int yawVelocityOffset(byte[] data, int offset) {
+        int o = smoothedAreaOffset(data, offset);
+        return o + 8;
+    }
+
+    public double getYawVelocity() {
+        return PacketUtils.readDouble(data, yawVelocityOffset(data, offset));
+    }
+
+    private static int pitchVelocityOffset(byte[] data, int offset) {
+        int o = yawVelocityOffset(data, offset);
+        return o + 8;
+    }
+
+    public double getPitchVelocity() {
+        return PacketUtils.readDouble(data, pitchVelocityOffset(data, offset));
+    }
+
+    private static int areaVelocityOffset(byte[] data, int offset) {
+        int o = pitchVelocityOffset(data, offset);
+        return o + 8;
+    }
+
+    public double getAreaVelocity() {
+        return PacketUtils.readDouble(data, areaVelocityOffset(data, offset));
+    }
+}
@@ -55,8 +55,8 @@ public class PnpResultSerde implements PacketSerde<PnpResult> {
 
     @Override
     public int getMaxByteSize() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
+        // Every VLA full and every optional present
+        return 136;
     }
     @Override
     public void pack(Packet packet, PnpResult value) {
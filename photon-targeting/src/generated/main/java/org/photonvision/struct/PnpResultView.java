@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// THIS FILE WAS AUTO-GENERATED BY ./photon-serde/generate_messages.py. DO NOT MODIFY
+
+package org.photonvision.struct;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.utils.PacketUtils;
+
+// WPILib imports (if any)
+import org.wpilib.math.geometry.Transform3d;
+
+/**
+ * Auto-generated flyweight view of a packed PnpResult. Fields are read straight out of the
+ * packed bytes when asked for, rather than decoding the whole message up front like
+ * {@link PnpResultSerde#unpack}. Views can be rewrapped around new data, and nested messages
+ * are read into views the caller passes in, so reading doesn't allocate (except for WPILib types).
+ *
+ * <p>Reading past the end of the wrapped data throws an ArrayIndexOutOfBoundsException.
+ */
+public final class PnpResultView {
+    private byte[] data;
+    private int offset;
+
+    /** Make a view that isn't wrapping anything yet */
+    public PnpResultView() {}
+
+    /**
+     * Point this view at a PnpResult packed into data.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PnpResult starts
+     * @return This view
+     */
+    public PnpResultView wrap(byte[] data, int offset) {
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Point this view at a PnpResult packed into data.
+     *
+     * @param data Packed bytes, starting with the PnpResult
+     * @return This view
+     */
+    public PnpResultView wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    /**
+     * Point this view at a PnpResult packed at the start of a packet.
+     *
+     * @param packet The packet, which isn't read from or copied
+     * @return This view
+     */
+    public PnpResultView wrap(Packet packet) {
+        return wrap(packet.getData(), 0);
+    }
+
+    /**
+     * @return How many bytes the wrapped PnpResult takes up
+     */
+    public int getByteSize() {
+        return sizeOf(data, offset);
+    }
+
+    /**
+     * Get the packed size of the PnpResult starting at offset.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the PnpResult starts
+     * @return Its size in bytes
+     */
+    public static int sizeOf(byte[] data, int offset) {
+        return 136;
+    }
+
+    /**
+     * Get the packed size of a VLA of PnpResult, including its length byte.
+     *
+     * @param data Packed bytes
+     * @param offset Where in data the VLA's length byte is
+     * @return Its size in bytes
+     */
+    public static int sizeOfList(byte[] data, int offset) {
+        return 1 + data[offset] * 136;
+    }
+
+    private static int bestOffset(byte[] data, int offset) {
+        return offset + 0;
+    }
+
+    public Transform3d getBest() {
+        return PacketUtils.readTransform3d(data, bestOffset(data, offset));
+    }
+
+    private static int altOffset(byte[] data, int offset) {
+        return offset + 56;
+    }
+
+    public Transform3d getAlt() {
+        return PacketUtils.readTransform3d(data, altOffset(data, offset));
+    }
+
+    private static int bestReprojErrOffset(byte[] data, int offset) {
+        return offset + 112;
+    }
+
+    public double getBestReprojErr() {
+        return PacketUtils.readDouble(data, bestReprojErrOffset(data, offset));
+    }
+
+    private static int altReprojErrOffset(byte[] data, int offset) {
+        return offset + 120;
+    }
+
+    public double getAltReprojErr() {
+        return PacketUtils.readDouble(data, altReprojErrOffset(data, offset));
+    }
+
+    private static int ambiguityOffset(byte[] data, int offset) {
+        return offset + 128;
+    }
+
+    public double getAmbiguity() {
+        return PacketUtils.readDouble(data, ambiguityOffset(data, offset));
+    }
+}
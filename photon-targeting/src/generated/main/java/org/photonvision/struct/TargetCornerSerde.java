@@ -55,8 +55,8 @@ public class TargetCornerSerde implements PacketSerde<TargetCorner> {
 
     @Override
     public int getMaxByteSize() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
+        // Every VLA full and every optional present
+        return 16;
     }
     @Override
     public void pack(Packet packet, TargetCorner value) {
@@ -44,6 +44,13 @@ void StructType::Pack(Packet& packet, const PhotonTrackedTarget& value) {
   packet.Pack<double>(value.poseAmbiguity);
   packet.Pack<std::vector<photon::TargetCorner>>(value.minAreaRectCorners);
   packet.Pack<std::vector<photon::TargetCorner>>(value.detectedCorners);
+  packet.Pack<int32_t>(value.trackId);
+  packet.Pack<double>(value.smoothedYaw);
+  packet.Pack<double>(value.smoothedPitch);
+  packet.Pack<double>(value.smoothedArea);
+  packet.Pack<double>(value.yawVelocity);
+  packet.Pack<double>(value.pitchVelocity);
+  packet.Pack<double>(value.areaVelocity);
 }
 
 PhotonTrackedTarget StructType::Unpack(Packet& packet) {
@@ -60,6 +67,13 @@ PhotonTrackedTarget StructType::Unpack(Packet& packet) {
     .poseAmbiguity = packet.Unpack<double>(),
     .minAreaRectCorners = packet.Unpack<std::vector<photon::TargetCorner>>(),
     .detectedCorners = packet.Unpack<std::vector<photon::TargetCorner>>(),
+    .trackId = packet.Unpack<int32_t>(),
+    .smoothedYaw = packet.Unpack<double>(),
+    .smoothedPitch = packet.Unpack<double>(),
+    .smoothedArea = packet.Unpack<double>(),
+    .yawVelocity = packet.Unpack<double>(),
+    .pitchVelocity = packet.Unpack<double>(),
+    .areaVelocity = packet.Unpack<double>(),
   }};
 }
 
@@ -46,11 +46,11 @@ namespace photon {
 template <>
 struct WPILIB_DLLEXPORT SerdeType<PhotonPipelineResult> {
   static constexpr std::string_view GetSchemaHash() {
-    return "4b2ff16a964b5e2bf04be0c1454d91c4";
+    return "3d218e0acc950dbd1000d8976e0a5101";
   }
 
   static constexpr std::string_view GetSchema() {
-    return "PhotonPipelineMetadata:ac0a45f686457856fb30af77699ea356 metadata;PhotonTrackedTarget:cc6dbb5c5c1e0fa808108019b20863f1 targets[?];optional MultiTargetPNPResult:541096947e9f3ca2d3f425ff7b04aa7b multitagResult;";
+    return "PhotonPipelineMetadata:ac0a45f686457856fb30af77699ea356 metadata;PhotonTrackedTarget:1ba4506e1efea23c92bf4fe67089bb9e targets[?];optional MultiTargetPNPResult:541096947e9f3ca2d3f425ff7b04aa7b multitagResult;";
   }
 
   static photon::PhotonPipelineResult Unpack(photon::Packet& packet);
@@ -48,6 +48,13 @@ struct PhotonTrackedTarget_PhotonStruct {
   double poseAmbiguity;
   std::vector<photon::TargetCorner> minAreaRectCorners;
   std::vector<photon::TargetCorner> detectedCorners;
+  int32_t trackId;
+  double smoothedYaw;
+  double smoothedPitch;
+  double smoothedArea;
+  double yawVelocity;
+  double pitchVelocity;
+  double areaVelocity;
 
   friend bool operator==(PhotonTrackedTarget_PhotonStruct const&, PhotonTrackedTarget_PhotonStruct const&) = default;
 };
@@ -81,6 +81,16 @@ public class Packet {
         return Arrays.copyOfRange(packetData, 0, writePos);
     }
 
+    /**
+     * Returns the packet's backing buffer, without copying it. It may be longer than what's been
+     * written so far.
+     *
+     * @return The packet data.
+     */
+    public byte[] getData() {
+        return packetData;
+    }
+
     /**
      * Sets the packet data.
      *
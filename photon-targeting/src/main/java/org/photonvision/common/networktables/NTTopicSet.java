@@ -24,6 +24,7 @@ import org.wpilib.networktables.BooleanSubscriber;
 import org.wpilib.networktables.BooleanTopic;
 import org.wpilib.networktables.DoubleArrayPublisher;
 import org.wpilib.networktables.DoublePublisher;
+import org.wpilib.networktables.IntegerArraySubscriber;
 import org.wpilib.networktables.IntegerPublisher;
 import org.wpilib.networktables.IntegerSubscriber;
 import org.wpilib.networktables.IntegerTopic;
@@ -60,6 +61,12 @@ public class NTTopicSet {
     public BooleanPublisher enabledPublisher;
     public BooleanSubscriber enabledSubscriber;
 
+    public IntegerArraySubscriber prewarmPipelinesSubscriber;
+
+    // Results from the coprocessor's history, sent on request
+    public IntegerArraySubscriber historyRequestSubscriber;
+    public PacketPublisher<PhotonPipelineResult> historyResultPublisher;
+
     public DoublePublisher latencyMillisEntry;
     public DoublePublisher fpsEntry;
     public BooleanPublisher hasTargetEntry;
@@ -81,6 +88,10 @@ public class NTTopicSet {
     public DoubleArrayPublisher cameraIntrinsicsPublisher;
     public DoubleArrayPublisher cameraDistortionPublisher;
 
+    // Who's listening, so we can skip publishing what nobody reads
+    public TopicSubscribers protoResultSubscribers;
+    public TopicSubscribers bestTargetSubscribers;
+
     public void updateEntries() {
         var rawBytesEntry =
                 subTable
@@ -117,6 +128,23 @@ public class NTTopicSet {
 
         enabledSubscriber.getTopic().publish().setDefault(true);
 
+        prewarmPipelinesSubscriber =
+                subTable.getIntegerArrayTopic("prewarmPipelinesRequest").subscribe(new long[0]);
+
+        // [from, to] capture timestamps, in microseconds, and optionally a number to tell repeats apart
+        historyRequestSubscriber =
+                subTable.getIntegerArrayTopic("historyRequest").subscribe(new long[0]);
+        var historyResultsEntry =
+                subTable
+                        .getRawTopic("historyResults")
+                        .publish(
+                                PhotonPipelineResult.photonStruct.getTypeString(),
+                                PubSubOption.SEND_ALL,
+                                PubSubOption.KEEP_DUPLICATES);
+        historyResultPublisher =
+                new PacketPublisher<PhotonPipelineResult>(
+                        historyResultsEntry, PhotonPipelineResult.photonStruct);
+
         latencyMillisEntry = subTable.getDoubleTopic("latencyMillis").publish();
         fpsEntry = subTable.getDoubleTopic("fps").publish();
         hasTargetEntry = subTable.getBooleanTopic("hasTarget").publish();
@@ -135,6 +163,17 @@ public class NTTopicSet {
 
         cameraIntrinsicsPublisher = subTable.getDoubleArrayTopic("cameraIntrinsics").publish();
         cameraDistortionPublisher = subTable.getDoubleArrayTopic("cameraDistortion").publish();
+
+        protoResultSubscribers = new TopicSubscribers(protoResultPublisher.getTopic());
+        bestTargetSubscribers =
+                new TopicSubscribers(
+                        targetPitchEntry.getTopic(),
+                        targetYawEntry.getTopic(),
+                        targetAreaEntry.getTopic(),
+                        targetSkewEntry.getTopic(),
+                        targetPoseEntry.getTopic(),
+                        bestTargetPosX.getTopic(),
+                        bestTargetPosY.getTopic());
     }
 
     @SuppressWarnings("DuplicatedCode")
@@ -152,6 +191,11 @@ public class NTTopicSet {
         if (enabledPublisher != null) enabledPublisher.close();
         if (enabledSubscriber != null) enabledSubscriber.close();
 
+        if (prewarmPipelinesSubscriber != null) prewarmPipelinesSubscriber.close();
+
+        if (historyRequestSubscriber != null) historyRequestSubscriber.close();
+        if (historyResultPublisher != null) historyResultPublisher.close();
+
         if (latencyMillisEntry != null) latencyMillisEntry.close();
         if (fpsEntry != null) fpsEntry.close();
         if (hasTargetEntry != null) hasTargetEntry.close();
@@ -167,5 +211,8 @@ public class NTTopicSet {
 
         if (cameraIntrinsicsPublisher != null) cameraIntrinsicsPublisher.close();
         if (cameraDistortionPublisher != null) cameraDistortionPublisher.close();
+
+        if (protoResultSubscribers != null) protoResultSubscribers.close();
+        if (bestTargetSubscribers != null) bestTargetSubscribers.close();
     }
 }
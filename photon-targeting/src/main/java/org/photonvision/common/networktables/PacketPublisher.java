@@ -46,10 +46,28 @@ public class PacketPublisher<T> implements AutoCloseable {
         addSchemaImpl(photonStruct, new HashSet<>());
     }
 
-    public void set(T value, int byteSize) {
+    /**
+     * Pack and publish a value.
+     *
+     * @param value The value
+     * @param byteSize How big a buffer to start packing into
+     * @return How many bytes were published
+     */
+    public int set(T value, int byteSize) {
         var packet = new Packet(byteSize);
         photonStruct.pack(packet, value);
-        publisher.set(packet.getWrittenDataCopy());
+        var data = packet.getWrittenDataCopy();
+        publisher.set(data);
+        return data.length;
+    }
+
+    /**
+     * Publish a value that's already been packed with this publisher's serde.
+     *
+     * @param packed The packed value
+     */
+    public void set(byte[] packed) {
+        publisher.set(packed);
     }
 
     public void set(T value) {
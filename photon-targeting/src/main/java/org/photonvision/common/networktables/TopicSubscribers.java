@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.networktables;
+
+import java.nio.charset.StandardCharsets;
+import org.wpilib.networktables.RawSubscriber;
+import org.wpilib.networktables.Topic;
+
+/**
+ * Watches whether anyone is subscribed to any of a set of topics, so publishers can skip work
+ * nobody will see. This reads the {@code $sub$} meta topics the NT server keeps for every topic,
+ * which list the subscribers matching that topic, prefix subscriptions included. Subscribers with
+ * the {@code topicsonly} option, like dashboards listing every topic, don't count, since they never
+ * receive values.
+ *
+ * <p>Until the server has told us about a topic's subscribers, or if we can't make sense of what it
+ * said, we assume there are some, so we never hold back data because of a slow or old server.
+ */
+@SuppressWarnings("doclint")
+public class TopicSubscribers implements AutoCloseable {
+    private static final byte[] kUnknown = new byte[0];
+
+    private final RawSubscriber[] metaSubscribers;
+
+    public TopicSubscribers(Topic... topics) {
+        metaSubscribers = new RawSubscriber[topics.length];
+        for (int i = 0; i < topics.length; i++) {
+            var topic = topics[i];
+            metaSubscribers[i] =
+                    topic.getInstance().getRawTopic("$sub$" + topic.getName()).subscribe("msgpack", kUnknown);
+        }
+    }
+
+    /**
+     * @return Whether any of the topics has a subscriber, or might
+     */
+    public boolean any() {
+        for (var sub : metaSubscribers) {
+            if (hasValueSubscribers(sub.get())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a {@code $sub$} meta value lists anyone who wants the topic's values. The value is a
+     * msgpack array with a map for each subscriber, holding its {@code options} map.
+     *
+     * @param msgpack The meta topic's value
+     * @return Whether anyone might want values
+     */
+    static boolean hasValueSubscribers(byte[] msgpack) {
+        if (msgpack.length == 0) return true;
+        try {
+            var reader = new MsgpackReader(msgpack);
+            int count = reader.readArrayHeader();
+            for (int i = 0; i < count; i++) {
+                if (!isTopicsOnly(reader)) return true;
+            }
+            return false;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Not what we expected, so don't hold anything back
+            return true;
+        }
+    }
+
+    /** Reads one subscriber's map, and whether it only asked for topic announcements */
+    private static boolean isTopicsOnly(MsgpackReader reader) {
+        boolean topicsOnly = false;
+        int entries = reader.readMapHeader();
+        for (int i = 0; i < entries; i++) {
+            if (!"options".equals(reader.readKey())) {
+                reader.skip();
+                continue;
+            }
+            int options = reader.readMapHeader();
+            for (int j = 0; j < options; j++) {
+                if ("topicsonly".equals(reader.readKey())) {
+                    topicsOnly = reader.readBoolean();
+                } else {
+                    reader.skip();
+                }
+            }
+        }
+        return topicsOnly;
+    }
+
+    /** Just enough of msgpack to walk the subscriber list. Malformed input throws. */
+    private static class MsgpackReader {
+        private final byte[] data;
+        private int pos = 0;
+
+        MsgpackReader(byte[] data) {
+            this.data = data;
+        }
+
+        private int u8() {
+            return data[pos++] & 0xff;
+        }
+
+        private long uint(int bytes) {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) value = (value << 8) | u8();
+            return value;
+        }
+
+        private int length(int bytes) {
+            long length = uint(bytes);
+            if (length > data.length - pos) throw new IllegalArgumentException("Length past the end");
+            return (int) length;
+        }
+
+        int readArrayHeader() {
+            int type = u8();
+            if ((type & 0xf0) == 0x90) return type & 0x0f;
+            if (type == 0xdc) return length(2);
+            if (type == 0xdd) return length(4);
+            throw new IllegalArgumentException("Not an array: " + type);
+        }
+
+        int readMapHeader() {
+            int type = u8();
+            if ((type & 0xf0) == 0x80) return type & 0x0f;
+            if (type == 0xde) return length(2);
+            if (type == 0xdf) return length(4);
+            throw new IllegalArgumentException("Not a map: " + type);
+        }
+
+        /**
+         * @return The key, or null if it isn't a string, in which case it's skipped
+         */
+        String readKey() {
+            int type = data[pos] & 0xff;
+            int length;
+            if ((type & 0xe0) == 0xa0) {
+                pos++;
+                length = type & 0x1f;
+            } else if (type >= 0xd9 && type <= 0xdb) {
+                pos++;
+                length = length(1 << (type - 0xd9));
+            } else {
+                skip();
+                return null;
+            }
+            if (length > data.length - pos) throw new IllegalArgumentException("String past the end");
+            var key = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return key;
+        }
+
+        /**
+         * @return The boolean, or false if it isn't one, in which case it's skipped
+         */
+        boolean readBoolean() {
+            int type = data[pos] & 0xff;
+            if (type == 0xc2 || type == 0xc3) {
+                pos++;
+                return type == 0xc3;
+            }
+            skip();
+            return false;
+        }
+
+        void skip() {
+            int type = u8();
+            if (type <= 0x7f || type >= 0xe0) return; // fixint
+            if ((type & 0xf0) == 0x80) { // fixmap
+                skipValues(2 * (type & 0x0f));
+                return;
+            }
+            if ((type & 0xf0) == 0x90) { // fixarray
+                skipValues(type & 0x0f);
+                return;
+            }
+            if ((type & 0xe0) == 0xa0) { // fixstr
+                skipBytes(type & 0x1f);
+                return;
+            }
+            switch (type) {
+                case 0xc0, 0xc2, 0xc3 -> {} // nil, false, true
+                case 0xc4, 0xd9 -> skipBytes(length(1)); // bin 8, str 8
+                case 0xc5, 0xda -> skipBytes(length(2));
+                case 0xc6, 0xdb -> skipBytes(length(4));
+                case 0xc7 -> skipBytes(length(1) + 1); // ext, with its type
+                case 0xc8 -> skipBytes(length(2) + 1);
+                case 0xc9 -> skipBytes(length(4) + 1);
+                case 0xca -> skipBytes(4); // float 32
+                case 0xcb -> skipBytes(8); // float 64
+                case 0xcc, 0xd0 -> skipBytes(1); // (u)int 8
+                case 0xcd, 0xd1 -> skipBytes(2);
+                case 0xce, 0xd2 -> skipBytes(4);
+                case 0xcf, 0xd3 -> skipBytes(8);
+                case 0xd4 -> skipBytes(2); // fixext, with its type
+                case 0xd5 -> skipBytes(3);
+                case 0xd6 -> skipBytes(5);
+                case 0xd7 -> skipBytes(9);
+                case 0xd8 -> skipBytes(17);
+                case 0xdc -> skipValues(length(2)); // array 16
+                case 0xdd -> skipValues(length(4));
+                case 0xde -> skipValues(2 * length(2)); // map 16
+                case 0xdf -> skipValues(2 * length(4));
+                default -> throw new IllegalArgumentException("Unknown type: " + type);
+            }
+        }
+
+        private void skipValues(int count) {
+            for (int i = 0; i < count; i++) skip();
+        }
+
+        private void skipBytes(int count) {
+            if (count > data.length - pos) throw new IllegalArgumentException("Value past the end");
+            pos += count;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (var sub : metaSubscribers) sub.close();
+    }
+}
@@ -673,4 +673,73 @@ public final class OpenCVHelp {
             reprojectionError.release();
         }
     }
+
+    /**
+     * Refines a guess at the transformation that maps the camera's pose to the origin of the supplied
+     * object, by minimizing reprojection error with Levenberg-Marquardt. See {@link #solvePNP_SQPNP}
+     * for what the object translations and image points are.
+     *
+     * <p>This is much cheaper than solving from scratch, but only finds the right solution when the
+     * guess is already close, e.g. the solution from the previous frame of a slowly moving camera.
+     *
+     * @param cameraMatrix The camera intrinsics matrix in standard OpenCV form
+     * @param distCoeffs The camera distortion matrix in standard OpenCV form
+     * @param objectTrls The translations of the object corners, relative to the field.
+     * @param imagePoints The projection of these 3d object points into the 2d camera image. The order
+     *     should match the given object point translations.
+     * @param guess The camera-to-object transformation to start from
+     * @return The refined transformation, with its RMS reprojection error in pixels
+     */
+    public static Optional<PnpResult> solvePNP_RefineLM(
+            Matrix<N3, N3> cameraMatrix,
+            Matrix<N8, N1> distCoeffs,
+            List<Translation3d> objectTrls,
+            Point[] imagePoints,
+            Transform3d guess) {
+        // translate to OpenCV classes
+        MatOfPoint3f objectMat = translationToTvec(objectTrls.toArray(new Translation3d[0]));
+        MatOfPoint2f imageMat = new MatOfPoint2f(imagePoints);
+        Mat cameraMatrixMat = matrixToMat(cameraMatrix.getStorage());
+        MatOfDouble distCoeffsMat = new MatOfDouble(matrixToMat(distCoeffs.getStorage()));
+        MatOfPoint3f guessRvec = rotationToRvec(guess.getRotation());
+        MatOfPoint3f guessTvec = translationToTvec(guess.getTranslation());
+        // Refined in place, as plain double vectors
+        Mat rvec = new Mat(3, 1, CvType.CV_64F);
+        Mat tvec = new Mat(3, 1, CvType.CV_64F);
+        MatOfPoint2f projected = new MatOfPoint2f();
+
+        try {
+            var r = guessRvec.toArray()[0];
+            var t = guessTvec.toArray()[0];
+            rvec.put(0, 0, r.x, r.y, r.z);
+            tvec.put(0, 0, t.x, t.y, t.z);
+
+            Calib3d.solvePnPRefineLM(objectMat, imageMat, cameraMatrixMat, distCoeffsMat, rvec, tvec);
+
+            // Same RMS error solvePnPGeneric reports
+            Calib3d.projectPoints(objectMat, rvec, tvec, cameraMatrixMat, distCoeffsMat, projected);
+            double error =
+                    Core.norm(projected, imageMat, Core.NORM_L2) / Math.sqrt(2.0 * imagePoints.length);
+            if (Double.isNaN(error)) return Optional.empty();
+
+            // convert to wpilib coordinates
+            var best = new Transform3d(tvecToTranslation(tvec), rvecToRotation(rvec));
+            return Optional.of(new PnpResult(best, error));
+        } catch (Exception e) {
+            System.err.println("SolvePNP_RefineLM failed!");
+            e.printStackTrace();
+            return Optional.empty();
+        } finally {
+            // release our Mats from native memory
+            objectMat.release();
+            imageMat.release();
+            cameraMatrixMat.release();
+            distCoeffsMat.release();
+            guessRvec.release();
+            guessTvec.release();
+            rvec.release();
+            tvec.release();
+            projected.release();
+        }
+    }
 }
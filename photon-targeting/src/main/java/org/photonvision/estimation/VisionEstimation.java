@@ -97,18 +97,7 @@ public class VisionEstimation {
         }
 
         var corners = new ArrayList<TargetCorner>();
-        var knownTags = new ArrayList<AprilTag>();
-        // ensure these are AprilTags in our layout
-        for (var tgt : visTags) {
-            int id = tgt.getFiducialId();
-            tagLayout
-                    .getTagPose(id)
-                    .ifPresent(
-                            pose -> {
-                                knownTags.add(new AprilTag(id, pose));
-                                corners.addAll(tgt.getDetectedCorners());
-                            });
-        }
+        var knownTags = getKnownTags(visTags, tagLayout, corners);
         if (knownTags.isEmpty() || corners.isEmpty() || corners.size() % 4 != 0) {
             return Optional.empty();
         }
@@ -151,6 +140,81 @@ public class VisionEstimation {
         }
     }
 
+    /**
+     * Refines a previous multi-tag estimate of the field-to-camera transformation, rather than
+     * solving from scratch like {@link #estimateCamPosePNP}. This is much cheaper, but only converges
+     * to the right pose when the camera has barely moved since the previous estimate.
+     *
+     * <p><b>Note:</b> The returned transformation is from the field origin to the camera pose!
+     *
+     * @param cameraMatrix The camera intrinsics matrix in standard opencv form
+     * @param distCoeffs The camera distortion matrix in standard opencv form
+     * @param visTags The visible tags reported by PV. Non-tag targets are automatically excluded.
+     * @param tagLayout The known tag layout on the field
+     * @param tagModel The model describing the tag's geometry
+     * @param fieldToCameraGuess The previous estimate to start from
+     * @return The refined transformation that maps the field origin to the camera pose, without an
+     *     alternate. Empty if fewer than two tags in the layout are visible.
+     */
+    public static Optional<PnpResult> refineCamPosePNP(
+            Matrix<N3, N3> cameraMatrix,
+            Matrix<N8, N1> distCoeffs,
+            List<PhotonTrackedTarget> visTags,
+            AprilTagFieldLayout tagLayout,
+            TargetModel tagModel,
+            Transform3d fieldToCameraGuess) {
+        if (tagLayout == null || visTags == null) {
+            return Optional.empty();
+        }
+
+        var corners = new ArrayList<TargetCorner>();
+        var knownTags = getKnownTags(visTags, tagLayout, corners);
+        if (knownTags.size() < 2 || corners.size() != knownTags.size() * 4) {
+            return Optional.empty();
+        }
+        OpenCvLoader.forceStaticLoad();
+
+        var objectTrls = new ArrayList<Translation3d>();
+        for (var tag : knownTags) objectTrls.addAll(tagModel.getFieldVertices(tag.pose));
+        var camToOrigin =
+                OpenCVHelp.solvePNP_RefineLM(
+                        cameraMatrix,
+                        distCoeffs,
+                        objectTrls,
+                        OpenCVHelp.cornersToPoints(corners),
+                        fieldToCameraGuess.inverse());
+        if (camToOrigin.isEmpty()) return Optional.empty();
+        return Optional.of(
+                new PnpResult(camToOrigin.get().best.inverse(), camToOrigin.get().bestReprojErr));
+    }
+
+    /**
+     * Find the visible tags that are in the tag layout, and collect their corners.
+     *
+     * @param visTags The visible tags reported by PV
+     * @param tagLayout The known tag layout on the field
+     * @param corners The detected corners of the returned tags are added to this, in order
+     * @return The visible tags in the layout, with their field poses
+     */
+    private static List<AprilTag> getKnownTags(
+            List<PhotonTrackedTarget> visTags,
+            AprilTagFieldLayout tagLayout,
+            List<TargetCorner> corners) {
+        var knownTags = new ArrayList<AprilTag>();
+        // ensure these are AprilTags in our layout
+        for (var tgt : visTags) {
+            int id = tgt.getFiducialId();
+            tagLayout
+                    .getTagPose(id)
+                    .ifPresent(
+                            pose -> {
+                                knownTags.add(new AprilTag(id, pose));
+                                corners.addAll(tgt.getDetectedCorners());
+                            });
+        }
+        return knownTags;
+    }
+
     /**
      * Performs constrained solvePNP using 3d-2d point correspondences of visible AprilTags to
      * estimate the field-to-camera transformation.
@@ -66,6 +66,31 @@ public class PhotonTrackedTarget
     /** Corners from the corner detection method used */
     public List<TargetCorner> detectedCorners;
 
+    /** The ID of the track following this target between frames, or -1 if it isn't tracked. */
+    public int trackId = -1;
+
+    /** The yaw of the target filtered by its track, or the measured yaw if it isn't tracked. */
+    public double smoothedYaw;
+
+    /** The pitch of the target filtered by its track, or the measured pitch if it isn't tracked. */
+    public double smoothedPitch;
+
+    /** The area of the target filtered by its track, or the measured area if it isn't tracked. */
+    public double smoothedArea;
+
+    /** How fast the yaw of the target is changing in degrees per second, or 0 if it isn't tracked. */
+    public double yawVelocity;
+
+    /**
+     * How fast the pitch of the target is changing in degrees per second, or 0 if it isn't tracked.
+     */
+    public double pitchVelocity;
+
+    /**
+     * How fast the area of the target is changing in percent per second, or 0 if it isn't tracked.
+     */
+    public double areaVelocity;
+
     /**
      * Construct a tracked target, given exactly 4 corners
      *
@@ -113,6 +138,74 @@ public class PhotonTrackedTarget
         this.minAreaRectCorners = minAreaRectCorners;
         this.detectedCorners = detectedCorners;
         this.poseAmbiguity = ambiguity;
+        this.smoothedYaw = yaw;
+        this.smoothedPitch = pitch;
+        this.smoothedArea = area;
+    }
+
+    /**
+     * Construct a tracked target that is followed between frames, given exactly 4 corners
+     *
+     * @param yaw The yaw of the target
+     * @param pitch The pitch of the target
+     * @param area The area of the target as a percentage of the camera image
+     * @param skew The skew of the target
+     * @param fiducialId The fiduical tag ID
+     * @param classId The object detection class ID
+     * @param objDetectConf The object detection confidence
+     * @param pose The best camera to target transform
+     * @param altPose The alternate camera to target transform
+     * @param ambiguity The ambiguity (best:alternate ratio of reprojection errors) of the target
+     * @param minAreaRectCorners The corners of minimum area bounding box of the target
+     * @param detectedCorners The detected corners of the target
+     * @param trackId The ID of the track following the target, or -1 if it isn't tracked
+     * @param smoothedYaw The yaw of the target filtered by its track
+     * @param smoothedPitch The pitch of the target filtered by its track
+     * @param smoothedArea The area of the target filtered by its track
+     * @param yawVelocity The rate of change of yaw in degrees per second
+     * @param pitchVelocity The rate of change of pitch in degrees per second
+     * @param areaVelocity The rate of change of area in percent per second
+     */
+    public PhotonTrackedTarget(
+            double yaw,
+            double pitch,
+            double area,
+            double skew,
+            int fiducialId,
+            int classId,
+            float objDetectConf,
+            Transform3d pose,
+            Transform3d altPose,
+            double ambiguity,
+            List<TargetCorner> minAreaRectCorners,
+            List<TargetCorner> detectedCorners,
+            int trackId,
+            double smoothedYaw,
+            double smoothedPitch,
+            double smoothedArea,
+            double yawVelocity,
+            double pitchVelocity,
+            double areaVelocity) {
+        this(
+                yaw,
+                pitch,
+                area,
+                skew,
+                fiducialId,
+                classId,
+                objDetectConf,
+                pose,
+                altPose,
+                ambiguity,
+                minAreaRectCorners,
+                detectedCorners);
+        this.trackId = trackId;
+        this.smoothedYaw = smoothedYaw;
+        this.smoothedPitch = smoothedPitch;
+        this.smoothedArea = smoothedArea;
+        this.yawVelocity = yawVelocity;
+        this.pitchVelocity = pitchVelocity;
+        this.areaVelocity = areaVelocity;
     }
 
     /** Used for serialization. */
@@ -227,6 +320,74 @@ public class PhotonTrackedTarget
         return altCameraToTarget;
     }
 
+    /**
+     * Get the ID of the track following this target between frames, or -1 if target tracking is off.
+     * The same object keeps the same ID from frame to frame while it stays in view.
+     *
+     * @return The track ID
+     */
+    public int getTrackId() {
+        return trackId;
+    }
+
+    /**
+     * Get the yaw of the target filtered by its track, which is steadier than {@link #getYaw()}
+     * between frames. The same as the measured yaw if target tracking is off.
+     *
+     * @return The smoothed yaw in degrees
+     */
+    public double getSmoothedYaw() {
+        return smoothedYaw;
+    }
+
+    /**
+     * Get the pitch of the target filtered by its track, which is steadier than {@link #getPitch()}
+     * between frames. The same as the measured pitch if target tracking is off.
+     *
+     * @return The smoothed pitch in degrees
+     */
+    public double getSmoothedPitch() {
+        return smoothedPitch;
+    }
+
+    /**
+     * Get the area of the target filtered by its track, which is steadier than {@link #getArea()}
+     * between frames. The same as the measured area if target tracking is off.
+     *
+     * @return The smoothed area in percent of the image
+     */
+    public double getSmoothedArea() {
+        return smoothedArea;
+    }
+
+    /**
+     * Get how fast the yaw of the target is changing, estimated by its track. 0 if it isn't tracked.
+     *
+     * @return The rate of change of yaw in degrees per second
+     */
+    public double getYawVelocity() {
+        return yawVelocity;
+    }
+
+    /**
+     * Get how fast the pitch of the target is changing, estimated by its track. 0 if it isn't
+     * tracked.
+     *
+     * @return The rate of change of pitch in degrees per second
+     */
+    public double getPitchVelocity() {
+        return pitchVelocity;
+    }
+
+    /**
+     * Get how fast the area of the target is changing, estimated by its track. 0 if it isn't tracked.
+     *
+     * @return The rate of change of area in percent of the image per second
+     */
+    public double getAreaVelocity() {
+        return areaVelocity;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -249,6 +410,19 @@ public class PhotonTrackedTarget
         result = prime * result + (int) (temp ^ (temp >>> 32));
         result = prime * result + ((minAreaRectCorners == null) ? 0 : minAreaRectCorners.hashCode());
         result = prime * result + ((detectedCorners == null) ? 0 : detectedCorners.hashCode());
+        result = prime * result + trackId;
+        temp = Double.doubleToLongBits(smoothedYaw);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(smoothedPitch);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(smoothedArea);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(yawVelocity);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(pitchVelocity);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(areaVelocity);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
         return result;
     }
 
@@ -280,6 +454,19 @@ public class PhotonTrackedTarget
         if (detectedCorners == null) {
             if (other.detectedCorners != null) return false;
         } else if (!detectedCorners.equals(other.detectedCorners)) return false;
+        if (trackId != other.trackId) return false;
+        if (Double.doubleToLongBits(smoothedYaw) != Double.doubleToLongBits(other.smoothedYaw))
+            return false;
+        if (Double.doubleToLongBits(smoothedPitch) != Double.doubleToLongBits(other.smoothedPitch))
+            return false;
+        if (Double.doubleToLongBits(smoothedArea) != Double.doubleToLongBits(other.smoothedArea))
+            return false;
+        if (Double.doubleToLongBits(yawVelocity) != Double.doubleToLongBits(other.yawVelocity))
+            return false;
+        if (Double.doubleToLongBits(pitchVelocity) != Double.doubleToLongBits(other.pitchVelocity))
+            return false;
+        if (Double.doubleToLongBits(areaVelocity) != Double.doubleToLongBits(other.areaVelocity))
+            return false;
         return true;
     }
 
@@ -309,6 +496,20 @@ public class PhotonTrackedTarget
                 + minAreaRectCorners
                 + ", detectedCorners="
                 + detectedCorners
+                + ", trackId="
+                + trackId
+                + ", smoothedYaw="
+                + smoothedYaw
+                + ", smoothedPitch="
+                + smoothedPitch
+                + ", smoothedArea="
+                + smoothedArea
+                + ", yawVelocity="
+                + yawVelocity
+                + ", pitchVelocity="
+                + pitchVelocity
+                + ", areaVelocity="
+                + areaVelocity
                 + "]";
     }
 
@@ -58,7 +58,14 @@ public class PhotonTrackedTargetProto
                 Transform3d.proto.unpack(msg.getAltCameraToTarget()),
                 msg.getPoseAmbiguity(),
                 TargetCorner.proto.unpack(msg.getMinAreaRectCorners()),
-                TargetCorner.proto.unpack(msg.getDetectedCorners()));
+                TargetCorner.proto.unpack(msg.getDetectedCorners()),
+                msg.getTrackId(),
+                msg.getSmoothedYaw(),
+                msg.getSmoothedPitch(),
+                msg.getSmoothedArea(),
+                msg.getYawVelocity(),
+                msg.getPitchVelocity(),
+                msg.getAreaVelocity());
     }
 
     public List<PhotonTrackedTarget> unpack(RepeatedMessage<ProtobufPhotonTrackedTarget> msg) {
@@ -78,7 +85,14 @@ public class PhotonTrackedTargetProto
                 .setFiducialId(value.getFiducialId())
                 .setPoseAmbiguity(value.getPoseAmbiguity())
                 .setObjDetectionConf(value.getDetectedObjectConfidence())
-                .setObjDetectionId(value.getDetectedObjectClassID());
+                .setObjDetectionId(value.getDetectedObjectClassID())
+                .setTrackId(value.getTrackId())
+                .setSmoothedYaw(value.getSmoothedYaw())
+                .setSmoothedPitch(value.getSmoothedPitch())
+                .setSmoothedArea(value.getSmoothedArea())
+                .setYawVelocity(value.getYawVelocity())
+                .setPitchVelocity(value.getPitchVelocity())
+                .setAreaVelocity(value.getAreaVelocity());
 
         Transform3d.proto.pack(msg.getMutableBestCameraToTarget(), value.getBestCameraToTarget());
         Transform3d.proto.pack(msg.getMutableAltCameraToTarget(), value.getAlternateCameraToTarget());
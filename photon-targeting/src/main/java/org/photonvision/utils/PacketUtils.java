@@ -17,6 +17,9 @@
 
 package org.photonvision.utils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import org.photonvision.common.dataflow.structures.Packet;
 import org.wpilib.math.geometry.*;
 
@@ -32,6 +35,18 @@ public class PacketUtils {
     public static final int POSE2D_BYTE_SIZE = TRANSLATION2D_BYTE_SIZE + ROTATION2D_BYTE_SIZE;
     public static final int POSE3D_BYTE_SIZE = TRANSLATION3D_BYTE_SIZE + ROTATION3D_BYTE_SIZE;
 
+    // Packets are little endian, see Packet#encode
+    private static final VarHandle SHORT =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle FLOAT =
+            MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE =
+            MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
     // Kinda scuffed, this is so that datatype functions have the same signature as other shims
     public static void packByte(Packet packet, byte data) {
         packet.encode(data);
@@ -171,4 +186,47 @@ public class PacketUtils {
     public static Pose3d unpackPose3d(Packet packet) {
         return new Pose3d(unpackTranslation3d(packet), unpackRotation3d(packet));
     }
+
+    // Random access reads for the generated *View classes, which read fields in place rather than
+    // decoding a Packet front to back
+
+    public static boolean readBoolean(byte[] data, int offset) {
+        return data[offset] == 1;
+    }
+
+    public static byte readByte(byte[] data, int offset) {
+        return data[offset];
+    }
+
+    public static short readShort(byte[] data, int offset) {
+        return (short) SHORT.get(data, offset);
+    }
+
+    public static int readInt(byte[] data, int offset) {
+        return (int) INT.get(data, offset);
+    }
+
+    public static long readLong(byte[] data, int offset) {
+        return (long) LONG.get(data, offset);
+    }
+
+    public static float readFloat(byte[] data, int offset) {
+        return (float) FLOAT.get(data, offset);
+    }
+
+    public static double readDouble(byte[] data, int offset) {
+        return (double) DOUBLE.get(data, offset);
+    }
+
+    public static Transform3d readTransform3d(byte[] data, int offset) {
+        return new Transform3d(
+                new Translation3d(
+                        readDouble(data, offset), readDouble(data, offset + 8), readDouble(data, offset + 16)),
+                new Rotation3d(
+                        new Quaternion(
+                                readDouble(data, offset + 24),
+                                readDouble(data, offset + 32),
+                                readDouble(data, offset + 40),
+                                readDouble(data, offset + 48))));
+    }
 }
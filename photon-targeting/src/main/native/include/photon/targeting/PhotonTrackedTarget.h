@@ -134,6 +134,52 @@ class PhotonTrackedTarget : public PhotonTrackedTarget_PhotonStruct {
     return altCameraToTarget;
   }
 
+  /**
+   * Get the ID of the track following this target between frames, or -1 if
+   * target tracking is off. The same object keeps the same ID from frame to
+   * frame while it stays in view.
+   */
+  int GetTrackId() const { return trackId; }
+
+  /**
+   * Get the yaw of the target filtered by its track, which is steadier than
+   * GetYaw() between frames. The same as the measured yaw if target tracking is
+   * off.
+   */
+  double GetSmoothedYaw() const { return smoothedYaw; }
+
+  /**
+   * Get the pitch of the target filtered by its track, which is steadier than
+   * GetPitch() between frames. The same as the measured pitch if target
+   * tracking is off.
+   */
+  double GetSmoothedPitch() const { return smoothedPitch; }
+
+  /**
+   * Get the area of the target filtered by its track, which is steadier than
+   * GetArea() between frames. The same as the measured area if target tracking
+   * is off.
+   */
+  double GetSmoothedArea() const { return smoothedArea; }
+
+  /**
+   * Get how fast the yaw of the target is changing in degrees per second,
+   * estimated by its track. 0 if it isn't tracked.
+   */
+  double GetYawVelocity() const { return yawVelocity; }
+
+  /**
+   * Get how fast the pitch of the target is changing in degrees per second,
+   * estimated by its track. 0 if it isn't tracked.
+   */
+  double GetPitchVelocity() const { return pitchVelocity; }
+
+  /**
+   * Get how fast the area of the target is changing in percent of the image
+   * per second, estimated by its track. 0 if it isn't tracked.
+   */
+  double GetAreaVelocity() const { return areaVelocity; }
+
   friend bool operator==(PhotonTrackedTarget const&,
                          PhotonTrackedTarget const&) = default;
 };
@@ -18,11 +18,18 @@
 package org.photonvision;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.struct.MultiTargetPNPResultView;
+import org.photonvision.struct.PhotonPipelineMetadataView;
+import org.photonvision.struct.PhotonPipelineResultView;
+import org.photonvision.struct.PhotonTrackedTargetView;
+import org.photonvision.struct.PnpResultView;
+import org.photonvision.struct.TargetCornerView;
 import org.photonvision.targeting.MultiTargetPNPResult;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
@@ -162,6 +169,100 @@ class PacketTest {
         assertEquals(ret3, unpackedRet3);
     }
 
+    @Test
+    public void pipelineResultView() {
+        var target1 =
+                new PhotonTrackedTarget(
+                        3.0,
+                        -4.0,
+                        9.0,
+                        4.0,
+                        2,
+                        -1,
+                        -1f,
+                        new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)),
+                        new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)),
+                        0.25,
+                        List.of(new TargetCorner(1, 2), new TargetCorner(3, 4)),
+                        List.of());
+        var target2 =
+                new PhotonTrackedTarget(
+                        -5.0,
+                        6.0,
+                        9.1,
+                        6.7,
+                        3,
+                        -1,
+                        -1f,
+                        new Transform3d(new Translation3d(4, 2, 3), new Rotation3d(1, 5, 3)),
+                        new Transform3d(new Translation3d(4, 2, 3), new Rotation3d(1, 5, 3)),
+                        0.5,
+                        List.of(),
+                        List.of(
+                                new TargetCorner(1, 2),
+                                new TargetCorner(3, 4),
+                                new TargetCorner(5, 6),
+                                new TargetCorner(7, 8)),
+                        12,
+                        -4.8,
+                        5.9,
+                        9.0,
+                        1.5,
+                        -2.5,
+                        0.75);
+        var result =
+                new PhotonPipelineResult(
+                        3,
+                        4,
+                        5,
+                        1024,
+                        List.of(target1, target2),
+                        Optional.of(
+                                new MultiTargetPNPResult(
+                                        new PnpResult(
+                                                new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)), 0.1),
+                                        List.of((short) 1, (short) 2, (short) 3))));
+        var packet = new Packet(10);
+        PhotonPipelineResult.photonStruct.pack(packet, result);
+        var data = packet.getWrittenDataCopy();
+
+        var view = new PhotonPipelineResultView().wrap(data);
+        assertEquals(data.length, view.getByteSize());
+        assertEquals(3, view.getMetadata(new PhotonPipelineMetadataView()).getSequenceID());
+
+        var targetView = new PhotonTrackedTargetView();
+        var cornerView = new TargetCornerView();
+        assertEquals(2, view.getTargetsCount());
+        view.getTargets(1, targetView);
+        assertEquals(-5.0, targetView.getYaw());
+        assertEquals(3, targetView.getFiducialId());
+        assertEquals(0.5, targetView.getPoseAmbiguity());
+        assertEquals(target2.getBestCameraToTarget(), targetView.getBestCameraToTarget());
+        assertEquals(0, targetView.getMinAreaRectCornersCount());
+        assertEquals(4, targetView.getDetectedCornersCount());
+        assertEquals(8, targetView.getDetectedCorners(3, cornerView).getY());
+        assertEquals(12, targetView.getTrackId());
+        assertEquals(-4.8, targetView.getSmoothedYaw());
+        assertEquals(5.9, targetView.getSmoothedPitch());
+        assertEquals(9.0, targetView.getSmoothedArea());
+        assertEquals(1.5, targetView.getYawVelocity());
+        assertEquals(-2.5, targetView.getPitchVelocity());
+        assertEquals(0.75, targetView.getAreaVelocity());
+        view.getTargets(0, targetView);
+        assertEquals(-1, targetView.getTrackId());
+        // Untracked targets carry their measured values
+        assertEquals(targetView.getYaw(), targetView.getSmoothedYaw());
+        assertEquals(targetView.getArea(), targetView.getSmoothedArea());
+
+        assertTrue(view.hasMultitagResult());
+        var multitagView = view.getMultitagResult(new MultiTargetPNPResultView());
+        assertEquals(0.1, multitagView.getEstimatedPose(new PnpResultView()).getBestReprojErr());
+        assertEquals(3, multitagView.getFiducialIDsUsedCount());
+        assertEquals(3, multitagView.getFiducialIDsUsed(2));
+
+        assertTrue(data.length <= PhotonPipelineResult.photonStruct.getMaxByteSize());
+    }
+
     public void VLASerde() {
         var ret1 =
                 List.of(
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.networktables;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class TopicSubscribersTest {
+    // Just enough msgpack to write what an NT server sends on a $sub$ topic
+
+    private static byte[] array(byte[]... elements) {
+        var out = new ByteArrayOutputStream();
+        out.write(0x90 | elements.length);
+        for (var element : elements) out.writeBytes(element);
+        return out.toByteArray();
+    }
+
+    private static byte[] map(byte[]... keysAndValues) {
+        var out = new ByteArrayOutputStream();
+        out.write(0x80 | keysAndValues.length / 2);
+        for (var element : keysAndValues) out.writeBytes(element);
+        return out.toByteArray();
+    }
+
+    private static byte[] str(String s) {
+        var bytes = s.getBytes(StandardCharsets.UTF_8);
+        var out = new ByteArrayOutputStream();
+        out.write(0xa0 | bytes.length);
+        out.writeBytes(bytes);
+        return out.toByteArray();
+    }
+
+    private static byte[] bool(boolean b) {
+        return new byte[] {(byte) (b ? 0xc3 : 0xc2)};
+    }
+
+    private static byte[] float64(double d) {
+        var out = new ByteArrayOutputStream();
+        out.write(0xcb);
+        long bits = Double.doubleToLongBits(d);
+        for (int i = 7; i >= 0; i--) out.write((int) (bits >>> (8 * i)));
+        return out.toByteArray();
+    }
+
+    private static byte[] subscriber(byte[] options) {
+        return map(
+                str("client"), str("dashboard@1"), str("subuid"), new byte[] {5}, str("options"), options);
+    }
+
+    @Test
+    public void testUnknownMeansSubscribed() {
+        assertTrue(TopicSubscribers.hasValueSubscribers(new byte[0]));
+    }
+
+    @Test
+    public void testEmptyArrays() {
+        assertFalse(TopicSubscribers.hasValueSubscribers(array()));
+        // array 16 and array 32
+        assertFalse(TopicSubscribers.hasValueSubscribers(new byte[] {(byte) 0xdc, 0, 0}));
+        assertFalse(TopicSubscribers.hasValueSubscribers(new byte[] {(byte) 0xdd, 0, 0, 0, 0}));
+    }
+
+    @Test
+    public void testSubscribers() {
+        assertTrue(TopicSubscribers.hasValueSubscribers(array(subscriber(map()))));
+        assertTrue(
+                TopicSubscribers.hasValueSubscribers(
+                        array(subscriber(map(str("topicsonly"), bool(false))))));
+        assertTrue(
+                TopicSubscribers.hasValueSubscribers(
+                        array(subscriber(map(str("prefix"), bool(true), str("periodic"), float64(0.1))))));
+    }
+
+    @Test
+    public void testTopicsOnlySubscribersDontCount() {
+        var topicsOnly =
+                subscriber(
+                        map(
+                                str("prefix"),
+                                bool(true),
+                                str("periodic"),
+                                float64(0.1),
+                                str("topicsonly"),
+                                bool(true)));
+        assertFalse(TopicSubscribers.hasValueSubscribers(array(topicsOnly)));
+        assertFalse(TopicSubscribers.hasValueSubscribers(array(topicsOnly, topicsOnly)));
+        assertTrue(TopicSubscribers.hasValueSubscribers(array(topicsOnly, subscriber(map()))));
+    }
+
+    @Test
+    public void testMalformedMeansSubscribed() {
+        var valid = array(subscriber(map(str("topicsonly"), bool(true))));
+        // Cut off partway through
+        for (int length = 1; length < valid.length; length++) {
+            assertTrue(TopicSubscribers.hasValueSubscribers(Arrays.copyOf(valid, length)));
+        }
+        // Not an array
+        assertTrue(TopicSubscribers.hasValueSubscribers(map()));
+        assertTrue(TopicSubscribers.hasValueSubscribers(new byte[] {(byte) 0xc1}));
+        // An array 16 claiming more subscribers than there could be
+        assertTrue(TopicSubscribers.hasValueSubscribers(new byte[] {(byte) 0xdc, 0x10, 0}));
+    }
+}